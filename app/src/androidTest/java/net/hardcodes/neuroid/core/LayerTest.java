@@ -0,0 +1,44 @@
+package net.hardcodes.neuroid.core;
+
+import junit.framework.TestCase;
+
+import net.hardcodes.neuroid.core.transfer.Sigmoid;
+import net.hardcodes.neuroid.core.transfer.Tanh;
+import net.hardcodes.neuroid.util.LayerFactory;
+import net.hardcodes.neuroid.util.NeuronProperties;
+import net.hardcodes.neuroid.util.TransferFunctionType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Checks that neurons of a layer created from neuron properties share their functions.
+ */
+public class LayerTest extends TestCase {
+
+    public void testNeuronsShareTransferFunction() {
+        Layer layer = new Layer(1000, new NeuronProperties(TransferFunctionType.SIGMOID, true));
+        assertTrue(layer.getNeuronAt(0).getTransferFunction() instanceof Sigmoid);
+        for (Neuron neuron : layer.getNeurons()) {
+            assertSame(layer.getNeuronAt(0).getTransferFunction(), neuron.getTransferFunction());
+            assertSame(layer.getNeuronAt(0).getInputFunction(), neuron.getInputFunction());
+        }
+    }
+
+    public void testLayerFromPropertiesListSharesFunctionPerProperties() {
+        NeuronProperties sigmoidProperties = new NeuronProperties(TransferFunctionType.SIGMOID, true);
+        NeuronProperties tanhProperties = new NeuronProperties(TransferFunctionType.TANH, true);
+        List<NeuronProperties> propertiesList = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            propertiesList.add(i % 2 == 0 ? sigmoidProperties : tanhProperties);
+        }
+
+        Layer layer = LayerFactory.createLayer(propertiesList);
+        assertEquals(10, layer.getNeuronsCount());
+        assertTrue(layer.getNeuronAt(0).getTransferFunction() instanceof Sigmoid);
+        assertTrue(layer.getNeuronAt(1).getTransferFunction() instanceof Tanh);
+        for (int i = 2; i < 10; i++) {
+            assertSame(layer.getNeuronAt(i % 2).getTransferFunction(), layer.getNeuronAt(i).getTransferFunction());
+        }
+    }
+}
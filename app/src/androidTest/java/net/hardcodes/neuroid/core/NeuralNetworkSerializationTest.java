@@ -0,0 +1,75 @@
+package net.hardcodes.neuroid.core;
+
+import junit.framework.TestCase;
+
+import net.hardcodes.neuroid.net.MultiLayerPerceptron;
+import net.hardcodes.neuroid.util.TransferFunctionType;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Saves and loads networks with Java serialization (NeuralNetwork.save() and createFromFile()),
+ * on the stack of the calling thread.
+ */
+public class NeuralNetworkSerializationTest extends TestCase {
+
+    public void testSaveAndLoadNetworkWithHundredsOfHiddenNeurons() throws Exception {
+        MultiLayerPerceptron network = new MultiLayerPerceptron(TransferFunctionType.SIGMOID, 20, 200, 200, 5);
+        network.randomizeWeights(new Random(1));
+
+        File file = File.createTempFile("network", ".nnet");
+        try {
+            network.save(file.getPath());
+            NeuralNetwork loaded = NeuralNetwork.createFromFile(file);
+
+            Double[] weights = network.getWeights();
+            Double[] loadedWeights = loaded.getWeights();
+            assertEquals(weights.length, loadedWeights.length);
+            for (int i = 0; i < weights.length; i++) {
+                assertEquals("weight " + i, weights[i], loadedWeights[i]);
+            }
+
+            double[] input = new double[20];
+            for (int i = 0; i < input.length; i++) {
+                input[i] = i / 20d;
+            }
+            network.setInput(input);
+            network.calculate();
+            loaded.setInput(input);
+            loaded.calculate();
+            double[] output = network.getOutput();
+            double[] loadedOutput = loaded.getOutput();
+            for (int i = 0; i < output.length; i++) {
+                assertEquals("output " + i, output[i], loadedOutput[i], 0d);
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    public void testLoadedConnectionsPointToLoadedNeurons() throws Exception {
+        MultiLayerPerceptron network = new MultiLayerPerceptron(4, 6, 2);
+
+        File file = File.createTempFile("network", ".nnet");
+        try {
+            network.save(file.getPath());
+            NeuralNetwork loaded = NeuralNetwork.createFromFile(file);
+
+            Layer[] layers = loaded.getLayers();
+            for (int l = 1; l < layers.length; l++) {
+                for (Neuron neuron : layers[l].getNeurons()) {
+                    for (Connection connection : neuron.getInputConnections()) {
+                        assertSame(neuron, connection.getToNeuron());
+                        Neuron fromNeuron = connection.getFromNeuron();
+                        assertSame(layers[l - 1], fromNeuron.getParentLayer());
+                        assertTrue(Arrays.asList(fromNeuron.getOutputConnections()).contains(connection));
+                    }
+                }
+            }
+        } finally {
+            file.delete();
+        }
+    }
+}
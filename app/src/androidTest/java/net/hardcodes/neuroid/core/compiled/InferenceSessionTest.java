@@ -0,0 +1,79 @@
+package net.hardcodes.neuroid.core.compiled;
+
+import junit.framework.TestCase;
+
+import net.hardcodes.neuroid.net.MultiLayerPerceptron;
+import net.hardcodes.neuroid.util.TransferFunctionType;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Calculates one compiled network from many threads at once, each through its own session.
+ */
+public class InferenceSessionTest extends TestCase {
+
+    private static final int THREADS_COUNT = 32;
+    private static final int PATTERNS_COUNT = 200;
+
+    private CompiledNetwork network;
+    private double[][] inputs;
+    private double[][] expectedOutputs;
+
+    @Override
+    protected void setUp() {
+        MultiLayerPerceptron source = new MultiLayerPerceptron(TransferFunctionType.SIGMOID, 16, 12, 8, 4);
+        source.randomizeWeights(new Random(3));
+        network = source.compile();
+
+        Random random = new Random(1);
+        inputs = new double[PATTERNS_COUNT][16];
+        expectedOutputs = new double[PATTERNS_COUNT][];
+        for (int i = 0; i < PATTERNS_COUNT; i++) {
+            for (int j = 0; j < inputs[i].length; j++) {
+                inputs[i][j] = random.nextDouble();
+            }
+            source.setInput(inputs[i]);
+            source.calculate();
+            expectedOutputs[i] = source.getOutput().clone();
+        }
+    }
+
+    public void testConcurrentCallersGetIdenticalOutputs() throws InterruptedException {
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(THREADS_COUNT);
+        final AtomicInteger mismatches = new AtomicInteger();
+        final AtomicInteger failures = new AtomicInteger();
+
+        for (int t = 0; t < THREADS_COUNT; t++) {
+            // each thread starts at a different pattern, so threads calculate different inputs at the same time
+            final int offset = t * 7;
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        InferenceSession session = network.createSession();
+                        start.await();
+                        for (int i = 0; i < PATTERNS_COUNT; i++) {
+                            int p = (i + offset) % PATTERNS_COUNT;
+                            if (!Arrays.equals(expectedOutputs[p], session.calculate(inputs[p]))) {
+                                mismatches.incrementAndGet();
+                            }
+                        }
+                    } catch (Throwable ex) {
+                        failures.incrementAndGet();
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            }).start();
+        }
+
+        start.countDown();
+        done.await();
+        assertEquals(0, failures.get());
+        assertEquals(0, mismatches.get());
+    }
+}
@@ -0,0 +1,73 @@
+package net.hardcodes.neuroid.core.compiled;
+
+import junit.framework.TestCase;
+
+import net.hardcodes.neuroid.core.Layer;
+import net.hardcodes.neuroid.core.Neuron;
+import net.hardcodes.neuroid.net.MultiLayerPerceptron;
+import net.hardcodes.neuroid.net.comp.neuron.BiasNeuron;
+import net.hardcodes.neuroid.util.pruning.MagnitudePruning;
+import net.hardcodes.neuroid.util.pruning.PruningReport;
+
+import java.util.Random;
+
+/**
+ * Compiles pruned multi layer perceptron layers, which contain bias neurons, to sparse (CSR) compiled layers.
+ */
+public class SparseCompiledLayerTest extends TestCase {
+
+    private MultiLayerPerceptron network;
+    private PruningReport report;
+    private double[] input;
+
+    @Override
+    protected void setUp() {
+        network = new MultiLayerPerceptron(8, 12, 3);
+        network.randomizeWeights(new Random(5));
+        report = MagnitudePruning.withTargetSparsity(0.5).prune(network);
+
+        Random random = new Random(7);
+        input = new double[8];
+        for (int i = 0; i < input.length; i++) {
+            input[i] = random.nextDouble();
+        }
+    }
+
+    public void testPrunedLayersAreSparse() {
+        CompiledNetwork compiledNetwork = report.getCompiledNetwork();
+        Layer[] layers = network.getLayers();
+        CompiledLayer[] compiledLayers = compiledNetwork.getLayers();
+        for (int l = 1; l < layers.length; l++) {
+            int connectionsCount = 0;
+            for (Neuron neuron : layers[l].getNeurons()) {
+                connectionsCount += neuron.getInputConnectionsCount();
+            }
+            assertFalse(compiledLayers[l].isDense());
+            assertEquals(connectionsCount, compiledLayers[l].getWeightsCount());
+            // int source index and double weight per connection, and start of each neuron's weights
+            assertEquals(12L * connectionsCount + 4L * (layers[l].getNeuronsCount() + 1), compiledLayers[l].getConnectionBytes());
+        }
+    }
+
+    public void testOutputsMatchNetwork() {
+        Neuron[] hiddenNeurons = network.getLayerAt(1).getNeurons();
+        assertTrue(hiddenNeurons[hiddenNeurons.length - 1] instanceof BiasNeuron);
+
+        network.setInput(input);
+        network.calculate();
+        CompiledNetwork compiledNetwork = report.getCompiledNetwork();
+        compiledNetwork.setInput(input);
+        compiledNetwork.calculate();
+        for (int i = 0; i < 3; i++) {
+            assertEquals(network.getOutput()[i], compiledNetwork.getOutput()[i], 1e-12);
+        }
+    }
+
+    public void testGradientsOnlyForRemainingConnections() {
+        CompiledNetwork compiledNetwork = report.getCompiledNetwork();
+        GradientSession session = compiledNetwork.createGradientSession();
+        session.accumulate(input, new double[]{1, 0, 1});
+        assertEquals(compiledNetwork.getWeightsCount(), session.getGradients().length);
+        assertEquals(report.getConnectionsBefore() - report.getRemovedConnections(), compiledNetwork.getWeightsCount());
+    }
+}
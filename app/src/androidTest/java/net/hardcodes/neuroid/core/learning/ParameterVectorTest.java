@@ -0,0 +1,97 @@
+package net.hardcodes.neuroid.core.learning;
+
+import junit.framework.TestCase;
+
+import net.hardcodes.neuroid.core.Connection;
+import net.hardcodes.neuroid.core.Layer;
+import net.hardcodes.neuroid.core.Neuron;
+import net.hardcodes.neuroid.core.Weight;
+import net.hardcodes.neuroid.net.ConvolutionalNetwork;
+import net.hardcodes.neuroid.net.comp.Kernel;
+import net.hardcodes.neuroid.net.comp.layer.Layer2D;
+
+import java.util.IdentityHashMap;
+import java.util.Random;
+
+/**
+ * Checks that convolutional weights, which are shared by many connections, are one parameter each.
+ */
+public class ParameterVectorTest extends TestCase {
+
+    private ConvolutionalNetwork network;
+
+    @Override
+    protected void setUp() {
+        network = new ConvolutionalNetwork.ConvolutionalNetworkBuilder(new Layer2D.Dimensions(6, 6), 1)
+                .withConvolutionLayer(new Kernel(3, 3), 2)
+                .withFullConnectedLayer(2)
+                .createNetwork();
+        Random random = new Random(3);
+        double[] input = new double[36];
+        for (int i = 0; i < input.length; i++) {
+            input[i] = random.nextDouble();
+        }
+        network.setInput(input);
+        network.calculate();
+    }
+
+    public void testSharedWeightsAreOneParameter() {
+        IdentityHashMap<Weight, Boolean> distinct = new IdentityHashMap<>();
+        int connectionsCount = 0;
+        for (Layer layer : network.getLayers()) {
+            for (Neuron neuron : layer.getNeurons()) {
+                for (Connection connection : neuron.getInputConnections()) {
+                    distinct.put(connection.getWeight(), Boolean.TRUE);
+                    connectionsCount++;
+                }
+            }
+        }
+        assertTrue(distinct.size() < connectionsCount);
+
+        ParameterVector parameters = new ParameterVector(network);
+        assertEquals(distinct.size(), parameters.size());
+        for (int i = 0; i < parameters.size(); i++) {
+            assertSame(parameters.getWeight(i), parameters.getConnection(i).getWeight());
+        }
+    }
+
+    public void testWriteSetsAllConnectionsOfSharedWeight() {
+        ParameterVector parameters = new ParameterVector(network);
+        double[] values = parameters.getValues();
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i;
+        }
+        parameters.write();
+
+        double[] read = new double[parameters.size()];
+        parameters.read(read);
+        for (int i = 0; i < read.length; i++) {
+            assertEquals(i, read[i], 0);
+        }
+    }
+
+    public void testGradientsOfSharedWeightAreSummed() {
+        for (Layer layer : network.getLayers()) {
+            for (Neuron neuron : layer.getNeurons()) {
+                neuron.setError(0.5);
+            }
+        }
+        IdentityHashMap<Weight, Double> expected = new IdentityHashMap<>();
+        for (Layer layer : network.getLayers()) {
+            for (Neuron neuron : layer.getNeurons()) {
+                for (Connection connection : neuron.getInputConnections()) {
+                    Double sum = expected.get(connection.getWeight());
+                    double gradient = 0.5 * connection.getInput();
+                    expected.put(connection.getWeight(), sum == null ? gradient : sum + gradient);
+                }
+            }
+        }
+
+        ParameterVector parameters = new ParameterVector(network);
+        parameters.accumulateGradients();
+        double[] gradients = parameters.getGradients();
+        for (int i = 0; i < parameters.size(); i++) {
+            assertEquals(expected.get(parameters.getWeight(i)), gradients[i], 1e-12);
+        }
+    }
+}
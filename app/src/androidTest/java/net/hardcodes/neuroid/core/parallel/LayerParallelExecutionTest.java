@@ -0,0 +1,139 @@
+package net.hardcodes.neuroid.core.parallel;
+
+import junit.framework.TestCase;
+
+import net.hardcodes.neuroid.core.Layer;
+import net.hardcodes.neuroid.core.Neuron;
+import net.hardcodes.neuroid.core.data.DataSet;
+import net.hardcodes.neuroid.net.Hopfield;
+import net.hardcodes.neuroid.net.MultiLayerPerceptron;
+import net.hardcodes.neuroid.net.learning.BackPropagation;
+import net.hardcodes.neuroid.util.TransferFunctionType;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Checks which layers are calculated and trained in parallel (see ParallelExecution), using a pool
+ * with two threads which counts invoked tasks.
+ */
+public class LayerParallelExecutionTest extends TestCase {
+
+    /**
+     * Pool which counts tasks invoked by ParallelExecution
+     */
+    private static class CountingPool extends ForkJoinPool {
+
+        private int invocations;
+
+        CountingPool() {
+            super(2);
+        }
+
+        @Override
+        public <T> T invoke(ForkJoinTask<T> task) {
+            invocations++;
+            return super.invoke(task);
+        }
+    }
+
+    private ForkJoinPool previousPool;
+    private boolean previousEnabled;
+    private CountingPool pool;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        previousPool = ParallelExecution.getPool();
+        previousEnabled = ParallelExecution.isEnabled();
+        pool = new CountingPool();
+        ParallelExecution.setPool(pool);
+        ParallelExecution.setEnabled(true);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        ParallelExecution.setPool(previousPool);
+        ParallelExecution.setEnabled(previousEnabled);
+        pool.shutdown();
+        super.tearDown();
+    }
+
+    public void testFanInIsAverageOverLayerNeurons() {
+        MultiLayerPerceptron network = new MultiLayerPerceptron(4, 3, 2);
+        Layer hiddenLayer = network.getLayerAt(1);
+
+        int connectionsCount = 0;
+        for (Neuron neuron : hiddenLayer.getNeurons()) {
+            connectionsCount += neuron.getInputConnectionsCount();
+        }
+        int neuronsCount = hiddenLayer.getNeuronsCount();
+        assertEquals((connectionsCount + neuronsCount - 1) / neuronsCount, hiddenLayer.getFanIn());
+        assertTrue(hiddenLayer.getFanIn() > 0);
+    }
+
+    public void testMultiLayerPerceptronHiddenLayerIsCalculatedInParallel() {
+        MultiLayerPerceptron network = new MultiLayerPerceptron(TransferFunctionType.SIGMOID, 100, 400, 10);
+        network.randomizeWeights(new Random(1));
+        Layer hiddenLayer = network.getLayerAt(1);
+        assertFalse(hiddenLayer.hasConnectionsWithinLayer());
+        assertTrue(hiddenLayer.isCalculatedInParallel());
+
+        double[] input = new double[100];
+        for (int i = 0; i < input.length; i++) {
+            input[i] = i / 100d;
+        }
+        network.setInput(input);
+        network.calculate();
+        assertTrue("hidden layer was not calculated in parallel", pool.invocations > 0);
+        double[] output = network.getOutput().clone();
+
+        ParallelExecution.setEnabled(false);
+        network.setInput(input);
+        network.calculate();
+        double[] serialOutput = network.getOutput();
+        for (int i = 0; i < output.length; i++) {
+            assertEquals(serialOutput[i], output[i], 0d);
+        }
+    }
+
+    public void testBackPropagationProcessesHiddenLayerInParallel() {
+        MultiLayerPerceptron network = new MultiLayerPerceptron(TransferFunctionType.SIGMOID, 100, 400, 10);
+        network.randomizeWeights(new Random(1));
+        DataSet dataSet = new DataSet(100, 10);
+        Random random = new Random(2);
+        for (int p = 0; p < 5; p++) {
+            double[] input = new double[100];
+            for (int i = 0; i < input.length; i++) {
+                input[i] = random.nextDouble();
+            }
+            double[] output = new double[10];
+            output[p] = 1;
+            dataSet.addRow(input, output);
+        }
+
+        BackPropagation learningRule = new BackPropagation();
+        network.setLearningRule(learningRule);
+        learningRule.doOneLearningIteration(dataSet);
+
+        // one parallel forward pass and one parallel backward pass of the hidden layer per pattern
+        assertEquals(2 * dataSet.size(), pool.invocations);
+    }
+
+    public void testHopfieldLayerIsCalculatedSerially() {
+        Hopfield network = new Hopfield(200);
+        Layer layer = network.getLayerAt(0);
+        assertTrue(ParallelExecution.shouldParallelize(layer.getNeuronsCount(), layer.getFanIn()));
+        assertTrue(layer.hasConnectionsWithinLayer());
+        assertFalse(layer.isCalculatedInParallel());
+
+        double[] input = new double[200];
+        for (int i = 0; i < input.length; i++) {
+            input[i] = i % 2;
+        }
+        network.setInput(input);
+        network.calculate();
+        assertEquals(0, pool.invocations);
+    }
+}
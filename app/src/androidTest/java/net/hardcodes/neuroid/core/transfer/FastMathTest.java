@@ -0,0 +1,75 @@
+package net.hardcodes.neuroid.core.transfer;
+
+import junit.framework.TestCase;
+
+import net.hardcodes.neuroid.core.data.DataSet;
+import net.hardcodes.neuroid.net.MultiLayerPerceptron;
+import net.hardcodes.neuroid.net.learning.BackPropagation;
+import net.hardcodes.neuroid.util.TransferFunctionType;
+
+import java.util.Random;
+
+/**
+ * Checks lookup table transfer functions against the exact ones, and that XOR training with them converges
+ * like training with exact functions.
+ */
+public class FastMathTest extends TestCase {
+
+    private static final int MAX_ITERATIONS = 20000;
+
+    public void testErrorsAreWithinBounds() {
+        assertMaxError(new Sigmoid(), 2e-7);
+        assertMaxError(new Tanh(), 4e-7);
+        assertMaxError(new Gaussian(), 2e-6);
+    }
+
+    public void testXorTrainingConverges() {
+        DataSet xor = new DataSet(2, 1);
+        xor.addRow(new double[]{0, 0}, new double[]{0});
+        xor.addRow(new double[]{0, 1}, new double[]{1});
+        xor.addRow(new double[]{1, 0}, new double[]{1});
+        xor.addRow(new double[]{1, 1}, new double[]{0});
+
+        MultiLayerPerceptron exact = new MultiLayerPerceptron(TransferFunctionType.SIGMOID, 2, 3, 1);
+        exact.randomizeWeights(new Random(1));
+        MultiLayerPerceptron fast = new MultiLayerPerceptron(TransferFunctionType.SIGMOID, 2, 3, 1);
+        Double[] weights = exact.getWeights();
+        double[] copy = new double[weights.length];
+        for (int i = 0; i < weights.length; i++) {
+            copy[i] = weights[i];
+        }
+        fast.setWeights(copy);
+        fast.useFastMath(true);
+        assertTrue(fast.getLayerAt(1).getNeuronAt(0).getTransferFunction() instanceof FastSigmoid);
+
+        int exactIterations = train(exact, xor);
+        int fastIterations = train(fast, xor);
+        // fast functions should need about as many iterations as exact ones
+        assertTrue("exact " + exactIterations + ", fast " + fastIterations,
+                Math.abs(fastIterations - exactIterations) <= exactIterations / 10);
+
+        for (int i = 0; i < xor.size(); i++) {
+            fast.setInput(xor.getRowAt(i).getInput());
+            fast.calculate();
+            assertEquals(xor.getRowAt(i).getDesiredOutput()[0], fast.getOutput()[0], 0.2);
+        }
+    }
+
+    private static void assertMaxError(TransferFunction exact, double maxError) {
+        TransferFunction fast = FastMath.toFast(exact);
+        for (double net = -20; net <= 20; net += 1e-4) {
+            assertEquals("net " + net, exact.getOutput(net), fast.getOutput(net), maxError);
+        }
+    }
+
+    private static int train(MultiLayerPerceptron network, DataSet xor) {
+        BackPropagation learningRule = new BackPropagation();
+        learningRule.setLearningRate(0.2);
+        learningRule.setMaxError(0.01);
+        learningRule.setMaxIterations(MAX_ITERATIONS);
+        network.setLearningRule(learningRule);
+        network.learn(xor);
+        assertTrue("XOR training did not converge", learningRule.getTotalNetworkError() <= 0.01);
+        return learningRule.getCurrentIteration();
+    }
+}
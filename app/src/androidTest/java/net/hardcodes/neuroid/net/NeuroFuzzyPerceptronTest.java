@@ -0,0 +1,39 @@
+package net.hardcodes.neuroid.net;
+
+import junit.framework.TestCase;
+
+import net.hardcodes.neuroid.core.Neuron;
+import net.hardcodes.neuroid.core.transfer.Trapezoid;
+
+/**
+ * Checks that each fuzzy set neuron keeps its own membership function parameters.
+ */
+public class NeuroFuzzyPerceptronTest extends TestCase {
+
+    private static final double[][] POINTS_SETS = {{0, 0, 20, 22}, {20, 22, 40, 42}, {40, 42, 80, 82}, {80, 82, 100, 100}};
+    private static final double[][] TIME_SETS = {{1, 1, 3, 4}, {3, 4, 6, 7}, {6, 7, 8, 9}};
+
+    public void testFuzzySetNeuronsHaveOwnTrapezoids() {
+        NeuroFuzzyPerceptron network = new NeuroFuzzyPerceptron(POINTS_SETS, TIME_SETS);
+        Neuron[] sets = network.getLayerAt(1).getNeurons();
+        assertEquals(7, sets.length);
+        for (int i = 0; i < sets.length; i++) {
+            assertTrue(sets[i].getTransferFunction() instanceof Trapezoid);
+            for (int j = 0; j < i; j++) {
+                assertTrue(sets[i].getTransferFunction() != sets[j].getTransferFunction());
+            }
+        }
+    }
+
+    public void testFuzzySetOutputs() {
+        NeuroFuzzyPerceptron network = new NeuroFuzzyPerceptron(POINTS_SETS, TIME_SETS);
+        network.setInput(50, 5);
+        network.calculate();
+
+        double[] expected = {0, 0, 1, 0, 0, 1, 0};
+        Neuron[] sets = network.getLayerAt(1).getNeurons();
+        for (int i = 0; i < sets.length; i++) {
+            assertEquals(expected[i], sets[i].getOutput(), 1e-12);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package net.hardcodes.neuroid.net.learning;
+
+import junit.framework.TestCase;
+
+import net.hardcodes.neuroid.core.data.DataSet;
+import net.hardcodes.neuroid.core.learning.optimizer.Adam;
+import net.hardcodes.neuroid.net.MultiLayerPerceptron;
+import net.hardcodes.neuroid.util.TransferFunctionType;
+
+import java.util.Random;
+
+/**
+ * Checks that optimizer set on resilient propagation changes weights once per epoch.
+ */
+public class ResilientPropagationTest extends TestCase {
+
+    public void testOptimizerChangesWeights() {
+        DataSet xor = new DataSet(2, 1);
+        xor.addRow(new double[]{0, 0}, new double[]{0});
+        xor.addRow(new double[]{0, 1}, new double[]{1});
+        xor.addRow(new double[]{1, 0}, new double[]{1});
+        xor.addRow(new double[]{1, 1}, new double[]{0});
+
+        MultiLayerPerceptron network = new MultiLayerPerceptron(TransferFunctionType.SIGMOID, 2, 3, 1);
+        network.randomizeWeights(new Random(1));
+        Double[] before = network.getWeights();
+
+        ResilientPropagation learningRule = new ResilientPropagation();
+        learningRule.setOptimizer(new Adam());
+        learningRule.setLearningRate(0.05);
+        learningRule.setMaxIterations(50);
+        network.setLearningRule(learningRule);
+        network.learn(xor);
+
+        Double[] after = network.getWeights();
+        for (int i = 0; i < after.length; i++) {
+            assertFalse(before[i].equals(after[i]));
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package net.hardcodes.neuroid.net.learning;
+
+import junit.framework.TestCase;
+
+import net.hardcodes.neuroid.util.benchmark.TrainingAllocationTask;
+
+/**
+ * Checks that training epochs allocate less than one byte per pattern. Allocated bytes are read from the
+ * JVM ThreadMXBean, so the tests are skipped where it is not available (on Android devices).
+ */
+public class TrainingAllocationTest extends TestCase {
+
+    public void testBackPropagation() {
+        assertNoAllocations(new BackPropagation());
+    }
+
+    public void testMomentumBackpropagation() {
+        assertNoAllocations(new MomentumBackpropagation());
+    }
+
+    public void testResilientPropagation() {
+        assertNoAllocations(new ResilientPropagation());
+    }
+
+    private void assertNoAllocations(BackPropagation learningRule) {
+        String name = learningRule.getClass().getSimpleName();
+        TrainingAllocationTask task = new TrainingAllocationTask(name, learningRule);
+        task.prepareTest();
+        if (!task.isAllocationMeasured()) {
+            System.out.println(name + " skipped, allocated bytes are not available");
+            return;
+        }
+        task.runTest();
+        assertTrue(name + " allocates " + task.getBytesPerPattern() + " bytes per pattern", task.getBytesPerPattern() < 1);
+    }
+}
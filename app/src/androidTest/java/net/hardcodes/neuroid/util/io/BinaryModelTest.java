@@ -0,0 +1,101 @@
+package net.hardcodes.neuroid.util.io;
+
+import junit.framework.TestCase;
+
+import net.hardcodes.neuroid.core.NeuralNetwork;
+import net.hardcodes.neuroid.core.Neuron;
+import net.hardcodes.neuroid.core.compiled.MappedNetwork;
+import net.hardcodes.neuroid.core.exceptions.NeurophException;
+import net.hardcodes.neuroid.core.transfer.Tanh;
+import net.hardcodes.neuroid.net.MultiLayerPerceptron;
+import net.hardcodes.neuroid.util.TransferFunctionType;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+/**
+ * Writes and reads binary model files, with function parameters stored as plain values.
+ */
+public class BinaryModelTest extends TestCase {
+
+    private File file;
+
+    @Override
+    protected void setUp() throws IOException {
+        file = File.createTempFile("network", ".nrdm");
+    }
+
+    @Override
+    protected void tearDown() {
+        file.delete();
+    }
+
+    public void testFunctionParametersAreRestored() {
+        MultiLayerPerceptron network = new MultiLayerPerceptron(TransferFunctionType.TANH, 3, 4, 2);
+        Neuron[] hiddenNeurons = network.getLayerAt(1).getNeurons();
+        // layer neurons share one function, so each neuron gets its own
+        for (int i = 0; i < hiddenNeurons.length - 1; i++) {
+            hiddenNeurons[i].setTransferFunction(new Tanh(1 + i));
+        }
+        BinaryModelWriter.save(network, file);
+
+        NeuralNetwork loaded = BinaryModelReader.load(file);
+        Neuron[] loadedNeurons = loaded.getLayerAt(1).getNeurons();
+        for (int i = 0; i < hiddenNeurons.length - 1; i++) {
+            assertEquals(1.0 + i, ((Tanh) loadedNeurons[i].getTransferFunction()).getSlope(), 0);
+        }
+
+        network.setInput(0.2, 0.7, -0.4);
+        network.calculate();
+        loaded.setInput(0.2, 0.7, -0.4);
+        loaded.calculate();
+        MappedNetwork mapped = MappedNetwork.open(file);
+        mapped.setInput(0.2, 0.7, -0.4);
+        mapped.calculate();
+        for (int i = 0; i < 2; i++) {
+            assertEquals(network.getOutput()[i], loaded.getOutput()[i], 0);
+            assertEquals(network.getOutput()[i], mapped.getOutput()[i], 0);
+        }
+    }
+
+    public void testUnknownFunctionTypeIsRejected() throws IOException {
+        MultiLayerPerceptron network = new MultiLayerPerceptron(3, 4, 2);
+        BinaryModelWriter.save(network, file);
+
+        // header: magic, version, neurons count, weights count, null label and network type name
+        long functionsOffset = 4 + 4 + 4 + 8 + 4 + 4 + network.getNetworkType().name().length();
+        RandomAccessFile out = new RandomAccessFile(file, "rw");
+        try {
+            out.seek(functionsOffset + 4);
+            out.write(100);
+        } finally {
+            out.close();
+        }
+
+        try {
+            BinaryModelReader.load(file);
+            fail("Unknown function type was read!");
+        } catch (NeurophInputException ex) {
+            assertTrue(ex.getMessage().contains("Unknown function type"));
+        }
+        try {
+            MappedNetwork.open(file);
+            fail("Unknown function type was read!");
+        } catch (NeurophException ex) {
+            assertTrue(ex.getMessage().contains("Unknown function type"));
+        }
+    }
+
+    public void testUnsupportedFunctionIsNotWritten() {
+        MultiLayerPerceptron network = new MultiLayerPerceptron(3, 4, 2);
+        network.getLayerAt(2).getNeurons()[0].setTransferFunction(new Tanh() {
+        });
+        try {
+            BinaryModelWriter.save(network, file);
+            fail("Function subclass was written!");
+        } catch (NeurophOutputException ex) {
+            assertTrue(ex.getMessage().contains("is not supported"));
+        }
+    }
+}
@@ -35,14 +35,17 @@ public class Connection implements Serializable {
     /**
      * From neuron for this connection (source neuron).
      * This connection is output connection for from neuron.
+     * Not serialized (serializing neighbour neurons recursively overflows the stack for big networks),
+     * it is restored by the from neuron when it is read (see Neuron.readObject).
      */
-    protected String fromNeuronUID;
+    protected transient Neuron fromNeuron;
 
     /**
      * To neuron for this connection (target, destination neuron)
      * This connection is input connection for to neuron.
+     * Not serialized, it is restored by the to neuron when it is read.
      */
-    protected String toNeuronUID;
+    protected transient Neuron toNeuron;
     
     /**
      * Weight for this connection
@@ -60,13 +63,13 @@ public class Connection implements Serializable {
         if (fromNeuron == null) {
             throw new IllegalArgumentException("From neuron in connection cant be null !");
         } else {
-            this.fromNeuronUID = fromNeuron.getUID();
+            this.fromNeuron = fromNeuron;
         }
 
         if (toNeuron == null) {
             throw new IllegalArgumentException("To neuron in connection cant be null!");
         } else {
-            this.toNeuronUID = toNeuron.getUID();
+            this.toNeuron = toNeuron;
         }
 
         this.weight = new Weight();
@@ -84,13 +87,13 @@ public class Connection implements Serializable {
         if (fromNeuron == null) {
             throw new IllegalArgumentException("From neuron in connection cant be null !");
         } else {
-            this.fromNeuronUID = fromNeuron.getUID();
+            this.fromNeuron = fromNeuron;
         }
 
         if (toNeuron == null) {
             throw new IllegalArgumentException("To neuron in connection cant be null!");
         } else {
-            this.toNeuronUID = toNeuron.getUID();
+            this.toNeuron = toNeuron;
         }
         
         if (weight == null) {
@@ -113,13 +116,13 @@ public class Connection implements Serializable {
         if (fromNeuron == null) {
             throw new IllegalArgumentException("From neuron in connection cant be null !");
         } else {
-            this.fromNeuronUID = fromNeuron.getUID();
+            this.fromNeuron = fromNeuron;
         }
 
         if (toNeuron == null) {
             throw new IllegalArgumentException("To neuron in connection cant be null!");
         } else {
-            this.toNeuronUID = toNeuron.getUID();
+            this.toNeuron = toNeuron;
         }
         
         this.weight = new Weight(weightVal);
@@ -153,7 +156,7 @@ public class Connection implements Serializable {
      * @return input received through this connection
      */
     public double getInput() {
-        return NeuralNetwork.NEURON_REGISTER.get(fromNeuronUID).getOutput();
+        return fromNeuron.getOutput();
     }
 
     /**
@@ -162,7 +165,7 @@ public class Connection implements Serializable {
      * @return weighted input received through this connection
      */
     public double getWeightedInput() {
-        return NeuralNetwork.NEURON_REGISTER.get(fromNeuronUID).getOutput() * weight.value;
+        return fromNeuron.getOutput() * weight.value;
     }
 
     /**
@@ -170,7 +173,7 @@ public class Connection implements Serializable {
      * @return from neuron for this connection
      */
     public Neuron getFromNeuron() {
-        return NeuralNetwork.NEURON_REGISTER.get(fromNeuronUID);
+        return fromNeuron;
     }
 
     /**
@@ -181,7 +184,7 @@ public class Connection implements Serializable {
         if (fromNeuron == null) {
             throw new IllegalArgumentException("From neuron in connection cant be null!");
         } else {
-            this.fromNeuronUID = fromNeuron.getUID();
+            this.fromNeuron = fromNeuron;
         }
     }
 
@@ -190,7 +193,7 @@ public class Connection implements Serializable {
      * @return neuron to set as to neuron
      */
     public Neuron getToNeuron() {
-        return NeuralNetwork.NEURON_REGISTER.get(toNeuronUID);
+        return toNeuron;
     }
 
     /**
@@ -201,7 +204,7 @@ public class Connection implements Serializable {
         if (toNeuron == null) {
             throw new IllegalArgumentException("From neuron in connection cant be null!");
         } else {
-            this.toNeuronUID = toNeuron.getUID();
+            this.toNeuron = toNeuron;
         }
     }
 }
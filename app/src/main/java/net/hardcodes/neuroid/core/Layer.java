@@ -15,15 +15,16 @@
  */
 package net.hardcodes.neuroid.core;
 
-import net.hardcodes.neuroid.core.events.NeuralNetworkEvent;
 import net.hardcodes.neuroid.core.events.NeuralNetworkEventType;
+import net.hardcodes.neuroid.core.parallel.ParallelExecution;
+import net.hardcodes.neuroid.util.IdGenerator;
+import net.hardcodes.neuroid.util.NeuronCreator;
 import net.hardcodes.neuroid.util.NeuronFactory;
 import net.hardcodes.neuroid.util.NeuronProperties;
 import net.hardcodes.neuroid.util.NeurophArrayList;
 
 import java.io.Serializable;
-import java.util.UUID;
-import java.util.concurrent.ForkJoinPool;
+import java.util.Arrays;
 
 /**
  * <pre>
@@ -36,7 +37,7 @@ import java.util.concurrent.ForkJoinPool;
  */
 public class Layer implements Serializable {
 
-    private final String UID = UUID.randomUUID().toString();
+    private final String UID = IdGenerator.nextId();
 
     public String getUID() {
         return UID;
@@ -51,12 +52,33 @@ public class Layer implements Serializable {
     /**
      * Parent neural network - to which this layer belongs
      */
-    private String parentNetworkUID;
+    private NeuralNetwork parentNetwork;
 
     /**
      * Collection of neurons (Neuron instances)
      */
-    protected NeurophArrayList<String> neuronUIDs;
+    protected NeurophArrayList<Neuron> neurons;
+
+    /**
+     * Cached array of neurons returned by getNeurons(), rebuilt after neurons are changed
+     */
+    private transient Neuron[] neuronsArray;
+
+    /**
+     * Cached operation used by calculate()
+     */
+    private transient ParallelExecution.RangeOperation calculateOperation;
+
+    /**
+     * Number of input connections of all neurons when connections within this layer were last checked,
+     * or -1 if they have to be checked again
+     */
+    private transient long checkedConnectionsCount = -1;
+
+    /**
+     * True if some neuron in this layer has input connection from a neuron in this layer
+     */
+    private transient boolean connectionsWithinLayer;
 
     /**
      * Label for this layer
@@ -67,7 +89,7 @@ public class Layer implements Serializable {
      * Creates an instance of empty Layer
      */
     public Layer() {
-        neuronUIDs = new NeurophArrayList(String.class);
+        neurons = new NeurophArrayList<>(Neuron.class);
     }
 
     /**
@@ -75,7 +97,7 @@ public class Layer implements Serializable {
      * @param neuronsCount number of neurons in this layer
      */
     public Layer(int neuronsCount) {
-        neuronUIDs = new NeurophArrayList(String.class, neuronsCount);
+        neurons = new NeurophArrayList<>(Neuron.class, neuronsCount);
     }
 
     /**
@@ -86,11 +108,12 @@ public class Layer implements Serializable {
      * @param neuronProperties properties of neurons in layer
      */
     public Layer(int neuronsCount, NeuronProperties neuronProperties) {
-        neuronUIDs = new NeurophArrayList(String.class, neuronsCount);
+        neurons = new NeurophArrayList<>(Neuron.class, neuronsCount);
 
+        // properties are resolved once, and all neurons share one input and transfer function instance
+        NeuronCreator creator = NeuronFactory.getCreator(neuronProperties);
         for (int i = 0; i < neuronsCount; i++) {
-            Neuron neuron = NeuronFactory.createNeuron(neuronProperties);
-            this.addNeuron(neuron);
+            this.addNeuron(creator.createNeuron());
         }
     }
 
@@ -100,22 +123,31 @@ public class Layer implements Serializable {
      * @param parent parent network
      */
     public final void setParentNetwork(NeuralNetwork parent) {
-        this.parentNetworkUID = parent.getUID();
+        this.parentNetwork = parent;
     }
 
     /**
-     * Returns array neurons in this layer as array
+     * Returns reference to parent network
+     *
+     * @return parent network for this layer
+     */
+    public NeuralNetwork getParentNetwork() {
+        return parentNetwork;
+    }
+
+    /**
+     * Returns array neurons in this layer as array. The array is cached, so it should
+     * not be modified; use addNeuron/setNeuron/removeNeuron instead.
      *
      * @return array of neurons in this layer
      */
     public final Neuron[] getNeurons() {
-        Neuron[] neurons = new Neuron[neuronUIDs.size()];
-        int i = 0;
-        for (String neuronUID : neuronUIDs.asArray()) {
-            neurons[i] = NeuralNetwork.NEURON_REGISTER.get(neuronUID);
-            i++;
+        Neuron[] array = neuronsArray;
+        if (array == null) {
+            array = Arrays.copyOf(neurons.asArray(), neurons.size());
+            neuronsArray = array;
         }
-        return neurons;
+        return array;
     }
 
     /**
@@ -133,12 +165,13 @@ public class Layer implements Serializable {
         neuron.setParentLayer(this);
 
         // add new neuron at the end of the array
-        neuronUIDs.add(neuron.getUID());
-        NeuralNetwork.NEURON_REGISTER.put(neuron.getUID(), neuron);
+        neurons.add(neuron);
+        neuronsArray = null;
+        checkedConnectionsCount = -1;
 
         // notify network listeners that neuron has been added
-        if (parentNetworkUID != null)
-            NeuralNetwork.fireNetworkEvent(parentNetworkUID, new NeuralNetworkEvent(this, NeuralNetworkEventType.NEURON_ADDED));
+        if (parentNetwork != null)
+            parentNetwork.fireNetworkEvent(this, NeuralNetworkEventType.NEURON_ADDED);
     }
 
     /**
@@ -157,16 +190,16 @@ public class Layer implements Serializable {
         }
 
         // add neuron to this layer
-        neuronUIDs.add(index, neuron.getUID());
-        NeuralNetwork.NEURON_REGISTER.put(neuron.getUID(), neuron);
-
+        neurons.add(index, neuron);
+        neuronsArray = null;
+        checkedConnectionsCount = -1;
 
         // set neuron's parent layer to this layer
         neuron.setParentLayer(this);
 
         // notify network listeners that neuron has been added
-        if (parentNetworkUID != null)
-            NeuralNetwork.fireNetworkEvent(parentNetworkUID, new NeuralNetworkEvent(this, NeuralNetworkEventType.NEURON_ADDED));
+        if (parentNetwork != null)
+            parentNetwork.fireNetworkEvent(this, NeuralNetworkEventType.NEURON_ADDED);
     }
 
     /**
@@ -182,16 +215,16 @@ public class Layer implements Serializable {
         }
 
         // new neuron at specified index position
-        NeuralNetwork.NEURON_REGISTER.remove(neuronUIDs.get(index));
-        neuronUIDs.set(index, neuron.getUID());
-        NeuralNetwork.NEURON_REGISTER.put(neuron.getUID(), neuron);
+        neurons.set(index, neuron);
+        neuronsArray = null;
+        checkedConnectionsCount = -1;
 
         // set neuron's parent layer to this layer                        
         neuron.setParentLayer(this);
 
         // notify network listeners that neuron has been added
-        if (parentNetworkUID != null)
-            NeuralNetwork.fireNetworkEvent(parentNetworkUID, new NeuralNetworkEvent(this, NeuralNetworkEventType.NEURON_ADDED));
+        if (parentNetwork != null)
+            parentNetwork.fireNetworkEvent(this, NeuralNetworkEventType.NEURON_ADDED);
 
     }
 
@@ -211,26 +244,26 @@ public class Layer implements Serializable {
      * @param index index position of neuron to remove
      */
     public final void removeNeuronAt(int index) {
-        Neuron neuron = NeuralNetwork.NEURON_REGISTER.get(neuronUIDs.get(index));
+        Neuron neuron = neurons.get(index);
         neuron.setParentLayer(null);
         neuron.removeAllConnections(); // why we're doing this here? maybe we shouldnt
-        NeuralNetwork.NEURON_REGISTER.remove(neuronUIDs.get(index));
-        neuronUIDs.remove(index);
+        neurons.remove(index);
+        neuronsArray = null;
+        checkedConnectionsCount = -1;
 
         // notify listeners that neuron has been removed
-        if (parentNetworkUID != null)
-            NeuralNetwork.fireNetworkEvent(parentNetworkUID, new NeuralNetworkEvent(this, NeuralNetworkEventType.NEURON_REMOVED));
+        if (parentNetwork != null)
+            parentNetwork.fireNetworkEvent(this, NeuralNetworkEventType.NEURON_REMOVED);
     }
 
     public final void removeAllNeurons() {
-        for (String neuronUID: neuronUIDs.asArray()) {
-            NeuralNetwork.NEURON_REGISTER.remove(neuronUID);
-        }
-        neuronUIDs.clear();
+        neurons.clear();
+        neuronsArray = null;
+        checkedConnectionsCount = -1;
 
         // notify listeners that neurons has been removed
-        if (parentNetworkUID != null)
-            NeuralNetwork.fireNetworkEvent(parentNetworkUID, new NeuralNetworkEvent(this, NeuralNetworkEventType.NEURON_REMOVED));
+        if (parentNetwork != null)
+            parentNetwork.fireNetworkEvent(this, NeuralNetworkEventType.NEURON_REMOVED);
     }
 
     /**
@@ -240,7 +273,7 @@ public class Layer implements Serializable {
      * @return neuron at specified index position
      */
     public Neuron getNeuronAt(int index) {
-        return  NeuralNetwork.NEURON_REGISTER.get(neuronUIDs.get(index));
+        return neurons.get(index);
     }
 
     /**
@@ -250,7 +283,7 @@ public class Layer implements Serializable {
      * @return index position of specified neuron
      */
     public int indexOf(Neuron neuron) {
-        return neuronUIDs.indexOf(neuron.getUID());
+        return neurons.indexOf(neuron);
     }
 
     /**
@@ -259,29 +292,110 @@ public class Layer implements Serializable {
      * @return number of neurons in this layer
      */
     public int getNeuronsCount() {
-        return neuronUIDs.size();
+        return neurons.size();
     }
 
-    static final ForkJoinPool mainPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
-
     /**
-     * Performs calculaton for all neurons in this layer
+     * Performs calculaton for all neurons in this layer. Big layers are calculated in parallel
+     * (see ParallelExecution), small layers with a serial loop. Layers with connections between
+     * their own neurons (like Hopfield) are always calculated serially, in neuron order,
+     * since neurons read outputs of other neurons in the same layer.
      */
     public void calculate() {
+        if (calculateOperation == null) {
+            calculateOperation = new ParallelExecution.RangeOperation() {
+                @Override
+                public void execute(int from, int to) {
+                    Neuron[] neuronsArray = neurons.asArray(); // use directly underlying array since its faster
+                    for (int i = from; i < to; i++) {
+                        neuronsArray[i].calculate();
+                    }
+                }
+            };
+        }
+        if (isCalculatedInParallel()) {
+            ParallelExecution.execute(calculateOperation, neurons.size(), getFanIn());
+        } else {
+            calculateOperation.execute(0, neurons.size());
+        }
+    }
 
-        for (String neuronUID : this.neuronUIDs.asArray()) { // use directly underlying array since its faster
-            NeuralNetwork.NEURON_REGISTER.get(neuronUID).calculate();
+    /**
+     * Returns true if calculate() runs in parallel: the layer is big enough for ParallelExecution,
+     * and it has no connections within the layer
+     *
+     * @return true if this layer is calculated in parallel
+     */
+    public boolean isCalculatedInParallel() {
+        return ParallelExecution.shouldParallelize(neurons.size(), getFanIn()) && !hasConnectionsWithinLayer();
+    }
+
+    /**
+     * Returns average number of input connections per neuron in this layer (rounded up), used as estimate
+     * of the work needed to calculate one neuron. Average is used rather than some single neuron,
+     * since neurons can have very different fan in (bias neuron in a hidden layer has none).
+     *
+     * @return estimated number of input connections per neuron
+     */
+    public int getFanIn() {
+        int neuronsCount = neurons.size();
+        if (neuronsCount == 0) {
+            return 0;
         }
+        return (int) ((getInputConnectionsCount() + neuronsCount - 1) / neuronsCount);
+    }
 
-//        mainPool.invokeAll(Arrays.asList(neurons.asArray()));
+    /**
+     * Returns true if some neuron in this layer has input connection from a neuron in this layer.
+     * Such neurons depend on each other, so they can not be processed in parallel.
+     * Result is cached until neurons of this layer or their input connections change.
+     *
+     * @return true if this layer has connections within the layer
+     */
+    public boolean hasConnectionsWithinLayer() {
+        long connectionsCount = getInputConnectionsCount();
+        if (checkedConnectionsCount != connectionsCount) {
+            connectionsWithinLayer = findConnectionsWithinLayer();
+            checkedConnectionsCount = connectionsCount;
+        }
+        return connectionsWithinLayer;
+    }
+
+    /**
+     * Marks connections within this layer to be checked again, called when input connections of its neurons change
+     */
+    void connectionsChanged() {
+        checkedConnectionsCount = -1;
+    }
+
+    private long getInputConnectionsCount() {
+        Neuron[] neuronsArray = neurons.asArray(); // use directly underlying array since its faster
+        long connectionsCount = 0;
+        for (int i = 0; i < neurons.size(); i++) {
+            connectionsCount += neuronsArray[i].getInputConnectionsCount();
+        }
+        return connectionsCount;
+    }
+
+    private boolean findConnectionsWithinLayer() {
+        Neuron[] neuronsArray = neurons.asArray(); // use directly underlying array since its faster
+        for (int i = 0; i < neurons.size(); i++) {
+            for (Connection connection : neuronsArray[i].getInputConnections()) {
+                if (connection.getFromNeuron().getParentLayer() == this) {
+                    return true;
+                }
+            }
+        }
+        return false;
     }
 
     /**
      * Resets the activation and input levels for all neurons in this layer
      */
     public void reset() {
-        for (String neuronUID : this.neuronUIDs.asArray()) { // use directly underlying array since its faster
-            NeuralNetwork.NEURON_REGISTER.get(neuronUID).reset();
+        Neuron[] neuronsArray = neurons.asArray(); // use directly underlying array since its faster
+        for (int i = 0; i < neurons.size(); i++) {
+            neuronsArray[i].reset();
         }
     }
 
@@ -291,8 +405,9 @@ public class Layer implements Serializable {
      * @param value the weight value
      */
     public void initializeWeights(double value) {
-        for (String neuronUID : this.neuronUIDs.asArray()) { // use directly underlying array since its faster
-            NeuralNetwork.NEURON_REGISTER.get(neuronUID).initializeWeights(value);
+        Neuron[] neuronsArray = neurons.asArray(); // use directly underlying array since its faster
+        for (int i = 0; i < neurons.size(); i++) {
+            neuronsArray[i].initializeWeights(value);
         }
     }
 
@@ -315,7 +430,7 @@ public class Layer implements Serializable {
     }
 
     public boolean isEmpty() {
-        return neuronUIDs.isEmpty();
+        return neurons.isEmpty();
     }
 
 }
\ No newline at end of file
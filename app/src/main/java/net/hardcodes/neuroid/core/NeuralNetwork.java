@@ -15,16 +15,26 @@
  */
 package net.hardcodes.neuroid.core;
 
+import net.hardcodes.neuroid.core.compiled.CompiledNetwork;
+import net.hardcodes.neuroid.core.compiled.FloatNetwork;
+import net.hardcodes.neuroid.core.compiled.QuantizedNetwork;
 import net.hardcodes.neuroid.core.data.DataSet;
 import net.hardcodes.neuroid.core.events.NeuralNetworkEvent;
 import net.hardcodes.neuroid.core.events.NeuralNetworkEventListener;
+import net.hardcodes.neuroid.core.events.NeuralNetworkEventListeners;
 import net.hardcodes.neuroid.core.events.NeuralNetworkEventType;
 import net.hardcodes.neuroid.core.exceptions.NeurophException;
 import net.hardcodes.neuroid.core.exceptions.VectorSizeMismatchException;
 import net.hardcodes.neuroid.core.learning.IterativeLearning;
 import net.hardcodes.neuroid.core.learning.LearningRule;
+import net.hardcodes.neuroid.core.transfer.FastMath;
+import net.hardcodes.neuroid.core.transfer.TransferFunction;
+import net.hardcodes.neuroid.util.DoubleArrayList;
+import net.hardcodes.neuroid.util.IdGenerator;
 import net.hardcodes.neuroid.util.NeuralNetworkType;
 import net.hardcodes.neuroid.util.NeurophArrayList;
+import net.hardcodes.neuroid.util.io.BinaryModelReader;
+import net.hardcodes.neuroid.util.io.BinaryModelWriter;
 import net.hardcodes.neuroid.util.plugins.PluginBase;
 import net.hardcodes.neuroid.util.random.RangeRandomizer;
 import net.hardcodes.neuroid.util.random.WeightsRandomizer;
@@ -42,13 +52,11 @@ import java.io.InputStreamReader;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.List;
+import java.util.IdentityHashMap;
 import java.util.Map;
 import java.util.Random;
-import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * <pre>
@@ -64,10 +72,7 @@ import java.util.concurrent.ConcurrentHashMap;
  */
 public class NeuralNetwork<L extends LearningRule> implements Serializable {
 
-    public static final ConcurrentHashMap<String, Layer> LAYER_REGISTER = new ConcurrentHashMap<>();
-    public static final ConcurrentHashMap<String, Neuron> NEURON_REGISTER = new ConcurrentHashMap<>();
-
-    private final String UID = UUID.randomUUID().toString();
+    private final String UID = IdGenerator.nextId();
 
     public String getUID() {
         return UID;
@@ -86,8 +91,12 @@ public class NeuralNetwork<L extends LearningRule> implements Serializable {
     /**
      * Neural network layers
      */
-    // private Layer[] layers;
-    private NeurophArrayList<String> layerUIDs;
+    private NeurophArrayList<Layer> layers;
+
+    /**
+     * Cached array of layers returned by getLayers(), rebuilt after layers are changed
+     */
+    private transient Layer[] layersArray;
 
     /**
      * Neural network output buffer
@@ -97,12 +106,12 @@ public class NeuralNetwork<L extends LearningRule> implements Serializable {
     /**
      * Reference to network input neurons
      */
-    private NeurophArrayList<String> inputNeuronUIDs;
+    private Neuron[] inputNeurons;
 
     /**
      * Reference to network output neurons
      */
-    private NeurophArrayList<String> outputNeuronUIDs;
+    private Neuron[] outputNeurons;
 
     /**
      * Learning rule for this network
@@ -122,17 +131,18 @@ public class NeuralNetwork<L extends LearningRule> implements Serializable {
     private String label = "";
 
     /**
-     * List of neural network listeners
+     * Listeners of this network events
      */
-    private static transient ConcurrentHashMap<String, List<NeuralNetworkEventListener>> listeners = new ConcurrentHashMap<>();
+    private transient NeuralNetworkEventListeners listeners = new NeuralNetworkEventListeners();
 
     /**
      * Creates an instance of empty neural network.
      */
     public NeuralNetwork() {
-        this.layerUIDs = new NeurophArrayList<>(String.class);
-        this.inputNeuronUIDs = new NeurophArrayList<>(String.class);
-        this.outputNeuronUIDs = new NeurophArrayList<>(String.class);
+        this.layers = new NeurophArrayList<>(Layer.class);
+        this.inputNeurons = new Neuron[0];
+        this.outputNeurons = new Neuron[0];
+        this.output = new double[0];
         this.plugins = new HashMap<>();
     }
 
@@ -153,14 +163,14 @@ public class NeuralNetwork<L extends LearningRule> implements Serializable {
         }
 
         // add layer to layers collection
-        layerUIDs.add(layer.getUID());
-        LAYER_REGISTER.put(layer.getUID(), layer);
+        layers.add(layer);
+        layersArray = null;
 
         // set parent network for added layer
         layer.setParentNetwork(this);
 
         // notify listeners that layer has been added
-        fireNetworkEvent(UID, new NeuralNetworkEvent(layer, NeuralNetworkEventType.LAYER_ADDED));
+        fireNetworkEvent(layer, NeuralNetworkEventType.LAYER_ADDED);
     }
 
     /**
@@ -187,14 +197,14 @@ public class NeuralNetwork<L extends LearningRule> implements Serializable {
         }
 
         // add layer to layers collection at specified position
-        layerUIDs.add(index, layer.getUID());
-        LAYER_REGISTER.put(layer.getUID(), layer);
+        layers.add(index, layer);
+        layersArray = null;
 
         // set parent network for added layer
         layer.setParentNetwork(this);
 
         // notify listeners that layer has been added
-        fireNetworkEvent(UID, new NeuralNetworkEvent(layer, NeuralNetworkEventType.LAYER_ADDED));
+        fireNetworkEvent(layer, NeuralNetworkEventType.LAYER_ADDED);
     }
 
     /**
@@ -207,13 +217,13 @@ public class NeuralNetwork<L extends LearningRule> implements Serializable {
 //        int index = indexOf(layer);
 //        removeLayerAt(index);
 
-        LAYER_REGISTER.remove(layer.getUID());
-        if (!layerUIDs.remove(layer)) {
+        if (!layers.remove(layer)) {
             throw new RuntimeException("Layer not in Neural n/w");
         }
+        layersArray = null;
 
         // notify listeners that layer has been removed
-        fireNetworkEvent(UID, new NeuralNetworkEvent(layer, NeuralNetworkEventType.LAYER_REMOVED));
+        fireNetworkEvent(layer, NeuralNetworkEventType.LAYER_REMOVED);
     }
 
     /**
@@ -234,27 +244,24 @@ public class NeuralNetwork<L extends LearningRule> implements Serializable {
 //        }
 
         // notify listeners that layer has been removed
-        fireNetworkEvent(UID, new NeuralNetworkEvent(LAYER_REGISTER.get(layerUIDs.get(index)), NeuralNetworkEventType.LAYER_REMOVED));
-
-        LAYER_REGISTER.remove(layerUIDs.get(index));
-        layerUIDs.remove(index);
+        Layer layer = layers.remove(index);
+        layersArray = null;
+        fireNetworkEvent(layer, NeuralNetworkEventType.LAYER_REMOVED);
     }
 
     /**
-     * Returns layers array
+     * Returns layers array. The array is cached, so it should not be modified;
+     * use addLayer/removeLayer instead.
      *
      * @return array of layers
      */
     public final Layer[] getLayers() {
-        Layer[] layers = new Layer[layerUIDs.size()];
-        int i = 0;
-
-        for (String layerUID : layerUIDs.asArray()) {
-            layers[i] = LAYER_REGISTER.get(layerUID);
-            i++;
+        Layer[] array = layersArray;
+        if (array == null) {
+            array = Arrays.copyOf(layers.asArray(), layers.size());
+            layersArray = array;
         }
-
-        return layers;
+        return array;
     }
 
     /**
@@ -264,7 +271,7 @@ public class NeuralNetwork<L extends LearningRule> implements Serializable {
      * @return layer at specified index position
      */
     public Layer getLayerAt(int index) {
-        return LAYER_REGISTER.get(layerUIDs.get(index));
+        return layers.get(index);
     }
 
     /**
@@ -274,7 +281,7 @@ public class NeuralNetwork<L extends LearningRule> implements Serializable {
      * @return layer position index
      */
     public int indexOf(Layer layer) {
-        return layerUIDs.indexOf(layer.getUID());
+        return layers.indexOf(layer);
 //        for (int i = 0; i < this.layers.length; i++) {
 //            if (layers[i] == layer) {
 //                return i;
@@ -284,13 +291,32 @@ public class NeuralNetwork<L extends LearningRule> implements Serializable {
 //        return -1;
     }
 
+    /**
+     * Returns neuron with the specified UID, or null if there is no such neuron in this network.
+     * Networks keep direct references to their layers and neurons, so this lookup walks the
+     * whole network and is intended only for code which still identifies neurons by UID.
+     *
+     * @param neuronUID neuron UID
+     * @return neuron with the specified UID
+     */
+    public Neuron findNeuron(String neuronUID) {
+        for (Layer layer : getLayers()) {
+            for (Neuron neuron : layer.getNeurons()) {
+                if (neuron.getUID().equals(neuronUID)) {
+                    return neuron;
+                }
+            }
+        }
+        return null;
+    }
+
     /**
      * Returns number of layers in network
      *
      * @return number of layes in net
      */
     public int getLayersCount() {
-        return layerUIDs.size();
+        return layers.size();
     }
 
     /**
@@ -299,15 +325,12 @@ public class NeuralNetwork<L extends LearningRule> implements Serializable {
      * @param inputVector network input as double array
      */
     public void setInput(double... inputVector) throws VectorSizeMismatchException {
-        if (inputVector.length != inputNeuronUIDs.size()) {
+        if (inputVector.length != inputNeurons.length) {
             throw new VectorSizeMismatchException("Input vector size does not match network input dimension!");
         }
 
-        int i = 0;
-        for (String neuronUID : this.inputNeuronUIDs) {
-            Neuron neuron = NEURON_REGISTER.get(neuronUID);
-            neuron.setInput(inputVector[i]); // set input to the coresponding neuron
-            i++;
+        for (int i = 0; i < inputVector.length; i++) {
+            inputNeurons[i].setInput(inputVector[i]); // set input to the coresponding neuron
         }
     }
 
@@ -320,8 +343,8 @@ public class NeuralNetwork<L extends LearningRule> implements Serializable {
      */
     public double[] getOutput() {
         // double[] outputVector = new double[outputNeurons.length];// use attribute to avoid creating to arrays and avoid GC work
-        for (int i = 0; i < outputNeuronUIDs.size(); i++) {
-            output[i] = NEURON_REGISTER.get(outputNeuronUIDs.get(i)).getOutput();
+        for (int i = 0; i < output.length; i++) {
+            output[i] = outputNeurons[i].getOutput();
         }
 
         return output;
@@ -331,20 +354,132 @@ public class NeuralNetwork<L extends LearningRule> implements Serializable {
      * Performs calculation on whole network
      */
     public void calculate() {
-        for (String layerUID : this.layerUIDs.asArray()) {
-            LAYER_REGISTER.get(layerUID).calculate();
-        }
+        calculateLayers();
 
 //        List<Future<Long>> results = mainPool.invokeAll(Arrays.asList(layers.asArray()));
-        fireNetworkEvent(UID, new NeuralNetworkEvent(this, NeuralNetworkEventType.CALCULATED));
+        // create event only if someone listens, so calculation does not allocate
+        if (listeners.hasListeners(NeuralNetworkEventType.CALCULATED)) {
+            listeners.fire(new NeuralNetworkEvent(this, NeuralNetworkEventType.CALCULATED));
+        }
+    }
+
+    /**
+     * Calculates all layers in the order they were added to network.
+     * Networks with feedback connections override this to define their own execution order.
+     */
+    protected void calculateLayers() {
+        Layer[] layersArray = layers.asArray();
+        for (int i = 0; i < layers.size(); i++) {
+            layersArray[i].calculate();
+        }
+    }
+
+    /**
+     * Calculates network outputs for a batch of input patterns.
+     * Network is compiled for this call, and layers are evaluated as matrix-matrix products over
+     * blocks of patterns. For repeated batch calls on the same network use compile().calculateBatch().
+     *
+     * @param inputs input patterns, one row per pattern
+     * @return network outputs, one row per pattern
+     * @see CompiledNetwork#calculateBatch(double[][])
+     */
+    public double[][] calculateBatch(double[][] inputs) {
+        return compile().calculateBatch(inputs);
+    }
+
+    /**
+     * Calculates network outputs for a batch of input patterns, and writes them into the specified buffer
+     *
+     * @param inputs  input patterns, one row per pattern
+     * @param outputs buffer for network outputs, with at least as many rows as inputs
+     * @see CompiledNetwork#calculateBatch(double[][], double[][])
+     */
+    public void calculateBatch(double[][] inputs, double[][] outputs) {
+        compile().calculateBatch(inputs, outputs);
+    }
+
+    /**
+     * Calculates network outputs for inputs of all rows in the specified data set
+     *
+     * @param dataSet data set with input patterns
+     * @return network outputs, one row per data set row
+     * @see CompiledNetwork#calculateBatch(DataSet)
+     */
+    public double[][] calculateBatch(DataSet dataSet) {
+        return compile().calculateBatch(dataSet);
     }
 
     /**
      * Resets the activation levels for whole network
      */
     public void reset() {
-        for (String layerUID : this.layerUIDs.asArray()) {
-            LAYER_REGISTER.get(layerUID).reset();
+        Layer[] layersArray = layers.asArray();
+        for (int i = 0; i < layers.size(); i++) {
+            layersArray[i].reset();
+        }
+    }
+
+    /**
+     * Creates compiled (flat array) form of this network for fast feed forward execution.
+     * Compiled network takes a snapshot of current weights, so call CompiledNetwork.syncWeights()
+     * after training, or CompiledNetwork.recompile() after changing network structure.
+     *
+     * @return compiled network
+     * @see CompiledNetwork
+     */
+    public CompiledNetwork compile() {
+        return new CompiledNetwork(this);
+    }
+
+    /**
+     * Creates int8 quantized form of this network, with output scales calibrated on the specified data set.
+     * Like compile(), it takes a snapshot of current weights.
+     *
+     * @param calibrationSet data set with typical inputs, used to calibrate quantization scales
+     * @return quantized network
+     * @see QuantizedNetwork
+     */
+    public QuantizedNetwork quantize(DataSet calibrationSet) {
+        return new QuantizedNetwork(compile(), calibrationSet);
+    }
+
+    /**
+     * Creates single precision (float32) form of this network, which can be calculated and trained
+     * with FloatDataSet. Like compile(), it takes a snapshot of current weights; trained weights are
+     * copied back with FloatNetwork.writeWeights().
+     *
+     * @return float network
+     * @see FloatNetwork
+     */
+    public FloatNetwork compileFloat() {
+        return new FloatNetwork(this);
+    }
+
+    /**
+     * Switches Sigmoid, Tanh and Gaussian transfer functions of all neurons to their lookup table
+     * variants (FastSigmoid, FastTanh, FastGaussian), or back to the exact functions.
+     * Neurons which shared one function instance share the replaced instance too.
+     * Compiled forms take transfer functions at compile time, so compile again after switching.
+     *
+     * @param enabled true for fast functions, false for exact functions
+     * @see FastMath
+     */
+    public void useFastMath(boolean enabled) {
+        Map<TransferFunction, TransferFunction> replaced = new IdentityHashMap<>();
+        Layer[] layersArray = layers.asArray();
+        for (int i = 0; i < layers.size(); i++) {
+            for (Neuron neuron : layersArray[i].getNeurons()) {
+                TransferFunction function = neuron.getTransferFunction();
+                if (function == null) {
+                    continue;
+                }
+                TransferFunction replacement = replaced.get(function);
+                if (replacement == null) {
+                    replacement = enabled ? FastMath.toFast(function) : FastMath.toExact(function);
+                    replaced.put(function, replacement);
+                }
+                neuron.setTransferFunction(replacement);
+            }
         }
     }
 
@@ -480,13 +615,13 @@ public class NeuralNetwork<L extends LearningRule> implements Serializable {
     }
 
     /**
-     * Returns input neurons
+     * Returns input neurons. Returned array should not be modified, use setInputNeurons instead.
      *
      * @return input neurons
      */
-//    public Neuron[] getInputNeurons() {
-//        return this.inputNeurons.asArray();
-//    }
+    public Neuron[] getInputNeurons() {
+        return inputNeurons;
+    }
 
     /**
      * Gets number of input neurons
@@ -494,7 +629,7 @@ public class NeuralNetwork<L extends LearningRule> implements Serializable {
      * @return number of input neurons
      */
     public int getInputsCount() {
-        return this.inputNeuronUIDs.size();
+        return this.inputNeurons.length;
     }
 
     /**
@@ -503,29 +638,20 @@ public class NeuralNetwork<L extends LearningRule> implements Serializable {
      * @param inputNeurons array of input neurons
      */
     public void setInputNeurons(Neuron[] inputNeurons) {
-        for (Neuron neuron : inputNeurons) {
-            NEURON_REGISTER.put(neuron.getUID(), neuron);
-            this.inputNeuronUIDs.add(neuron.getUID());
-        }
+        this.inputNeurons = inputNeurons.clone();
     }
 
     /**
-     * Returns output neurons
+     * Returns output neurons. Returned array should not be modified, use setOutputNeurons instead.
      *
      * @return array of output neurons
      */
     public Neuron[] getOutputNeurons() {
-        Neuron[] outputNeurons = new Neuron[outputNeuronUIDs.size()];
-        int i = 0;
-        for (String outputNeuronUID : outputNeuronUIDs) {
-            outputNeurons[i] = NEURON_REGISTER.get(outputNeuronUID);
-            i++;
-        }
         return outputNeurons;
     }
 
     public int getOutputsCount() {
-        return this.outputNeuronUIDs.size();
+        return this.outputNeurons.length;
     }
 
     /**
@@ -534,10 +660,7 @@ public class NeuralNetwork<L extends LearningRule> implements Serializable {
      * @param outputNeurons output neurons collection
      */
     public void setOutputNeurons(Neuron[] outputNeurons) {
-        for (Neuron neuron : outputNeurons) {
-            NEURON_REGISTER.put(neuron.getUID(), neuron);
-            this.outputNeuronUIDs.add(neuron.getUID());
-        }
+        this.outputNeurons = outputNeurons.clone();
         this.output = new double[outputNeurons.length];
     }
 
@@ -547,8 +670,8 @@ public class NeuralNetwork<L extends LearningRule> implements Serializable {
      * @param labels labels for output neurons
      */
     public void setOutputLabels(String[] labels) {
-        for (int i = 0; i < outputNeuronUIDs.size(); i++) {
-            NEURON_REGISTER.get(outputNeuronUIDs.get(i)).setLabel(labels[i]);
+        for (int i = 0; i < outputNeurons.length; i++) {
+            outputNeurons[i].setLabel(labels[i]);
         }
     }
 
@@ -584,14 +707,15 @@ public class NeuralNetwork<L extends LearningRule> implements Serializable {
     }
 
     /**
-     * Returns all network weights as an double array
+     * Returns all network weights as an double array.
+     * Use ParameterVector to read and write weights repeatedly, without boxing and allocation.
      *
      * @return network weights as an double array
+     * @see net.hardcodes.neuroid.core.learning.ParameterVector
      */
     public Double[] getWeights() {
-        List<Double> weights = new ArrayList();
-        for (String layerUID: layerUIDs.asArray()) {
-            Layer layer = LAYER_REGISTER.get(layerUID);
+        DoubleArrayList weights = new DoubleArrayList();
+        for (Layer layer : getLayers()) {
             for (Neuron neuron : layer.getNeurons()) {
                 for (Connection conn : neuron.getInputConnections()) {
                     weights.add(conn.getWeight().getValue());
@@ -599,7 +723,12 @@ public class NeuralNetwork<L extends LearningRule> implements Serializable {
             }
         }
 
-        return weights.toArray(new Double[weights.size()]);
+        Double[] boxed = new Double[weights.size()];
+        double[] values = weights.elements();
+        for (int i = 0; i < boxed.length; i++) {
+            boxed[i] = values[i];
+        }
+        return boxed;
     }
 
     /**
@@ -609,8 +738,7 @@ public class NeuralNetwork<L extends LearningRule> implements Serializable {
      */
     public void setWeights(double[] weights) {
         int i = 0;
-        for (String layerUID: layerUIDs.asArray()) {
-            Layer layer = LAYER_REGISTER.get(layerUID);
+        for (Layer layer : getLayers()) {
             for (Neuron neuron : layer.getNeurons()) {
                 for (Connection conn : neuron.getInputConnections()) {
                     conn.getWeight().setValue(weights[i]);
@@ -621,7 +749,7 @@ public class NeuralNetwork<L extends LearningRule> implements Serializable {
     }
 
     public boolean isEmpty() {
-        return layerUIDs.isEmpty();
+        return layers.isEmpty();
     }
 
     /**
@@ -752,7 +880,7 @@ public class NeuralNetwork<L extends LearningRule> implements Serializable {
     private void readObject(ObjectInputStream in)
             throws IOException, ClassNotFoundException {
         in.defaultReadObject();
-        listeners = new ConcurrentHashMap<>();
+        listeners = new NeuralNetworkEventListeners();
     }
 
     /**
@@ -833,6 +961,32 @@ public class NeuralNetwork<L extends LearningRule> implements Serializable {
         return NeuralNetwork.createFromFile(file);
     }
 
+    /**
+     * Saves neural network into the specified file in compact binary model format.
+     * Only network structure and weights are saved, see BinaryModelWriter for supported networks.
+     *
+     * @param filePath file path to save network into
+     * @see BinaryModelWriter
+     */
+    public void saveBinary(String filePath) {
+        BinaryModelWriter.save(this, new File(filePath));
+    }
+
+    /**
+     * Loads neural network from the specified file in binary model format, saved with saveBinary
+     *
+     * @param file neural network file
+     * @return neural network instance
+     * @see BinaryModelReader
+     */
+    public static NeuralNetwork createFromBinaryFile(File file) {
+        return BinaryModelReader.load(file);
+    }
+
+    public static NeuralNetwork createFromBinaryFile(String filePath) {
+        return BinaryModelReader.load(new File(filePath));
+    }
+
     /**
      * Adds plugin to neural network
      *
@@ -880,37 +1034,46 @@ public class NeuralNetwork<L extends LearningRule> implements Serializable {
         this.label = label;
     }
 
-    // This methods allows classes to register for LearningEvents
-    public static synchronized void addListener(String networkUID, NeuralNetworkEventListener listener) {
-        if (listener == null)
-            throw new IllegalArgumentException("listener is null!");
-
-        List<NeuralNetworkEventListener> networkEventListeners = listeners.get(networkUID);
-
-        if (networkEventListeners == null) {
-            networkEventListeners = new NeurophArrayList<>(NeuralNetworkEventListener.class);
-        }
-
-        networkEventListeners.add(listener);
-
-        listeners.put(networkUID, networkEventListeners);
+    /**
+     * Registers listener for the specified event types of this network, or for all event types if none is specified
+     *
+     * @param listener   listener to register
+     * @param eventTypes event types to listen for
+     */
+    public void addListener(NeuralNetworkEventListener listener, NeuralNetworkEventType... eventTypes) {
+        listeners.add(listener, eventTypes);
     }
 
-    // This methods allows classes to unregister for LearningEvents
-    public static synchronized void removeListener(String networkUID, NeuralNetworkEventListener listener) {
-        if (listener == null)
-            throw new IllegalArgumentException("listener is null!");
+    /**
+     * Unregisters listener from the specified event types of this network, or from all event types if none is specified
+     *
+     * @param listener   listener to unregister
+     * @param eventTypes event types to stop listening for
+     */
+    public void removeListener(NeuralNetworkEventListener listener, NeuralNetworkEventType... eventTypes) {
+        listeners.remove(listener, eventTypes);
+    }
 
-        listeners.get(networkUID).remove(listener);
+    /**
+     * Returns true if there is at least one listener for the specified event type of this network
+     *
+     * @param eventType event type
+     * @return true if event type has listeners, false otherwise
+     */
+    public boolean hasListeners(NeuralNetworkEventType eventType) {
+        return listeners.hasListeners(eventType);
     }
 
-    // This method is used to fire NeuralNetworkEvents
-    public static synchronized void fireNetworkEvent(String networkUID, NeuralNetworkEvent evt) {
-        if (listeners.get(networkUID) == null) {
-            return;
-        }
-        for (NeuralNetworkEventListener listener : listeners.get(networkUID)) {
-            listener.handleNeuralNetworkEvent(evt);
+    /**
+     * Notifies listeners about event of the specified layer. Event object is created only if
+     * there are listeners for the given event type.
+     *
+     * @param layer     layer which is the source of event
+     * @param eventType event type
+     */
+    protected void fireNetworkEvent(Layer layer, NeuralNetworkEventType eventType) {
+        if (listeners.hasListeners(eventType)) {
+            listeners.fire(new NeuralNetworkEvent(layer, eventType));
         }
     }
 }
@@ -20,10 +20,15 @@ import net.hardcodes.neuroid.core.input.InputFunction;
 import net.hardcodes.neuroid.core.input.WeightedSum;
 import net.hardcodes.neuroid.core.transfer.Step;
 import net.hardcodes.neuroid.core.transfer.TransferFunction;
+import net.hardcodes.neuroid.util.IdGenerator;
 import net.hardcodes.neuroid.util.NeurophArrayList;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
-import java.util.UUID;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
 import java.util.concurrent.Callable;
 
 /**
@@ -43,9 +48,16 @@ import java.util.concurrent.Callable;
 
 public class Neuron implements Serializable, Callable<Void> {
 
-    private final String UID =  UUID.randomUUID().toString();
+    /**
+     * Unique identifier, assigned by the first getUID() call, so neurons which are never
+     * identified by UID do not keep an identifier string
+     */
+    private String UID;
 
-    public String getUID() {
+    public synchronized String getUID() {
+        if (UID == null) {
+            UID = IdGenerator.nextId();
+        }
         return UID;
     }
 
@@ -64,7 +76,7 @@ public class Neuron implements Serializable, Callable<Void> {
     /**
      * Parent layer for this neuron
      */
-    protected String parentLayerUID;
+    protected Layer parentLayer;
 
     /**
      * Collection of neuron's input connections (connections to this neuron)
@@ -197,9 +209,27 @@ public class Neuron implements Serializable, Callable<Void> {
         return (this.inputConnections.size() > 0);
     }
 
+    /**
+     * Returns number of input connections for this neuron
+     *
+     * @return number of input connections
+     */
+    public int getInputConnectionsCount() {
+        return this.inputConnections.size();
+    }
+
+    /**
+     * Returns number of output connections for this neuron
+     *
+     * @return number of output connections
+     */
+    public int getOutputConnectionsCount() {
+        return this.outputConnections.size();
+    }
+
     public boolean hasOutputConnectionTo(Neuron neuron) {
-        for (Connection connection : outputConnections.asArray()) {
-            if (connection.getToNeuron() == neuron) {
+        for (int i = 0; i < outputConnections.size(); i++) {
+            if (outputConnections.get(i).getToNeuron() == neuron) {
                 return true;
             }
         }
@@ -207,8 +237,8 @@ public class Neuron implements Serializable, Callable<Void> {
     }
 
     public boolean hasInputConnectionFrom(Neuron neuron) {
-        for (Connection connection : inputConnections.asArray()) {
-            if (connection.getFromNeuron() == neuron) {
+        for (int i = 0; i < inputConnections.size(); i++) {
+            if (inputConnections.get(i).getFromNeuron() == neuron) {
                 return true;
             }
         }
@@ -240,9 +270,63 @@ public class Neuron implements Serializable, Callable<Void> {
 //            this.inputConnections[inputConnections.length - 1] = connection;     
 
         this.inputConnections.add(connection);
+        // connection arrays are used directly by input functions, so they must not have spare capacity
+        this.inputConnections.trimToSize();
 
+        // connections are added to both neurons, so without input connection from fromNeuron
+        // it has no output connection to this neuron either, and it does not need to be checked again
         Neuron fromNeuron = connection.getFromNeuron();
-        fromNeuron.addOutputConnection(connection);
+        fromNeuron.outputConnections.add(connection);
+        fromNeuron.outputConnections.trimToSize();
+        inputConnectionsChanged();
+    }
+
+    /**
+     * Adds the specified input connections, skipping connections from neurons which are already connected
+     * to this neuron. Existing connections are collected once into an identity set (not at all when this
+     * neuron has no input connections yet), so each connection is checked in constant time, and the input
+     * connection list is grown once. Output connection lists of the source neurons keep spare capacity,
+     * so after adding all connections call trimConnections() on the source neurons, like ConnectionFactory
+     * does when it connects layers.
+     * Subclasses which override addInputConnection(Connection) should override this method too.
+     *
+     * @param connections input connections to add, from distinct neurons
+     */
+    public void addInputConnections(Connection[] connections) {
+        Set<Neuron> connected = null;
+        if (inputConnections.size() > 0) {
+            connected = Collections.newSetFromMap(new IdentityHashMap<Neuron, Boolean>());
+            for (int i = 0; i < inputConnections.size(); i++) {
+                connected.add(inputConnections.get(i).getFromNeuron());
+            }
+        }
+
+        inputConnections.ensureCapacity(inputConnections.size() + connections.length);
+        for (Connection connection : connections) {
+            if (connection == null) {
+                throw new IllegalArgumentException("Attempt to add null connection to neuron!");
+            }
+            if (connection.getToNeuron() != this) {
+                throw new IllegalArgumentException("Cannot add input connection - bad toNeuron specified!");
+            }
+            Neuron fromNeuron = connection.getFromNeuron();
+            if (connected != null && !connected.add(fromNeuron)) {
+                continue;
+            }
+            inputConnections.add(connection);
+            fromNeuron.outputConnections.add(connection);
+        }
+        inputConnections.trimToSize();
+        inputConnectionsChanged();
+    }
+
+    /**
+     * Trims spare capacity of input and output connection lists, left by addInputConnections(),
+     * so getInputConnections() and getOutputConnections() return them without copying
+     */
+    public void trimConnections() {
+        inputConnections.trimToSize();
+        outputConnections.trimToSize();
     }
 
     /**
@@ -290,6 +374,7 @@ public class Neuron implements Serializable, Callable<Void> {
 
         // Now we can safely add new connection
         this.outputConnections.add(connection);
+        this.outputConnections.trimToSize();
 
 //            // grow existing connections  array to make space for new connection
 //            this.outputConnections =  Arrays.copyOf(outputConnections, outputConnections.length+1);
@@ -318,6 +403,9 @@ public class Neuron implements Serializable, Callable<Void> {
 
     protected void removeInputConnection(Connection conn) {
         inputConnections.remove(conn);
+        // connection arrays are used directly by input functions, so they must not have trailing nulls
+        inputConnections.trimToSize();
+        inputConnectionsChanged();
 //            for (int i = 0; i < inputConnections.length; i++) {
 //                if (inputConnections[i] == conn) {
 //                    for (int j = i; j < inputConnections.length - 1; j++) {
@@ -336,6 +424,7 @@ public class Neuron implements Serializable, Callable<Void> {
 
     protected void removeOutputConnection(Connection conn) {
         outputConnections.remove(conn);
+        outputConnections.trimToSize();
 //            for (int i = 0; i < outputConnections.length; i++) {
 //                if (outputConnections[i] == conn) {
 //                    for (int j = i; j < outputConnections.length - 1; j++) {
@@ -419,6 +508,8 @@ public class Neuron implements Serializable, Callable<Void> {
 
     public void removeAllInputConnections() {
         inputConnections.clear();
+        inputConnections.trimToSize();
+        inputConnectionsChanged();
 //            // run through all input connections
 //            for(int i = 0; i < inputConnections.length; i++) {
 //                inputConnections[i].getFromNeuron().removeOutputConnection(inputConnections[i]);    
@@ -430,6 +521,7 @@ public class Neuron implements Serializable, Callable<Void> {
 
     public void removeAllOutputConnections() {
         outputConnections.clear();
+        outputConnections.trimToSize();
 //            for(int i=0; i<outputConnections.length; i++) {
 //                outputConnections[i].getToNeuron().removeInputConnection(outputConnections[i]);
 //                outputConnections[i] = null;
@@ -442,6 +534,24 @@ public class Neuron implements Serializable, Callable<Void> {
         removeAllOutputConnections();
     }
 
+    /**
+     * Removes input and output connections of this neuron which are contained in the specified set,
+     * with a single pass over each connection list. Neurons on the other side of removed connections
+     * are not updated, so the same set should be given to them too. For large sets use a set which
+     * compares connections by identity (Collections.newSetFromMap(new IdentityHashMap())).
+     *
+     * @param connections connections to remove
+     */
+    public void removeConnections(Set<Connection> connections) {
+        if (inputConnections.removeAll(connections)) {
+            inputConnections.trimToSize();
+            inputConnectionsChanged();
+        }
+        if (outputConnections.removeAll(connections)) {
+            outputConnections.trimToSize();
+        }
+    }
+
     /**
      * Gets input connection from the specified neuron * @param fromNeuron
      * neuron connected to this neuron as input
@@ -497,10 +607,15 @@ public class Neuron implements Serializable, Callable<Void> {
      * @param parent reference on layer in which the cell is located
      */
     public void setParentLayer(Layer parent) {
-        if (parent != null) {
-            this.parentLayerUID = parent.getUID();
-        } else {
-            this.parentLayerUID = null;
+        this.parentLayer = parent;
+    }
+
+    /**
+     * Notifies parent layer that input connections of this neuron have changed
+     */
+    private void inputConnectionsChanged() {
+        if (parentLayer != null) {
+            parentLayer.connectionsChanged();
         }
     }
 
@@ -510,7 +625,7 @@ public class Neuron implements Serializable, Callable<Void> {
      * @return parent layer for this neuron
      */
     public Layer getParentLayer() {
-        return NeuralNetwork.LAYER_REGISTER.get(parentLayerUID);
+        return this.parentLayer;
     }
 
     /**
@@ -583,5 +698,18 @@ public class Neuron implements Serializable, Callable<Void> {
         this.label = label;
     }
 
-
+    /**
+     * Reads neuron and restores the endpoints of its connections, which are not serialized.
+     * Each connection is in the input connections of its to neuron and in the output connections
+     * of its from neuron, so it gets both endpoints once both neurons are read.
+     */
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        for (int i = 0; i < inputConnections.size(); i++) {
+            inputConnections.get(i).toNeuron = this;
+        }
+        for (int i = 0; i < outputConnections.size(); i++) {
+            outputConnections.get(i).fromNeuron = this;
+        }
+    }
 }
@@ -0,0 +1,570 @@
+/**
+ * Copyright 2014 Neuroph Project http://neuroph.sourceforge.net
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package net.hardcodes.neuroid.core.compiled;
+
+import net.hardcodes.neuroid.core.Weight;
+import net.hardcodes.neuroid.core.input.Difference;
+import net.hardcodes.neuroid.core.input.InputFunction;
+import net.hardcodes.neuroid.core.input.Max;
+import net.hardcodes.neuroid.core.input.WeightedSum;
+import net.hardcodes.neuroid.core.transfer.TransferFunction;
+
+/**
+ * <pre>
+ * Flat array snapshot of a single network layer, used by CompiledNetwork.
+ *
+ * Input connections of all neurons in the layer are stored contiguously: the weights of neuron j
+ * are at positions [fanInStart[j], fanInStart[j+1]) of the weights array, and the corresponding
+ * source neurons are given as indexes into the network activation buffer. This is compressed sparse
+ * row (CSR) format, so partially connected (pruned) layers take 12 bytes per connection (int source
+ * index and double weight), and are calculated and back propagated with index based kernels.
+ * If all connected neurons read the same continuous range of source neurons (fully connected layer)
+ * the source indexes are not stored at all, and the layer is evaluated as a dense matrix-vector product
+ * (or as a blocked matrix-matrix product when a batch of patterns is calculated).
+ * </pre>
+ *
+ * @see CompiledNetwork
+ */
+public class CompiledLayer {
+
+    /**
+     * Neuron which just transfers its externally set input to output (InputNeuron)
+     */
+    static final byte INPUT = 0;
+
+    /**
+     * Neuron with constant output 1 (BiasNeuron)
+     */
+    static final byte BIAS = 1;
+
+    /**
+     * Neuron with output = transferFunction(inputFunction(inputs))
+     */
+    static final byte PLAIN = 2;
+
+    /**
+     * Neuron with output = transferFunction(inputFunction(inputs) - thresh) (ThresholdNeuron)
+     */
+    static final byte THRESHOLD = 3;
+
+    /**
+     * Net input is weighted sum of inputs (WeightedSum)
+     */
+    static final byte WEIGHTED_SUM = 0;
+
+    /**
+     * Net input is euclidean distance between inputs and weights (Difference)
+     */
+    static final byte DIFFERENCE = 1;
+
+    /**
+     * Net input is maximum of weighted inputs (Max)
+     */
+    static final byte MAX = 2;
+
+    /**
+     * Net input is calculated by the primitive array kernel of any other input function (Sum, Product, Min...),
+     * supported only in dense layers
+     */
+    static final byte OTHER = 3;
+
+    /**
+     * Number of neurons in one tile of batch calculation
+     */
+    private static final int NEURONS_TILE = 32;
+
+    /**
+     * Number of weights per neuron in one tile of batch calculation
+     */
+    private static final int WEIGHTS_TILE = 256;
+
+    /**
+     * Position of the first neuron of this layer in network activation buffer
+     */
+    final int offset;
+
+    /**
+     * Number of neurons in this layer
+     */
+    final int size;
+
+    /**
+     * Neuron kind for each neuron (INPUT, BIAS, PLAIN, THRESHOLD)
+     */
+    final byte[] kinds;
+
+    /**
+     * Input function kind for each neuron (WEIGHTED_SUM, DIFFERENCE, MAX, OTHER)
+     */
+    final byte[] inputKinds;
+
+    /**
+     * Input function for each neuron, used for OTHER input kind
+     */
+    final InputFunction[] inputFunctions;
+
+    /**
+     * True if all neurons use weighted sum input function
+     */
+    private final boolean weightedSumOnly;
+
+    /**
+     * Transfer function for each neuron
+     */
+    final TransferFunction[] transferFunctions;
+
+    /**
+     * End of the run of PLAIN neurons with the same transfer function which starts at each neuron,
+     * so the run is activated with one bulk call. Null if layer reads outputs of its own neurons
+     * (or of later layers), since then each neuron must be activated before the next one is calculated.
+     */
+    private final int[] runEnds;
+
+    /**
+     * Threshold values for THRESHOLD neurons
+     */
+    final double[] thresholds;
+
+    /**
+     * Start position of each neuron's weights, with size+1 elements
+     */
+    final int[] fanInStart;
+
+    /**
+     * Activation buffer index of the source neuron for each weight, null for dense layers
+     */
+    final int[] sources;
+
+    /**
+     * First source neuron in activation buffer for dense layers
+     */
+    final int denseFrom;
+
+    /**
+     * Weight values of all input connections in this layer
+     */
+    final double[] weights;
+
+    /**
+     * Weight objects from the network that the weight values were copied from
+     */
+    final Weight[] weightRefs;
+
+    CompiledLayer(int offset, byte[] kinds, byte[] inputKinds, InputFunction[] inputFunctions, TransferFunction[] transferFunctions,
+                  double[] thresholds, int[] fanInStart, int[] sources, int denseFrom, Weight[] weightRefs) {
+        this.offset = offset;
+        this.size = kinds.length;
+        this.kinds = kinds;
+        this.inputKinds = inputKinds;
+        this.inputFunctions = inputFunctions;
+        boolean weightedSum = true;
+        for (byte inputKind : inputKinds) {
+            weightedSum &= (inputKind == WEIGHTED_SUM);
+        }
+        this.weightedSumOnly = weightedSum;
+        this.transferFunctions = transferFunctions;
+        this.thresholds = thresholds;
+        this.fanInStart = fanInStart;
+        this.sources = sources;
+        this.denseFrom = denseFrom;
+        this.weightRefs = weightRefs;
+        this.runEnds = activationRuns();
+        this.weights = new double[weightRefs.length];
+        syncWeights();
+    }
+
+    private int[] activationRuns() {
+        for (int j = 0; j < size; j++) {
+            for (int i = fanInStart[j]; i < fanInStart[j + 1]; i++) {
+                if ((sources == null ? denseFrom + (i - fanInStart[j]) : sources[i]) >= offset) {
+                    return null;
+                }
+            }
+        }
+        int[] ends = new int[size];
+        for (int j = size - 1; j >= 0; j--) {
+            boolean continued = kinds[j] == PLAIN && j + 1 < size && kinds[j + 1] == PLAIN
+                    && transferFunctions[j + 1].hasSameParameters(transferFunctions[j]);
+            ends[j] = continued ? ends[j + 1] : j + 1;
+        }
+        return ends;
+    }
+
+    /**
+     * Copies current weight values from the network into this layer
+     */
+    final void syncWeights() {
+        for (int i = 0; i < weightRefs.length; i++) {
+            weights[i] = weightRefs[i].value;
+        }
+    }
+
+    /**
+     * Calculates all neurons in this layer
+     *
+     * @param activations network activation buffer (neuron outputs)
+     * @param netInputs   network net input buffer
+     */
+    void calculate(double[] activations, double[] netInputs) {
+        for (int j = 0; j < size; j++) {
+            int from = fanInStart[j];
+            int to = fanInStart[j + 1];
+            if (from != to) {
+                switch (inputKinds[j]) {
+                    case DIFFERENCE:
+                        netInputs[offset + j] = difference(activations, from, to);
+                        break;
+                    case MAX:
+                        netInputs[offset + j] = max(activations, from, to);
+                        break;
+                    case OTHER:
+                        netInputs[offset + j] = inputFunctions[j].getOutput(activations, denseFrom, weights, from, to - from);
+                        break;
+                    default:
+                        netInputs[offset + j] = weightedSum(activations, from, to);
+                }
+            }
+            if (runEnds == null) {
+                activate(j, activations, netInputs);
+            }
+        }
+        if (runEnds != null) {
+            activateRuns(activations, netInputs);
+        }
+    }
+
+    /**
+     * Calculates all neurons in this layer for a batch of patterns. Dense weighted sum layers
+     * are evaluated as a matrix-matrix product tiled over neurons and weights, so that a tile of
+     * the weight matrix is reused for all patterns while it is in cache, and each weight is
+     * applied to several patterns at once. Each net input is still
+     * summed in the same order as in calculate(), so results are identical.
+     *
+     * @param activations activation buffers, one for each pattern
+     * @param netInputs   net input buffers, one for each pattern
+     * @param rows        number of patterns (buffers) to calculate
+     */
+    void calculateBatch(double[][] activations, double[][] netInputs, int rows) {
+        if (sources != null || !weightedSumOnly) {
+            for (int r = 0; r < rows; r++) {
+                calculate(activations[r], netInputs[r]);
+            }
+            return;
+        }
+
+        for (int j = 0; j < size; j++) {
+            if (fanInStart[j] != fanInStart[j + 1]) {
+                for (int r = 0; r < rows; r++) {
+                    netInputs[r][offset + j] = 0d;
+                }
+            }
+        }
+
+        for (int j0 = 0; j0 < size; j0 += NEURONS_TILE) {
+            int j1 = Math.min(j0 + NEURONS_TILE, size);
+            for (int k0 = 0; ; k0 += WEIGHTS_TILE) {
+                boolean more = false;
+                for (int j = j0; j < j1; j++) {
+                    int from = fanInStart[j];
+                    int fanIn = fanInStart[j + 1] - from;
+                    if (k0 >= fanIn) {
+                        continue;
+                    }
+                    int k1 = Math.min(k0 + WEIGHTS_TILE, fanIn);
+                    more |= (k1 < fanIn);
+                    accumulateTile(activations, netInputs, rows, offset + j, denseFrom + k0, from + k0, k1 - k0);
+                }
+                if (!more) {
+                    break;
+                }
+            }
+        }
+
+        for (int r = 0; r < rows; r++) {
+            if (runEnds != null) {
+                activateRuns(activations[r], netInputs[r]);
+            } else {
+                for (int j = 0; j < size; j++) {
+                    activate(j, activations[r], netInputs[r]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds weighted sum of one tile of inputs to the net input of one neuron, for all patterns in batch.
+     * Four patterns are processed together so that each weight is loaded once for all four of them.
+     */
+    private void accumulateTile(double[][] activations, double[][] netInputs, int rows,
+                                int neuronIdx, int src, int w, int count) {
+        int r = 0;
+        for (; r + 3 < rows; r += 4) {
+            double[] a0 = activations[r];
+            double[] a1 = activations[r + 1];
+            double[] a2 = activations[r + 2];
+            double[] a3 = activations[r + 3];
+            double net0 = netInputs[r][neuronIdx];
+            double net1 = netInputs[r + 1][neuronIdx];
+            double net2 = netInputs[r + 2][neuronIdx];
+            double net3 = netInputs[r + 3][neuronIdx];
+            for (int i = 0; i < count; i++) {
+                double weight = weights[w + i];
+                net0 += a0[src + i] * weight;
+                net1 += a1[src + i] * weight;
+                net2 += a2[src + i] * weight;
+                net3 += a3[src + i] * weight;
+            }
+            netInputs[r][neuronIdx] = net0;
+            netInputs[r + 1][neuronIdx] = net1;
+            netInputs[r + 2][neuronIdx] = net2;
+            netInputs[r + 3][neuronIdx] = net3;
+        }
+        for (; r < rows; r++) {
+            double[] a = activations[r];
+            double net = netInputs[r][neuronIdx];
+            for (int i = 0; i < count; i++) {
+                net += a[src + i] * weights[w + i];
+            }
+            netInputs[r][neuronIdx] = net;
+        }
+    }
+
+    private double weightedSum(double[] activations, int from, int to) {
+        if (sources == null) {
+            return WeightedSum.dot(activations, denseFrom, weights, from, to - from);
+        }
+        double net = 0d;
+        for (int i = from; i < to; i++) {
+            net += activations[sources[i]] * weights[i];
+        }
+        return net;
+    }
+
+    private double difference(double[] activations, int from, int to) {
+        if (sources == null) {
+            return Math.sqrt(Difference.squaredDistance(activations, denseFrom, weights, from, to - from));
+        }
+        double sum = 0d;
+        for (int i = from; i < to; i++) {
+            double diff = activations[sources[i]] - weights[i];
+            sum += diff * diff;
+        }
+        return Math.sqrt(sum);
+    }
+
+    private double max(double[] activations, int from, int to) {
+        if (sources == null) {
+            return Max.maxWeighted(activations, denseFrom, weights, from, to - from);
+        }
+        // starts from the same value as Max input function, so results are identical
+        double max = Double.MIN_VALUE;
+        for (int i = from; i < to; i++) {
+            max = Math.max(max, activations[sources[i]] * weights[i]);
+        }
+        return max;
+    }
+
+    /**
+     * Calculates outputs of all neurons from their net inputs, with one bulk transfer function call
+     * for each run of neurons which share the same function
+     */
+    private void activateRuns(double[] activations, double[] netInputs) {
+        for (int j = 0; j < size; ) {
+            int end = runEnds[j];
+            if (end - j > 1) {
+                transferFunctions[j].apply(netInputs, activations, offset + j, offset + end);
+            } else {
+                activate(j, activations, netInputs);
+            }
+            j = end;
+        }
+    }
+
+    /**
+     * Calculates output of the specified neuron from its net input
+     */
+    private void activate(int j, double[] activations, double[] netInputs) {
+        int neuronIdx = offset + j;
+        switch (kinds[j]) {
+            case INPUT:
+                activations[neuronIdx] = netInputs[neuronIdx];
+                break;
+            case BIAS:
+                activations[neuronIdx] = 1d;
+                break;
+            case THRESHOLD:
+                activations[neuronIdx] = transferFunctions[j].getOutput(netInputs[neuronIdx] - thresholds[j]);
+                break;
+            default:
+                activations[neuronIdx] = transferFunctions[j].getOutput(netInputs[neuronIdx]);
+        }
+    }
+
+    /**
+     * Propagates errors back through this layer, for one pattern. Error (delta) of each neuron is read from
+     * the deltas buffer (for hidden layers it is first multiplied by transfer function derivative),
+     * its weight gradients (delta * input) are added to the gradients buffer, and its weighted delta is added
+     * to the deltas of its source neurons. Used by GradientSession, only for feed forward weighted sum layers.
+     *
+     * @param activations    network activation buffer (neuron outputs)
+     * @param netInputs      network net input buffer
+     * @param deltas         network error buffer, with weighted error sums for hidden neurons
+     * @param gradients      network gradients buffer
+     * @param gradientOffset position of this layer's first weight in the gradients buffer
+     * @param hidden         true for hidden layers, false for the output layer, whose deltas are already set
+     */
+    void backpropagate(double[] activations, double[] netInputs, double[] deltas, double[] gradients,
+                       int gradientOffset, boolean hidden) {
+        for (int j = 0; j < size; j++) {
+            int from = fanInStart[j];
+            int to = fanInStart[j + 1];
+            if (from == to) {
+                continue;
+            }
+            int neuronIdx = offset + j;
+            double delta = deltas[neuronIdx];
+            if (hidden) {
+                delta *= transferFunctions[j].derivativeFromOutput(netInputs[neuronIdx], activations[neuronIdx]);
+                deltas[neuronIdx] = delta;
+            }
+            if (delta == 0) {
+                continue;
+            }
+            if (sources == null) {
+                for (int i = from, src = denseFrom; i < to; i++, src++) {
+                    gradients[gradientOffset + i] += delta * activations[src];
+                    deltas[src] += delta * weights[i];
+                }
+            } else {
+                for (int i = from; i < to; i++) {
+                    gradients[gradientOffset + i] += delta * activations[sources[i]];
+                    deltas[sources[i]] += delta * weights[i];
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds learning rate * gradient to the network weight of each connection in this layer.
+     * Compiled weight values are not changed, call syncWeights() after all layers are updated.
+     *
+     * @param gradients      network gradients buffer
+     * @param gradientOffset position of this layer's first weight in the gradients buffer
+     * @param learningRate   learning rate
+     */
+    void applyGradients(double[] gradients, int gradientOffset, double learningRate) {
+        for (int i = 0; i < weightRefs.length; i++) {
+            weightRefs[i].value += learningRate * gradients[gradientOffset + i];
+        }
+    }
+
+    /**
+     * Adds weight changes for the specified gradients directly to the weights of this compiled layer, and clears
+     * the gradients. Weight change is learning rate * gradient + momentum * previous weight change, where previous
+     * weight changes are kept in the velocity buffer. Without momentum only weights with non zero gradient
+     * are written. Network weights are not changed, call storeWeights() to copy the values back.
+     *
+     * @param gradients      network gradients buffer
+     * @param gradientOffset position of this layer's first weight in the gradients and velocity buffers
+     * @param learningRate   learning rate
+     * @param momentum       momentum factor
+     * @param velocity       previous weight changes, updated by this method, or null if momentum is zero
+     */
+    void descend(double[] gradients, int gradientOffset, double learningRate, double momentum, double[] velocity) {
+        if (velocity == null) {
+            for (int i = 0, g = gradientOffset; i < weights.length; i++, g++) {
+                if (gradients[g] != 0) {
+                    weights[i] += learningRate * gradients[g];
+                    gradients[g] = 0;
+                }
+            }
+        } else {
+            for (int i = 0, g = gradientOffset; i < weights.length; i++, g++) {
+                double change = learningRate * gradients[g] + momentum * velocity[g];
+                velocity[g] = change;
+                weights[i] += change;
+                gradients[g] = 0;
+            }
+        }
+    }
+
+    /**
+     * Copies weight values of this layer to the network
+     */
+    final void storeWeights() {
+        for (int i = 0; i < weightRefs.length; i++) {
+            weightRefs[i].value = weights[i];
+        }
+    }
+
+    /**
+     * Returns true if all neurons use weighted sum input function
+     */
+    boolean isWeightedSumOnly() {
+        return weightedSumOnly;
+    }
+
+    /**
+     * Returns true if neurons read only outputs of earlier layers
+     */
+    boolean isFeedForward() {
+        return runEnds != null;
+    }
+
+    /**
+     * Returns transfer function of the specified neuron
+     */
+    TransferFunction getTransferFunction(int j) {
+        return transferFunctions[j];
+    }
+
+    /**
+     * Returns number of neurons in this layer
+     *
+     * @return number of neurons in this layer
+     */
+    public int getNeuronsCount() {
+        return size;
+    }
+
+    /**
+     * Returns number of weights (input connections) in this layer
+     *
+     * @return number of weights in this layer
+     */
+    public int getWeightsCount() {
+        return weights.length;
+    }
+
+    /**
+     * Returns true if this layer is stored as dense weight matrix
+     *
+     * @return true if layer is dense, false otherwise
+     */
+    public boolean isDense() {
+        return sources == null;
+    }
+
+    /**
+     * Returns approximate heap size of connection data (weight starts, source indexes and weights) in bytes
+     *
+     * @return connection data size in bytes
+     */
+    public long getConnectionBytes() {
+        return 4L * (fanInStart.length + (sources == null ? 0 : sources.length)) + 8L * weights.length;
+    }
+
+}
@@ -0,0 +1,456 @@
+/**
+ * Copyright 2014 Neuroph Project http://neuroph.sourceforge.net
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package net.hardcodes.neuroid.core.compiled;
+
+import net.hardcodes.neuroid.core.Connection;
+import net.hardcodes.neuroid.core.Layer;
+import net.hardcodes.neuroid.core.NeuralNetwork;
+import net.hardcodes.neuroid.core.Neuron;
+import net.hardcodes.neuroid.core.Weight;
+import net.hardcodes.neuroid.core.exceptions.NeurophException;
+import net.hardcodes.neuroid.core.exceptions.VectorSizeMismatchException;
+import net.hardcodes.neuroid.core.data.DataSet;
+import net.hardcodes.neuroid.core.input.And;
+import net.hardcodes.neuroid.core.input.Difference;
+import net.hardcodes.neuroid.core.input.InputFunction;
+import net.hardcodes.neuroid.core.input.Max;
+import net.hardcodes.neuroid.core.input.Min;
+import net.hardcodes.neuroid.core.input.Or;
+import net.hardcodes.neuroid.core.input.Product;
+import net.hardcodes.neuroid.core.input.Sum;
+import net.hardcodes.neuroid.core.input.SumSqr;
+import net.hardcodes.neuroid.core.input.WeightedSum;
+import net.hardcodes.neuroid.core.transfer.TransferFunction;
+import net.hardcodes.neuroid.net.comp.neuron.BiasNeuron;
+import net.hardcodes.neuroid.net.comp.neuron.InputNeuron;
+import net.hardcodes.neuroid.net.comp.neuron.ThresholdNeuron;
+
+import java.util.IdentityHashMap;
+
+/**
+ * <pre>
+ * Compiled form of a neural network, used for fast feed forward execution.
+ * It takes a snapshot of network layers, neurons and connections and stores them in contiguous
+ * weight arrays with index based adjacency, and a single activation buffer laid out layer after layer.
+ * Calculation does not touch the network object graph at all, and gives the same results as
+ * NeuralNetwork.calculate() for the same weights.
+ *
+ * Weights are copied at compile time. If the network is trained afterwards call syncWeights()
+ * to refresh weight values, or recompile() if network structure or transfer function parameters
+ * have changed, since neurons with the same parameters are activated together with one function.
+ *
+ * Calculation methods of this class use one internal session and are not thread safe. For concurrent
+ * calculation each thread should create its own InferenceSession, which shares weights with this network.
+ * </pre>
+ *
+ * @see NeuralNetwork#compile()
+ * @see CompiledLayer
+ * @see InferenceSession
+ */
+public class CompiledNetwork {
+
+    /**
+     * Network that this compiled network is created from
+     */
+    private final NeuralNetwork network;
+
+    /**
+     * Compiled layers
+     */
+    private CompiledLayer[] layers;
+
+    /**
+     * Neuron outputs at the time network was compiled, used to initialize sessions
+     */
+    double[] initialActivations;
+
+    /**
+     * Neuron net inputs at the time network was compiled, used to initialize sessions
+     */
+    private double[] initialNetInputs;
+
+    /**
+     * Activation buffer indexes of network input neurons
+     */
+    int[] inputIndexes;
+
+    /**
+     * Activation buffer indexes of network output neurons
+     */
+    int[] outputIndexes;
+
+    /**
+     * Session used by calculation methods of this class
+     */
+    private InferenceSession session;
+
+    /**
+     * Creates compiled network for the specified neural network
+     *
+     * @param network neural network to compile
+     */
+    public CompiledNetwork(NeuralNetwork network) {
+        if (network == null) {
+            throw new IllegalArgumentException("Network cant be null!");
+        }
+        this.network = network;
+        recompile();
+    }
+
+    /**
+     * Rebuilds this compiled network from the current structure and weights of the source network
+     */
+    public final void recompile() {
+        Layer[] networkLayers = network.getLayers();
+
+        // assign activation buffer index to each neuron
+        IdentityHashMap<Neuron, Integer> neuronIndexes = new IdentityHashMap<>();
+        int[] offsets = new int[networkLayers.length];
+        int neuronsCount = 0;
+        for (int l = 0; l < networkLayers.length; l++) {
+            offsets[l] = neuronsCount;
+            for (Neuron neuron : networkLayers[l].getNeurons()) {
+                neuronIndexes.put(neuron, neuronsCount++);
+            }
+        }
+
+        // sessions start from the current state of the network
+        initialActivations = new double[neuronsCount];
+        initialNetInputs = new double[neuronsCount];
+        for (Neuron neuron : neuronIndexes.keySet()) {
+            int idx = neuronIndexes.get(neuron);
+            initialActivations[idx] = neuron.getOutput();
+            initialNetInputs[idx] = neuron.getNetInput();
+        }
+
+        layers = new CompiledLayer[networkLayers.length];
+        for (int l = 0; l < networkLayers.length; l++) {
+            layers[l] = compileLayer(networkLayers[l], offsets[l], neuronIndexes);
+        }
+
+        inputIndexes = indexesOf(network.getInputNeurons(), neuronIndexes);
+        outputIndexes = indexesOf(network.getOutputNeurons(), neuronIndexes);
+        session = createSession();
+    }
+
+    private CompiledLayer compileLayer(Layer layer, int offset, IdentityHashMap<Neuron, Integer> neuronIndexes) {
+        Neuron[] neurons = layer.getNeurons();
+        int size = neurons.length;
+
+        byte[] kinds = new byte[size];
+        byte[] inputKinds = new byte[size];
+        InputFunction[] inputFunctions = new InputFunction[size];
+        boolean otherInputFunctions = false;
+        TransferFunction[] transferFunctions = new TransferFunction[size];
+        double[] thresholds = new double[size];
+        int[] fanInStart = new int[size + 1];
+
+        for (int j = 0; j < size; j++) {
+            Neuron neuron = neurons[j];
+            Class neuronClass = neuron.getClass();
+            if (neuronClass == InputNeuron.class) {
+                kinds[j] = CompiledLayer.INPUT;
+            } else if (neuronClass == BiasNeuron.class) {
+                kinds[j] = CompiledLayer.BIAS;
+            } else if (neuronClass == Neuron.class) {
+                kinds[j] = CompiledLayer.PLAIN;
+            } else if (neuronClass == ThresholdNeuron.class) {
+                kinds[j] = CompiledLayer.THRESHOLD;
+                thresholds[j] = ((ThresholdNeuron) neuron).getThresh();
+            } else {
+                throw new NeurophException("Neuron type " + neuronClass.getName() + " is not supported by compiled network!");
+            }
+            transferFunctions[j] = neuron.getTransferFunction();
+
+            int connectionsCount = 0;
+            if (kinds[j] != CompiledLayer.INPUT && kinds[j] != CompiledLayer.BIAS) {
+                connectionsCount = countConnections(neuron);
+                inputFunctions[j] = neuron.getInputFunction();
+                Class inputFunctionClass = inputFunctions[j].getClass();
+                if (inputFunctionClass == Difference.class) {
+                    inputKinds[j] = CompiledLayer.DIFFERENCE;
+                } else if (inputFunctionClass == Max.class) {
+                    inputKinds[j] = CompiledLayer.MAX;
+                } else if (connectionsCount > 0 && inputFunctionClass != WeightedSum.class) {
+                    if (!hasPrimitiveKernel(inputFunctionClass)) {
+                        throw new NeurophException("Input function " + inputFunctionClass.getName() + " is not supported by compiled network!");
+                    }
+                    inputKinds[j] = CompiledLayer.OTHER;
+                    otherInputFunctions = true;
+                }
+            }
+            fanInStart[j + 1] = fanInStart[j] + connectionsCount;
+        }
+
+        int[] sources = new int[fanInStart[size]];
+        Weight[] weightRefs = new Weight[fanInStart[size]];
+        for (int j = 0; j < size; j++) {
+            Connection[] connections = neurons[j].getInputConnections();
+            for (int i = fanInStart[j]; i < fanInStart[j + 1]; i++) {
+                Connection connection = connections[i - fanInStart[j]];
+                Integer sourceIdx = neuronIndexes.get(connection.getFromNeuron());
+                if (sourceIdx == null) {
+                    throw new NeurophException("Connection from neuron which is not in network layers can not be compiled!");
+                }
+                sources[i] = sourceIdx;
+                weightRefs[i] = connection.getWeight();
+            }
+        }
+
+        int denseFrom = denseSourceStart(fanInStart, sources);
+        if (otherInputFunctions && denseFrom < 0) {
+            throw new NeurophException("Input functions other than WeightedSum, Difference and Max are supported by compiled network only in fully connected layers!");
+        }
+        return new CompiledLayer(offset, kinds, inputKinds, inputFunctions, transferFunctions, thresholds,
+                fanInStart, denseFrom < 0 ? sources : null, denseFrom, weightRefs);
+    }
+
+    /**
+     * Returns true for input functions which implement the primitive array kernel. Subclasses are not accepted,
+     * since they may override only getOutput(Connection[]).
+     */
+    private static boolean hasPrimitiveKernel(Class inputFunctionClass) {
+        return inputFunctionClass == Sum.class || inputFunctionClass == SumSqr.class || inputFunctionClass == Product.class
+                || inputFunctionClass == Min.class || inputFunctionClass == And.class || inputFunctionClass == Or.class;
+    }
+
+    /**
+     * Returns number of non null input connections for the given neuron
+     */
+    private static int countConnections(Neuron neuron) {
+        int count = 0;
+        for (Connection connection : neuron.getInputConnections()) {
+            if (connection == null) {
+                break;
+            }
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Returns the first source index if all connected neurons read the same continuous
+     * range of source neurons (in the same order), or -1 otherwise
+     */
+    private static int denseSourceStart(int[] fanInStart, int[] sources) {
+        int first = -1;
+        int fanIn = -1;
+        for (int j = 0; j < fanInStart.length - 1; j++) {
+            int from = fanInStart[j];
+            int to = fanInStart[j + 1];
+            if (from == to) {
+                continue;
+            }
+            if (first == -1) {
+                first = sources[from];
+                fanIn = to - from;
+            } else if (to - from != fanIn) {
+                return -1;
+            }
+            for (int i = from; i < to; i++) {
+                if (sources[i] != first + (i - from)) {
+                    return -1;
+                }
+            }
+        }
+        return first;
+    }
+
+    private static int[] indexesOf(Neuron[] neurons, IdentityHashMap<Neuron, Integer> neuronIndexes) {
+        int[] indexes = new int[neurons.length];
+        for (int i = 0; i < neurons.length; i++) {
+            Integer idx = neuronIndexes.get(neurons[i]);
+            if (idx == null) {
+                throw new NeurophException("Network input/output neuron is not in network layers!");
+            }
+            indexes[i] = idx;
+        }
+        return indexes;
+    }
+
+    /**
+     * Copies current weight values from the source network. Use this method
+     * after training, when network structure has not been changed.
+     */
+    public void syncWeights() {
+        for (CompiledLayer layer : layers) {
+            layer.syncWeights();
+        }
+    }
+
+    /**
+     * Creates new inference session for this network. Each thread which calculates
+     * the network concurrently with others should use its own session.
+     *
+     * @return new inference session
+     */
+    public InferenceSession createSession() {
+        return new InferenceSession(this, layers, inputIndexes, outputIndexes, initialActivations, initialNetInputs);
+    }
+
+    /**
+     * Creates new gradient session for this network, used to calculate weight gradients for training.
+     * Each thread which calculates gradients concurrently with others should use its own session.
+     *
+     * @return new gradient session
+     * @throws NeurophException if network has layers which are not feed forward weighted sum layers
+     */
+    public GradientSession createGradientSession() {
+        return new GradientSession(layers, inputIndexes, outputIndexes, initialActivations, initialNetInputs);
+    }
+
+    /**
+     * Adds learningRate * gradient to each weight of the source network, and copies new weight values
+     * into this compiled network. Gradients must be in the order of GradientSession gradients.
+     *
+     * @param gradients    weight gradients
+     * @param learningRate learning rate
+     */
+    public void applyGradients(double[] gradients, double learningRate) {
+        int gradientOffset = 0;
+        for (CompiledLayer layer : layers) {
+            layer.applyGradients(gradients, gradientOffset, learningRate);
+            gradientOffset += layer.getWeightsCount();
+        }
+        // weights can be shared between layers, so values are copied after all of them are updated
+        syncWeights();
+    }
+
+    /**
+     * Copies current weight values of this compiled network to the source network, the reverse of syncWeights().
+     * Used after weights of the compiled network were changed with GradientSession.descend().
+     */
+    public void storeWeights() {
+        for (CompiledLayer layer : layers) {
+            layer.storeWeights();
+        }
+    }
+
+    /**
+     * Sets network input
+     *
+     * @param inputVector network input as double array
+     */
+    public void setInput(double... inputVector) throws VectorSizeMismatchException {
+        session.setInput(inputVector);
+    }
+
+    /**
+     * Performs calculation on whole network
+     */
+    public void calculate() {
+        session.calculate();
+    }
+
+    /**
+     * Returns network output vector. Returned array is reused by subsequent calls.
+     *
+     * @return network output vector
+     */
+    public double[] getOutput() {
+        return session.getOutput();
+    }
+
+    /**
+     * Calculates network outputs for a batch of input patterns
+     *
+     * @param inputs input patterns, one row per pattern
+     * @return network outputs, one row per pattern
+     * @see InferenceSession#calculateBatch(double[][])
+     */
+    public double[][] calculateBatch(double[][] inputs) {
+        return session.calculateBatch(inputs);
+    }
+
+    /**
+     * Calculates network outputs for a batch of input patterns, and writes them into the specified buffer
+     *
+     * @param inputs  input patterns, one row per pattern
+     * @param outputs buffer for network outputs, with at least as many rows as inputs
+     * @see InferenceSession#calculateBatch(double[][], double[][])
+     */
+    public void calculateBatch(double[][] inputs, double[][] outputs) throws VectorSizeMismatchException {
+        session.calculateBatch(inputs, outputs);
+    }
+
+    /**
+     * Calculates network outputs for inputs of all rows in the specified data set
+     *
+     * @param dataSet data set with input patterns
+     * @return network outputs, one row per data set row
+     * @see InferenceSession#calculateBatch(DataSet)
+     */
+    public double[][] calculateBatch(DataSet dataSet) {
+        return session.calculateBatch(dataSet);
+    }
+
+    /**
+     * Resets the activation levels for whole network
+     */
+    public void reset() {
+        session.reset();
+    }
+
+    /**
+     * Returns the network that this compiled network was created from
+     *
+     * @return source neural network
+     */
+    public NeuralNetwork getNetwork() {
+        return network;
+    }
+
+    /**
+     * Returns compiled layers
+     *
+     * @return compiled layers
+     */
+    public CompiledLayer[] getLayers() {
+        return layers;
+    }
+
+    /**
+     * Returns number of network inputs
+     *
+     * @return number of network inputs
+     */
+    public int getInputsCount() {
+        return inputIndexes.length;
+    }
+
+    /**
+     * Returns number of network outputs
+     *
+     * @return number of network outputs
+     */
+    public int getOutputsCount() {
+        return outputIndexes.length;
+    }
+
+    /**
+     * Returns total number of weights in compiled network
+     *
+     * @return total number of weights
+     */
+    public int getWeightsCount() {
+        int count = 0;
+        for (CompiledLayer layer : layers) {
+            count += layer.weights.length;
+        }
+        return count;
+    }
+
+}
@@ -0,0 +1,391 @@
+/**
+ * Copyright 2014 Neuroph Project http://neuroph.sourceforge.net
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package net.hardcodes.neuroid.core.compiled;
+
+import net.hardcodes.neuroid.core.NeuralNetwork;
+import net.hardcodes.neuroid.core.Weight;
+import net.hardcodes.neuroid.core.data.FloatDataSet;
+import net.hardcodes.neuroid.core.exceptions.NeurophException;
+import net.hardcodes.neuroid.core.exceptions.VectorSizeMismatchException;
+
+import java.util.IdentityHashMap;
+
+/**
+ * <pre>
+ * Single precision (float32) form of a compiled network, for inference and training.
+ *
+ * Weights, neuron outputs and net inputs are stored in float arrays, which halves their memory and
+ * cache footprint. Weighted sums and back propagated errors are accumulated in double and rounded
+ * to float once per neuron, so precision loss does not grow with layer size. Connections which share
+ * the same Weight object in the source network (as in convolutional layers) share one float parameter.
+ *
+ * Training uses the same online rule as BackPropagation: for each pattern, output layer and then hidden
+ * layers compute their error (delta) and update their input weights with
+ *      weight += learningRate * delta * input
+ * Layers with Max input function (pooling layers) only propagate error, as in ConvolutionalBackpropagation.
+ * Trained weights are written back to the source network with writeWeights().
+ *
+ * Calculation and training methods use internal buffers and are not thread safe.
+ * </pre>
+ *
+ * @see NeuralNetwork#compileFloat()
+ * @see FloatDataSet
+ */
+public class FloatNetwork {
+
+    private final NeuralNetwork network;
+    private final CompiledLayer[] layers;
+    private final int[] inputIndexes;
+    private final int[] outputIndexes;
+
+    /**
+     * Weight values for each layer
+     */
+    private final float[][] weights;
+
+    /**
+     * Weight index for each connection in layers with shared weights, null for other layers
+     */
+    private final int[][] weightIndexes;
+
+    /**
+     * Source network weights for each weight value
+     */
+    private final Weight[][] weightRefs;
+
+    private final float[] activations;
+    private final float[] netInputs;
+    private final double[] errors;
+    private final float[] output;
+
+    /**
+     * Creates float network from the current structure and weights of the specified network
+     *
+     * @param network network to compile
+     */
+    public FloatNetwork(NeuralNetwork network) {
+        CompiledNetwork compiledNetwork = new CompiledNetwork(network);
+        this.network = network;
+        this.layers = compiledNetwork.getLayers();
+        this.inputIndexes = compiledNetwork.inputIndexes;
+        this.outputIndexes = compiledNetwork.outputIndexes;
+
+        weights = new float[layers.length][];
+        weightIndexes = new int[layers.length][];
+        weightRefs = new Weight[layers.length][];
+        for (int l = 0; l < layers.length; l++) {
+            for (byte inputKind : layers[l].inputKinds) {
+                if (inputKind == CompiledLayer.OTHER) {
+                    throw new NeurophException("Only WeightedSum, Difference and Max input functions are supported by float network!");
+                }
+            }
+            Weight[] connectionWeights = layers[l].weightRefs;
+            IdentityHashMap<Weight, Integer> uniqueWeights = new IdentityHashMap<>();
+            int[] indexes = new int[connectionWeights.length];
+            for (int i = 0; i < connectionWeights.length; i++) {
+                Integer index = uniqueWeights.get(connectionWeights[i]);
+                if (index == null) {
+                    index = uniqueWeights.size();
+                    uniqueWeights.put(connectionWeights[i], index);
+                }
+                indexes[i] = index;
+            }
+
+            weightRefs[l] = new Weight[uniqueWeights.size()];
+            for (int i = 0; i < connectionWeights.length; i++) {
+                weightRefs[l][indexes[i]] = connectionWeights[i];
+            }
+            weightIndexes[l] = (uniqueWeights.size() == connectionWeights.length) ? null : indexes;
+            weights[l] = new float[weightRefs[l].length];
+        }
+        readWeights();
+
+        int neuronsCount = compiledNetwork.initialActivations.length;
+        activations = new float[neuronsCount];
+        for (int i = 0; i < neuronsCount; i++) {
+            activations[i] = (float) compiledNetwork.initialActivations[i];
+        }
+        netInputs = new float[neuronsCount];
+        errors = new double[neuronsCount];
+        output = new float[outputIndexes.length];
+    }
+
+    /**
+     * Copies current weight values from the source network
+     */
+    public final void readWeights() {
+        for (int l = 0; l < layers.length; l++) {
+            for (int i = 0; i < weights[l].length; i++) {
+                weights[l][i] = (float) weightRefs[l][i].value;
+            }
+        }
+    }
+
+    /**
+     * Copies weight values of this network into the source network
+     */
+    public void writeWeights() {
+        for (int l = 0; l < layers.length; l++) {
+            for (int i = 0; i < weights[l].length; i++) {
+                weightRefs[l][i].value = weights[l][i];
+            }
+        }
+    }
+
+    /**
+     * Sets network input
+     *
+     * @param inputVector network input
+     */
+    public void setInput(float... inputVector) throws VectorSizeMismatchException {
+        if (inputVector.length != inputIndexes.length) {
+            throw new VectorSizeMismatchException("Input vector size does not match network input dimension!");
+        }
+        setInput(inputVector, 0);
+    }
+
+    /**
+     * Sets network input from the specified position of the given array
+     *
+     * @param inputs array with network input
+     * @param offset position of the first input value
+     */
+    public void setInput(float[] inputs, int offset) {
+        for (int i = 0; i < inputIndexes.length; i++) {
+            activations[inputIndexes[i]] = inputs[offset + i];
+        }
+    }
+
+    /**
+     * Performs calculation on whole network
+     */
+    public void calculate() {
+        for (int l = 0; l < layers.length; l++) {
+            CompiledLayer layer = layers[l];
+            float[] layerWeights = weights[l];
+            int[] indexes = weightIndexes[l];
+            for (int j = 0; j < layer.size; j++) {
+                int neuronIdx = layer.offset + j;
+                switch (layer.kinds[j]) {
+                    case CompiledLayer.INPUT:
+                        break;
+                    case CompiledLayer.BIAS:
+                        activations[neuronIdx] = 1f;
+                        break;
+                    default:
+                        int from = layer.fanInStart[j];
+                        int to = layer.fanInStart[j + 1];
+                        double net = 0;
+                        if (from != to) {
+                            switch (layer.inputKinds[j]) {
+                                case CompiledLayer.DIFFERENCE:
+                                    net = difference(layer, layerWeights, indexes, from, to);
+                                    break;
+                                case CompiledLayer.MAX:
+                                    net = max(layer, layerWeights, indexes, from, to);
+                                    break;
+                                default:
+                                    net = weightedSum(layer, layerWeights, indexes, from, to);
+                            }
+                        } else {
+                            net = netInputs[neuronIdx];
+                        }
+                        if (layer.kinds[j] == CompiledLayer.THRESHOLD) {
+                            net -= layer.thresholds[j];
+                        }
+                        netInputs[neuronIdx] = (float) net;
+                        activations[neuronIdx] = (float) layer.transferFunctions[j].getOutput(net);
+                }
+            }
+        }
+    }
+
+    private int sourceOf(CompiledLayer layer, int from, int i) {
+        return layer.sources == null ? layer.denseFrom + (i - from) : layer.sources[i];
+    }
+
+    private double weightedSum(CompiledLayer layer, float[] layerWeights, int[] indexes, int from, int to) {
+        double net = 0;
+        if (layer.sources == null && indexes == null) {
+            int src = layer.denseFrom - from;
+            for (int i = from; i < to; i++) {
+                net += (double) activations[src + i] * layerWeights[i];
+            }
+        } else {
+            for (int i = from; i < to; i++) {
+                float weight = layerWeights[indexes == null ? i : indexes[i]];
+                net += (double) activations[sourceOf(layer, from, i)] * weight;
+            }
+        }
+        return net;
+    }
+
+    private double difference(CompiledLayer layer, float[] layerWeights, int[] indexes, int from, int to) {
+        double sum = 0;
+        for (int i = from; i < to; i++) {
+            double diff = activations[sourceOf(layer, from, i)] - layerWeights[indexes == null ? i : indexes[i]];
+            sum += diff * diff;
+        }
+        return Math.sqrt(sum);
+    }
+
+    private double max(CompiledLayer layer, float[] layerWeights, int[] indexes, int from, int to) {
+        double max = Double.MIN_VALUE;
+        for (int i = from; i < to; i++) {
+            max = Math.max(max, (double) activations[sourceOf(layer, from, i)] * layerWeights[indexes == null ? i : indexes[i]]);
+        }
+        return max;
+    }
+
+    /**
+     * Returns network output vector. Returned array is reused by subsequent calls.
+     *
+     * @return network output vector
+     */
+    public float[] getOutput() {
+        for (int i = 0; i < outputIndexes.length; i++) {
+            output[i] = activations[outputIndexes[i]];
+        }
+        return output;
+    }
+
+    /**
+     * Sets network input, calculates the network and returns its output. Returned array is reused by subsequent calls.
+     *
+     * @param inputVector network input
+     * @return network output vector
+     */
+    public float[] calculate(float... inputVector) {
+        setInput(inputVector);
+        calculate();
+        return getOutput();
+    }
+
+    /**
+     * Trains network with all rows of the specified data set, once (one epoch)
+     *
+     * @param trainingSet  training set
+     * @param learningRate learning rate
+     * @return mean squared error of the epoch, calculated like MeanSquaredError
+     */
+    public double learnEpoch(FloatDataSet trainingSet, float learningRate) {
+        if (trainingSet.getInputSize() != inputIndexes.length || trainingSet.getOutputSize() != outputIndexes.length) {
+            throw new VectorSizeMismatchException("Training set size does not match network input/output dimension!");
+        }
+        float[] inputs = trainingSet.getInputs();
+        float[] desiredOutputs = trainingSet.getOutputs();
+        double totalError = 0;
+        for (int r = 0; r < trainingSet.size(); r++) {
+            totalError += learnPattern(inputs, r * inputIndexes.length, desiredOutputs, r * outputIndexes.length, learningRate);
+        }
+        return totalError / (2 * trainingSet.size());
+    }
+
+    /**
+     * Trains network with one input and desired output pattern
+     *
+     * @param inputs               array with network input
+     * @param inputOffset          position of the first input value
+     * @param desiredOutputs       array with desired output
+     * @param desiredOutputsOffset position of the first desired output value
+     * @param learningRate         learning rate
+     * @return sum of squared output errors before the update
+     */
+    public double learnPattern(float[] inputs, int inputOffset, float[] desiredOutputs, int desiredOutputsOffset, float learningRate) {
+        setInput(inputs, inputOffset);
+        calculate();
+
+        for (int i = 0; i < errors.length; i++) {
+            errors[i] = 0;
+        }
+        double squaredError = 0;
+        for (int i = 0; i < outputIndexes.length; i++) {
+            double error = (double) desiredOutputs[desiredOutputsOffset + i] - activations[outputIndexes[i]];
+            errors[outputIndexes[i]] += error;
+            squaredError += error * error;
+        }
+
+        // layers from output to first hidden layer: turn error sums into deltas, update own weights
+        // and then send deltas back to source neurons through the updated weights, as BackPropagation does
+        for (int l = layers.length - 1; l > 0; l--) {
+            CompiledLayer layer = layers[l];
+            float[] layerWeights = weights[l];
+            int[] indexes = weightIndexes[l];
+            for (int j = 0; j < layer.size; j++) {
+                int neuronIdx = layer.offset + j;
+                byte kind = layer.kinds[j];
+                if (kind == CompiledLayer.INPUT || kind == CompiledLayer.BIAS) {
+                    errors[neuronIdx] = 0;
+                    continue;
+                }
+                if (layer.inputKinds[j] == CompiledLayer.DIFFERENCE) {
+                    throw new NeurophException("Difference input function is not supported by float network training!");
+                }
+                double delta = (errors[neuronIdx] == 0) ? 0 : errors[neuronIdx]
+                        * layer.transferFunctions[j].derivativeFromOutput(netInputs[neuronIdx], activations[neuronIdx]);
+                errors[neuronIdx] = delta;
+                if (delta == 0) {
+                    continue;
+                }
+
+                int from = layer.fanInStart[j];
+                int to = layer.fanInStart[j + 1];
+                boolean trainable = layer.inputKinds[j] != CompiledLayer.MAX;
+                double step = learningRate * delta;
+                for (int i = from; i < to; i++) {
+                    int source = sourceOf(layer, from, i);
+                    int w = indexes == null ? i : indexes[i];
+                    if (trainable) {
+                        layerWeights[w] += (float) (step * activations[source]);
+                    }
+                    errors[source] += delta * layerWeights[w];
+                }
+            }
+        }
+        return squaredError;
+    }
+
+    /**
+     * Returns the network that this float network was created from
+     *
+     * @return source neural network
+     */
+    public NeuralNetwork getNetwork() {
+        return network;
+    }
+
+    /**
+     * Returns number of weight values (shared weights are counted once)
+     *
+     * @return number of weight values
+     */
+    public int getWeightsCount() {
+        int count = 0;
+        for (float[] layerWeights : weights) {
+            count += layerWeights.length;
+        }
+        return count;
+    }
+
+    /**
+     * Returns size of weights, neuron outputs and net inputs in bytes
+     *
+     * @return size of network parameters and state in bytes
+     */
+    public long getParametersBytes() {
+        return 4L * (getWeightsCount() + activations.length + netInputs.length);
+    }
+}
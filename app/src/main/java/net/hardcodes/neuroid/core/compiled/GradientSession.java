@@ -0,0 +1,214 @@
+/**
+ * Copyright 2014 Neuroph Project http://neuroph.sourceforge.net
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package net.hardcodes.neuroid.core.compiled;
+
+import net.hardcodes.neuroid.core.exceptions.NeurophException;
+import net.hardcodes.neuroid.core.exceptions.VectorSizeMismatchException;
+
+import java.util.Arrays;
+
+/**
+ * <pre>
+ * Training state for one caller of a compiled network. Like InferenceSession, it holds its own activations
+ * and net inputs, and in addition neuron errors and a gradient vector, while weights are shared with the
+ * compiled network. Several sessions can compute gradients concurrently for different patterns,
+ * and their gradients are then added together and applied with CompiledNetwork.applyGradients().
+ *
+ * Gradients are calculated as in batch mode BackPropagation with mean squared error: output neuron error
+ * is (desired - output) * f'(net), hidden neuron error is f'(net) * weighted sum of errors of the neurons
+ * it is connected to, and the gradient of each weight is error * input, so adding learningRate * gradient
+ * to the weights decreases network error. Gradients are stored layer by layer, one for each connection in the
+ * order of compiled layer weights (the order of ParameterVector when no weight is shared by connections).
+ * Supported are feed forward networks with WeightedSum input function in all layers except the input layer.
+ * </pre>
+ *
+ * @see CompiledNetwork#createGradientSession()
+ * @see CompiledNetwork#applyGradients(double[], double)
+ */
+public class GradientSession {
+
+    /**
+     * Compiled layers shared with other sessions
+     */
+    private final CompiledLayer[] layers;
+
+    /**
+     * Position of each layer's first weight in the gradients buffer
+     */
+    private final int[] gradientOffsets;
+
+    /**
+     * Activation buffer indexes of network input neurons
+     */
+    private final int[] inputIndexes;
+
+    /**
+     * Activation buffer indexes of network output neurons
+     */
+    private final int[] outputIndexes;
+
+    /**
+     * Output layer index of each output neuron
+     */
+    private final int[] outputNeurons;
+
+    /**
+     * Neuron outputs for all neurons in network, layer after layer
+     */
+    private final double[] activations;
+
+    /**
+     * Neuron net inputs for all neurons in network, layer after layer
+     */
+    private final double[] netInputs;
+
+    /**
+     * Neuron errors (deltas) for all neurons in network, layer after layer
+     */
+    private final double[] deltas;
+
+    /**
+     * Accumulated weight gradients
+     */
+    private final double[] gradients;
+
+    /**
+     * Network output buffer
+     */
+    private final double[] output;
+
+    /**
+     * Previous weight changes made by descend() with momentum, created on first use
+     */
+    private double[] velocity;
+
+    GradientSession(CompiledLayer[] layers, int[] inputIndexes, int[] outputIndexes,
+                    double[] initialActivations, double[] initialNetInputs) {
+        CompiledLayer outputLayer = layers[layers.length - 1];
+        this.gradientOffsets = new int[layers.length];
+        int weightsCount = 0;
+        for (int l = 0; l < layers.length; l++) {
+            if (l > 0 && (!layers[l].isWeightedSumOnly() || !layers[l].isFeedForward())) {
+                throw new NeurophException("Gradients are supported only for feed forward layers with WeightedSum input function!");
+            }
+            gradientOffsets[l] = weightsCount;
+            weightsCount += layers[l].getWeightsCount();
+        }
+        this.outputNeurons = new int[outputIndexes.length];
+        for (int i = 0; i < outputIndexes.length; i++) {
+            outputNeurons[i] = outputIndexes[i] - outputLayer.offset;
+            if (outputNeurons[i] < 0 || outputNeurons[i] >= outputLayer.size) {
+                throw new NeurophException("Gradients are supported only for networks with output neurons in the last layer!");
+            }
+        }
+        this.layers = layers;
+        this.inputIndexes = inputIndexes;
+        this.outputIndexes = outputIndexes;
+        this.activations = initialActivations.clone();
+        this.netInputs = initialNetInputs.clone();
+        this.deltas = new double[activations.length];
+        this.gradients = new double[weightsCount];
+        this.output = new double[outputIndexes.length];
+    }
+
+    /**
+     * Calculates network output for the specified input, and adds weight gradients for the specified
+     * desired output to the gradients of this session
+     *
+     * @param input         network input
+     * @param desiredOutput desired network output
+     * @return sum of squared output errors
+     */
+    public double accumulate(double[] input, double[] desiredOutput) throws VectorSizeMismatchException {
+        if (input.length != inputIndexes.length) {
+            throw new VectorSizeMismatchException("Input vector size does not match network input dimension!");
+        }
+        if (desiredOutput.length != outputIndexes.length) {
+            throw new VectorSizeMismatchException("Desired output vector size does not match network output dimension!");
+        }
+
+        for (int i = 0; i < inputIndexes.length; i++) {
+            netInputs[inputIndexes[i]] = input[i];
+        }
+        for (CompiledLayer layer : layers) {
+            layer.calculate(activations, netInputs);
+        }
+
+        Arrays.fill(deltas, 0d);
+        CompiledLayer outputLayer = layers[layers.length - 1];
+        double squaredErrorSum = 0d;
+        for (int i = 0; i < outputIndexes.length; i++) {
+            int neuronIdx = outputIndexes[i];
+            output[i] = activations[neuronIdx];
+            double error = desiredOutput[i] - activations[neuronIdx];
+            squaredErrorSum += error * error;
+            if (error != 0) {
+                deltas[neuronIdx] = error * outputLayer.getTransferFunction(outputNeurons[i])
+                        .derivativeFromOutput(netInputs[neuronIdx], activations[neuronIdx]);
+            }
+        }
+
+        for (int l = layers.length - 1; l > 0; l--) {
+            layers[l].backpropagate(activations, netInputs, deltas, gradients, gradientOffsets[l], l < layers.length - 1);
+        }
+        return squaredErrorSum;
+    }
+
+    /**
+     * Returns output of the last pattern passed to accumulate(). Returned array is reused by subsequent calls.
+     *
+     * @return network output vector
+     */
+    public double[] getOutput() {
+        return output;
+    }
+
+    /**
+     * Returns accumulated gradients. Returned array is the gradient buffer of this session, not a copy.
+     *
+     * @return weight gradients
+     */
+    public double[] getGradients() {
+        return gradients;
+    }
+
+    /**
+     * Adds learningRate * gradient + momentum * previous weight change to the weights of the compiled network,
+     * and clears the gradients. Previous weight changes are those made by this session. Unlike
+     * CompiledNetwork.applyGradients(), weights of the compiled network are changed directly, without
+     * synchronization, while other sessions can read and change them (lock free, Hogwild style training):
+     * concurrent updates of the same weight can be lost. Network weights are updated with
+     * CompiledNetwork.storeWeights().
+     *
+     * @param learningRate learning rate
+     * @param momentum     momentum factor, zero for plain gradient descent
+     */
+    public void descend(double learningRate, double momentum) {
+        if (momentum != 0 && velocity == null) {
+            velocity = new double[gradients.length];
+        }
+        for (int l = 1; l < layers.length; l++) {
+            layers[l].descend(gradients, gradientOffsets[l], learningRate, momentum, momentum != 0 ? velocity : null);
+        }
+    }
+
+    /**
+     * Sets all gradients to zero
+     */
+    public void clearGradients() {
+        Arrays.fill(gradients, 0d);
+    }
+}
@@ -0,0 +1,286 @@
+/**
+ * Copyright 2014 Neuroph Project http://neuroph.sourceforge.net
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package net.hardcodes.neuroid.core.compiled;
+
+import net.hardcodes.neuroid.core.data.DataSet;
+import net.hardcodes.neuroid.core.exceptions.VectorSizeMismatchException;
+
+/**
+ * <pre>
+ * Execution state for one caller of a compiled network. Session holds neuron activations, net inputs
+ * and output buffer, while weights and structure are shared with the compiled network it was created for.
+ * Any number of sessions can calculate concurrently against the same compiled network, as long as
+ * each session is used by one thread at a time, and weights are not synchronized during calculation.
+ *
+ * Session is bound to the structure of the network at the time it was created, so sessions created
+ * before CompiledNetwork.recompile() keep calculating with the previous structure.
+ * </pre>
+ *
+ * @see CompiledNetwork#createSession()
+ */
+public class InferenceSession {
+
+    /**
+     * Number of patterns calculated together in batch calculation
+     */
+    private static final int BATCH_BLOCK = 64;
+
+    /**
+     * Compiled network that this session belongs to
+     */
+    private final CompiledNetwork network;
+
+    /**
+     * Compiled layers shared with other sessions
+     */
+    private final CompiledLayer[] layers;
+
+    /**
+     * Activation buffer indexes of network input neurons
+     */
+    private final int[] inputIndexes;
+
+    /**
+     * Activation buffer indexes of network output neurons
+     */
+    private final int[] outputIndexes;
+
+    /**
+     * Initial neuron outputs, from the time network was compiled
+     */
+    private final double[] initialActivations;
+
+    /**
+     * Initial neuron net inputs, from the time network was compiled
+     */
+    private final double[] initialNetInputs;
+
+    /**
+     * Neuron outputs for all neurons in network, layer after layer
+     */
+    private final double[] activations;
+
+    /**
+     * Neuron net inputs for all neurons in network, layer after layer
+     */
+    private final double[] netInputs;
+
+    /**
+     * Network output buffer
+     */
+    private final double[] output;
+
+    /**
+     * Activation buffers for batch calculation, one for each pattern in block
+     */
+    private double[][] batchActivations;
+
+    /**
+     * Net input buffers for batch calculation, one for each pattern in block
+     */
+    private double[][] batchNetInputs;
+
+    InferenceSession(CompiledNetwork network, CompiledLayer[] layers, int[] inputIndexes, int[] outputIndexes,
+                     double[] initialActivations, double[] initialNetInputs) {
+        this.network = network;
+        this.layers = layers;
+        this.inputIndexes = inputIndexes;
+        this.outputIndexes = outputIndexes;
+        this.initialActivations = initialActivations;
+        this.initialNetInputs = initialNetInputs;
+        this.activations = initialActivations.clone();
+        this.netInputs = initialNetInputs.clone();
+        this.output = new double[outputIndexes.length];
+    }
+
+    /**
+     * Sets network input
+     *
+     * @param inputVector network input as double array
+     */
+    public void setInput(double... inputVector) throws VectorSizeMismatchException {
+        if (inputVector.length != inputIndexes.length) {
+            throw new VectorSizeMismatchException("Input vector size does not match network input dimension!");
+        }
+
+        for (int i = 0; i < inputIndexes.length; i++) {
+            netInputs[inputIndexes[i]] = inputVector[i];
+        }
+    }
+
+    /**
+     * Performs calculation on whole network
+     */
+    public void calculate() {
+        for (CompiledLayer layer : layers) {
+            layer.calculate(activations, netInputs);
+        }
+    }
+
+    /**
+     * Sets network input, performs calculation and returns network output.
+     * Returned array is reused by subsequent calls.
+     *
+     * @param inputVector network input as double array
+     * @return network output vector
+     */
+    public double[] calculate(double... inputVector) {
+        setInput(inputVector);
+        calculate();
+        return getOutput();
+    }
+
+    /**
+     * Returns network output vector. Returned array is reused by subsequent calls.
+     *
+     * @return network output vector
+     */
+    public double[] getOutput() {
+        for (int i = 0; i < outputIndexes.length; i++) {
+            output[i] = activations[outputIndexes[i]];
+        }
+        return output;
+    }
+
+    /**
+     * Returns activation buffer (outputs of all neurons) of this session
+     */
+    double[] getActivations() {
+        return activations;
+    }
+
+    /**
+     * Calculates network outputs for a batch of input patterns
+     *
+     * @param inputs input patterns, one row per pattern
+     * @return network outputs, one row per pattern
+     */
+    public double[][] calculateBatch(double[][] inputs) {
+        double[][] outputs = new double[inputs.length][outputIndexes.length];
+        calculateBatch(inputs, outputs);
+        return outputs;
+    }
+
+    /**
+     * Calculates network outputs for a batch of input patterns, and writes them into the specified buffer.
+     * Patterns are calculated in blocks, layer by layer, so that each layer's weights are read once per block
+     * instead of once per pattern.
+     *
+     * @param inputs  input patterns, one row per pattern
+     * @param outputs buffer for network outputs, with at least as many rows as inputs
+     */
+    public void calculateBatch(double[][] inputs, double[][] outputs) throws VectorSizeMismatchException {
+        if (outputs.length < inputs.length) {
+            throw new IllegalArgumentException("Output buffer has less rows than input!");
+        }
+
+        if (batchActivations == null) {
+            batchActivations = new double[BATCH_BLOCK][activations.length];
+            batchNetInputs = new double[BATCH_BLOCK][activations.length];
+        }
+
+        for (int start = 0; start < inputs.length; start += BATCH_BLOCK) {
+            int rows = Math.min(BATCH_BLOCK, inputs.length - start);
+
+            for (int r = 0; r < rows; r++) {
+                double[] inputVector = inputs[start + r];
+                if (inputVector.length != inputIndexes.length) {
+                    throw new VectorSizeMismatchException("Input vector size does not match network input dimension!");
+                }
+                System.arraycopy(activations, 0, batchActivations[r], 0, activations.length);
+                System.arraycopy(netInputs, 0, batchNetInputs[r], 0, netInputs.length);
+                for (int i = 0; i < inputIndexes.length; i++) {
+                    batchNetInputs[r][inputIndexes[i]] = inputVector[i];
+                }
+            }
+
+            for (CompiledLayer layer : layers) {
+                layer.calculateBatch(batchActivations, batchNetInputs, rows);
+            }
+
+            for (int r = 0; r < rows; r++) {
+                double[] outputVector = outputs[start + r];
+                if (outputVector.length != outputIndexes.length) {
+                    throw new VectorSizeMismatchException("Output vector size does not match network output dimension!");
+                }
+                for (int i = 0; i < outputIndexes.length; i++) {
+                    outputVector[i] = batchActivations[r][outputIndexes[i]];
+                }
+            }
+        }
+    }
+
+    /**
+     * Calculates network outputs for inputs of all rows in the specified data set
+     *
+     * @param dataSet data set with input patterns
+     * @return network outputs, one row per data set row
+     */
+    public double[][] calculateBatch(DataSet dataSet) {
+        double[][] inputs = new double[dataSet.size()][];
+        for (int i = 0; i < inputs.length; i++) {
+            inputs[i] = dataSet.getRowAt(i).getInput();
+        }
+        return calculateBatch(inputs);
+    }
+
+    /**
+     * Resets the activation levels for whole network
+     */
+    public void reset() {
+        for (CompiledLayer layer : layers) {
+            for (int j = 0; j < layer.size; j++) {
+                netInputs[layer.offset + j] = 0d;
+                activations[layer.offset + j] = (layer.kinds[j] == CompiledLayer.BIAS) ? 1d : 0d;
+            }
+        }
+    }
+
+    /**
+     * Restores activation levels to the state they had when network was compiled
+     */
+    public void restore() {
+        System.arraycopy(initialActivations, 0, activations, 0, activations.length);
+        System.arraycopy(initialNetInputs, 0, netInputs, 0, netInputs.length);
+    }
+
+    /**
+     * Returns compiled network that this session belongs to
+     *
+     * @return compiled network
+     */
+    public CompiledNetwork getNetwork() {
+        return network;
+    }
+
+    /**
+     * Returns number of network inputs
+     *
+     * @return number of network inputs
+     */
+    public int getInputsCount() {
+        return inputIndexes.length;
+    }
+
+    /**
+     * Returns number of network outputs
+     *
+     * @return number of network outputs
+     */
+    public int getOutputsCount() {
+        return outputIndexes.length;
+    }
+}
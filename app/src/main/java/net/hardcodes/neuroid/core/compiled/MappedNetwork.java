@@ -0,0 +1,423 @@
+/**
+ * Copyright 2014 Neuroph Project http://neuroph.sourceforge.net
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package net.hardcodes.neuroid.core.compiled;
+
+import net.hardcodes.neuroid.core.exceptions.NeurophException;
+import net.hardcodes.neuroid.core.exceptions.VectorSizeMismatchException;
+import net.hardcodes.neuroid.core.input.InputFunction;
+import net.hardcodes.neuroid.core.input.WeightedSum;
+import net.hardcodes.neuroid.core.transfer.TransferFunction;
+import net.hardcodes.neuroid.util.io.BinaryModelFunctions;
+import net.hardcodes.neuroid.util.io.BinaryModelWriter;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * <pre>
+ * Read only network for inference, executed directly from a memory mapped binary model file
+ * (see BinaryModelWriter). Weights are never copied to the heap: they are read through a DoubleBuffer view
+ * of the mapped weights block, so startup does not depend on model size, and processes which open
+ * the same file share its pages through the page cache.
+ *
+ * Heap usage is proportional to the number of neurons: neuron kinds, functions, activations and position
+ * of each neuron's weights. Sources of neurons which read a continuous range of neurons (fully connected
+ * layers) are stored as a start index only, other neurons keep their source indexes.
+ *
+ * Weighted sum neurons are calculated straight from the mapped weights. Other input functions use their
+ * primitive array kernel, with neuron weights (and sparse inputs) copied into a reused buffer.
+ * Calculation follows network layer order, and gives the same results as NeuralNetwork.calculate().
+ * Calculation methods are not thread safe, each thread should open its own network.
+ *
+ * Weights block is mapped in segments of 1 GB, since one mapping is limited to 2 GB, so model files
+ * can be bigger than 2 GB. Weights are indexed with int, so up to Integer.MAX_VALUE weights (16 GB)
+ * are supported, and the network structure before the weights block must be smaller than 2 GB.
+ * </pre>
+ *
+ * @see BinaryModelWriter
+ * @see CompiledNetwork
+ */
+public class MappedNetwork {
+
+    /**
+     * Net input is weighted sum of inputs, calculated directly from mapped weights
+     */
+    private static final byte WEIGHTED_SUM = 0;
+
+    /**
+     * Net input is calculated by primitive array kernel of the input function
+     */
+    private static final byte OTHER = 1;
+
+    /**
+     * Number of weights in one mapped segment is 2^SEGMENT_SHIFT (1 GB)
+     */
+    private static final int SEGMENT_SHIFT = 27;
+
+    private static final int SEGMENT_MASK = (1 << SEGMENT_SHIFT) - 1;
+
+    /**
+     * Header size: magic, version, neurons count and weights count
+     */
+    private static final int HEADER_SIZE = 20;
+
+    /**
+     * Mapped weights block, in segments of 2^SEGMENT_SHIFT weights
+     */
+    private final DoubleBuffer[] weightSegments;
+
+    private final int weightsCount;
+
+    /**
+     * Neuron kind for each neuron (BinaryModelWriter.NEURON, INPUT, BIAS, THRESHOLD)
+     */
+    private final byte[] kinds;
+
+    /**
+     * Input function kind for each neuron (WEIGHTED_SUM, OTHER)
+     */
+    private final byte[] inputKinds;
+
+    private final InputFunction[] inputFunctions;
+    private final TransferFunction[] transferFunctions;
+
+    /**
+     * Threshold values for threshold neurons
+     */
+    private final double[] thresholds;
+
+    /**
+     * Position of each neuron's first weight in the weights block, with neurons+1 elements
+     */
+    private final int[] weightStarts;
+
+    /**
+     * Index of the first source neuron for neurons which read a continuous range of neurons, -1 for others
+     */
+    private final int[] sourceStarts;
+
+    /**
+     * Source neuron indexes for neurons which do not read a continuous range, null for others
+     */
+    private final int[][] sourceIndexes;
+
+    private final int[] inputIndexes;
+    private final int[] outputIndexes;
+
+    private final double[] netInputs;
+    private final double[] outputs;
+    private final double[] output;
+
+    /**
+     * Buffers for weights and inputs of neurons with other input functions, with max fan in length
+     */
+    private final double[] weightBuffer;
+    private final double[] inputBuffer;
+
+    private MappedNetwork(ByteBuffer buffer, DoubleBuffer[] weightSegments, int weightsCount) {
+        this.weightSegments = weightSegments;
+        this.weightsCount = weightsCount;
+        int neuronsCount = buffer.getInt();
+        buffer.getLong(); // weights count, already used for mapping
+        skipString(buffer); // network label
+        skipString(buffer); // network type
+        Object[] functions = BinaryModelFunctions.read(buffer);
+
+        kinds = new byte[neuronsCount];
+        inputKinds = new byte[neuronsCount];
+        inputFunctions = new InputFunction[neuronsCount];
+        transferFunctions = new TransferFunction[neuronsCount];
+        thresholds = new double[neuronsCount];
+        int n = 0;
+        int layersCount = buffer.getInt();
+        for (int l = 0; l < layersCount; l++) {
+            skipString(buffer); // layer label
+            int layerSize = buffer.getInt();
+            for (int i = 0; i < layerSize; i++, n++) {
+                kinds[n] = buffer.get();
+                inputFunctions[n] = BinaryModelFunctions.getInputFunction(functions, buffer.getInt());
+                transferFunctions[n] = BinaryModelFunctions.getTransferFunction(functions, buffer.getInt());
+                inputKinds[n] = inputFunctions[n].getClass() == WeightedSum.class ? WEIGHTED_SUM : OTHER;
+                if (kinds[n] == BinaryModelWriter.THRESHOLD) {
+                    thresholds[n] = buffer.getDouble();
+                }
+                skipString(buffer); // neuron label
+            }
+        }
+        if (n != neuronsCount) {
+            throw new NeurophException("Model file has " + n + " neurons instead of " + neuronsCount + "!");
+        }
+
+        weightStarts = new int[neuronsCount + 1];
+        sourceStarts = new int[neuronsCount];
+        sourceIndexes = new int[neuronsCount][];
+        int maxFanIn = 0;
+        for (int i = 0; i < neuronsCount; i++) {
+            int fanIn = buffer.getInt();
+            weightStarts[i + 1] = weightStarts[i] + fanIn;
+            maxFanIn = Math.max(maxFanIn, fanIn);
+            // sources are copied to the heap only if they are not a continuous range
+            int position = buffer.position();
+            int first = fanIn > 0 ? buffer.getInt(position) : 0;
+            boolean continuous = true;
+            for (int k = 0; k < fanIn && continuous; k++) {
+                continuous = buffer.getInt(position + 4 * k) == first + k;
+            }
+            if (continuous) {
+                sourceStarts[i] = first;
+            } else {
+                sourceStarts[i] = -1;
+                sourceIndexes[i] = getIndexes(buffer, fanIn);
+            }
+            buffer.position(position + 4 * fanIn);
+        }
+        if (weightStarts[neuronsCount] != weightsCount) {
+            throw new NeurophException("Model file has " + weightStarts[neuronsCount] + " connections instead of " + weightsCount + "!");
+        }
+
+        inputIndexes = getIndexes(buffer);
+        outputIndexes = getIndexes(buffer);
+
+        netInputs = new double[neuronsCount];
+        outputs = new double[neuronsCount];
+        output = new double[outputIndexes.length];
+        weightBuffer = new double[maxFanIn];
+        inputBuffer = new double[maxFanIn];
+    }
+
+    /**
+     * Opens network from the specified binary model file. Only the network structure is read,
+     * weights stay in the mapped file.
+     *
+     * @param file binary model file, written by BinaryModelWriter
+     * @return mapped network
+     */
+    public static MappedNetwork open(File file) {
+        FileInputStream in = null;
+        try {
+            in = new FileInputStream(file);
+            FileChannel channel = in.getChannel();
+            long fileSize = channel.size();
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining()) {
+                if (channel.read(header, header.position()) < 0) {
+                    break;
+                }
+            }
+            header.flip();
+            if (header.remaining() < HEADER_SIZE || header.getInt() != BinaryModelWriter.MAGIC) {
+                throw new NeurophException("Not a binary model file: " + file + "!");
+            }
+            int version = header.getInt();
+            if (version != BinaryModelWriter.VERSION) {
+                throw new NeurophException("Unsupported binary model version " + version + "!");
+            }
+
+            // weights are the last block of the file
+            long weightsCount = header.getLong(header.position() + 4);
+            if (weightsCount < 0 || weightsCount > (fileSize - HEADER_SIZE) / 8) {
+                throw new NeurophException("Model file " + file + " is corrupted!");
+            }
+            if (weightsCount > Integer.MAX_VALUE) {
+                throw new NeurophException("Model file " + file + " has " + weightsCount + " weights, mapped network supports up to "
+                        + Integer.MAX_VALUE + "!");
+            }
+            long weightsOffset = fileSize - weightsCount * 8;
+            if (weightsOffset > Integer.MAX_VALUE) {
+                throw new NeurophException("Network structure in model file " + file + " takes " + weightsOffset
+                        + " bytes, mapped network supports up to 2 GB!");
+            }
+
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, weightsOffset).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.position(8);
+            int segmentsCount = (int) ((weightsCount + SEGMENT_MASK) >>> SEGMENT_SHIFT);
+            DoubleBuffer[] weightSegments = new DoubleBuffer[Math.max(segmentsCount, 1)];
+            for (int i = 0; i < weightSegments.length; i++) {
+                long first = (long) i << SEGMENT_SHIFT;
+                long count = Math.min(weightsCount - first, 1L << SEGMENT_SHIFT);
+                weightSegments[i] = channel.map(FileChannel.MapMode.READ_ONLY, weightsOffset + first * 8, count * 8)
+                        .order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+            }
+
+            // mappings stay valid after the channel is closed
+            return new MappedNetwork(buffer, weightSegments, (int) weightsCount);
+        } catch (IOException ex) {
+            throw new NeurophException("Could not read model file " + file + "!", ex);
+        } catch (IndexOutOfBoundsException | BufferUnderflowException | IllegalArgumentException ex) {
+            throw new NeurophException("Model file " + file + " is corrupted!", ex);
+        } finally {
+            if (in != null) {
+                try {
+                    in.close();
+                } catch (IOException ex) {
+                }
+            }
+        }
+    }
+
+    private static int[] getIndexes(ByteBuffer buffer) {
+        return getIndexes(buffer, buffer.getInt());
+    }
+
+    private static int[] getIndexes(ByteBuffer buffer, int count) {
+        int[] indexes = new int[count];
+        for (int i = 0; i < indexes.length; i++) {
+            indexes[i] = buffer.getInt();
+        }
+        return indexes;
+    }
+
+    private static void skipString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length > 0) {
+            buffer.position(buffer.position() + length);
+        }
+    }
+
+    /**
+     * Sets network input
+     *
+     * @param inputVector network input as double array
+     */
+    public void setInput(double... inputVector) throws VectorSizeMismatchException {
+        if (inputVector.length != inputIndexes.length) {
+            throw new VectorSizeMismatchException("Input vector size does not match network input dimension!");
+        }
+
+        for (int i = 0; i < inputIndexes.length; i++) {
+            netInputs[inputIndexes[i]] = inputVector[i];
+        }
+    }
+
+    /**
+     * Performs calculation on whole network
+     */
+    public void calculate() {
+        for (int i = 0; i < kinds.length; i++) {
+            byte kind = kinds[i];
+            if (kind == BinaryModelWriter.INPUT) {
+                outputs[i] = netInputs[i];
+                continue;
+            } else if (kind == BinaryModelWriter.BIAS) {
+                outputs[i] = 1;
+                continue;
+            }
+
+            int weightStart = weightStarts[i];
+            int fanIn = weightStarts[i + 1] - weightStart;
+            if (fanIn > 0) {
+                netInputs[i] = netInput(i, weightStart, fanIn);
+            }
+            double net = kind == BinaryModelWriter.THRESHOLD ? netInputs[i] - thresholds[i] : netInputs[i];
+            outputs[i] = transferFunctions[i].getOutput(net);
+        }
+    }
+
+    private double netInput(int neuron, int weightStart, int fanIn) {
+        int sourceStart = sourceStarts[neuron];
+        DoubleBuffer segment = weightSegments[weightStart >>> SEGMENT_SHIFT];
+        int w = weightStart & SEGMENT_MASK;
+        boolean inSegment = w + fanIn <= segment.capacity();
+        if (inputKinds[neuron] == WEIGHTED_SUM && inSegment) {
+            double sum = 0;
+            if (sourceStart >= 0) {
+                for (int k = 0; k < fanIn; k++) {
+                    sum += outputs[sourceStart + k] * segment.get(w + k);
+                }
+            } else {
+                int[] sources = sourceIndexes[neuron];
+                for (int k = 0; k < fanIn; k++) {
+                    sum += outputs[sources[k]] * segment.get(w + k);
+                }
+            }
+            return sum;
+        }
+
+        // weights of other input functions, and weights which continue in the next segment, are copied to buffer
+        for (int k = 0; k < fanIn; k++) {
+            weightBuffer[k] = inSegment ? segment.get(w + k) : getWeight(weightStart + k);
+        }
+        if (inputKinds[neuron] == WEIGHTED_SUM) {
+            double sum = 0;
+            for (int k = 0; k < fanIn; k++) {
+                sum += outputs[sourceStart >= 0 ? sourceStart + k : sourceIndexes[neuron][k]] * weightBuffer[k];
+            }
+            return sum;
+        }
+        if (sourceStart >= 0) {
+            return inputFunctions[neuron].getOutput(outputs, sourceStart, weightBuffer, 0, fanIn);
+        }
+        int[] sources = sourceIndexes[neuron];
+        for (int k = 0; k < fanIn; k++) {
+            inputBuffer[k] = outputs[sources[k]];
+        }
+        return inputFunctions[neuron].getOutput(inputBuffer, 0, weightBuffer, 0, fanIn);
+    }
+
+    /**
+     * Returns network output vector. Returned array is reused by subsequent calls.
+     *
+     * @return network output vector
+     */
+    public double[] getOutput() {
+        for (int i = 0; i < outputIndexes.length; i++) {
+            output[i] = outputs[outputIndexes[i]];
+        }
+        return output;
+    }
+
+    /**
+     * Sets inputs and outputs of all neurons to zero
+     */
+    public void reset() {
+        Arrays.fill(netInputs, 0);
+        Arrays.fill(outputs, 0);
+    }
+
+    /**
+     * Returns weight at the specified position. Weights are in connection order, which is the order of
+     * ParameterVector if no weight is shared by several connections.
+     *
+     * @param index weight index
+     * @return weight value
+     */
+    public double getWeight(int index) {
+        return weightSegments[index >>> SEGMENT_SHIFT].get(index & SEGMENT_MASK);
+    }
+
+    public int getInputsCount() {
+        return inputIndexes.length;
+    }
+
+    public int getOutputsCount() {
+        return outputIndexes.length;
+    }
+
+    public int getNeuronsCount() {
+        return kinds.length;
+    }
+
+    public int getWeightsCount() {
+        return weightsCount;
+    }
+}
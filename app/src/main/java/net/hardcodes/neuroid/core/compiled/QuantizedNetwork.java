@@ -0,0 +1,353 @@
+/**
+ * Copyright 2014 Neuroph Project http://neuroph.sourceforge.net
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package net.hardcodes.neuroid.core.compiled;
+
+import net.hardcodes.neuroid.core.NeuralNetwork;
+import net.hardcodes.neuroid.core.data.DataSet;
+import net.hardcodes.neuroid.core.data.DataSetRow;
+import net.hardcodes.neuroid.core.exceptions.NeurophException;
+import net.hardcodes.neuroid.core.exceptions.VectorSizeMismatchException;
+
+/**
+ * <pre>
+ * Int8 post training quantized form of a compiled network.
+ *
+ * Weights of each layer are stored as bytes with one symmetric scale per layer (maximum absolute
+ * weight maps to 127). Neuron outputs are quantized the same way, with one scale per layer calibrated
+ * from the maximum absolute output of that layer over a calibration data set. Weighted sums (and max
+ * of weighted inputs) are accumulated in int, then dequantized with the product of weight and input
+ * scales, and transfer functions (Sigmoid, Tanh, RectifiedLinear...) are evaluated on the dequantized
+ * net input. Network outputs are returned before quantization.
+ *
+ * All inputs of a layer must come from a single source layer, as in Multi Layer Perceptron and
+ * Convolutional Network. Layers with other input functions than WeightedSum and Max (like Difference in RBF)
+ * are not supported.
+ * Calculation methods use internal buffers and are not thread safe.
+ * </pre>
+ *
+ * @see NeuralNetwork#quantize(DataSet)
+ * @see CompiledNetwork
+ */
+public class QuantizedNetwork {
+
+    /**
+     * Largest quantized absolute value
+     */
+    private static final int Q_MAX = 127;
+
+    private final CompiledNetwork network;
+    private final CompiledLayer[] layers;
+
+    /**
+     * Quantized weights for each layer
+     */
+    private final byte[][] weights;
+
+    /**
+     * Weight scale for each layer (weight = quantized weight * scale)
+     */
+    private final double[] weightScales;
+
+    /**
+     * Output scale for each layer (output = quantized output * scale)
+     */
+    private final double[] outputScales;
+
+    /**
+     * Net input scale for each layer, product of its weight scale and output scale of its source layer
+     */
+    private final double[] netScales;
+
+    /**
+     * Quantized neuron outputs
+     */
+    private final byte[] quantizedActivations;
+
+    /**
+     * Dequantized neuron outputs
+     */
+    private final double[] activations;
+
+    private final double[] output;
+
+    /**
+     * Creates quantized network from the specified compiled network, with output scales
+     * calibrated on inputs from the specified data set
+     *
+     * @param network        compiled network to quantize
+     * @param calibrationSet data set used to calibrate output scales
+     */
+    public QuantizedNetwork(CompiledNetwork network, DataSet calibrationSet) {
+        if (calibrationSet == null || calibrationSet.isEmpty()) {
+            throw new IllegalArgumentException("Calibration set cant be null or empty!");
+        }
+        this.network = network;
+        this.layers = network.getLayers();
+        int layersCount = layers.length;
+        int neuronsCount = layers[layersCount - 1].offset + layers[layersCount - 1].size;
+
+        // calibrate output scales from double precision activations
+        double[] maxOutputs = new double[layersCount];
+        InferenceSession session = network.createSession();
+        for (DataSetRow row : calibrationSet.getRows()) {
+            session.calculate(row.getInput());
+            double[] sessionActivations = session.getActivations();
+            for (int l = 0; l < layersCount; l++) {
+                for (int i = layers[l].offset, end = layers[l].offset + layers[l].size; i < end; i++) {
+                    maxOutputs[l] = Math.max(maxOutputs[l], Math.abs(sessionActivations[i]));
+                }
+            }
+        }
+        outputScales = new double[layersCount];
+        for (int l = 0; l < layersCount; l++) {
+            outputScales[l] = scaleOf(maxOutputs[l]);
+        }
+
+        weights = new byte[layersCount][];
+        weightScales = new double[layersCount];
+        netScales = new double[layersCount];
+        for (int l = 0; l < layersCount; l++) {
+            CompiledLayer layer = layers[l];
+            for (byte inputKind : layer.inputKinds) {
+                if (inputKind == CompiledLayer.DIFFERENCE || inputKind == CompiledLayer.OTHER) {
+                    throw new NeurophException("Only WeightedSum and Max input functions are supported by quantized network!");
+                }
+            }
+
+            double maxWeight = 0;
+            for (double weight : layer.weights) {
+                maxWeight = Math.max(maxWeight, Math.abs(weight));
+            }
+            weightScales[l] = scaleOf(maxWeight);
+            weights[l] = new byte[layer.weights.length];
+            for (int i = 0; i < weights[l].length; i++) {
+                weights[l][i] = (byte) Math.round(layer.weights[i] / weightScales[l]);
+            }
+
+            int sourceLayer = sourceLayerOf(layer);
+            netScales[l] = sourceLayer < 0 ? 0 : weightScales[l] * outputScales[sourceLayer];
+        }
+
+        activations = network.initialActivations.clone();
+        quantizedActivations = new byte[neuronsCount];
+        for (int l = 0; l < layersCount; l++) {
+            for (int i = layers[l].offset, end = layers[l].offset + layers[l].size; i < end; i++) {
+                quantizedActivations[i] = quantize(activations[i], outputScales[l]);
+            }
+        }
+        output = new double[network.outputIndexes.length];
+    }
+
+    private static double scaleOf(double maxAbs) {
+        return maxAbs == 0 ? 1 : maxAbs / Q_MAX;
+    }
+
+    private static byte quantize(double value, double scale) {
+        long q = Math.round(value / scale);
+        return (byte) (q > Q_MAX ? Q_MAX : (q < -Q_MAX ? -Q_MAX : q));
+    }
+
+    /**
+     * Returns index of the layer that all inputs of the given layer come from, or -1 if layer has no inputs
+     */
+    private int sourceLayerOf(CompiledLayer layer) {
+        int sourceLayer = -1;
+        for (int j = 0; j < layer.size; j++) {
+            for (int i = layer.fanInStart[j]; i < layer.fanInStart[j + 1]; i++) {
+                int source = layer.sources == null ? layer.denseFrom + (i - layer.fanInStart[j]) : layer.sources[i];
+                int l = layerOf(source);
+                if (sourceLayer == -1) {
+                    sourceLayer = l;
+                } else if (sourceLayer != l) {
+                    throw new NeurophException("Layer with inputs from more than one layer can not be quantized!");
+                }
+            }
+        }
+        return sourceLayer;
+    }
+
+    private int layerOf(int neuronIdx) {
+        for (int l = layers.length - 1; l >= 0; l--) {
+            if (neuronIdx >= layers[l].offset) {
+                return l;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Sets network input
+     *
+     * @param inputVector network input as double array
+     */
+    public void setInput(double... inputVector) throws VectorSizeMismatchException {
+        int[] inputIndexes = network.inputIndexes;
+        if (inputVector.length != inputIndexes.length) {
+            throw new VectorSizeMismatchException("Input vector size does not match network input dimension!");
+        }
+        for (int i = 0; i < inputIndexes.length; i++) {
+            activations[inputIndexes[i]] = inputVector[i];
+        }
+    }
+
+    /**
+     * Performs calculation on whole network
+     */
+    public void calculate() {
+        for (int l = 0; l < layers.length; l++) {
+            CompiledLayer layer = layers[l];
+            byte[] layerWeights = weights[l];
+            double netScale = netScales[l];
+            double outputScale = outputScales[l];
+            for (int j = 0; j < layer.size; j++) {
+                int neuronIdx = layer.offset + j;
+                int from = layer.fanInStart[j];
+                int to = layer.fanInStart[j + 1];
+                double out;
+                switch (layer.kinds[j]) {
+                    case CompiledLayer.INPUT:
+                        out = activations[neuronIdx];
+                        break;
+                    case CompiledLayer.BIAS:
+                        out = 1d;
+                        break;
+                    default:
+                        double net = 0;
+                        if (from != to) {
+                            int acc = layer.inputKinds[j] == CompiledLayer.MAX
+                                    ? max(layer, layerWeights, from, to)
+                                    : weightedSum(layer, layerWeights, from, to);
+                            net = acc * netScale;
+                        }
+                        if (layer.kinds[j] == CompiledLayer.THRESHOLD) {
+                            net -= layer.thresholds[j];
+                        }
+                        out = layer.transferFunctions[j].getOutput(net);
+                }
+                activations[neuronIdx] = out;
+                quantizedActivations[neuronIdx] = quantize(out, outputScale);
+            }
+        }
+    }
+
+    private int weightedSum(CompiledLayer layer, byte[] layerWeights, int from, int to) {
+        byte[] inputs = quantizedActivations;
+        int acc = 0;
+        if (layer.sources == null) {
+            int src = layer.denseFrom - from;
+            for (int i = from; i < to; i++) {
+                acc += layerWeights[i] * inputs[src + i];
+            }
+        } else {
+            int[] sources = layer.sources;
+            for (int i = from; i < to; i++) {
+                acc += layerWeights[i] * inputs[sources[i]];
+            }
+        }
+        return acc;
+    }
+
+    private int max(CompiledLayer layer, byte[] layerWeights, int from, int to) {
+        // Max input function starts from the smallest positive value, which is 0 after quantization
+        int max = 0;
+        for (int i = from; i < to; i++) {
+            int src = layer.sources == null ? layer.denseFrom - from + i : layer.sources[i];
+            max = Math.max(max, layerWeights[i] * quantizedActivations[src]);
+        }
+        return max;
+    }
+
+    /**
+     * Returns network output vector. Returned array is reused by subsequent calls.
+     *
+     * @return network output vector
+     */
+    public double[] getOutput() {
+        int[] outputIndexes = network.outputIndexes;
+        for (int i = 0; i < outputIndexes.length; i++) {
+            output[i] = activations[outputIndexes[i]];
+        }
+        return output;
+    }
+
+    /**
+     * Sets network input, calculates the network and returns its output. Returned array is reused by subsequent calls.
+     *
+     * @param inputVector network input
+     * @return network output vector
+     */
+    public double[] calculate(double... inputVector) {
+        setInput(inputVector);
+        calculate();
+        return getOutput();
+    }
+
+    /**
+     * Calculates network outputs for inputs of all rows in the specified data set
+     *
+     * @param dataSet data set with input patterns
+     * @return network outputs, one row per data set row
+     */
+    public double[][] calculateBatch(DataSet dataSet) {
+        double[][] outputs = new double[dataSet.size()][];
+        for (int r = 0; r < outputs.length; r++) {
+            outputs[r] = calculate(dataSet.getRowAt(r).getInput()).clone();
+        }
+        return outputs;
+    }
+
+    /**
+     * Returns the compiled network that this network was quantized from
+     *
+     * @return compiled network
+     */
+    public CompiledNetwork getCompiledNetwork() {
+        return network;
+    }
+
+    /**
+     * Returns weight scale of the specified layer
+     *
+     * @param layerIndex layer index
+     * @return weight scale
+     */
+    public double getWeightScale(int layerIndex) {
+        return weightScales[layerIndex];
+    }
+
+    /**
+     * Returns output scale of the specified layer
+     *
+     * @param layerIndex layer index
+     * @return output scale
+     */
+    public double getOutputScale(int layerIndex) {
+        return outputScales[layerIndex];
+    }
+
+    /**
+     * Returns size of quantized weights in bytes
+     *
+     * @return size of quantized weights in bytes
+     */
+    public long getWeightsBytes() {
+        long bytes = 0;
+        for (byte[] layerWeights : weights) {
+            bytes += layerWeights.length;
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Provides compiled, flat array representation of neural networks for fast execution
+ */
+package net.hardcodes.neuroid.core.compiled;
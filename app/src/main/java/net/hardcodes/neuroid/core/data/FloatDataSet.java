@@ -0,0 +1,137 @@
+/**
+ * Copyright 2014 Neuroph Project http://neuroph.sourceforge.net
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package net.hardcodes.neuroid.core.data;
+
+import net.hardcodes.neuroid.core.exceptions.VectorSizeMismatchException;
+
+import java.util.Arrays;
+
+/**
+ * Single precision data set, which stores inputs and desired outputs of all rows in two
+ * contiguous float arrays (row after row), instead of a DataSetRow object with double arrays per row.
+ * It takes half of the memory of double precision data, and is used by FloatNetwork.
+ *
+ * @see net.hardcodes.neuroid.core.compiled.FloatNetwork
+ */
+public class FloatDataSet {
+
+    private final int inputSize;
+    private final int outputSize;
+    private int size;
+    private float[] inputs;
+    private float[] outputs;
+
+    /**
+     * Creates new empty float data set
+     *
+     * @param inputSize  length of the input vector
+     * @param outputSize length of the output vector, 0 for unsupervised data set
+     */
+    public FloatDataSet(int inputSize, int outputSize) {
+        this.inputSize = inputSize;
+        this.outputSize = outputSize;
+        this.inputs = new float[0];
+        this.outputs = new float[0];
+    }
+
+    /**
+     * Creates float data set with rows of the specified data set
+     *
+     * @param dataSet double precision data set to convert
+     */
+    public FloatDataSet(DataSet dataSet) {
+        this(dataSet.getInputSize(), dataSet.getOutputSize());
+        int rows = dataSet.size();
+        inputs = new float[rows * inputSize];
+        outputs = new float[rows * outputSize];
+        for (int r = 0; r < rows; r++) {
+            DataSetRow row = dataSet.getRowAt(r);
+            copy(row.getInput(), inputs, r * inputSize, inputSize);
+            if (outputSize > 0) {
+                copy(row.getDesiredOutput(), outputs, r * outputSize, outputSize);
+            }
+        }
+        size = rows;
+    }
+
+    private static void copy(double[] from, float[] to, int offset, int length) {
+        if (from.length != length) {
+            throw new VectorSizeMismatchException("Row vector size does not match data set size!");
+        }
+        for (int i = 0; i < length; i++) {
+            to[offset + i] = (float) from[i];
+        }
+    }
+
+    /**
+     * Adds new row to this data set
+     *
+     * @param input  input vector
+     * @param output desired output vector
+     */
+    public void addRow(float[] input, float[] output) {
+        if (input.length != inputSize || (output == null ? 0 : output.length) != outputSize) {
+            throw new VectorSizeMismatchException("Row vector size does not match data set size!");
+        }
+        if ((size + 1) * inputSize > inputs.length) {
+            int capacity = Math.max(16, size + (size >> 1));
+            inputs = Arrays.copyOf(inputs, capacity * inputSize);
+            outputs = Arrays.copyOf(outputs, capacity * outputSize);
+        }
+        System.arraycopy(input, 0, inputs, size * inputSize, inputSize);
+        if (outputSize > 0) {
+            System.arraycopy(output, 0, outputs, size * outputSize, outputSize);
+        }
+        size++;
+    }
+
+    /**
+     * Returns number of rows
+     *
+     * @return number of rows
+     */
+    public int size() {
+        return size;
+    }
+
+    public int getInputSize() {
+        return inputSize;
+    }
+
+    public int getOutputSize() {
+        return outputSize;
+    }
+
+    /**
+     * Returns inputs of all rows; input of row r starts at position r * getInputSize().
+     * Array can be longer than size() * getInputSize().
+     *
+     * @return inputs of all rows
+     */
+    public float[] getInputs() {
+        return inputs;
+    }
+
+    /**
+     * Returns desired outputs of all rows; output of row r starts at position r * getOutputSize().
+     * Array can be longer than size() * getOutputSize().
+     *
+     * @return desired outputs of all rows
+     */
+    public float[] getOutputs() {
+        return outputs;
+    }
+}
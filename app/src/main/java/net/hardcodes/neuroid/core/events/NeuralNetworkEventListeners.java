@@ -0,0 +1,129 @@
+/**
+ * Copyright 2010 Neuroph Project http://neuroph.sourceforge.net
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.hardcodes.neuroid.core.events;
+
+import java.util.Arrays;
+
+/**
+ * Copy on write registry of neural network event listeners, which keeps a separate listener array
+ * for each event type. Adding and removing listeners copies the arrays, while firing events and
+ * checking for listeners only reads the current arrays without locking, so networks can be used
+ * from many threads without contention. Listeners added while an event is being fired will
+ * receive only the following events.
+ *
+ * @see NeuralNetworkEventListener
+ * @see NeuralNetworkEventType
+ */
+public class NeuralNetworkEventListeners {
+
+    private static final NeuralNetworkEventType[] ALL_TYPES = NeuralNetworkEventType.values();
+    private static final NeuralNetworkEventListener[] NO_LISTENERS = new NeuralNetworkEventListener[0];
+
+    /**
+     * Listener arrays indexed by event type ordinal. Arrays are never modified once published.
+     */
+    private volatile NeuralNetworkEventListener[][] listeners;
+
+    /**
+     * Creates empty listener registry
+     */
+    public NeuralNetworkEventListeners() {
+        NeuralNetworkEventListener[][] empty = new NeuralNetworkEventListener[ALL_TYPES.length][];
+        Arrays.fill(empty, NO_LISTENERS);
+        this.listeners = empty;
+    }
+
+    /**
+     * Registers listener for the specified event types, or for all event types if none is specified.
+     * Listener is registered only once for the same event type.
+     *
+     * @param listener   listener to register
+     * @param eventTypes event types to listen for
+     */
+    public synchronized void add(NeuralNetworkEventListener listener, NeuralNetworkEventType... eventTypes) {
+        if (listener == null) {
+            throw new IllegalArgumentException("listener is null!");
+        }
+
+        NeuralNetworkEventListener[][] updated = listeners.clone();
+        for (NeuralNetworkEventType eventType : eventTypes.length == 0 ? ALL_TYPES : eventTypes) {
+            NeuralNetworkEventListener[] typeListeners = updated[eventType.ordinal()];
+            if (indexOf(typeListeners, listener) < 0) {
+                typeListeners = Arrays.copyOf(typeListeners, typeListeners.length + 1);
+                typeListeners[typeListeners.length - 1] = listener;
+                updated[eventType.ordinal()] = typeListeners;
+            }
+        }
+        listeners = updated;
+    }
+
+    /**
+     * Unregisters listener from the specified event types, or from all event types if none is specified
+     *
+     * @param listener   listener to unregister
+     * @param eventTypes event types to stop listening for
+     */
+    public synchronized void remove(NeuralNetworkEventListener listener, NeuralNetworkEventType... eventTypes) {
+        if (listener == null) {
+            throw new IllegalArgumentException("listener is null!");
+        }
+
+        NeuralNetworkEventListener[][] updated = listeners.clone();
+        for (NeuralNetworkEventType eventType : eventTypes.length == 0 ? ALL_TYPES : eventTypes) {
+            NeuralNetworkEventListener[] typeListeners = updated[eventType.ordinal()];
+            int index = indexOf(typeListeners, listener);
+            if (index >= 0) {
+                NeuralNetworkEventListener[] shrunk = new NeuralNetworkEventListener[typeListeners.length - 1];
+                System.arraycopy(typeListeners, 0, shrunk, 0, index);
+                System.arraycopy(typeListeners, index + 1, shrunk, index, shrunk.length - index);
+                updated[eventType.ordinal()] = shrunk.length == 0 ? NO_LISTENERS : shrunk;
+            }
+        }
+        listeners = updated;
+    }
+
+    /**
+     * Returns true if there is at least one listener for the specified event type.
+     * Use this method to avoid creating event objects which nobody will receive.
+     *
+     * @param eventType event type
+     * @return true if event type has listeners, false otherwise
+     */
+    public boolean hasListeners(NeuralNetworkEventType eventType) {
+        return listeners[eventType.ordinal()].length > 0;
+    }
+
+    /**
+     * Sends event to all listeners registered for its type
+     *
+     * @param event event to send
+     */
+    public void fire(NeuralNetworkEvent event) {
+        for (NeuralNetworkEventListener listener : listeners[event.getEventType().ordinal()]) {
+            listener.handleNeuralNetworkEvent(event);
+        }
+    }
+
+    private static int indexOf(NeuralNetworkEventListener[] typeListeners, NeuralNetworkEventListener listener) {
+        for (int i = 0; i < typeListeners.length; i++) {
+            if (typeListeners[i] == listener) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -1,5 +1,5 @@
 /**
- * Provides neural network learning events system
+ * Provides neural network and learning events system
  */
 
 package net.hardcodes.neuroid.core.events;
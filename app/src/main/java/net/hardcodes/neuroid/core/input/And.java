@@ -49,4 +49,14 @@ public class And extends InputFunction implements Serializable {
 		return output ? 1d : 0d;
 	}
 
+	@Override
+	public double getOutput(double[] inputs, int inputOffset, double[] weights, int weightOffset, int length) {
+		if (length == 0) return 0d;
+		for (int i = 0; i < length; i++) {
+			if (inputs[inputOffset + i] < 0.5d) {
+				return 0d;
+			}
+		}
+		return 1d;
+	}
 }
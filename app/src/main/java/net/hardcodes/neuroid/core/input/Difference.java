@@ -54,14 +54,52 @@ public class Difference extends InputFunction implements Serializable {
 		return output;
 	}
 
-	public double[] getOutput(double[] inputs, double[] weights) {
-		double[] output = new double[inputs.length];
+	@Override
+	public double getOutput(double[] inputs, int inputOffset, double[] weights, int weightOffset, int length) {
+		return Math.sqrt(squaredDistance(inputs, inputOffset, weights, weightOffset, length));
+	}
 
-		for(int i = 0; i < inputs.length; i++) {
-			output[i] = inputs[i] - weights[i];
-		}
+	/**
+	 * Returns euclidean distance between the input and weight vectors
+	 * @param inputs input vector
+	 * @param weights weight vector, with the same length
+	 * @return distance between input and weight vector
+	 */
+	public double getOutput(double[] inputs, double[] weights) {
+		return Math.sqrt(squaredDistance(inputs, 0, weights, 0, inputs.length));
+	}
 
-		return output;
+	/**
+	 * Returns squared euclidean distance between inputs[inputOffset..] and weights[weightOffset..],
+	 * used by RBF and Kohonen layers. Squared differences are added in the same order as in
+	 * getOutput(Connection[]), so the result is identical to the connection based calculation.
+	 * @param inputs array with inputs
+	 * @param inputOffset position of the first input
+	 * @param weights array with weights
+	 * @param weightOffset position of the first weight
+	 * @param length number of inputs
+	 * @return squared distance
+	 */
+	public static double squaredDistance(double[] inputs, int inputOffset, double[] weights, int weightOffset, int length) {
+		double sum = 0d;
+		int i = 0;
+		for (; i + 3 < length; i += 4) {
+			int in = inputOffset + i;
+			int w = weightOffset + i;
+			double d0 = inputs[in] - weights[w];
+			double d1 = inputs[in + 1] - weights[w + 1];
+			double d2 = inputs[in + 2] - weights[w + 2];
+			double d3 = inputs[in + 3] - weights[w + 3];
+			sum += d0 * d0;
+			sum += d1 * d1;
+			sum += d2 * d2;
+			sum += d3 * d3;
+		}
+		for (; i < length; i++) {
+			double diff = inputs[inputOffset + i] - weights[weightOffset + i];
+			sum += diff * diff;
+		}
+		return sum;
 	}
 
 }
@@ -54,4 +54,26 @@ abstract public class InputFunction implements Serializable {
 	 */
 	abstract public double getOutput(Connection[] inputConnections);
 
+	/**
+	 * Returns ouput value of this input function for inputs and weights stored in primitive arrays,
+	 * where input inputs[inputOffset + i] has weight weights[weightOffset + i], for 0 <= i < length.
+	 * Used by compiled networks, which keep neuron outputs and weights in contiguous arrays. Compiled networks
+	 * accept only input functions from this package, other functions are rejected when network is compiled.
+	 * 
+	 * @param inputs
+	 *            array with neuron inputs
+	 * @param inputOffset
+	 *            position of the first input
+	 * @param weights
+	 *            array with input weights
+	 * @param weightOffset
+	 *            position of the first weight
+	 * @param length
+	 *            number of inputs
+	 * @return input total net input
+	 */
+	public double getOutput(double[] inputs, int inputOffset, double[] weights, int weightOffset, int length) {
+		throw new UnsupportedOperationException(getClass().getName() + " does not support primitive inputs!");
+	}
+
 }
@@ -42,4 +42,34 @@ public class Max extends InputFunction implements Serializable {
 
         return max;
     }
+
+    @Override
+    public double getOutput(double[] inputs, int inputOffset, double[] weights, int weightOffset, int length) {
+        return maxWeighted(inputs, inputOffset, weights, weightOffset, length);
+    }
+
+    /**
+     * Returns maximum of weighted inputs inputs[inputOffset + i] * weights[weightOffset + i], starting
+     * from the same value as getOutput(Connection[]), as used by pooling layers
+     *
+     * @param inputs       array with inputs
+     * @param inputOffset  position of the first input
+     * @param weights      array with weights
+     * @param weightOffset position of the first weight
+     * @param length       number of inputs
+     * @return maximum of weighted inputs
+     */
+    public static double maxWeighted(double[] inputs, int inputOffset, double[] weights, int weightOffset, int length) {
+        double m0 = Double.MIN_VALUE;
+        double m1 = Double.MIN_VALUE;
+        int i = 0;
+        for (; i + 1 < length; i += 2) {
+            m0 = Math.max(m0, inputs[inputOffset + i] * weights[weightOffset + i]);
+            m1 = Math.max(m1, inputs[inputOffset + i + 1] * weights[weightOffset + i + 1]);
+        }
+        if (i < length) {
+            m0 = Math.max(m0, inputs[inputOffset + i] * weights[weightOffset + i]);
+        }
+        return Math.max(m0, m1);
+    }
 }
@@ -48,4 +48,13 @@ public class Or extends InputFunction implements Serializable {
 		return output ? 1d : 0d;
 	}
 
+	@Override
+	public double getOutput(double[] inputs, int inputOffset, double[] weights, int weightOffset, int length) {
+		for (int i = 0; i < length; i++) {
+			if (inputs[inputOffset + i] >= 0.5d) {
+				return 1d;
+			}
+		}
+		return 0d;
+	}
 }
@@ -46,4 +46,17 @@ public class Product extends InputFunction implements Serializable {
 
         return output;
     }
+
+    @Override
+    public double getOutput(double[] inputs, int inputOffset, double[] weights, int weightOffset, int length) {
+        if (length == 0) {
+            return 0d;
+        }
+
+        double output = 1d;
+        for (int i = 0; i < length; i++) {
+            output *= inputs[inputOffset + i];
+        }
+        return output;
+    }
 }
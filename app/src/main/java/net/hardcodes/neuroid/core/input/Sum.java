@@ -42,4 +42,13 @@ public class Sum extends InputFunction implements Serializable {
 
         return output;
     }
-}
\ No newline at end of file
+
+    @Override
+    public double getOutput(double[] inputs, int inputOffset, double[] weights, int weightOffset, int length) {
+        double output = 0d;
+        for (int i = 0; i < length; i++) {
+            output += inputs[inputOffset + i];
+        }
+        return output;
+    }
+}
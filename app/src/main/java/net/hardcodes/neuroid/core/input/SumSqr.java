@@ -43,4 +43,14 @@ public class SumSqr extends InputFunction implements Serializable {
 
         return output;
     }
+
+    @Override
+    public double getOutput(double[] inputs, int inputOffset, double[] weights, int weightOffset, int length) {
+        double output = 0d;
+        for (int i = 0; i < length; i++) {
+            double input = inputs[inputOffset + i];
+            output += input * input;
+        }
+        return output;
+    }
 }
@@ -37,13 +37,48 @@ public class WeightedSum extends InputFunction {
         return output;
     }
 
-    public static double[] getOutput(double[] inputs, double[] weights) {
-        double[] output = new double[inputs.length];
+    @Override
+    public double getOutput(double[] inputs, int inputOffset, double[] weights, int weightOffset, int length) {
+        return dot(inputs, inputOffset, weights, weightOffset, length);
+    }
 
-        for (int i = 0; i < inputs.length; i++) {
-            output[i] += inputs[i] * weights[i];
-        }
+    /**
+     * Returns weighted sum (dot product) of the input and weight vectors
+     *
+     * @param inputs  input vector
+     * @param weights weight vector, with the same length
+     * @return weighted sum of inputs
+     */
+    public static double getOutput(double[] inputs, double[] weights) {
+        return dot(inputs, 0, weights, 0, inputs.length);
+    }
 
-        return output;
+    /**
+     * Returns dot product of inputs[inputOffset..] and weights[weightOffset..].
+     * The loop is unrolled, but products are added in the same order as in getOutput(Connection[]),
+     * so the result is identical to the connection based calculation.
+     *
+     * @param inputs       array with inputs
+     * @param inputOffset  position of the first input
+     * @param weights      array with weights
+     * @param weightOffset position of the first weight
+     * @param length       number of inputs
+     * @return dot product
+     */
+    public static double dot(double[] inputs, int inputOffset, double[] weights, int weightOffset, int length) {
+        double sum = 0d;
+        int i = 0;
+        for (; i + 3 < length; i += 4) {
+            int in = inputOffset + i;
+            int w = weightOffset + i;
+            sum += inputs[in] * weights[w];
+            sum += inputs[in + 1] * weights[w + 1];
+            sum += inputs[in + 2] * weights[w + 2];
+            sum += inputs[in + 3] * weights[w + 3];
+        }
+        for (; i < length; i++) {
+            sum += inputs[inputOffset + i] * weights[weightOffset + i];
+        }
+        return sum;
     }
 }
@@ -123,8 +123,8 @@ abstract public class IterativeLearning extends LearningRule implements
      *
      * @return current iteration of this learning algorithm
      */
-    public Integer getCurrentIteration() {
-        return new Integer(this.currentIteration); // why boxed integer here?
+    public int getCurrentIteration() {
+        return this.currentIteration;
     }
 
     /**
@@ -149,7 +149,25 @@ abstract public class IterativeLearning extends LearningRule implements
     public void resume() {
         this.pausedLearning = false;
         synchronized (this) {
-            this.notify();
+            // learning rules with worker threads can have more than one thread waiting
+            this.notifyAll();
+        }
+    }
+
+    /**
+     * Blocks the calling thread while learning is paused. Called by the learning thread after each epoch,
+     * and can be called by worker threads of learning rules to pause within an epoch.
+     */
+    protected void waitWhilePaused() {
+        if (this.pausedLearning) {
+            synchronized (this) {
+                while (this.pausedLearning) {
+                    try {
+                        this.wait();
+                    } catch (Exception e) {
+                    }
+                }
+            }
         }
     }
 
@@ -197,16 +215,7 @@ abstract public class IterativeLearning extends LearningRule implements
             fireLearningEvent(new LearningEvent(this, LearningEventType.EPOCH_ENDED));
 
             // Thread safe pause when learning is paused
-            if (this.pausedLearning) {
-                synchronized (this) {
-                    while (this.pausedLearning) {
-                        try {
-                            this.wait();
-                        } catch (Exception e) {
-                        }
-                    }
-                }
-            }
+            waitWhilePaused();
 
         }
         onStop();
@@ -0,0 +1,243 @@
+/**
+ * Copyright 2010 Neuroph Project http://neuroph.sourceforge.net
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package net.hardcodes.neuroid.core.learning;
+
+import net.hardcodes.neuroid.core.Connection;
+import net.hardcodes.neuroid.core.Layer;
+import net.hardcodes.neuroid.core.NeuralNetwork;
+import net.hardcodes.neuroid.core.Neuron;
+import net.hardcodes.neuroid.core.Weight;
+import net.hardcodes.neuroid.util.NeurophArrayList;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+
+/**
+ * <pre>
+ * Flat view of all trainable weights of a network, for optimizers which work on one parameter vector
+ * (simulated annealing, genetic algorithms, adaptive gradient methods) and for checkpointing.
+ *
+ * Weights are collected once, in the same order as NeuralNetwork.getWeights(): layer by layer,
+ * neuron by neuron, input connection by input connection. Connections which share the same Weight
+ * object (as in convolutional layers) share one parameter, at the position of its first connection,
+ * and gradients of all its connections are summed. For networks without shared weights, vector order
+ * is the same as NeuralNetwork.getWeights(). Values and gradients are kept in two double arrays of
+ * the same length, which are allocated once and returned without copying, so read(), write() and
+ * gradient accumulation run in O(n) without allocation.
+ *
+ * Network weights stay in their Weight objects, so values must be synchronized explicitly:
+ * read() copies network weights into the value vector, and write() copies the value vector into the network.
+ * Create new vector if network structure changes.
+ * </pre>
+ *
+ * @see NeuralNetwork#getWeights()
+ */
+public class ParameterVector {
+
+    /**
+     * Distinct weights, in vector order
+     */
+    private final Weight[] weights;
+
+    /**
+     * First connection of each weight, in vector order
+     */
+    private final Connection[] weightConnections;
+
+    /**
+     * All connections of the network
+     */
+    private final Connection[] connections;
+
+    /**
+     * Vector index of the weight of each connection
+     */
+    private final int[] connectionWeights;
+
+    /**
+     * Weight values
+     */
+    private final double[] values;
+
+    /**
+     * Accumulated weight gradients
+     */
+    private final double[] gradients;
+
+    /**
+     * Creates parameter vector for all weights of the specified network,
+     * and reads current weight values
+     *
+     * @param network network whose weights are exposed
+     */
+    public ParameterVector(NeuralNetwork network) {
+        this(network.getLayers());
+    }
+
+    /**
+     * Creates parameter vector for input weights of the specified layers, and reads current weight values
+     *
+     * @param layers layers whose weights are exposed
+     */
+    public ParameterVector(Layer... layers) {
+        NeurophArrayList<Connection> list = new NeurophArrayList<>(Connection.class);
+        for (Layer layer : layers) {
+            for (Neuron neuron : layer.getNeurons()) {
+                for (Connection connection : neuron.getInputConnections()) {
+                    list.add(connection);
+                }
+            }
+        }
+        list.trimToSize();
+        this.connections = list.asArray();
+
+        IdentityHashMap<Weight, Integer> uniqueWeights = new IdentityHashMap<>();
+        NeurophArrayList<Connection> firstConnections = new NeurophArrayList<>(Connection.class);
+        this.connectionWeights = new int[connections.length];
+        for (int i = 0; i < connections.length; i++) {
+            Weight weight = connections[i].getWeight();
+            Integer index = uniqueWeights.get(weight);
+            if (index == null) {
+                index = uniqueWeights.size();
+                uniqueWeights.put(weight, index);
+                firstConnections.add(connections[i]);
+            }
+            connectionWeights[i] = index;
+        }
+        firstConnections.trimToSize();
+        this.weightConnections = firstConnections.asArray();
+        this.weights = new Weight[weightConnections.length];
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = weightConnections[i].getWeight();
+        }
+
+        this.values = new double[weights.length];
+        this.gradients = new double[weights.length];
+        read();
+    }
+
+    /**
+     * Returns number of distinct weights in this vector
+     *
+     * @return number of weights
+     */
+    public int size() {
+        return weights.length;
+    }
+
+    /**
+     * Returns weight values. Returned array is the value vector itself, not a copy,
+     * so changes are applied to the network by write().
+     *
+     * @return weight values
+     */
+    public double[] getValues() {
+        return values;
+    }
+
+    /**
+     * Returns accumulated gradients. Returned array is the gradient vector itself, not a copy.
+     *
+     * @return weight gradients
+     */
+    public double[] getGradients() {
+        return gradients;
+    }
+
+    /**
+     * Copies current network weights into the value vector
+     */
+    public void read() {
+        read(values);
+    }
+
+    /**
+     * Copies current network weights into the specified array
+     *
+     * @param destination array with at least size() elements
+     */
+    public void read(double[] destination) {
+        checkLength(destination);
+        for (int i = 0; i < weights.length; i++) {
+            destination[i] = weights[i].value;
+        }
+    }
+
+    /**
+     * Copies the value vector into network weights
+     */
+    public void write() {
+        write(values);
+    }
+
+    /**
+     * Copies the specified array into network weights
+     *
+     * @param source array with at least size() elements
+     */
+    public void write(double[] source) {
+        checkLength(source);
+        for (int i = 0; i < weights.length; i++) {
+            weights[i].value = source[i];
+        }
+    }
+
+    /**
+     * Adds gradients for the last learned pattern, from neuron errors and connection inputs.
+     * Call after errors of all neurons are calculated. Gradient has the same sign as the weight change
+     * used by LMS based rules (neuron error * input), so adding it to weights decreases network error.
+     * Gradient of a shared weight is the sum of gradients of all its connections.
+     */
+    public void accumulateGradients() {
+        for (int i = 0; i < connections.length; i++) {
+            Connection connection = connections[i];
+            gradients[connectionWeights[i]] += connection.getToNeuron().getError() * connection.getInput();
+        }
+    }
+
+    /**
+     * Sets all gradients to zero
+     */
+    public void clearGradients() {
+        Arrays.fill(gradients, 0);
+    }
+
+    /**
+     * Returns the first connection of the weight at the specified index
+     *
+     * @param index weight index
+     * @return connection of the weight
+     */
+    public Connection getConnection(int index) {
+        return weightConnections[index];
+    }
+
+    /**
+     * Returns weight at the specified index
+     *
+     * @param index weight index
+     * @return weight
+     */
+    public Weight getWeight(int index) {
+        return weights[index];
+    }
+
+    private void checkLength(double[] array) {
+        if (array.length < weights.length) {
+            throw new IllegalArgumentException("Array length " + array.length + " is smaller than parameter vector size " + weights.length + "!");
+        }
+    }
+}
@@ -24,11 +24,11 @@ import net.hardcodes.neuroid.core.data.DataSetRow;
 import net.hardcodes.neuroid.core.learning.error.ErrorFunction;
 import net.hardcodes.neuroid.core.learning.error.MeanSquaredError;
 import net.hardcodes.neuroid.core.learning.stop.MaxErrorStop;
+import net.hardcodes.neuroid.util.IntArrayList;
 
 import java.io.Serializable;
-import java.util.Iterator;
-
-// TODO:  random pattern order
+import java.util.List;
+import java.util.Random;
 
 /**
  * Base class for all supervised learning algorithms.
@@ -71,6 +71,28 @@ abstract public class SupervisedLearning extends IterativeLearning implements
      * False by default.
      */
     private boolean batchMode = false;
+    /**
+     * Number of patterns after which accumulated weight changes are applied in batch mode (mini batch size).
+     * 0 by default, which applies weight changes once, after the whole epoch.
+     */
+    private int batchSize = 0;
+    /**
+     * Number of patterns learned since weight changes were last applied in batch mode
+     */
+    private transient int patternsInBatch;
+    /**
+     * Setting to determine if training set rows are learned in random order, shuffled in each epoch
+     * False by default.
+     */
+    private boolean shuffle = false;
+    /**
+     * Random generator used to shuffle training set rows
+     */
+    private Random shuffleRandom = new Random();
+    /**
+     * Order in which training set rows are learned when shuffle is on
+     */
+    private transient IntArrayList patternOrder;
 
     private ErrorFunction errorFunction;
 
@@ -112,6 +134,7 @@ abstract public class SupervisedLearning extends IterativeLearning implements
     protected void onStart() {
         super.onStart(); // reset iteration counter
         this.minErrorChangeIterationsCount = 0;
+        this.patternsInBatch = 0;
         this.previousEpochError = 0d;
 
         // this is now done in constructor
@@ -137,9 +160,11 @@ abstract public class SupervisedLearning extends IterativeLearning implements
             this.minErrorChangeIterationsCount = 0;
         }
 
-        // if learning is performed in batch mode, apply accumulated weight changes from this epoch        
-        if (this.batchMode == true) {
+        // if learning is performed in batch mode, apply accumulated weight changes from this epoch
+        // (with mini batches, only changes from the last incomplete batch are left)
+        if (this.batchMode == true && (this.batchSize == 0 || this.patternsInBatch > 0)) {
             doBatchWeightsUpdate();
+            this.patternsInBatch = 0;
         }
     }
 
@@ -156,12 +181,18 @@ abstract public class SupervisedLearning extends IterativeLearning implements
     @Override
     public void doLearningEpoch(DataSet trainingSet) {
 
-        // feed network with all elements from training set
-        Iterator<DataSetRow> iterator = trainingSet.iterator();
-        while (iterator.hasNext() && !isStopped()) {
-            DataSetRow dataSetRow = iterator.next();
+        // feed network with all elements from training set (indexed loop, so no iterator is created)
+        List<DataSetRow> rows = trainingSet.getRows();
+        int[] order = getPatternOrder(rows.size());
+        for (int i = 0; i < rows.size() && !isStopped(); i++) {
             // learn current input/output pattern defined by SupervisedTrainingElement
-            this.learnPattern(dataSetRow);
+            this.learnPattern(rows.get(order != null ? order[i] : i));
+
+            // in mini batch mode apply accumulated weight changes after each batchSize patterns
+            if (this.batchMode && this.batchSize > 0 && ++this.patternsInBatch == this.batchSize) {
+                doBatchWeightsUpdate();
+                this.patternsInBatch = 0;
+            }
         }
 
         // calculate total network error as MSE. Use MSE so network does not grow with bigger training sets
@@ -174,6 +205,27 @@ abstract public class SupervisedLearning extends IterativeLearning implements
 //        }
     }
 
+    /**
+     * Returns order in which training set rows are learned in this epoch. If shuffle is on, the order from
+     * the previous epoch is shuffled (it is reused if the number of rows is the same).
+     *
+     * @param rowsCount number of training set rows
+     * @return row indexes in random order, or null if shuffle is off and rows are learned in training set order
+     */
+    protected int[] getPatternOrder(int rowsCount) {
+        if (!shuffle) {
+            return null;
+        }
+        if (patternOrder == null || patternOrder.size() != rowsCount) {
+            patternOrder = new IntArrayList(rowsCount);
+            for (int i = 0; i < rowsCount; i++) {
+                patternOrder.add(i);
+            }
+        }
+        patternOrder.shuffle(shuffleRandom);
+        return patternOrder.elements();
+    }
+
     /**
      * Trains network with the input and desired output pattern from the specified training element
      *
@@ -191,7 +243,8 @@ abstract public class SupervisedLearning extends IterativeLearning implements
 
     /**
      * This method updates network weights in batch mode - use accumulated weights change stored in Weight.deltaWeight
-     * It is executed after each learning epoch, only if learning is done in batch mode.
+     * It is executed after each learning epoch, only if learning is done in batch mode,
+     * and after each batchSize patterns if mini batch size is set.
      *
      * @see SupervisedLearning#doLearningEpoch(net.hardcodes.neuroid.core.data.DataSet)
      */
@@ -268,6 +321,58 @@ abstract public class SupervisedLearning extends IterativeLearning implements
         this.batchMode = batchMode;
     }
 
+    /**
+     * Returns mini batch size
+     *
+     * @return number of patterns after which weight changes are applied in batch mode, 0 for whole epoch
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Sets mini batch size and turns batch mode on. Weight changes are accumulated for batchSize patterns
+     * and then applied, so network is updated several times per epoch. Like in batch mode, weight changes
+     * are summed (not averaged), so bigger batches usually need smaller learning rate.
+     *
+     * @param batchSize number of patterns in a batch, 0 to apply weight changes once per epoch
+     */
+    public void setBatchSize(int batchSize) {
+        if (batchSize < 0) {
+            throw new IllegalArgumentException("Batch size cannot be negative!");
+        }
+        this.batchSize = batchSize;
+        this.batchMode = true;
+    }
+
+    /**
+     * Returns true if training set rows are learned in random order
+     *
+     * @return true if shuffle is on, false otherwise
+     */
+    public boolean isShuffle() {
+        return shuffle;
+    }
+
+    /**
+     * Sets shuffle on/off (true/false). If shuffle is on, training set rows are learned in random order,
+     * which is changed in each epoch.
+     *
+     * @param shuffle shuffle setting
+     */
+    public void setShuffle(boolean shuffle) {
+        this.shuffle = shuffle;
+    }
+
+    /**
+     * Sets random generator used to shuffle training set rows, for repeatable training
+     *
+     * @param shuffleRandom random generator
+     */
+    public void setShuffleRandom(Random shuffleRandom) {
+        this.shuffleRandom = shuffleRandom;
+    }
+
     /**
      * Sets allowed network error, which indicates when to stopLearning training
      *
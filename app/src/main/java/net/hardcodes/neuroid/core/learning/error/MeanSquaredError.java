@@ -31,6 +31,11 @@ public class MeanSquaredError implements ErrorFunction, Serializable {
      */
     private transient double patternCount;
 
+    /**
+     * Pattern error buffer, reused for all patterns
+     */
+    private transient double[] patternError;
+
     public MeanSquaredError() {
         reset();
     }
@@ -48,9 +53,15 @@ public class MeanSquaredError implements ErrorFunction, Serializable {
         return totalError / ( 2 * patternCount );
     }
 
+    /**
+     * Calculates pattern error for given predicted and target output.
+     * Returned array is reused by subsequent calls.
+     */
     @Override
     public double[]calculatePatternError(double[] predictedOutput, double[] targetOutput) {
-        double[] patternError = new double[targetOutput.length];
+        if (patternError == null || patternError.length != targetOutput.length) {
+            patternError = new double[targetOutput.length];
+        }
 
         for (int i = 0; i < predictedOutput.length; i++) {
             patternError[i] =  targetOutput[i] - predictedOutput[i];
@@ -0,0 +1,55 @@
+/**
+ * Copyright 2010 Neuroph Project http://neuroph.sourceforge.net
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.hardcodes.neuroid.core.learning.optimizer;
+
+/**
+ * AdaGrad: learning rate of each weight is divided by the root of the sum of all its squared gradients,
+ * so frequently changed weights get smaller steps. Weight change is learningRate * g / (sqrt(G) + epsilon).
+ */
+public class AdaGrad implements Optimizer {
+
+    private static final long serialVersionUID = 1L;
+
+    private double epsilon = 1e-8;
+
+    /**
+     * Sums of squared gradients
+     */
+    private transient double[] squaredGradientSums;
+
+    public double getEpsilon() {
+        return epsilon;
+    }
+
+    public void setEpsilon(double epsilon) {
+        this.epsilon = epsilon;
+    }
+
+    @Override
+    public void initialize(int parametersCount) {
+        squaredGradientSums = new double[parametersCount];
+    }
+
+    @Override
+    public void update(double[] parameters, double[] gradients, double learningRate) {
+        for (int i = 0; i < squaredGradientSums.length; i++) {
+            double g = gradients[i];
+            double sum = squaredGradientSums[i] + g * g;
+            squaredGradientSums[i] = sum;
+            parameters[i] += learningRate * g / (Math.sqrt(sum) + epsilon);
+        }
+    }
+}
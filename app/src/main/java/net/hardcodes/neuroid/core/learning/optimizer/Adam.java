@@ -0,0 +1,110 @@
+/**
+ * Copyright 2010 Neuroph Project http://neuroph.sourceforge.net
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.hardcodes.neuroid.core.learning.optimizer;
+
+/**
+ * Adam: keeps moving averages of gradients (m) and squared gradients (v), and changes each weight by
+ * learningRate * m' / (sqrt(v') + epsilon), where m' and v' are the averages corrected for their zero start.
+ * Bias corrections are folded into the step size, once per update.
+ */
+public class Adam implements Optimizer {
+
+    private static final long serialVersionUID = 1L;
+
+    private double beta1;
+    private double beta2;
+    private double epsilon = 1e-8;
+
+    /**
+     * Moving averages of gradients
+     */
+    private transient double[] moments;
+
+    /**
+     * Moving averages of squared gradients
+     */
+    private transient double[] squaredMoments;
+
+    /**
+     * Number of updates since initialize()
+     */
+    private transient int step;
+
+    /**
+     * Creates Adam optimizer with beta1 0.9 and beta2 0.999
+     */
+    public Adam() {
+        this(0.9, 0.999);
+    }
+
+    /**
+     * Creates Adam optimizer with the specified decays
+     *
+     * @param beta1 decay of the gradient average, in [0, 1)
+     * @param beta2 decay of the squared gradient average, in [0, 1)
+     */
+    public Adam(double beta1, double beta2) {
+        this.beta1 = beta1;
+        this.beta2 = beta2;
+    }
+
+    public double getBeta1() {
+        return beta1;
+    }
+
+    public void setBeta1(double beta1) {
+        this.beta1 = beta1;
+    }
+
+    public double getBeta2() {
+        return beta2;
+    }
+
+    public void setBeta2(double beta2) {
+        this.beta2 = beta2;
+    }
+
+    public double getEpsilon() {
+        return epsilon;
+    }
+
+    public void setEpsilon(double epsilon) {
+        this.epsilon = epsilon;
+    }
+
+    @Override
+    public void initialize(int parametersCount) {
+        moments = new double[parametersCount];
+        squaredMoments = new double[parametersCount];
+        step = 0;
+    }
+
+    @Override
+    public void update(double[] parameters, double[] gradients, double learningRate) {
+        step++;
+        double stepSize = learningRate * Math.sqrt(1 - Math.pow(beta2, step)) / (1 - Math.pow(beta1, step));
+        // epsilon is scaled too, so the result is the same as with epsilon added to the root of corrected v
+        double scaledEpsilon = epsilon * Math.sqrt(1 - Math.pow(beta2, step));
+        for (int i = 0; i < moments.length; i++) {
+            double g = gradients[i];
+            double m = beta1 * moments[i] + (1 - beta1) * g;
+            double v = beta2 * squaredMoments[i] + (1 - beta2) * g * g;
+            moments[i] = m;
+            squaredMoments[i] = v;
+            parameters[i] += stepSize * m / (Math.sqrt(v) + scaledEpsilon);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+/**
+ * Copyright 2010 Neuroph Project http://neuroph.sourceforge.net
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.hardcodes.neuroid.core.learning.optimizer;
+
+/**
+ * Momentum with Nesterov look ahead. Velocity is v = momentum * v + learningRate * g, and weight change is
+ * momentum * v + learningRate * g, which is the classic momentum step evaluated at the look ahead position.
+ */
+public class NesterovMomentum implements Optimizer {
+
+    private static final long serialVersionUID = 1L;
+
+    private double momentum;
+
+    /**
+     * Previous weight changes (velocities)
+     */
+    private transient double[] velocity;
+
+    /**
+     * Creates Nesterov momentum optimizer with momentum 0.9
+     */
+    public NesterovMomentum() {
+        this(0.9);
+    }
+
+    /**
+     * Creates Nesterov momentum optimizer with the specified momentum
+     *
+     * @param momentum momentum factor, in [0, 1)
+     */
+    public NesterovMomentum(double momentum) {
+        this.momentum = momentum;
+    }
+
+    public double getMomentum() {
+        return momentum;
+    }
+
+    public void setMomentum(double momentum) {
+        this.momentum = momentum;
+    }
+
+    @Override
+    public void initialize(int parametersCount) {
+        velocity = new double[parametersCount];
+    }
+
+    @Override
+    public void update(double[] parameters, double[] gradients, double learningRate) {
+        for (int i = 0; i < velocity.length; i++) {
+            double step = learningRate * gradients[i];
+            double v = momentum * velocity[i] + step;
+            velocity[i] = v;
+            parameters[i] += momentum * v + step;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+/**
+ * Copyright 2010 Neuroph Project http://neuroph.sourceforge.net
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.hardcodes.neuroid.core.learning.optimizer;
+
+import java.io.Serializable;
+
+/**
+ * <pre>
+ * Calculates weight updates from weight gradients. Parameters, gradients and optimizer state are flat arrays
+ * with one element per weight, in ParameterVector order, so an update is a few passes over contiguous arrays.
+ * Gradients have the sign of LMS weight changes (neuron error * input), so moving weights along the gradient
+ * decreases network error. State (moments, velocities) is created by initialize() when learning starts,
+ * and is not serialized.
+ * </pre>
+ *
+ * @see net.hardcodes.neuroid.core.learning.ParameterVector
+ * @see net.hardcodes.neuroid.net.learning.BackPropagation#setOptimizer(Optimizer)
+ */
+public interface Optimizer extends Serializable {
+
+    /**
+     * Creates new state for the specified number of parameters, discarding any previous state
+     *
+     * @param parametersCount number of parameters (weights)
+     */
+    public void initialize(int parametersCount);
+
+    /**
+     * Changes parameters for the specified gradients, and updates optimizer state
+     *
+     * @param parameters   weight values, changed by this method
+     * @param gradients    weight gradients
+     * @param learningRate learning rate (step size)
+     */
+    public void update(double[] parameters, double[] gradients, double learningRate);
+
+}
@@ -0,0 +1,81 @@
+/**
+ * Copyright 2010 Neuroph Project http://neuroph.sourceforge.net
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.hardcodes.neuroid.core.learning.optimizer;
+
+/**
+ * RMSProp: like AdaGrad, but divides by the root of an exponential moving average of squared gradients,
+ * so steps do not shrink to zero. Weight change is learningRate * g / (sqrt(E) + epsilon), where
+ * E = decay * E + (1 - decay) * g^2.
+ */
+public class RmsProp implements Optimizer {
+
+    private static final long serialVersionUID = 1L;
+
+    private double decay;
+    private double epsilon = 1e-8;
+
+    /**
+     * Moving averages of squared gradients
+     */
+    private transient double[] meanSquares;
+
+    /**
+     * Creates RMSProp optimizer with decay 0.9
+     */
+    public RmsProp() {
+        this(0.9);
+    }
+
+    /**
+     * Creates RMSProp optimizer with the specified decay
+     *
+     * @param decay decay of the squared gradient average, in [0, 1)
+     */
+    public RmsProp(double decay) {
+        this.decay = decay;
+    }
+
+    public double getDecay() {
+        return decay;
+    }
+
+    public void setDecay(double decay) {
+        this.decay = decay;
+    }
+
+    public double getEpsilon() {
+        return epsilon;
+    }
+
+    public void setEpsilon(double epsilon) {
+        this.epsilon = epsilon;
+    }
+
+    @Override
+    public void initialize(int parametersCount) {
+        meanSquares = new double[parametersCount];
+    }
+
+    @Override
+    public void update(double[] parameters, double[] gradients, double learningRate) {
+        for (int i = 0; i < meanSquares.length; i++) {
+            double g = gradients[i];
+            double meanSquare = decay * meanSquares[i] + (1 - decay) * g * g;
+            meanSquares[i] = meanSquare;
+            parameters[i] += learningRate * g / (Math.sqrt(meanSquare) + epsilon);
+        }
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Provides optimizers, which calculate weight updates from gradients for learning rules
+ */
+package net.hardcodes.neuroid.core.learning.optimizer;
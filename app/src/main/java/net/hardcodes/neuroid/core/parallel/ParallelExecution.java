@@ -0,0 +1,200 @@
+/**
+ * Copyright 2014 Neuroph Project http://neuroph.sourceforge.net
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package net.hardcodes.neuroid.core.parallel;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * <pre>
+ * Adaptive parallel execution for per neuron operations in a layer (calculation, error and weights update).
+ * Work of a layer is estimated as neurons count x fan in (number of input connections per neuron).
+ * Layers with work below the work threshold are executed with a plain serial loop, while bigger layers are
+ * split into RecursiveAction chunks of at least chunk work size each, and executed on a shared ForkJoinPool.
+ *
+ * Pool, threshold and chunk size are global settings, shared by all networks.
+ * </pre>
+ *
+ * @see RangeOperation
+ */
+public final class ParallelExecution {
+
+    /**
+     * Default minimum layer work (neurons x fan in) for parallel execution
+     */
+    public static final int DEFAULT_WORK_THRESHOLD = 32768;
+
+    /**
+     * Default minimum work for one chunk of parallel execution
+     */
+    public static final int DEFAULT_CHUNK_WORK = 8192;
+
+    private static volatile ForkJoinPool pool;
+    private static volatile boolean enabled = true;
+    private static volatile int workThreshold = DEFAULT_WORK_THRESHOLD;
+    private static volatile int chunkWork = DEFAULT_CHUNK_WORK;
+
+    private ParallelExecution() {
+    }
+
+    /**
+     * Operation on a range of neurons (or other elements), executed serially by one thread
+     */
+    public interface RangeOperation {
+
+        /**
+         * Executes operation for elements from index (inclusive) to index (exclusive)
+         *
+         * @param from first element index
+         * @param to   index after the last element
+         */
+        void execute(int from, int to);
+    }
+
+    /**
+     * Fork join action which splits range in halves until chunk size is reached
+     */
+    private static final class RangeAction extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final RangeOperation operation;
+        private final int from;
+        private final int to;
+        private final int chunkSize;
+
+        RangeAction(RangeOperation operation, int from, int to, int chunkSize) {
+            this.operation = operation;
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= chunkSize) {
+                operation.execute(from, to);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new RangeAction(operation, from, middle, chunkSize),
+                    new RangeAction(operation, middle, to, chunkSize));
+        }
+    }
+
+    /**
+     * Executes operation for elements in range [0, count), in parallel if total work is
+     * above the work threshold, or serially otherwise
+     *
+     * @param operation operation to execute
+     * @param count     number of elements
+     * @param workPerElement estimated work per element (for neurons, number of input connections)
+     */
+    public static void execute(RangeOperation operation, int count, int workPerElement) {
+        if (!shouldParallelize(count, workPerElement)) {
+            operation.execute(0, count);
+            return;
+        }
+        int chunkSize = Math.max(1, chunkWork / Math.max(1, workPerElement));
+        getPool().invoke(new RangeAction(operation, 0, count, chunkSize));
+    }
+
+    /**
+     * Returns true if work of the specified size should be executed in parallel
+     *
+     * @param count          number of elements
+     * @param workPerElement estimated work per element
+     * @return true if work should be executed in parallel
+     */
+    public static boolean shouldParallelize(int count, int workPerElement) {
+        return enabled && count > 1
+                && (long) count * Math.max(1, workPerElement) >= workThreshold
+                && getPool().getParallelism() > 1;
+    }
+
+    /**
+     * Returns the pool used for parallel execution. Pool is created on first use,
+     * with parallelism equal to the number of available processors.
+     *
+     * @return pool used for parallel execution
+     */
+    public static ForkJoinPool getPool() {
+        ForkJoinPool p = pool;
+        if (p == null) {
+            synchronized (ParallelExecution.class) {
+                if (pool == null) {
+                    pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+                }
+                p = pool;
+            }
+        }
+        return p;
+    }
+
+    /**
+     * Sets the pool to use for parallel execution
+     *
+     * @param forkJoinPool pool to use for parallel execution
+     */
+    public static void setPool(ForkJoinPool forkJoinPool) {
+        if (forkJoinPool == null) {
+            throw new IllegalArgumentException("Pool cant be null!");
+        }
+        pool = forkJoinPool;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Enables or disables parallel execution. When disabled all layers are executed serially.
+     *
+     * @param enable true to enable parallel execution
+     */
+    public static void setEnabled(boolean enable) {
+        enabled = enable;
+    }
+
+    public static int getWorkThreshold() {
+        return workThreshold;
+    }
+
+    /**
+     * Sets minimum layer work (neurons x fan in) for parallel execution
+     *
+     * @param threshold minimum work for parallel execution
+     */
+    public static void setWorkThreshold(int threshold) {
+        workThreshold = threshold;
+    }
+
+    public static int getChunkWork() {
+        return chunkWork;
+    }
+
+    /**
+     * Sets minimum work for one chunk of parallel execution
+     *
+     * @param work minimum work for one chunk
+     */
+    public static void setChunkWork(int work) {
+        if (work < 1) {
+            throw new IllegalArgumentException("Chunk work must be positive!");
+        }
+        chunkWork = work;
+    }
+}
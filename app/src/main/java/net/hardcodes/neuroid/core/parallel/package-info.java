@@ -0,0 +1,5 @@
+/**
+ * Provides parallel execution of neuron layers on a shared fork join pool
+ */
+
+package net.hardcodes.neuroid.core.parallel;
@@ -0,0 +1,137 @@
+/**
+ * Copyright 2010 Neuroph Project http://neuroph.sourceforge.net
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.hardcodes.neuroid.core.transfer;
+
+/**
+ * <pre>
+ * Lookup table approximations of the exponential functions used by Sigmoid, Tanh and Gaussian.
+ * Values are linearly interpolated between table entries spaced 1/256 apart, so one call costs
+ * two table reads and a multiply-add instead of Math.exp.
+ *
+ * Max absolute errors:
+ *  sigmoid(x)     2e-7 (table over [-16, 16], clamped to the end values outside)
+ *  exp(-x), x>=0  2e-6 (table over [0, 32], clamped to the end value above)
+ *  tanh           twice the sigmoid error, since tanh(x) = 2*sigmoid(2x) - 1
+ *
+ * Tables take 64 KB each and are shared by all fast transfer functions.
+ * toFast() and toExact() convert between exact functions and their fast variants.
+ * </pre>
+ *
+ * @see FastSigmoid
+ * @see FastTanh
+ * @see FastGaussian
+ */
+public final class FastMath {
+
+    /**
+     * Number of table entries per unit of the argument
+     */
+    private static final int STEPS_PER_UNIT = 256;
+
+    private static final double SIGMOID_RANGE = 16;
+    private static final int SIGMOID_INTERVALS = (int) (2 * SIGMOID_RANGE * STEPS_PER_UNIT);
+    private static final double[] SIGMOID_TABLE = new double[SIGMOID_INTERVALS + 2];
+
+    private static final double EXP_RANGE = 32;
+    private static final int EXP_INTERVALS = (int) (EXP_RANGE * STEPS_PER_UNIT);
+    private static final double[] EXP_TABLE = new double[EXP_INTERVALS + 2];
+
+    static {
+        for (int i = 0; i <= SIGMOID_INTERVALS; i++) {
+            double x = (double) i / STEPS_PER_UNIT - SIGMOID_RANGE;
+            SIGMOID_TABLE[i] = 1d / (1d + Math.exp(-x));
+        }
+        for (int i = 0; i <= EXP_INTERVALS; i++) {
+            EXP_TABLE[i] = Math.exp(-(double) i / STEPS_PER_UNIT);
+        }
+        // extra entry equal to the last one, so a clamped argument interpolates to the end value
+        SIGMOID_TABLE[SIGMOID_INTERVALS + 1] = SIGMOID_TABLE[SIGMOID_INTERVALS];
+        EXP_TABLE[EXP_INTERVALS + 1] = EXP_TABLE[EXP_INTERVALS];
+    }
+
+    private FastMath() {
+    }
+
+    /**
+     * Returns approximation of 1/(1+e^(-x))
+     *
+     * @param x function argument
+     * @return sigmoid of x, with max absolute error 2e-7
+     */
+    public static double sigmoid(double x) {
+        // clamped rather than returned early, since early returns are mispredicted for mixed inputs
+        double position = (x + SIGMOID_RANGE) * STEPS_PER_UNIT;
+        position = position < 0 ? 0 : (position > SIGMOID_INTERVALS ? SIGMOID_INTERVALS : position);
+        int index = (int) position;
+        double low = SIGMOID_TABLE[index];
+        return low + (SIGMOID_TABLE[index + 1] - low) * (position - index);
+    }
+
+    /**
+     * Returns approximation of e^(-x) for non negative x
+     *
+     * @param x function argument, must not be negative
+     * @return e^(-x), with max absolute error 2e-6
+     */
+    public static double expNegative(double x) {
+        double position = Math.min(x * STEPS_PER_UNIT, EXP_INTERVALS);
+        int index = (int) position;
+        double low = EXP_TABLE[index];
+        return low + (EXP_TABLE[index + 1] - low) * (position - index);
+    }
+
+    /**
+     * Returns fast variant of the specified transfer function, with the same parameters.
+     * Functions without fast variant (and subclasses of exact functions) are returned unchanged.
+     *
+     * @param transferFunction exact transfer function
+     * @return fast transfer function
+     */
+    public static TransferFunction toFast(TransferFunction transferFunction) {
+        Class type = transferFunction.getClass();
+        if (type == Sigmoid.class) {
+            return new FastSigmoid(((Sigmoid) transferFunction).getSlope());
+        } else if (type == Tanh.class) {
+            return new FastTanh(((Tanh) transferFunction).getSlope());
+        } else if (type == Gaussian.class) {
+            FastGaussian gaussian = new FastGaussian();
+            gaussian.setSigma(((Gaussian) transferFunction).getSigma());
+            return gaussian;
+        }
+        return transferFunction;
+    }
+
+    /**
+     * Returns exact variant of the specified fast transfer function, with the same parameters.
+     * Other functions are returned unchanged.
+     *
+     * @param transferFunction fast transfer function
+     * @return exact transfer function
+     */
+    public static TransferFunction toExact(TransferFunction transferFunction) {
+        if (transferFunction instanceof FastSigmoid) {
+            return new Sigmoid(((Sigmoid) transferFunction).getSlope());
+        } else if (transferFunction instanceof FastTanh) {
+            return new Tanh(((Tanh) transferFunction).getSlope());
+        } else if (transferFunction instanceof FastGaussian) {
+            Gaussian gaussian = new Gaussian();
+            gaussian.setSigma(((Gaussian) transferFunction).getSigma());
+            return gaussian;
+        }
+        return transferFunction;
+    }
+}
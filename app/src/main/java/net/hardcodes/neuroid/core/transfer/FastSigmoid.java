@@ -0,0 +1,69 @@
+/**
+ * Copyright 2010 Neuroph Project http://neuroph.sourceforge.net
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.hardcodes.neuroid.core.transfer;
+
+import net.hardcodes.neuroid.util.Properties;
+
+/**
+ * <pre>
+ * Sigmoid transfer function calculated with an interpolated lookup table instead of Math.exp.
+ * Max absolute output error is 2e-7; derivative is calculated from the output like in Sigmoid.
+ *
+ * output = 1/(1+ e^(-slope*input))
+ * </pre>
+ *
+ * @see FastMath
+ */
+public class FastSigmoid extends Sigmoid {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Creates fast sigmoid with default slope=1.
+	 */
+	public FastSigmoid() {
+	}
+
+	/**
+	 * Creates fast sigmoid with the specified slope.
+	 * @param slope the slope parametar for the sigmoid function
+	 */
+	public FastSigmoid(double slope) {
+		super(slope);
+	}
+
+	/**
+	 * Creates fast sigmoid with the specified properties.
+	 * @param properties properties of the sigmoid function
+	 */
+	public FastSigmoid(Properties properties) {
+		super(properties);
+	}
+
+	@Override
+	public double getOutput(double net) {
+		return FastMath.sigmoid(getSlope() * net);
+	}
+
+	@Override
+	public void apply(double[] in, double[] out, int from, int to) {
+		double slope = getSlope();
+		for (int i = from; i < to; i++) {
+			out[i] = FastMath.sigmoid(slope * in[i]);
+		}
+	}
+}
@@ -65,17 +65,20 @@ public class Gaussian extends TransferFunction implements Serializable {
 
         @Override
 	public double getOutput(double net) {
-            output = Math.exp(-Math.pow(net, 2) / (2*Math.pow(sigma, 2)));
-              //  output = Math.exp(-0.5d * Math.pow(net, 2));
-            return output;
+              //  return Math.exp(-0.5d * Math.pow(net, 2));
+            return Math.exp(-Math.pow(net, 2) / (2*Math.pow(sigma, 2)));
 	}
-	
+
 	@Override
 	public double getDerivative(double net) {
+		return derivativeFromOutput(net, getOutput(net));
+	}
+
+	@Override
+	public double derivativeFromOutput(double net, double output) {
 		// TODO: check if this is correct
-		double derivative = output * ( -net / (sigma*sigma) );
-		return derivative;
-	}	
+		return output * ( -net / (sigma*sigma) );
+	}
 
 	/**
 	 * Returns the sigma parametar of this function
@@ -90,4 +90,18 @@ public class Linear extends TransferFunction implements Serializable {
 	public double getDerivative(double net) {
 		return this.slope;
 	}
+
+	@Override
+	public void apply(double[] in, double[] out, int from, int to) {
+		for (int i = from; i < to; i++) {
+			out[i] = slope * in[i];
+		}
+	}
+
+	@Override
+	public void derivativeFromOutput(double[] in, double[] out, double[] derivatives, int from, int to) {
+		for (int i = from; i < to; i++) {
+			derivatives[i] = this.slope;
+		}
+	}
 }
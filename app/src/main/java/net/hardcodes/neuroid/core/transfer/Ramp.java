@@ -167,4 +167,20 @@ public class Ramp extends TransferFunction implements Serializable {
 		this.yHigh = y;
 	}
 
+	/**
+	 * Returns the slope parametar of this function
+	 * @return slope parametar of this function
+	 */
+	public double getSlope() {
+		return this.slope;
+	}
+
+	/**
+	 * Sets the slope parametar for this function
+	 * @param slope value for the slope parametar
+	 */
+	public void setSlope(double slope) {
+		this.slope = slope;
+	}
+
 }
\ No newline at end of file
@@ -11,10 +11,25 @@ public class RectifiedLinear extends TransferFunction {
     }
 
 
+    @Override
     public double getDerivative(double net) {
         if (net > Double.MIN_VALUE)
             return 1;
         return 0;
     }
 
+    @Override
+    public void apply(double[] in, double[] out, int from, int to) {
+        for (int i = from; i < to; i++) {
+            out[i] = Math.max(0, in[i]);
+        }
+    }
+
+    @Override
+    public void derivativeFromOutput(double[] in, double[] out, double[] derivatives, int from, int to) {
+        for (int i = from; i < to; i++) {
+            derivatives[i] = in[i] > Double.MIN_VALUE ? 1 : 0;
+        }
+    }
+
 }
@@ -95,18 +95,41 @@ public class Sigmoid extends TransferFunction implements Serializable {
                 }else if (net < -100) {
                     return 0.0;
                 }
-
 		double den = 1d + Math.exp(-this.slope * net);
-                this.output = (1d / den);
-                
-		return this.output;
+		return 1d / den;
+	}
+
+	@Override
+	public double getDerivative(double net) {
+		return derivativeFromOutput(net, getOutput(net));
 	}
 
 	@Override
-	public double getDerivative(double net) { // remove net parameter? maybe we dont need it since we use cached output value
+	public double derivativeFromOutput(double net, double output) {
                 // +0.1 is fix for flat spot see http://www.heatonresearch.com/wiki/Flat_Spot
-		double derivative = this.slope * this.output * (1d - this.output) + 0.1;
-		return derivative;
+		return this.slope * output * (1d - output) + 0.1;
 	}
 
+	@Override
+	public void apply(double[] in, double[] out, int from, int to) {
+		double minusSlope = -this.slope;
+		for (int i = from; i < to; i++) {
+			double net = in[i];
+			if (net > 100) {
+				out[i] = 1.0;
+			} else if (net < -100) {
+				out[i] = 0.0;
+			} else {
+				out[i] = 1d / (1d + Math.exp(minusSlope * net));
+			}
+		}
+	}
+
+	@Override
+	public void derivativeFromOutput(double[] in, double[] out, double[] derivatives, int from, int to) {
+		for (int i = from; i < to; i++) {
+			double output = out[i];
+			derivatives[i] = this.slope * output * (1d - output) + 0.1;
+		}
+	}
 }
@@ -76,7 +76,7 @@ public class Tanh extends TransferFunction implements Serializable {
     }
 
     @Override
-    final public double getOutput(double net) {
+    public double getOutput(double net) {
         // conditional logic helps to avoid NaN
         if (net > 100) {
             return 1.0;
@@ -85,18 +85,44 @@ public class Tanh extends TransferFunction implements Serializable {
         }
 
         double E_x = Math.exp(this.slope * net);
-        this.output = (E_x - 1d) / (E_x + 1d);
-//        this.output =  Math.tanh(2.0d/3.0*net) ;
-//        this.output = Math.tanh(net);
-
-        return this.output;
+//        return Math.tanh(2.0d/3.0*net) ;
+//        return Math.tanh(net);
+        return (E_x - 1d) / (E_x + 1d);
     }
 
     @Override
     final public double getDerivative(double net) {
+        return derivativeFromOutput(net, getOutput(net));
+    }
+
+    @Override
+    final public double derivativeFromOutput(double net, double output) {
         return (1d - output * output);
     }
 
+    @Override
+    public void apply(double[] in, double[] out, int from, int to) {
+        for (int i = from; i < to; i++) {
+            double net = in[i];
+            if (net > 100) {
+                out[i] = 1.0;
+            } else if (net < -100) {
+                out[i] = -1.0;
+            } else {
+                double E_x = Math.exp(this.slope * net);
+                out[i] = (E_x - 1d) / (E_x + 1d);
+            }
+        }
+    }
+
+    @Override
+    public void derivativeFromOutput(double[] in, double[] out, double[] derivatives, int from, int to) {
+        for (int i = from; i < to; i++) {
+            double output = out[i];
+            derivatives[i] = 1d - output * output;
+        }
+    }
+
     /**
      * Returns the slope parametar of this function
      *
@@ -17,9 +17,17 @@
 package net.hardcodes.neuroid.core.transfer;
 
 import java.io.Serializable;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
 
 /**
  * Abstract base class for all neuron tranfer functions.
+ * Transfer functions are stateless, and bulk methods apply the function to a range of values in
+ * one call (see layer kernels in CompiledLayer). Layers created from neuron properties
+ * share one instance among all their neurons, so parameters (slope, sigma...) set on it apply to the whole
+ * layer; to set different parameters for each neuron, set a new function on each neuron. Neurons with
+ * different instances with the same parameters are still calculated in one call by compiled layers
+ * (see hasSameParameters()).
  * 
  * @author Zoran Sevarac <sevarac@gmail.com>
  * @see net.hardcodes.neuroid.core.Neuron
@@ -31,11 +39,6 @@ abstract public class TransferFunction implements Serializable {
 	 * compatibility with a previous version of the class.
 	 */		
 	private static final long serialVersionUID = 1L;
-        
-        /**
-         * Output result
-         */
-        protected double output; // cached output value to avoid double calculation for derivative
 
 	/**
 	 * Returns the ouput of this function.
@@ -55,4 +58,96 @@ abstract public class TransferFunction implements Serializable {
 		return 1d;
 	}
 
+	/**
+	 * Returns the first derivative of this function for the given net input and its output.
+	 * Functions with derivative expressed through output (Sigmoid, Tanh, Gaussian) override this,
+	 * so the function is not calculated again.
+	 * 
+	 * @param net
+	 *            net input
+	 * @param output
+	 *            output of this function for the net input, getOutput(net)
+	 */
+	public double derivativeFromOutput(double net, double output) {
+		return getDerivative(net);
+	}
+
+	/**
+	 * Calculates outputs of this function for net inputs in the specified range:
+	 * out[i] = getOutput(in[i]) for from <= i < to
+	 * 
+	 * @param in
+	 *            net inputs
+	 * @param out
+	 *            buffer for outputs, may be the same array as in
+	 * @param from
+	 *            first index
+	 * @param to
+	 *            index after the last one
+	 */
+	public void apply(double[] in, double[] out, int from, int to) {
+		for (int i = from; i < to; i++) {
+			out[i] = getOutput(in[i]);
+		}
+	}
+
+	/**
+	 * Calculates derivatives of this function for net inputs and outputs in the specified range:
+	 * derivatives[i] = derivativeFromOutput(in[i], out[i]) for from <= i < to
+	 * 
+	 * @param in
+	 *            net inputs
+	 * @param out
+	 *            outputs of this function for the net inputs
+	 * @param derivatives
+	 *            buffer for derivatives, may be the same array as in or out
+	 * @param from
+	 *            first index
+	 * @param to
+	 *            index after the last one
+	 */
+	public void derivativeFromOutput(double[] in, double[] out, double[] derivatives, int from, int to) {
+		for (int i = from; i < to; i++) {
+			derivatives[i] = derivativeFromOutput(in[i], out[i]);
+		}
+	}
+
+	/**
+	 * Returns true if the specified function is this function, or function of the same class with the same
+	 * parameter values, so both give the same outputs
+	 * 
+	 * @param function
+	 *            function to compare with
+	 * @return true if functions have the same class and parameters
+	 */
+	public boolean hasSameParameters(TransferFunction function) {
+		if (function == this) {
+			return true;
+		}
+		if (function == null || function.getClass() != getClass()) {
+			return false;
+		}
+		try {
+			for (Class c = getClass(); c != TransferFunction.class; c = c.getSuperclass()) {
+				for (Field field : c.getDeclaredFields()) {
+					if (isParameter(field)) {
+						field.setAccessible(true);
+						Object value = field.get(this);
+						if (value == null ? field.get(function) != null : !value.equals(field.get(function))) {
+							return false;
+						}
+					}
+				}
+			}
+		} catch (IllegalAccessException e) {
+			return false;
+		}
+		return true;
+	}
+
+	private static boolean isParameter(Field field) {
+		int modifiers = field.getModifiers();
+		return !Modifier.isStatic(modifiers) && !Modifier.isTransient(modifiers) && !field.isSynthetic();
+	}
+
 }
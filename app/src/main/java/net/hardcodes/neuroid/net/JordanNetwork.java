@@ -2,6 +2,7 @@ package net.hardcodes.neuroid.net;
 
 import net.hardcodes.neuroid.core.Layer;
 import net.hardcodes.neuroid.core.NeuralNetwork;
+import net.hardcodes.neuroid.net.comp.RecurrentScheduler;
 import net.hardcodes.neuroid.net.comp.layer.InputLayer;
 import net.hardcodes.neuroid.net.comp.neuron.BiasNeuron;
 import net.hardcodes.neuroid.net.learning.BackPropagation;
@@ -16,6 +17,11 @@ import net.hardcodes.neuroid.util.TransferFunctionType;
  */
 public class JordanNetwork extends NeuralNetwork {
 
+    /**
+     * Execution order with context layer calculated at the end of each step, created on first use
+     */
+    private transient RecurrentScheduler scheduler;
+
     public JordanNetwork(int inputNeuronsCount, int hiddenNeuronsCount, int contextNeuronsCount, int outputNeuronsCount) {
         createNetwork(inputNeuronsCount, hiddenNeuronsCount, contextNeuronsCount, outputNeuronsCount);
         
@@ -65,7 +71,26 @@ public class JordanNetwork extends NeuralNetwork {
 		this.setLearningRule(new BackPropagation());
 				
 	}
-    
-    
-    
+
+    /**
+     * Calculates input, hidden and output layer, and then context layer from the new output layer output,
+     * so hidden layer reads context from the previous step
+     */
+    @Override
+    protected void calculateLayers() {
+        getScheduler().calculate();
+    }
+
+    /**
+     * Returns scheduler for this network, which can also be used to step through input sequences
+     *
+     * @return recurrent scheduler for this network
+     */
+    public RecurrentScheduler getScheduler() {
+        if (scheduler == null) {
+            scheduler = new RecurrentScheduler(this);
+        }
+        return scheduler;
+    }
+
 }
@@ -94,7 +94,9 @@ public class NeuroFuzzyPerceptron extends NeuralNetwork {
                 for(Neuron cell : setLayer.getNeurons()) {
 //		while (ii.hasNext()) {
 //			Neuron cell = ii.next();
-			Trapezoid tf = (Trapezoid) cell.getTransferFunction();
+			// layer neurons share one function, so each neuron gets its own membership function
+			Trapezoid tf = new Trapezoid();
+			cell.setTransferFunction(tf);
 
 			if (c <= 3) {
 				tf.setLeftLow(pointsSets[c][0]);
@@ -0,0 +1,118 @@
+/**
+ * Copyright 2010 Neuroph Project http://neuroph.sourceforge.net
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.hardcodes.neuroid.net.comp;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Fixed depth history of values, stored in a primitive ring buffer.
+ * Adding a value overwrites the oldest one, so history is kept without boxing, shifting or allocation.
+ * Used by DelayedNeuron to keep its output history, which is read by DelayedConnection.
+ *
+ * @see net.hardcodes.neuroid.net.comp.neuron.DelayedNeuron
+ * @see DelayedConnection
+ */
+public class DelayLine implements Serializable {
+
+    /**
+     * The class fingerprint that is set to indicate serialization
+     * compatibility with a previous version of the class.
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Ring buffer with values
+     */
+    private double[] values;
+
+    /**
+     * Position of the latest value
+     */
+    private int head;
+
+    /**
+     * Creates delay line with the specified depth, filled with zeros
+     *
+     * @param depth number of values kept, including the latest value
+     */
+    public DelayLine(int depth) {
+        if (depth < 1) {
+            throw new IllegalArgumentException("Delay line depth must be at least 1!");
+        }
+        values = new double[depth];
+    }
+
+    /**
+     * Adds new value, which replaces the oldest value
+     *
+     * @param value latest value
+     */
+    public void push(double value) {
+        head = (head + 1 == values.length) ? 0 : head + 1;
+        values[head] = value;
+    }
+
+    /**
+     * Returns value with the specified delay
+     *
+     * @param delay delay, 0 for the latest value
+     * @return value added delay steps before the latest value
+     */
+    public double get(int delay) {
+        if (delay < 0 || delay >= values.length) {
+            throw new IllegalArgumentException("Delay " + delay + " is out of delay line depth " + values.length + "!");
+        }
+        int index = head - delay;
+        return values[index < 0 ? index + values.length : index];
+    }
+
+    /**
+     * Returns number of values kept
+     *
+     * @return delay line depth
+     */
+    public int getDepth() {
+        return values.length;
+    }
+
+    /**
+     * Increases depth of this delay line if it is smaller than the specified depth, keeping all values.
+     *
+     * @param depth required depth
+     */
+    public void ensureDepth(int depth) {
+        if (depth <= values.length) {
+            return;
+        }
+        // unroll values so the oldest is first and the latest is at the end of the old length
+        double[] grown = new double[depth];
+        for (int delay = 0; delay < values.length; delay++) {
+            grown[values.length - 1 - delay] = get(delay);
+        }
+        head = values.length - 1;
+        values = grown;
+    }
+
+    /**
+     * Sets all values to zero
+     */
+    public void reset() {
+        Arrays.fill(values, 0);
+        head = 0;
+    }
+}
@@ -17,7 +17,6 @@
 package net.hardcodes.neuroid.net.comp;
 
 import net.hardcodes.neuroid.core.Connection;
-import net.hardcodes.neuroid.core.NeuralNetwork;
 import net.hardcodes.neuroid.core.Neuron;
 import net.hardcodes.neuroid.net.comp.neuron.DelayedNeuron;
 
@@ -49,7 +48,7 @@ public class DelayedConnection extends Connection {
 	 */
 	public DelayedConnection(Neuron fromNeuron, Neuron toNeuron,  double weightVal, int delay) {
 		super(fromNeuron, toNeuron, weightVal);
-		this.delay = delay;
+		setDelay(delay);
 	}
 
 	/**
@@ -66,6 +65,10 @@ public class DelayedConnection extends Connection {
 	 */
 	public void setDelay(int delay) {
 		this.delay = delay;
+		// make sure source neuron keeps output history long enough for this connection
+		if (fromNeuron instanceof DelayedNeuron) {
+			((DelayedNeuron) fromNeuron).ensureDelay(delay);
+		}
 	}
 
 	/**
@@ -74,7 +77,6 @@ public class DelayedConnection extends Connection {
 	 */
 	@Override
 	public double getInput() {
-		Neuron fromNeuron = NeuralNetwork.NEURON_REGISTER.get(this.fromNeuronUID);
 		if (fromNeuron instanceof DelayedNeuron)
 			return ((DelayedNeuron) fromNeuron).getOutput(delay);
 		else
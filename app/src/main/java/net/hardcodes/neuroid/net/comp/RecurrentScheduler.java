@@ -0,0 +1,202 @@
+/**
+ * Copyright 2010 Neuroph Project http://neuroph.sourceforge.net
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.hardcodes.neuroid.net.comp;
+
+import net.hardcodes.neuroid.core.Connection;
+import net.hardcodes.neuroid.core.Layer;
+import net.hardcodes.neuroid.core.NeuralNetwork;
+import net.hardcodes.neuroid.core.Neuron;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <pre>
+ * Execution order for networks with context (feedback) layers, like Elman and Jordan networks.
+ *
+ * In each time step all other layers are calculated first, in network order, and they read the outputs
+ * of context layers from the previous step. Then context layers are calculated from the new outputs
+ * of their source layers, so they hold the state for the next step. Context state is kept only in
+ * neuron outputs (and delay lines of delayed neurons), so stepping through a sequence does not allocate.
+ *
+ * Context layers are detected as layers with output connections to the same or an earlier layer
+ * (see findContextLayers), or they can be specified explicitly.
+ * </pre>
+ *
+ * @see net.hardcodes.neuroid.net.ElmanNetwork
+ * @see net.hardcodes.neuroid.net.JordanNetwork
+ */
+public class RecurrentScheduler {
+
+    private final NeuralNetwork network;
+
+    /**
+     * Layers calculated first in each step, in network order
+     */
+    private final Layer[] feedForwardLayers;
+
+    /**
+     * Layers calculated at the end of each step, in network order
+     */
+    private final Layer[] contextLayers;
+
+    /**
+     * Creates scheduler for the specified network, with detected context layers
+     *
+     * @param network network to schedule
+     */
+    public RecurrentScheduler(NeuralNetwork network) {
+        this(network, findContextLayers(network));
+    }
+
+    /**
+     * Creates scheduler for the specified network and context layers
+     *
+     * @param network       network to schedule
+     * @param contextLayers layers which hold state between steps
+     */
+    public RecurrentScheduler(NeuralNetwork network, Layer... contextLayers) {
+        this.network = network;
+        Layer[] layers = network.getLayers();
+        List<Layer> feedForward = new ArrayList<>(layers.length);
+        List<Layer> context = new ArrayList<>(contextLayers.length);
+        for (Layer layer : layers) {
+            if (contains(contextLayers, layer)) {
+                context.add(layer);
+            } else {
+                feedForward.add(layer);
+            }
+        }
+        if (context.size() != contextLayers.length) {
+            throw new IllegalArgumentException("Context layers must belong to the scheduled network!");
+        }
+        this.feedForwardLayers = feedForward.toArray(new Layer[feedForward.size()]);
+        this.contextLayers = context.toArray(new Layer[context.size()]);
+    }
+
+    private static boolean contains(Layer[] layers, Layer layer) {
+        for (Layer l : layers) {
+            if (l == layer) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns context layers of the specified network: layers with output connections to the same or an
+     * earlier layer, which is not a context layer itself. Connections into context layers are not feedback,
+     * since context layers are calculated last.
+     *
+     * @param network network to search
+     * @return context layers
+     */
+    public static Layer[] findContextLayers(NeuralNetwork network) {
+        Layer[] layers = network.getLayers();
+        Map<Layer, Integer> layerIndexes = new IdentityHashMap<>();
+        for (int i = 0; i < layers.length; i++) {
+            layerIndexes.put(layers[i], i);
+        }
+
+        List<Layer> contextLayers = new ArrayList<>();
+        for (int i = 0; i < layers.length; i++) {
+            if (hasFeedback(layers[i], i, layerIndexes, contextLayers)) {
+                contextLayers.add(layers[i]);
+            }
+        }
+        return contextLayers.toArray(new Layer[contextLayers.size()]);
+    }
+
+    private static boolean hasFeedback(Layer layer, int layerIndex, Map<Layer, Integer> layerIndexes, List<Layer> contextLayers) {
+        for (Neuron neuron : layer.getNeurons()) {
+            for (Connection connection : neuron.getOutputConnections()) {
+                Layer targetLayer = connection.getToNeuron().getParentLayer();
+                Integer targetIndex = layerIndexes.get(targetLayer);
+                if (targetIndex != null && targetIndex <= layerIndex && !contextLayers.contains(targetLayer)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Calculates one time step: all other layers, and then context layers
+     */
+    public void calculate() {
+        for (Layer layer : feedForwardLayers) {
+            layer.calculate();
+        }
+        for (Layer layer : contextLayers) {
+            layer.calculate();
+        }
+    }
+
+    /**
+     * Sets network input, calculates the network for one time step and returns its output.
+     * Returned array is reused by subsequent calls.
+     *
+     * @param input network input for this step
+     * @return network output for this step
+     */
+    public double[] step(double... input) {
+        network.setInput(input);
+        calculate();
+        return network.getOutput();
+    }
+
+    /**
+     * Calculates network outputs for a sequence of inputs, one time step per input,
+     * continuing from the current context state. Call reset() before an independent sequence.
+     *
+     * @param inputs  input for each time step
+     * @param outputs buffer for network output of each time step, with at least as many rows as inputs
+     */
+    public void calculateSequence(double[][] inputs, double[][] outputs) {
+        for (int t = 0; t < inputs.length; t++) {
+            double[] output = step(inputs[t]);
+            System.arraycopy(output, 0, outputs[t], 0, output.length);
+        }
+    }
+
+    /**
+     * Clears network state, including outputs of context layers, before a new sequence
+     */
+    public void reset() {
+        network.reset();
+    }
+
+    /**
+     * Returns the scheduled network
+     *
+     * @return scheduled network
+     */
+    public NeuralNetwork getNetwork() {
+        return network;
+    }
+
+    /**
+     * Returns context layers, which are calculated at the end of each step
+     *
+     * @return context layers
+     */
+    public Layer[] getContextLayers() {
+        return contextLayers.clone();
+    }
+}
@@ -18,13 +18,13 @@ package net.hardcodes.neuroid.net.comp.layer;
 
 import net.hardcodes.neuroid.core.Layer;
 import net.hardcodes.neuroid.core.Neuron;
+import net.hardcodes.neuroid.core.parallel.ParallelExecution;
 import net.hardcodes.neuroid.net.comp.Kernel;
 import net.hardcodes.neuroid.util.NeuronProperties;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.concurrent.ForkJoinPool;
 
 /**
  * This class represents an array of feature maps which are 2 dimensional layers
@@ -39,9 +39,6 @@ import java.util.concurrent.ForkJoinPool;
  */
 public class FeatureMapsLayer extends Layer {
 
-    static final ForkJoinPool mainPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
-
-
     private static final long serialVersionUID = -6706741997689639209L;
 
     /**
@@ -179,11 +176,20 @@ public class FeatureMapsLayer extends Layer {
     }
 
     /**
-     * Calculates this layer (all feature maps)
+     * Calculates this layer (all feature maps). Feature maps are calculated in parallel
+     * when work of the whole layer is above the ParallelExecution threshold.
      */
     @Override
     public void calculate() {
-        mainPool.invokeAll(featureMaps);
+        int neuronsCount = getNeuronsCount();
+        int fanIn = featureMaps.isEmpty() ? 0 : featureMaps.get(0).getFanIn();
+        if (featureMaps.size() > 1 && ParallelExecution.shouldParallelize(neuronsCount, fanIn)) {
+            ParallelExecution.getPool().invokeAll(featureMaps);
+        } else {
+            for (Layer2D map : featureMaps) {
+                map.calculate();
+            }
+        }
     }
 
     /**
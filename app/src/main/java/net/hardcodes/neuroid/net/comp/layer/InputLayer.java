@@ -17,9 +17,9 @@
 package net.hardcodes.neuroid.net.comp.layer;
 
 import net.hardcodes.neuroid.core.Layer;
-import net.hardcodes.neuroid.core.Neuron;
 import net.hardcodes.neuroid.core.transfer.Linear;
 import net.hardcodes.neuroid.net.comp.neuron.InputNeuron;
+import net.hardcodes.neuroid.util.NeuronCreator;
 import net.hardcodes.neuroid.util.NeuronFactory;
 import net.hardcodes.neuroid.util.NeuronProperties;
 
@@ -37,9 +37,9 @@ public class InputLayer extends Layer {
     public InputLayer(int neuronsCount) {
         NeuronProperties inputNeuronProperties = new NeuronProperties(InputNeuron.class, Linear.class);
 
+        NeuronCreator creator = NeuronFactory.getCreator(inputNeuronProperties);
         for (int i = 0; i < neuronsCount; i++) {
-            Neuron neuron = NeuronFactory.createNeuron(inputNeuronProperties);
-            this.addNeuron(neuron);
+            this.addNeuron(creator.createNeuron());
         }
     }
 }
@@ -18,6 +18,7 @@ package net.hardcodes.neuroid.net.comp.layer;
 
 import net.hardcodes.neuroid.core.Layer;
 import net.hardcodes.neuroid.core.Neuron;
+import net.hardcodes.neuroid.util.NeuronCreator;
 import net.hardcodes.neuroid.util.NeuronFactory;
 import net.hardcodes.neuroid.util.NeuronProperties;
 
@@ -60,9 +61,9 @@ public class Layer2D extends Layer implements Callable<Void> {
     public Layer2D(Dimensions dimensions, NeuronProperties neuronProperties) {
         this(dimensions);
 
+        NeuronCreator creator = NeuronFactory.getCreator(neuronProperties);
         for (int i = 0; i < dimensions.getHeight() * dimensions.getWidth(); i++) {
-            Neuron neuron = NeuronFactory.createNeuron(neuronProperties);
-            addNeuron(neuron);
+            addNeuron(creator.createNeuron());
         }
     }
 
@@ -60,6 +60,11 @@ public class BiasNeuron extends Neuron {
           
         }
 
+        @Override
+        public void addInputConnections(Connection[] connections) {
+
+        }
+
 
 
 }
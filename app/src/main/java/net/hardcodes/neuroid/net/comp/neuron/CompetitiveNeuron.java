@@ -78,7 +78,7 @@ public class CompetitiveNeuron extends DelayedNeuron {
 		}
 
 		this.output = this.transferFunction.getOutput(this.netInput);
-		outputHistory.add(0, new Double(this.output));
+		outputHistory.push(this.output);
 	}
 
 	/**
@@ -100,6 +100,17 @@ public class CompetitiveNeuron extends DelayedNeuron {
 		}
 	}
 
+	/**
+	 * Adds input connections one by one, so they are sorted by their source layer
+	 * @param connections input connections
+	 */
+	@Override
+	public void addInputConnections(Connection[] connections) {
+		for (Connection connection : connections) {
+			addInputConnection(connection);
+		}
+	}
+
 	/**
 	 * Returns collection of connections from other layers
 	 * @return collection of connections from other layers
@@ -19,12 +19,11 @@ package net.hardcodes.neuroid.net.comp.neuron;
 import net.hardcodes.neuroid.core.Neuron;
 import net.hardcodes.neuroid.core.input.InputFunction;
 import net.hardcodes.neuroid.core.transfer.TransferFunction;
-
-import java.util.ArrayList;
-import java.util.List;
+import net.hardcodes.neuroid.net.comp.DelayLine;
 
 /**
  * Provides behaviour for neurons with delayed output.
+ * Output history is kept in a delay line (ring buffer) with configurable depth.
  * 
  * @author Zoran Sevarac <sevarac@gmail.com>
  */
@@ -35,11 +34,16 @@ public class DelayedNeuron extends Neuron {
 	 * compatibility with a previous version of the class.
 	 */	
 	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Default number of kept outputs, including the current output
+	 */
+	public static final int DEFAULT_DELAY_DEPTH = 5;
 	
 	/**
 	 * Output history for this neuron
 	 */
-	protected transient List<Double> outputHistory;
+	protected DelayLine outputHistory;
 
 	/**
 	 * Creates an instance of neuron which can delay output
@@ -48,17 +52,34 @@ public class DelayedNeuron extends Neuron {
 	 */
 	public DelayedNeuron(InputFunction inputFunction,
 			TransferFunction transferFunction) {
+		this(inputFunction, transferFunction, DEFAULT_DELAY_DEPTH);
+	}
+
+	/**
+	 * Creates an instance of neuron which can delay output up to the specified depth
+	 * @param inputFunction neuron input function
+	 * @param transferFunction neuron transfer function
+	 * @param delayDepth number of kept outputs, including the current output
+	 */
+	public DelayedNeuron(InputFunction inputFunction,
+			TransferFunction transferFunction, int delayDepth) {
 		super(inputFunction, transferFunction);
-		outputHistory = new ArrayList<Double>(5); // default delay buffer size is 5
-		outputHistory.add(new Double(0));
+		outputHistory = new DelayLine(delayDepth);
 	}
 
 	@Override
 	public void calculate() {
 		super.calculate();
-		outputHistory.add(0, new Double(this.output));
-		if (outputHistory.size() > 5)
-			outputHistory.remove(5);
+		outputHistory.push(this.output);
+	}
+
+	/**
+	 * Resets input, output and output history of this neuron
+	 */
+	@Override
+	public void reset() {
+		super.reset();
+		outputHistory.reset();
 	}
 
 	/**
@@ -67,7 +88,23 @@ public class DelayedNeuron extends Neuron {
 	 * @return neuron output at (t-delay) moment
 	 */
 	public double getOutput(int delay) {
-		return outputHistory.get(delay).doubleValue();
+		return outputHistory.get(delay);
+	}
+
+	/**
+	 * Returns number of kept outputs, including the current output
+	 * @return output history depth
+	 */
+	public int getDelayDepth() {
+		return outputHistory.getDepth();
+	}
+
+	/**
+	 * Increases output history depth, if needed, so outputs with the specified delay are kept
+	 * @param maxDelay largest delay that will be read from this neuron
+	 */
+	public void ensureDelay(int maxDelay) {
+		outputHistory.ensureDepth(maxDelay + 1);
 	}
 
 }
@@ -19,10 +19,15 @@ package net.hardcodes.neuroid.net.learning;
 import net.hardcodes.neuroid.core.Connection;
 import net.hardcodes.neuroid.core.Layer;
 import net.hardcodes.neuroid.core.Neuron;
+import net.hardcodes.neuroid.core.learning.ParameterVector;
+import net.hardcodes.neuroid.core.learning.optimizer.Optimizer;
+import net.hardcodes.neuroid.core.parallel.ParallelExecution;
 import net.hardcodes.neuroid.core.transfer.TransferFunction;
 
 /**
  * Back Propagation learning rule for Multi Layer Perceptron neural networks.
+ * If an optimizer is set (see setOptimizer), errors are only propagated back, weight gradients are collected
+ * in a ParameterVector, and the optimizer changes weights after each pattern, or after each batch in batch mode.
  *
  * @author Zoran Sevarac <sevarac@gmail.com>
  */
@@ -34,6 +39,21 @@ public class BackPropagation extends LMS {
      */
     private static final long serialVersionUID = 1L;
 
+    /**
+     * Cached operation used to calculate error and update weights for one hidden layer
+     */
+    private transient HiddenLayerOperation hiddenLayerOperation;
+
+    /**
+     * Optimizer which changes weights from gradients, or null to change weights directly (updateNeuronWeights)
+     */
+    private Optimizer optimizer;
+
+    /**
+     * Network weights and gradients, used with optimizer
+     */
+    private transient ParameterVector parameters;
+
     /**
      * Creates new instance of BackPropagation learning
      */
@@ -42,6 +62,46 @@ public class BackPropagation extends LMS {
     }
 
 
+    /**
+     * Returns optimizer used to change weights
+     *
+     * @return optimizer, or null if weights are changed directly by this learning rule
+     */
+    public Optimizer getOptimizer() {
+        return optimizer;
+    }
+
+    /**
+     * Sets optimizer used to change weights from gradients, instead of the weight update of this learning rule
+     * (and its subclasses, like momentum). Learning rate of this rule is used as optimizer step size.
+     * Set it before learning starts.
+     *
+     * @param optimizer optimizer, or null to change weights directly
+     */
+    public void setOptimizer(Optimizer optimizer) {
+        this.optimizer = optimizer;
+    }
+
+    @Override
+    protected void onStart() {
+        super.onStart();
+        if (optimizer != null) {
+            parameters = createParameterVector();
+            optimizer.initialize(parameters.size());
+        } else {
+            parameters = null;
+        }
+    }
+
+    /**
+     * Creates parameter vector with the weights which are changed by optimizer, which are all network weights
+     *
+     * @return parameter vector for optimizer
+     */
+    protected ParameterVector createParameterVector() {
+        return new ParameterVector(neuralNetwork);
+    }
+
     /**
      * This method implements weight update procedure for the whole network
      * for the specified  output error vector
@@ -52,6 +112,33 @@ public class BackPropagation extends LMS {
     protected void updateNetworkWeights(double[] outputError) {
         this.calculateErrorAndUpdateOutputNeurons(outputError);
         this.calculateErrorAndUpdateHiddenNeurons();
+        if (optimizer != null) {
+            parameters.accumulateGradients();
+            if (!isInBatchMode()) {
+                applyOptimizer(parameters.getGradients());
+                parameters.clearGradients();
+            }
+        }
+    }
+
+    @Override
+    protected void doBatchWeightsUpdate() {
+        if (optimizer != null) {
+            applyOptimizer(parameters.getGradients());
+            parameters.clearGradients();
+        } else {
+            super.doBatchWeightsUpdate();
+        }
+    }
+
+    /**
+     * Changes network weights with optimizer, for the specified gradients in ParameterVector order
+     *
+     * @param gradients weight gradients
+     */
+    protected void applyOptimizer(double[] gradients) {
+        optimizer.update(parameters.getValues(), gradients, learningRate);
+        parameters.write();
     }
 
 
@@ -76,30 +163,60 @@ public class BackPropagation extends LMS {
             // otherwise calculate and set error/delta for the current neuron
             TransferFunction transferFunction = neuron.getTransferFunction();
             double neuronInput = neuron.getNetInput();
-            double delta = outputError[i] * transferFunction.getDerivative(neuronInput); // delta = (d-y)*df(net)
+            double delta = outputError[i] * transferFunction.derivativeFromOutput(neuronInput, neuron.getOutput()); // delta = (d-y)*df(net)
             neuron.setError(delta);
 
-            // and update weights of the current neuron
-            this.updateNeuronWeights(neuron);
+            // and update weights of the current neuron, unless optimizer updates all weights later
+            if (optimizer == null) {
+                this.updateNeuronWeights(neuron);
+            }
             i++;
         } // for
     }
 
     /**
-     * This method implements weights adjustment for the hidden layers
+     * This method implements weights adjustment for the hidden layers.
+     * Neurons in one layer only read errors from the next layer and update their own input weights,
+     * so big layers are processed in parallel (see ParallelExecution), with the same result as serial loop.
      */
     protected void calculateErrorAndUpdateHiddenNeurons() {
+        if (hiddenLayerOperation == null) {
+            hiddenLayerOperation = new HiddenLayerOperation();
+        }
         Layer[] layers = neuralNetwork.getLayers();
         for (int layerIdx = layers.length - 2; layerIdx > 0; layerIdx--) {
-            for (Neuron neuron : layers[layerIdx].getNeurons()) {
-                // calculate the neuron's error (delta)
-                double neuronError = this.calculateHiddenNeuronError(neuron);
-                neuron.setError(neuronError);
-                this.updateNeuronWeights(neuron);
-            } // for
+            Neuron[] neurons = layers[layerIdx].getNeurons();
+            hiddenLayerOperation.neurons = neurons;
+            if (layers[layerIdx].hasConnectionsWithinLayer()) {
+                // neurons read errors of other neurons in the same layer, so they are processed in order
+                hiddenLayerOperation.execute(0, neurons.length);
+            } else {
+                ParallelExecution.execute(hiddenLayerOperation, neurons.length,
+                        layers[layerIdx].getFanIn() + layers[layerIdx + 1].getNeuronsCount());
+            }
         } // for
     }
 
+    /**
+     * Calculates error and updates weights for a range of neurons in one hidden layer
+     */
+    private class HiddenLayerOperation implements ParallelExecution.RangeOperation {
+
+        private Neuron[] neurons;
+
+        @Override
+        public void execute(int from, int to) {
+            for (int i = from; i < to; i++) {
+                // calculate the neuron's error (delta)
+                double neuronError = calculateHiddenNeuronError(neurons[i]);
+                neurons[i].setError(neuronError);
+                if (optimizer == null) {
+                    updateNeuronWeights(neurons[i]);
+                }
+            }
+        }
+    }
+
     /**
      * Calculates and returns the neuron's error (neuron's delta) for the given neuron param
      *
@@ -116,7 +233,7 @@ public class BackPropagation extends LMS {
 
         TransferFunction transferFunction = neuron.getTransferFunction();
         double netInput = neuron.getNetInput(); // should we use input of this or other neuron?
-        double f1 = transferFunction.getDerivative(netInput);
+        double f1 = transferFunction.derivativeFromOutput(netInput, neuron.getOutput());
         double neuronError = f1 * deltaSum;
         return neuronError;
     }
@@ -2,8 +2,12 @@ package net.hardcodes.neuroid.net.learning;
 
 import net.hardcodes.neuroid.core.Layer;
 import net.hardcodes.neuroid.core.Neuron;
+import net.hardcodes.neuroid.core.learning.ParameterVector;
 import net.hardcodes.neuroid.net.comp.layer.ConvolutionalLayer;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public class ConvolutionalBackpropagation extends MomentumBackpropagation {
 
 	private static final long serialVersionUID = -7134947805154423695L;
@@ -15,13 +19,29 @@ public class ConvolutionalBackpropagation extends MomentumBackpropagation {
 			for (Neuron neuron : layers[layerIdx].getNeurons()) {
 				double neuronError = this.calculateHiddenNeuronError(neuron);
 				neuron.setError(neuronError);
-				if (layers[layerIdx] instanceof ConvolutionalLayer) { // if it is convolutional layer c=adapt weughts, dont touch pooling. Pooling just propagate the error
+				if (layers[layerIdx] instanceof ConvolutionalLayer && getOptimizer() == null) { // if it is convolutional layer c=adapt weughts, dont touch pooling. Pooling just propagate the error
 					this.updateNeuronWeights(neuron);
 				}
 			} // for
 		} // for
 	}
 
+	/**
+	 * Optimizer changes the same weights as updates without optimizer: weights of convolutional layers and output layer
+	 */
+	@Override
+	protected ParameterVector createParameterVector() {
+		Layer[] layers = neuralNetwork.getLayers();
+		List<Layer> trainedLayers = new ArrayList<>();
+		for (int layerIdx = 1; layerIdx < layers.length - 1; layerIdx++) {
+			if (layers[layerIdx] instanceof ConvolutionalLayer) {
+				trainedLayers.add(layers[layerIdx]);
+			}
+		}
+		trainedLayers.add(layers[layers.length - 1]);
+		return new ParameterVector(trainedLayers.toArray(new Layer[trainedLayers.size()]));
+	}
+
 //	@Override
 //	protected double calculateHiddenNeuronError(Neuron neuron) {
 //		double totalError = super.calculateHiddenNeuronError(neuron);
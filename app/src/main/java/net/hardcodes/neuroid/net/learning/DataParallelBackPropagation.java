@@ -0,0 +1,288 @@
+/**
+ * Copyright 2010 Neuroph Project http://neuroph.sourceforge.net
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.hardcodes.neuroid.net.learning;
+
+import net.hardcodes.neuroid.core.compiled.CompiledNetwork;
+import net.hardcodes.neuroid.core.compiled.GradientSession;
+import net.hardcodes.neuroid.core.data.DataSet;
+import net.hardcodes.neuroid.core.data.DataSetRow;
+import net.hardcodes.neuroid.core.exceptions.NeurophException;
+import net.hardcodes.neuroid.core.learning.error.ErrorFunction;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * <pre>
+ * Synchronous data parallel Back Propagation. Each mini batch (see setBatchSize, whole training set by default)
+ * is split into one continuous range of patterns per worker thread. Workers calculate gradients
+ * for their patterns on the compiled network, each in its own GradientSession, against shared weights.
+ * Worker gradients are then added together in worker order, and applied in one weight update.
+ *
+ * Patterns are assigned to workers and gradients are added in a fixed order, so training is reproducible
+ * for the same initial weights, shuffle random seed and number of threads. Updates are the same as
+ * in batch mode BackPropagation with the same batch size, up to floating point rounding.
+ * With optimizer set (see setOptimizer), summed gradients of each batch are passed to the optimizer.
+ * Output error is desired - actual output (mean squared error); the error function is used
+ * to calculate total network error. Supported are feed forward networks with WeightedSum input functions.
+ * </pre>
+ *
+ * @see GradientSession
+ * @see BackPropagation
+ */
+public class DataParallelBackPropagation extends BackPropagation {
+
+    /**
+     * The class fingerprint that is set to indicate serialization
+     * compatibility with a previous version of the class.
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Number of worker threads
+     */
+    private int threadsCount;
+
+    private transient CompiledNetwork compiledNetwork;
+    private transient Worker[] workers;
+    private transient List<Worker> workerList;
+    private transient List<Reducer> reducers;
+    private transient ExecutorService executor;
+
+    /**
+     * Sum of worker gradients for the current batch
+     */
+    private transient double[] gradients;
+
+    /**
+     * Creates new instance of DataParallelBackPropagation with one worker for each available processor
+     */
+    public DataParallelBackPropagation() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates new instance of DataParallelBackPropagation with the specified number of worker threads
+     *
+     * @param threadsCount number of worker threads
+     */
+    public DataParallelBackPropagation(int threadsCount) {
+        super();
+        setThreadsCount(threadsCount);
+    }
+
+    public int getThreadsCount() {
+        return threadsCount;
+    }
+
+    /**
+     * Sets number of worker threads, used from the next call to learn()
+     *
+     * @param threadsCount number of worker threads
+     */
+    public void setThreadsCount(int threadsCount) {
+        if (threadsCount < 1) {
+            throw new IllegalArgumentException("Threads count must be at least 1!");
+        }
+        this.threadsCount = threadsCount;
+    }
+
+    @Override
+    protected void onStart() {
+        super.onStart();
+        compiledNetwork = neuralNetwork.compile();
+        gradients = new double[compiledNetwork.getWeightsCount()];
+        workers = new Worker[threadsCount];
+        workerList = new ArrayList<>(threadsCount);
+        reducers = new ArrayList<>(threadsCount);
+        for (int w = 0; w < threadsCount; w++) {
+            workers[w] = new Worker(compiledNetwork.createGradientSession());
+            workerList.add(workers[w]);
+            reducers.add(new Reducer(gradients.length * w / threadsCount, gradients.length * (w + 1) / threadsCount));
+        }
+        if (threadsCount > 1) {
+            executor = Executors.newFixedThreadPool(threadsCount, new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "DataParallelBackPropagation worker");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+    }
+
+    @Override
+    protected void onStop() {
+        super.onStop();
+        if (executor != null) {
+            executor.shutdown();
+            executor = null;
+        }
+    }
+
+    @Override
+    public void doLearningEpoch(DataSet trainingSet) {
+        List<DataSetRow> rows = trainingSet.getRows();
+        int[] order = getPatternOrder(rows.size());
+        int batchSize = getBatchSize() > 0 ? getBatchSize() : rows.size();
+        for (int start = 0; start < rows.size() && !isStopped(); start += batchSize) {
+            learnBatch(rows, order, start, Math.min(start + batchSize, rows.size()));
+        }
+    }
+
+    /**
+     * Calculates gradients for patterns [start, end) in all workers, adds them together and updates weights
+     */
+    private void learnBatch(List<DataSetRow> rows, int[] order, int start, int end) {
+        int count = end - start;
+        for (int w = 0; w < threadsCount; w++) {
+            workers[w].assign(rows, order, start + count * w / threadsCount, start + count * (w + 1) / threadsCount);
+        }
+        execute(workerList);
+        execute(reducers);
+
+        // error function is not thread safe, so it gets worker outputs here, in pattern order
+        ErrorFunction errorFunction = getErrorFunction();
+        for (Worker worker : workers) {
+            for (int p = worker.start; p < worker.end; p++) {
+                DataSetRow row = rows.get(order != null ? order[p] : p);
+                errorFunction.calculatePatternError(worker.outputs[p - worker.start], row.getDesiredOutput());
+            }
+        }
+
+        if (getOptimizer() != null) {
+            applyOptimizer(gradients);
+            compiledNetwork.syncWeights();
+        } else {
+            compiledNetwork.applyGradients(gradients, learningRate);
+        }
+    }
+
+    private void execute(List<? extends Callable<Void>> tasks) {
+        if (executor == null) {
+            for (Callable<Void> task : tasks) {
+                try {
+                    task.call();
+                } catch (Exception ex) {
+                    throw new NeurophException("Training worker failed!", ex);
+                }
+            }
+            return;
+        }
+        try {
+            for (Future<Void> future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new NeurophException("Interrupted while waiting for training workers!", ex);
+        } catch (ExecutionException ex) {
+            throw new NeurophException("Training worker failed!", ex.getCause());
+        }
+    }
+
+    /**
+     * Weights are updated after each batch, in doLearningEpoch
+     */
+    @Override
+    protected void doBatchWeightsUpdate() {
+    }
+
+    /**
+     * Not used, weights are updated from gradients of all patterns in batch, in doLearningEpoch
+     */
+    @Override
+    protected void updateNetworkWeights(double[] outputError) {
+    }
+
+    /**
+     * Calculates gradients for a continuous range of patterns in one gradient session
+     */
+    private static class Worker implements Callable<Void> {
+
+        private final GradientSession session;
+        private List<DataSetRow> rows;
+        private int[] order;
+        private int start;
+        private int end;
+
+        /**
+         * Network outputs for assigned patterns
+         */
+        private double[][] outputs = new double[0][];
+
+        Worker(GradientSession session) {
+            this.session = session;
+        }
+
+        void assign(List<DataSetRow> rows, int[] order, int start, int end) {
+            this.rows = rows;
+            this.order = order;
+            this.start = start;
+            this.end = end;
+            if (outputs.length < end - start) {
+                outputs = new double[end - start][session.getOutput().length];
+            }
+        }
+
+        @Override
+        public Void call() {
+            session.clearGradients();
+            for (int p = start; p < end; p++) {
+                DataSetRow row = rows.get(order != null ? order[p] : p);
+                session.accumulate(row.getInput(), row.getDesiredOutput());
+                double[] output = session.getOutput();
+                System.arraycopy(output, 0, outputs[p - start], 0, output.length);
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Adds gradients of all workers for a range of weights, in worker order
+     */
+    private class Reducer implements Callable<Void> {
+
+        private final int from;
+        private final int to;
+
+        Reducer(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public Void call() {
+            double[] first = workers[0].session.getGradients();
+            System.arraycopy(first, from, gradients, from, to - from);
+            for (int w = 1; w < workers.length; w++) {
+                double[] workerGradients = workers[w].session.getGradients();
+                for (int i = from; i < to; i++) {
+                    gradients[i] += workerGradients[i];
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,285 @@
+/**
+ * Copyright 2010 Neuroph Project http://neuroph.sourceforge.net
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.hardcodes.neuroid.net.learning;
+
+import net.hardcodes.neuroid.core.compiled.CompiledNetwork;
+import net.hardcodes.neuroid.core.compiled.GradientSession;
+import net.hardcodes.neuroid.core.data.DataSet;
+import net.hardcodes.neuroid.core.data.DataSetRow;
+import net.hardcodes.neuroid.core.exceptions.NeurophException;
+import net.hardcodes.neuroid.core.learning.error.ErrorFunction;
+import net.hardcodes.neuroid.core.learning.optimizer.Optimizer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * <pre>
+ * Asynchronous, lock free Backpropagation with momentum (Hogwild style). The training set is split into
+ * one continuous shard of patterns per worker thread. Each worker learns its shard pattern by pattern in its own
+ * GradientSession, and adds weight changes directly to the weights of the compiled network, which are shared
+ * by all workers without any locking. Workers do not wait for each other within an epoch, so concurrent
+ * updates of the same weight can be lost, and results are not reproducible with more than one thread.
+ * Network weights are updated from the compiled network after each epoch.
+ *
+ * Each worker keeps its own previous weight changes for momentum. With batch size set (see setBatchSize),
+ * a worker changes weights after each batchSize patterns of its shard; in batch mode without batch size,
+ * after its whole shard. Shuffle, stopLearning() and pause() are applied within the epoch as well.
+ * Output error is desired - actual output (mean squared error); the error function is used to calculate
+ * total network error. Supported are feed forward networks with WeightedSum input functions.
+ * On VMs where double writes are not atomic (see JLS 17.7), a concurrently changed weight can be read torn.
+ *
+ * Optimizers (see BackPropagation#setOptimizer) are not supported, since they keep one state for all weights,
+ * while workers change shared weights with their own momentum updates. setOptimizer() throws
+ * IllegalArgumentException for any optimizer other than null.
+ * </pre>
+ *
+ * @see GradientSession#descend(double, double)
+ * @see DataParallelBackPropagation
+ */
+public class HogwildBackpropagation extends MomentumBackpropagation {
+
+    /**
+     * The class fingerprint that is set to indicate serialization
+     * compatibility with a previous version of the class.
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Number of patterns a worker learns between checks for stopped learning
+     */
+    private static final int STOP_CHECK_PATTERNS = 16;
+
+    /**
+     * Number of worker threads
+     */
+    private int threadsCount;
+
+    private transient CompiledNetwork compiledNetwork;
+    private transient Worker[] workers;
+    private transient List<Worker> workerList;
+    private transient ExecutorService executor;
+
+    /**
+     * Creates new instance of HogwildBackpropagation with one worker for each available processor
+     */
+    public HogwildBackpropagation() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates new instance of HogwildBackpropagation with the specified number of worker threads
+     *
+     * @param threadsCount number of worker threads
+     */
+    public HogwildBackpropagation(int threadsCount) {
+        super();
+        setThreadsCount(threadsCount);
+    }
+
+    public int getThreadsCount() {
+        return threadsCount;
+    }
+
+    /**
+     * Sets number of worker threads, used from the next call to learn()
+     *
+     * @param threadsCount number of worker threads
+     */
+    public void setThreadsCount(int threadsCount) {
+        if (threadsCount < 1) {
+            throw new IllegalArgumentException("Threads count must be at least 1!");
+        }
+        this.threadsCount = threadsCount;
+    }
+
+    /**
+     * Optimizers are not supported, workers change shared weights with their own momentum updates
+     *
+     * @param optimizer must be null
+     * @throws IllegalArgumentException if optimizer is not null
+     */
+    @Override
+    public void setOptimizer(Optimizer optimizer) {
+        if (optimizer != null) {
+            throw new IllegalArgumentException("HogwildBackpropagation does not support optimizers, it uses momentum updates of each worker!");
+        }
+    }
+
+    @Override
+    protected void onStart() {
+        super.onStart();
+        compiledNetwork = neuralNetwork.compile();
+        workers = new Worker[threadsCount];
+        workerList = new ArrayList<>(threadsCount);
+        for (int w = 0; w < threadsCount; w++) {
+            workers[w] = new Worker(compiledNetwork.createGradientSession());
+            workerList.add(workers[w]);
+        }
+        if (threadsCount > 1) {
+            executor = Executors.newFixedThreadPool(threadsCount, new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "HogwildBackpropagation worker");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+    }
+
+    @Override
+    protected void onStop() {
+        super.onStop();
+        if (executor != null) {
+            executor.shutdown();
+            executor = null;
+        }
+    }
+
+    @Override
+    public void doLearningEpoch(DataSet trainingSet) {
+        List<DataSetRow> rows = trainingSet.getRows();
+        int[] order = getPatternOrder(rows.size());
+        for (int w = 0; w < threadsCount; w++) {
+            workers[w].assign(rows, order, rows.size() * w / threadsCount, rows.size() * (w + 1) / threadsCount);
+        }
+        execute();
+        compiledNetwork.storeWeights();
+
+        // error function is not thread safe, so it gets worker outputs here, in pattern order
+        ErrorFunction errorFunction = getErrorFunction();
+        for (Worker worker : workers) {
+            for (int p = worker.start; p < worker.learnedEnd; p++) {
+                DataSetRow row = rows.get(order != null ? order[p] : p);
+                errorFunction.calculatePatternError(worker.outputs[p - worker.start], row.getDesiredOutput());
+            }
+        }
+    }
+
+    private void execute() {
+        if (executor == null) {
+            workers[0].call();
+            return;
+        }
+        try {
+            for (Future<Void> future : executor.invokeAll(workerList)) {
+                future.get();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new NeurophException("Interrupted while waiting for training workers!", ex);
+        } catch (ExecutionException ex) {
+            throw new NeurophException("Training worker failed!", ex.getCause());
+        }
+    }
+
+    /**
+     * Returns number of patterns a worker learns between weight changes
+     */
+    private int getUpdateInterval(int shardSize) {
+        if (getBatchSize() > 0) {
+            return getBatchSize();
+        }
+        return isInBatchMode() ? Math.max(shardSize, 1) : 1;
+    }
+
+    /**
+     * Weights are changed by workers, in doLearningEpoch
+     */
+    @Override
+    protected void doBatchWeightsUpdate() {
+    }
+
+    /**
+     * Not used, weights are changed by workers, in doLearningEpoch
+     */
+    @Override
+    protected void updateNetworkWeights(double[] outputError) {
+    }
+
+    /**
+     * Learns a continuous shard of patterns in one gradient session, changing shared weights
+     */
+    private class Worker implements Callable<Void> {
+
+        private final GradientSession session;
+        private List<DataSetRow> rows;
+        private int[] order;
+        private int start;
+        private int end;
+
+        /**
+         * End of the patterns learned in the current epoch, less than end if learning was stopped
+         */
+        private int learnedEnd;
+
+        /**
+         * Network outputs for assigned patterns
+         */
+        private double[][] outputs = new double[0][];
+
+        Worker(GradientSession session) {
+            this.session = session;
+        }
+
+        void assign(List<DataSetRow> rows, int[] order, int start, int end) {
+            this.rows = rows;
+            this.order = order;
+            this.start = start;
+            this.end = end;
+            this.learnedEnd = start;
+            if (outputs.length < end - start) {
+                outputs = new double[end - start][session.getOutput().length];
+            }
+        }
+
+        @Override
+        public Void call() {
+            int updateInterval = getUpdateInterval(end - start);
+            int pending = 0;
+            session.clearGradients();
+            for (int p = start; p < end; p++) {
+                if ((p - start) % STOP_CHECK_PATTERNS == 0 && isStopped()) {
+                    break;
+                }
+                waitWhilePaused();
+
+                DataSetRow row = rows.get(order != null ? order[p] : p);
+                session.accumulate(row.getInput(), row.getDesiredOutput());
+                double[] output = session.getOutput();
+                System.arraycopy(output, 0, outputs[p - start], 0, output.length);
+                learnedEnd = p + 1;
+
+                if (++pending == updateInterval) {
+                    session.descend(learningRate, momentum);
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                session.descend(learningRate, momentum);
+            }
+            return null;
+        }
+    }
+}
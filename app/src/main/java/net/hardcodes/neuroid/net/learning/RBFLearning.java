@@ -70,8 +70,11 @@ public class RBFLearning extends LMS {
             KVector[] nearestNeighbours = knn.getKNearestNeighbours(centroid, k);
             double sigma = calculateSigma(centroid, nearestNeighbours); // calculate in method 
             Neuron neuron = rbfLayer.getNeuronAt(n);
-            ((Gaussian)neuron.getTransferFunction()).setSigma(sigma);
-            i++;
+            // neurons in layer share one transfer function, so each rbf neuron gets its own gaussian
+            Gaussian gaussian = new Gaussian();
+            gaussian.setSigma(sigma);
+            neuron.setTransferFunction(gaussian);
+            n++;
             
         }
         
@@ -4,6 +4,7 @@ import net.hardcodes.neuroid.core.Connection;
 import net.hardcodes.neuroid.core.Layer;
 import net.hardcodes.neuroid.core.Neuron;
 import net.hardcodes.neuroid.core.Weight;
+import net.hardcodes.neuroid.core.learning.optimizer.Optimizer;
 
 /**
  * Resilient Propagation learning rule used for Multi Layer Perceptron neural networks.
@@ -74,8 +75,24 @@ public class ResilientPropagation extends BackPropagation {
         }
     }
 
+    /**
+     * Sets optimizer used instead of the resilient weight update. Learning stays in batch mode, so the optimizer
+     * changes weights once per epoch (or batch), from gradients summed over its patterns.
+     *
+     * @param optimizer optimizer, or null to use resilient weight update
+     */
+    @Override
+    public void setOptimizer(Optimizer optimizer) {
+        super.setOptimizer(optimizer);
+    }
+
     @Override
     protected void doBatchWeightsUpdate() {
+        if (getOptimizer() != null) {
+            // resilient gradients are not summed with optimizer, it changes weights from its own gradients
+            super.doBatchWeightsUpdate();
+            return;
+        }
         // iterate layers from output to input
         Layer[] layers = neuralNetwork.getLayers();
         for (int i = neuralNetwork.getLayersCount() - 1; i > 0; i--) {            
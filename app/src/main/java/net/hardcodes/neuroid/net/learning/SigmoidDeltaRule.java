@@ -65,7 +65,7 @@ public class SigmoidDeltaRule extends LMS {
                         // otherwise calculate and set error/delta for the current neuron
 			TransferFunction transferFunction = neuron.getTransferFunction();
 			double neuronInput = neuron.getNetInput();
-			double delta = outputError[i] * transferFunction.getDerivative(neuronInput); // delta = (d-y)*df(net)
+			double delta = outputError[i] * transferFunction.derivativeFromOutput(neuronInput, neuron.getOutput()); // delta = (d-y)*df(net)
 			neuron.setError(delta);
                         
                         // and update weights of the current neuron
@@ -3,10 +3,11 @@ package net.hardcodes.neuroid.net.learning;
 import net.hardcodes.neuroid.core.NeuralNetwork;
 import net.hardcodes.neuroid.core.data.DataSet;
 import net.hardcodes.neuroid.core.data.DataSetRow;
+import net.hardcodes.neuroid.core.learning.ParameterVector;
 import net.hardcodes.neuroid.core.learning.SupervisedLearning;
-import net.hardcodes.neuroid.util.NeuralNetworkCODEC;
+import net.hardcodes.neuroid.core.learning.error.ErrorFunction;
 
-import java.util.Iterator;
+import java.util.List;
 
 /**
  * This class implements a simulated annealing learning rule for supervised
@@ -61,9 +62,9 @@ public class SimulatedAnnealingLearning extends SupervisedLearning {
     protected double temperature;
 
     /**
-     * Current weights from the neural network.
+     * Current weights from the neural network, kept in the parameter value vector.
      */
-    private double[] weights;
+    private transient ParameterVector parameters;
 
     /**
      * Best weights so far.
@@ -86,13 +87,9 @@ public class SimulatedAnnealingLearning extends SupervisedLearning {
         this.stopTemperature = stopTemp;
         this.cycles = cycles;
 
-        this.weights = new double[NeuralNetworkCODEC
-                .determineArraySize(network)];
-        this.bestWeights = new double[NeuralNetworkCODEC
-                .determineArraySize(network)];
-
-        NeuralNetworkCODEC.network2array(network, this.weights);
-        NeuralNetworkCODEC.network2array(network, this.bestWeights);
+        this.parameters = new ParameterVector(network);
+        this.bestWeights = new double[parameters.size()];
+        parameters.read(this.bestWeights);
     }
 
     public SimulatedAnnealingLearning(final NeuralNetwork network) {
@@ -108,6 +105,13 @@ public class SimulatedAnnealingLearning extends SupervisedLearning {
         return this.network;
     }
 
+    private ParameterVector getParameters() {
+        if (this.parameters == null) { // not kept after deserialization
+            this.parameters = new ParameterVector(this.network);
+        }
+        return this.parameters;
+    }
+
     /**
      * Randomize the weights and thresholds. This function does most of the work
      * of the class. Each call to this class will randomize the data according
@@ -115,15 +119,15 @@ public class SimulatedAnnealingLearning extends SupervisedLearning {
      * randomness.
      */
     public void randomize() {
-
-        for (int i = 0; i < this.weights.length; i++) {
+        double[] weights = getParameters().getValues();
+        for (int i = 0; i < weights.length; i++) {
             double add = 0.5 - (Math.random());
             add /= this.startTemperature;
             add *= this.temperature;
-            this.weights[i] = this.weights[i] + add;
+            weights[i] = weights[i] + add;
         }
 
-        NeuralNetworkCODEC.array2network(this.weights, this.network);
+        this.parameters.write();
     }
 
     /**
@@ -133,32 +137,19 @@ public class SimulatedAnnealingLearning extends SupervisedLearning {
      * @return The error value.
      */
     private double determineError(DataSet trainingSet) {
-        double result = 0d;
-
-        Iterator<DataSetRow> iterator = trainingSet.iterator();
-        while (iterator.hasNext() && !isStopped()) {
-            DataSetRow trainingSetRow = iterator.next();
-            double[] input = trainingSetRow.getInput();
-            this.neuralNetwork.setInput(input);
+        ErrorFunction errorFunction = getErrorFunction();
+        errorFunction.reset();
+
+        // indexed loop, so no iterator is created for each of the cycles
+        List<DataSetRow> rows = trainingSet.getRows();
+        for (int i = 0; i < rows.size(); i++) {
+            DataSetRow trainingSetRow = rows.get(i);
+            this.neuralNetwork.setInput(trainingSetRow.getInput());
             this.neuralNetwork.calculate();
-            double[] output = this.neuralNetwork.getOutput();
-            double[] desiredOutput = trainingSetRow
-                    .getDesiredOutput();
-            //TODO WHAT IS THIS????
-
-//			double[] patternError = this.calculateOutputError(desiredOutput, output);
-            double[] patternError = null;
-            this.updateTotalNetworkError(patternError);
-
-            double sqrErrorSum = 0;
-            for (double error : patternError) {
-                sqrErrorSum += (error * error);
-            }
-            result += sqrErrorSum / (2 * patternError.length);
-
+            errorFunction.calculatePatternError(this.neuralNetwork.getOutput(), trainingSetRow.getDesiredOutput());
         }
 
-        return result;
+        return errorFunction.getTotalError();
     }
 
     /**
@@ -166,38 +157,37 @@ public class SimulatedAnnealingLearning extends SupervisedLearning {
      */
     @Override
     public void doLearningEpoch(DataSet trainingSet) {
-
-        System.arraycopy(this.weights, 0, this.bestWeights, 0,
-                this.weights.length);
+        // start from current network weights, which could be changed since the previous epoch
+        getParameters().read();
+        double[] weights = this.parameters.getValues();
+        System.arraycopy(weights, 0, this.bestWeights, 0, weights.length);
 
         double bestError = determineError(trainingSet);
 
         this.temperature = this.startTemperature;
+        final double ratio = Math.exp(Math.log(this.stopTemperature
+                / this.startTemperature)
+                / (this.cycles - 1));
 
-        for (int i = 0; i < this.cycles; i++) {
+        for (int i = 0; i < this.cycles && !isStopped(); i++) {
 
             randomize();
             double currentError = determineError(trainingSet);
 
             if (currentError < bestError) {
-                System.arraycopy(this.weights, 0, this.bestWeights, 0,
-                        this.weights.length);
+                System.arraycopy(weights, 0, this.bestWeights, 0,
+                        weights.length);
                 bestError = currentError;
             } else
-                System.arraycopy(this.bestWeights, 0, this.weights, 0,
-                        this.weights.length);
-
-            NeuralNetworkCODEC.array2network(this.bestWeights, network);
+                System.arraycopy(this.bestWeights, 0, weights, 0,
+                        weights.length);
 
-            final double ratio = Math.exp(Math.log(this.stopTemperature
-                    / this.startTemperature)
-                    / (this.cycles - 1));
             this.temperature *= ratio;
         }
 
-        this.previousEpochError = getErrorFunction().getTotalError();
-        //TODO WHAT IS THIS????
-//		this.totalNetworkError = bestError;
+        // leave the network with the best weights, and total error of those weights
+        this.parameters.write();
+        determineError(trainingSet);
 
         // moved stopping condition to separate method hasReachedStopCondition()
         // so it can be overriden / customized in subclasses
@@ -206,19 +196,6 @@ public class SimulatedAnnealingLearning extends SupervisedLearning {
         }
     }
 
-    /**
-     * Update the total error.
-     */
-    protected void updateTotalNetworkError(double[] patternError) {
-        double sqrErrorSum = 0;
-        for (double error : patternError) {
-            sqrErrorSum += (error * error);
-        }
-
-        //TODO WHAT IS THIS?????
-//		this.totalNetworkError += sqrErrorSum / (2 * patternError.length);
-    }
-
     /**
      * Not used.
      */
@@ -2,9 +2,10 @@ package net.hardcodes.neuroid.net.learning.kmeans;
 
 import net.hardcodes.neuroid.core.data.DataSet;
 import net.hardcodes.neuroid.core.data.DataSetRow;
+import net.hardcodes.neuroid.util.IntArrayList;
+
+import java.util.Random;
 
-import java.util.ArrayList;
-import java.util.Collections;
 
 /**
  * 
@@ -71,12 +72,12 @@ public class KMeansClustering {
     // http://en.wikipedia.org/wiki/K-means_clustering
     public void initClusters() {               
         
-        ArrayList<Integer> idxList = new ArrayList<>();
+        IntArrayList idxList = new IntArrayList(dataSet.size());
         
         for(int i=0; i<dataSet.size(); i++) {
             idxList.add(i);
         }
-        Collections.shuffle(idxList);
+        idxList.shuffle(new Random());
         
      //   log.append("Clusters initialized at:\n\n");
         
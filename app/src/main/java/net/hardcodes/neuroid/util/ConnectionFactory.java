@@ -26,6 +26,9 @@ import net.hardcodes.neuroid.net.comp.DelayedConnection;
 import net.hardcodes.neuroid.net.comp.neuron.BiasNeuron;
 import net.hardcodes.neuroid.ui.ImageRecognitionManager;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Provides methods to connect neurons by creating Connection objects.
  */
@@ -96,7 +99,8 @@ public class ConnectionFactory {
 
 
     /**
-     * Creates full connectivity between the two specified layers
+     * Creates full connectivity between the two specified layers.
+     * Connections are added in bulk, with one addInputConnections() call per neuron of toLayer.
      *
      * @param fromLayer
      *            layer to connect
@@ -104,18 +108,23 @@ public class ConnectionFactory {
      *            layer to connect to
      */
     public static void fullConnect(Layer fromLayer, Layer toLayer) {
-        int ltn = 0;
-        for (Neuron fromNeuron : fromLayer.getNeurons()) {
-            ImageRecognitionManager.updateProgressDialogText(ltn + "/" + fromLayer.getNeuronsCount() * toLayer.getNeuronsCount() + " connections ready...");
-            for (Neuron toNeuron : toLayer.getNeurons()) {
-                ltn++;
-                createConnection(fromNeuron, toNeuron);
+        Neuron[] fromNeurons = fromLayer.getNeurons();
+        Neuron[] toNeurons = toLayer.getNeurons();
+        int connectionsCount = fromNeurons.length * toNeurons.length;
+        for (int i = 0; i < toNeurons.length; i++) {
+            ImageRecognitionManager.updateProgressDialogText(i * fromNeurons.length + "/" + connectionsCount + " connections ready...");
+            Neuron toNeuron = toNeurons[i];
+            Connection[] connections = new Connection[fromNeurons.length];
+            for (int j = 0; j < fromNeurons.length; j++) {
+                connections[j] = new Connection(fromNeurons[j], toNeuron);
             }
+            toNeuron.addInputConnections(connections);
         }
+        trimConnections(fromNeurons);
     }
 
     /**
-     * Creates full connectivity between the two specified layers
+     * Creates full connectivity between the two specified layers, without connections from bias neurons
      *
      * @param fromLayer
      *            layer to connect
@@ -123,14 +132,20 @@ public class ConnectionFactory {
      *            layer to connect to
      */
     public static void fullConnect(Layer fromLayer, Layer toLayer, boolean connectBiasNeuron) {
+        List<Neuron> fromNeurons = new ArrayList<>(fromLayer.getNeuronsCount());
         for (Neuron fromNeuron : fromLayer.getNeurons()) {
-            if (fromNeuron instanceof BiasNeuron) {
-                continue;
+            if (!(fromNeuron instanceof BiasNeuron)) {
+                fromNeurons.add(fromNeuron);
             }
-            for (Neuron toNeuron : toLayer.getNeurons()) {
-                createConnection(fromNeuron, toNeuron);
+        }
+        for (Neuron toNeuron : toLayer.getNeurons()) {
+            Connection[] connections = new Connection[fromNeurons.size()];
+            for (int j = 0; j < connections.length; j++) {
+                connections[j] = new Connection(fromNeurons.get(j), toNeuron);
             }
+            toNeuron.addInputConnections(connections);
         }
+        trimConnections(fromNeurons.toArray(new Neuron[fromNeurons.size()]));
     }
 
 
@@ -146,10 +161,23 @@ public class ConnectionFactory {
      *             connection weight value
      */
     public static void fullConnect(Layer fromLayer, Layer toLayer, double weightVal) {
-        for (Neuron fromNeuron : fromLayer.getNeurons()) {
-            for (Neuron toNeuron : toLayer.getNeurons()) {
-                createConnection(fromNeuron, toNeuron, weightVal);
+        Neuron[] fromNeurons = fromLayer.getNeurons();
+        for (Neuron toNeuron : toLayer.getNeurons()) {
+            Connection[] connections = new Connection[fromNeurons.length];
+            for (int j = 0; j < fromNeurons.length; j++) {
+                connections[j] = new Connection(fromNeurons[j], toNeuron, weightVal);
             }
+            toNeuron.addInputConnections(connections);
+        }
+        trimConnections(fromNeurons);
+    }
+
+    /**
+     * Trims output connection lists of neurons connected with addInputConnections(), once all connections are added
+     */
+    private static void trimConnections(Neuron[] neurons) {
+        for (Neuron neuron : neurons) {
+            neuron.trimConnections();
         }
     }
 
@@ -0,0 +1,152 @@
+/**
+ * Copyright 2010 Neuroph Project http://neuroph.sourceforge.net
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.hardcodes.neuroid.util;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Resizable list of primitive double values. Unlike a List of Double it does not box values,
+ * so each value takes 8 bytes, and elements() gives direct access to the values for fast loops.
+ *
+ * @see IntArrayList
+ */
+public class DoubleArrayList implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private double[] values;
+    private int size;
+
+    /**
+     * Creates an empty list
+     */
+    public DoubleArrayList() {
+        this(10);
+    }
+
+    /**
+     * Creates an empty list with the specified initial capacity
+     *
+     * @param initialCapacity initial capacity
+     */
+    public DoubleArrayList(int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("Illegal capacity: " + initialCapacity);
+        }
+        values = new double[initialCapacity];
+    }
+
+    /**
+     * Adds the specified value to the end of this list
+     *
+     * @param value value to add
+     */
+    public void add(double value) {
+        if (size == values.length) {
+            grow(size + 1);
+        }
+        values[size++] = value;
+    }
+
+    /**
+     * Adds values of the specified array range to the end of this list
+     *
+     * @param array  values to add
+     * @param offset position of the first value in array
+     * @param length number of values to add
+     */
+    public void addAll(double[] array, int offset, int length) {
+        ensureCapacity(size + length);
+        System.arraycopy(array, offset, values, size, length);
+        size += length;
+    }
+
+    public double get(int index) {
+        checkIndex(index);
+        return values[index];
+    }
+
+    public void set(int index, double value) {
+        checkIndex(index);
+        values[index] = value;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes all values, keeping the capacity
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Increases capacity if necessary, so the list can hold the specified number of values without growing
+     *
+     * @param minCapacity required capacity
+     */
+    public void ensureCapacity(int minCapacity) {
+        if (minCapacity > values.length) {
+            grow(minCapacity);
+        }
+    }
+
+    /**
+     * Trims capacity to the size of this list
+     */
+    public void trimToSize() {
+        if (values.length != size) {
+            values = Arrays.copyOf(values, size);
+        }
+    }
+
+    /**
+     * Returns the backing array. Its length can exceed size(), and it is replaced when the list grows.
+     *
+     * @return backing array with values at positions 0 to size() - 1
+     */
+    public double[] elements() {
+        return values;
+    }
+
+    /**
+     * Returns new array with values of this list
+     *
+     * @return values of this list
+     */
+    public double[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+
+    private void grow(int minCapacity) {
+        int capacity = values.length + (values.length >> 1);
+        values = Arrays.copyOf(values, Math.max(capacity, minCapacity));
+    }
+
+    private void checkIndex(int index) {
+        if (index >= size || index < 0) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+/**
+ * Copyright 2010 Neuroph Project http://neuroph.sourceforge.net
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.hardcodes.neuroid.util;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates unique identifiers for neurons, layers and networks.
+ * Identifiers are made of a random prefix, chosen once per class loading, and a counter,
+ * so they are unique across runs like UUIDs, but do not use SecureRandom for each new object.
+ */
+public final class IdGenerator {
+
+    private static final String PREFIX = Long.toString(new Random().nextLong() & Long.MAX_VALUE, 36) + "-";
+
+    private static final AtomicLong COUNTER = new AtomicLong();
+
+    private IdGenerator() {
+    }
+
+    /**
+     * Returns new unique identifier
+     *
+     * @return unique identifier
+     */
+    public static String nextId() {
+        return PREFIX + Long.toString(COUNTER.incrementAndGet(), 36);
+    }
+}
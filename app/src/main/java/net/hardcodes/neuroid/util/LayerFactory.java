@@ -17,10 +17,11 @@
 package net.hardcodes.neuroid.util;
 
 import net.hardcodes.neuroid.core.Layer;
-import net.hardcodes.neuroid.core.Neuron;
 import net.hardcodes.neuroid.core.transfer.TransferFunction;
 
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Provides methods to create instance of a Layer with specifed number of neurons and neuron's properties.
@@ -47,12 +48,25 @@ public class LayerFactory {
 		return layer;
 	}        
 
+	/**
+	 * Creates layer with one neuron for each of the specified neuron properties. Properties are
+	 * resolved once for each properties instance, so neurons created from the same instance share
+	 * one transfer function, like neurons of layers created with neurons count.
+	 *
+	 * @param neuronPropertiesVector neuron properties, one for each neuron
+	 * @return layer with created neurons
+	 */
 	public static Layer createLayer(List<NeuronProperties> neuronPropertiesVector) {
-		Layer layer = new Layer();
-		
+		Layer layer = new Layer(neuronPropertiesVector.size());
+		Map<NeuronProperties, NeuronCreator> creators = new IdentityHashMap<>();
+
 		for(NeuronProperties neuronProperties : neuronPropertiesVector) {
-			Neuron neuron = NeuronFactory.createNeuron(neuronProperties);
-			layer.addNeuron(neuron);
+			NeuronCreator creator = creators.get(neuronProperties);
+			if (creator == null) {
+				creator = NeuronFactory.getCreator(neuronProperties);
+				creators.put(neuronProperties, creator);
+			}
+			layer.addNeuron(creator.createNeuron());
 		}
 		
 		return layer;
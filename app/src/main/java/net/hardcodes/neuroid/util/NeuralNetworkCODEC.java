@@ -66,8 +66,7 @@ public class NeuralNetworkCODEC {
 		for (Layer layer : network.getLayers()) {
 			for (Neuron neuron : layer.getNeurons()) {
 				for (Connection connection : neuron.getOutputConnections()) {
-					connection.getWeight().setValue(array[index]);
-					//connection.getWeight().setPreviousValue(array[index++]);
+					connection.getWeight().setValue(array[index++]);
 				}
 			}
 		}
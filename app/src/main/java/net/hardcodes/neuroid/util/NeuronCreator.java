@@ -0,0 +1,153 @@
+/**
+ * Copyright 2010 Neuroph Project http://neuroph.sourceforge.net
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.hardcodes.neuroid.util;
+
+import net.hardcodes.neuroid.core.Neuron;
+import net.hardcodes.neuroid.core.input.InputFunction;
+import net.hardcodes.neuroid.core.transfer.TransferFunction;
+import net.hardcodes.neuroid.net.comp.neuron.InputOutputNeuron;
+import net.hardcodes.neuroid.net.comp.neuron.ThresholdNeuron;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+
+/**
+ * Creates neurons specified by neuron properties. Properties are resolved once, when the creator is created:
+ * neuron constructor is looked up once, and all created neurons share one input function and one transfer
+ * function instance, since both are stateless. Networks which need different function parameters for each
+ * neuron (like NeuroFuzzyPerceptron) set a new function on each neuron. So creating a neuron costs one constructor call, instead of
+ * constructor lookups and input and transfer function creation for each neuron like NeuronFactory.createNeuron().
+ * Constructor is cached rather than invoked through method handles, which are not available on all Android versions.
+ *
+ * @see NeuronFactory#getCreator(NeuronProperties)
+ */
+public class NeuronCreator {
+
+    /**
+     * Neuron constructor with input and transfer function parameters, or no arg constructor if there is no such constructor
+     */
+    private final Constructor<? extends Neuron> constructor;
+
+    /**
+     * True if constructor takes input and transfer function
+     */
+    private final boolean functionsConstructor;
+
+    private final InputFunction inputFunction;
+    private final TransferFunction transferFunction;
+    private final Double thresh;
+    private final Double bias;
+
+    /**
+     * Creates creator of neurons with the specified properties, which share one new transfer function instance
+     *
+     * @param neuronProperties specification of neuron properties
+     */
+    public NeuronCreator(NeuronProperties neuronProperties) {
+        this(neuronProperties, NeuronFactory.createTransferFunction(neuronProperties));
+    }
+
+    /**
+     * Creates creator of neurons with the specified properties, which all use the specified transfer function instance
+     *
+     * @param neuronProperties specification of neuron properties
+     * @param transferFunction transfer function for all neurons
+     */
+    public NeuronCreator(NeuronProperties neuronProperties, TransferFunction transferFunction) {
+        this.transferFunction = transferFunction;
+
+        Class inputFunctionClass = neuronProperties.getInputFunction();
+        this.inputFunction = inputFunctionClass != null ? createInputFunction(inputFunctionClass) : null;
+
+        Class<? extends Neuron> neuronClass = neuronProperties.getNeuronType();
+        Constructor<? extends Neuron> con = null;
+        boolean withFunctions = false;
+        try {
+            con = neuronClass.getConstructor(InputFunction.class, TransferFunction.class);
+            withFunctions = true;
+        } catch (NoSuchMethodException e) {
+            // use constructor without params to create neuron
+            try {
+                con = neuronClass.getConstructor();
+            } catch (NoSuchMethodException ex) {
+                System.err.println("getConstructor() couldn't find the constructor while creating Neuron!");
+                ex.printStackTrace();
+            }
+        }
+        this.constructor = con;
+        this.functionsConstructor = withFunctions;
+
+        this.thresh = neuronProperties.hasProperty("thresh") ? (Double) neuronProperties.getProperty("thresh") : null;
+        this.bias = neuronProperties.hasProperty("bias") ? (Double) neuronProperties.getProperty("bias") : null;
+    }
+
+    private static InputFunction createInputFunction(Class inputFunctionClass) {
+        try {
+            return (InputFunction) inputFunctionClass.newInstance();
+        } catch (InstantiationException e) {
+            System.err.println("InstantiationException while creating InputFunction!");
+            e.printStackTrace();
+        } catch (IllegalAccessException e) {
+            System.err.println("No permission to invoke method");
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    /**
+     * Creates new neuron
+     *
+     * @return new neuron, or null if it could not be created
+     */
+    public Neuron createNeuron() {
+        if (constructor == null) {
+            return null;
+        }
+
+        Neuron neuron = null;
+        try {
+            neuron = functionsConstructor ? constructor.newInstance(inputFunction, transferFunction) : constructor.newInstance();
+        } catch (InstantiationException e) {
+            System.err.println("InstantiationException while creating Neuron!");
+            e.printStackTrace();
+        } catch (IllegalAccessException e) {
+            System.err.println("No permission to invoke method while creating Neuron!");
+            e.printStackTrace();
+        } catch (InvocationTargetException e) {
+            System.err.println("Method threw an: " + e.getTargetException() + " while creating Neuron!");
+            e.printStackTrace();
+        }
+
+        if (neuron != null) {
+            if (thresh != null) {
+                ((ThresholdNeuron) neuron).setThresh(thresh);
+            } else if (bias != null) {
+                ((InputOutputNeuron) neuron).setBias(bias);
+            }
+        }
+        return neuron;
+    }
+
+    /**
+     * Returns transfer function shared by created neurons
+     *
+     * @return transfer function
+     */
+    public TransferFunction getTransferFunction() {
+        return transferFunction;
+    }
+}
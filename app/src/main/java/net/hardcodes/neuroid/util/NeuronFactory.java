@@ -17,10 +17,7 @@
 package net.hardcodes.neuroid.util;
 
 import net.hardcodes.neuroid.core.Neuron;
-import net.hardcodes.neuroid.core.input.InputFunction;
 import net.hardcodes.neuroid.core.transfer.TransferFunction;
-import net.hardcodes.neuroid.net.comp.neuron.InputOutputNeuron;
-import net.hardcodes.neuroid.net.comp.neuron.ThresholdNeuron;
 
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
@@ -39,85 +36,46 @@ public class NeuronFactory {
 	 * @return returns instance of neuron with specified properties
 	 */
 	public static Neuron createNeuron(NeuronProperties neuronProperties) {
-
-                InputFunction inputFunction = null;
-                Class inputFunctionClass = neuronProperties.getInputFunction();
-                
-                if ( inputFunctionClass != null) {
-                    inputFunction = createInputFunction(inputFunctionClass);
-                }
-
-		TransferFunction transferFunction = createTransferFunction(neuronProperties.getTransferFunctionProperties());
-
-		Neuron neuron = null;
-		Class neuronClass = neuronProperties.getNeuronType();
-
-                // use two param constructor to create neuron
-                    try {
-                        Class[] paramTypes = {InputFunction.class, TransferFunction.class};
-                        Constructor con = neuronClass.getConstructor(paramTypes);
-
-                        Object paramList[] = new Object[2];
-                        paramList[0] = inputFunction;
-                        paramList[1] = transferFunction;
-                        
-                        neuron = (Neuron) con.newInstance(paramList);
-
-                    }  catch (NoSuchMethodException e) {
-                        //System.err.println("getConstructor() couldn't find the constructor while creating Neuron!");
-                        // e.printStackTrace();
-                    } catch (InstantiationException e) {
-                        System.err.println("InstantiationException while creating Neuron!");
-                        e.printStackTrace();
-                    } catch (IllegalAccessException e) {
-                        System.err.println("No permission to invoke method while creating Neuron!");
-                        e.printStackTrace();
-                    } catch (InvocationTargetException e) {
-                        System.err.println("Method threw an: " + e.getTargetException() + " while creating Neuron!");
-                        e.printStackTrace();
-                    }
-
-                    if (neuron == null) {
-                        // use constructor without params to create neuron
-                        try {
-                            neuron = (Neuron) neuronClass.newInstance();
-                            //System.err.println("Using no arg constructor ");
-                        } catch(IllegalAccessException e) {
-                            System.err.println("InstantiationException while creating Neuron!");
-                            e.printStackTrace();
-                        } catch (InstantiationException e) {
-                            System.err.println("InstantiationException while creating Neuron!");
-                            e.printStackTrace();
-                        }
-                    }
-                
-                    if  (neuronProperties.hasProperty("thresh")) {
-                        ((ThresholdNeuron)neuron).setThresh((Double)neuronProperties.getProperty("thresh"));
-                    } else if  (neuronProperties.hasProperty("bias")) {
-                        ((InputOutputNeuron)neuron).setBias((Double)neuronProperties.getProperty("bias"));
-                    }
-
-                     return neuron;                    
-
+		return createNeuron(neuronProperties, createTransferFunction(neuronProperties));
 	}
 
+	/**
+	 * Creates and returns neuron instance according to the given specification in neuronProperties,
+	 * which uses the given transfer function instance. Transfer functions are stateless, so neurons
+	 * can share one instance; to create many such neurons use getCreator().
+	 *
+	 * @param neuronProperties
+	 *            specification of neuron properties
+	 * @param transferFunction
+	 *            transfer function for the neuron
+	 * @return returns instance of neuron with specified properties
+	 */
+	public static Neuron createNeuron(NeuronProperties neuronProperties, TransferFunction transferFunction) {
+		return new NeuronCreator(neuronProperties, transferFunction).createNeuron();
+	}
 
-        private static InputFunction createInputFunction(Class inputFunctionClass) {
-            InputFunction inputFunction = null;
-
-            try {
-                inputFunction = (InputFunction) inputFunctionClass.newInstance();
-            } catch (InstantiationException e) {
-                System.err.println("InstantiationException while creating InputFunction!");
-                e.printStackTrace();
-            } catch (IllegalAccessException e) {
-                System.err.println("No permission to invoke method");
-                e.printStackTrace();
-            }
-
-            return inputFunction;
-        }
+	/**
+	 * Returns creator of neurons specified by neuronProperties, which resolves the properties once.
+	 * Use it instead of createNeuron() to create many neurons with the same properties, like layers do.
+	 *
+	 * @param neuronProperties
+	 *            specification of neuron properties
+	 * @return neuron creator
+	 */
+	public static NeuronCreator getCreator(NeuronProperties neuronProperties) {
+		return new NeuronCreator(neuronProperties);
+	}
 
+	/**
+	 * Creates and returns instance of transfer function specified in neuron properties
+	 *
+	 * @param neuronProperties
+	 *            specification of neuron properties
+	 * @return returns transfer function
+	 */
+	public static TransferFunction createTransferFunction(NeuronProperties neuronProperties) {
+		return createTransferFunction(neuronProperties.getTransferFunctionProperties());
+	}
 
 	/**
 	 * Creates and returns instance of transfer function
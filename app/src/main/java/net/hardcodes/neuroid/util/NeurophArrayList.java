@@ -190,11 +190,12 @@ public class NeurophArrayList<E> extends AbstractList<E>
      */
     private void grow(int minCapacity) {
         // overflow-conscious code
-//        int oldCapacity = elementData.length;
-        //int newCapacity = oldCapacity + (oldCapacity >> 1);
-        int newCapacity = minCapacity;
-//        if (newCapacity - minCapacity < 0)
-//            newCapacity = minCapacity;
+        // capacity grows by half, so adding n elements copies O(n) elements; lists whose arrays are used
+        // whole are trimmed with trimToSize() by their owners, once they are done adding
+        int oldCapacity = elementData.length;
+        int newCapacity = oldCapacity + (oldCapacity >> 1);
+        if (newCapacity - minCapacity < 0)
+            newCapacity = minCapacity;
         if (newCapacity - MAX_ARRAY_SIZE > 0)
             newCapacity = hugeCapacity(minCapacity);
         // minCapacity is usually close to size, so this is a win:
@@ -317,6 +318,12 @@ public class NeurophArrayList<E> extends AbstractList<E>
         return Arrays.copyOf(elementData, size);
     }
     
+    /**
+     * Returns the backing array, without copying. It can be longer than size(), so iterate it up to size(),
+     * or call trimToSize() after adding elements if the whole array is used. The array must not be modified.
+     *
+     * @return backing array with all elements of this list
+     */
     public final E[] asArray() {
         return elementData;
     }
@@ -701,8 +708,8 @@ public class NeurophArrayList<E> extends AbstractList<E>
         int expectedModCount = modCount;
         s.defaultWriteObject();
 
-        // Write out array length
-        s.writeInt(elementData.length);
+        // Write out array length, without spare capacity so the list is read trimmed
+        s.writeInt(size);
 
         // Write out all elements in the proper order.
         for (int i=0; i<size; i++)
@@ -723,9 +730,9 @@ public class NeurophArrayList<E> extends AbstractList<E>
         // Read in size, and any hidden stuff
         s.defaultReadObject();
 
-        // Read in array length and allocate array
-        int arrayLength = s.readInt();
-        Object[] a = elementData = (E[]) Array.newInstance(elementType, arrayLength); //new Object[arrayLength];
+        // Read in array length and allocate array, without spare capacity
+        s.readInt();
+        Object[] a = elementData = (E[]) Array.newInstance(elementType, size); //new Object[arrayLength];
 
         // Read in all elements in the proper order.
         for (int i=0; i<size; i++)
@@ -16,6 +16,9 @@
 
 package net.hardcodes.neuroid.util;
 
+import net.hardcodes.neuroid.core.transfer.FastGaussian;
+import net.hardcodes.neuroid.core.transfer.FastSigmoid;
+import net.hardcodes.neuroid.core.transfer.FastTanh;
 import net.hardcodes.neuroid.core.transfer.Gaussian;
 import net.hardcodes.neuroid.core.transfer.Linear;
 import net.hardcodes.neuroid.core.transfer.Log;
@@ -40,7 +43,10 @@ public enum TransferFunctionType {
 	TRAPEZOID("Trapezoid"),
 	SGN("Sgn"), 
         SIN("Sin"), 
-        LOG("Log");
+        LOG("Log"),
+	FAST_SIGMOID("Fast Sigmoid"),
+	FAST_TANH("Fast Tanh"),
+	FAST_GAUSSIAN("Fast Gaussian");
 
 	private String typeLabel;
 	
@@ -74,6 +80,12 @@ public enum TransferFunctionType {
 			return Sin.class;                     
 		case LOG:
 			return Log.class;                     
+		case FAST_SIGMOID:
+			return FastSigmoid.class;
+		case FAST_TANH:
+			return FastTanh.class;
+		case FAST_GAUSSIAN:
+			return FastGaussian.class;
 		} // switch
 
             return null;
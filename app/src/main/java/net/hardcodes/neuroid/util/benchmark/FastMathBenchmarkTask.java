@@ -0,0 +1,105 @@
+/**
+ * Copyright 2010 Neuroph Project http://neuroph.sourceforge.net
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.hardcodes.neuroid.util.benchmark;
+
+import net.hardcodes.neuroid.core.transfer.FastMath;
+import net.hardcodes.neuroid.core.transfer.Gaussian;
+import net.hardcodes.neuroid.core.transfer.Sigmoid;
+import net.hardcodes.neuroid.core.transfer.Tanh;
+import net.hardcodes.neuroid.core.transfer.TransferFunction;
+
+import java.util.Random;
+
+/**
+ * Compares lookup table transfer functions (FastSigmoid, FastTanh, FastGaussian) with the exact ones.
+ * prepareTest() prints max absolute error and time of bulk apply() for each pair.
+ * runTest() applies fast sigmoid to the whole input array. Error bounds and XOR convergence with fast
+ * functions are checked by FastMathTest.
+ *
+ * @see FastMath
+ */
+public class FastMathBenchmarkTask extends BenchmarkTask {
+
+    private final int size;
+    private double[] in;
+    private double[] out;
+    private TransferFunction fastSigmoid;
+
+    /**
+     * Creates new fast math benchmark
+     *
+     * @param name          benchmark task name
+     * @param size number of values in one apply() call
+     */
+    public FastMathBenchmarkTask(String name, int size) {
+        super(name);
+        this.size = size;
+    }
+
+    @Override
+    public void prepareTest() {
+        Random random = new Random(1);
+        in = new double[size];
+        out = new double[size];
+        for (int i = 0; i < size; i++) {
+            in[i] = random.nextDouble() * 16 - 8;
+        }
+
+        compare(new Sigmoid());
+        compare(new Tanh());
+        compare(new Gaussian());
+        fastSigmoid = FastMath.toFast(new Sigmoid());
+    }
+
+    private void compare(TransferFunction exact) {
+        TransferFunction fast = FastMath.toFast(exact);
+        double error = 0;
+        for (double net = -20; net <= 20; net += 1e-4) {
+            error = Math.max(error, Math.abs(exact.getOutput(net) - fast.getOutput(net)));
+        }
+
+        // best of several runs, so both are measured after JIT compilation
+        long exactTime = Long.MAX_VALUE;
+        long fastTime = Long.MAX_VALUE;
+        for (int run = 0; run < 20; run++) {
+            long start = System.nanoTime();
+            exact.apply(in, out, 0, size);
+            exactTime = Math.min(exactTime, System.nanoTime() - start);
+            start = System.nanoTime();
+            fast.apply(in, out, 0, size);
+            fastTime = Math.min(fastTime, System.nanoTime() - start);
+        }
+
+        String name = exact.getClass().getSimpleName();
+        System.out.println(name + ": max error " + error + ", apply time exact " + exactTime / 1000 + " us, fast " + fastTime / 1000 + " us");
+    }
+
+    @Override
+    public void runTest() {
+        fastSigmoid.apply(in, out, 0, size);
+    }
+
+    /**
+     * Runs fast math benchmark with one million values
+     */
+    public static void run() {
+        FastMathBenchmarkTask task = new FastMathBenchmarkTask("Fast transfer functions", 1000000);
+        task.setWarmupIterations(5);
+        task.setTestIterations(20);
+        Benchmark.runTask(task);
+    }
+}
@@ -0,0 +1,138 @@
+/**
+ * Copyright 2010 Neuroph Project http://neuroph.sourceforge.net
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.hardcodes.neuroid.util.benchmark;
+
+import net.hardcodes.neuroid.core.NeuralNetwork;
+import net.hardcodes.neuroid.core.compiled.FloatNetwork;
+import net.hardcodes.neuroid.core.data.DataSet;
+import net.hardcodes.neuroid.core.data.FloatDataSet;
+import net.hardcodes.neuroid.net.MultiLayerPerceptron;
+import net.hardcodes.neuroid.net.learning.BackPropagation;
+import net.hardcodes.neuroid.util.TransferFunctionType;
+
+import java.util.Random;
+
+/**
+ * Compares single precision (float32) training with FloatNetwork against double precision BackPropagation,
+ * starting from the same weights. prepareTest() trains both forms for the specified number of epochs and
+ * prints error of both after each epoch (convergence), time of the last epoch, and memory of weights
+ * and training data.
+ * runTest() runs one more float training epoch.
+ *
+ * @see FloatNetwork
+ */
+public class FloatPrecisionBenchmarkTask extends BenchmarkTask {
+
+    private final NeuralNetwork network;
+    private final DataSet trainingSet;
+    private final int epochs;
+    private final double learningRate;
+    private FloatNetwork floatNetwork;
+    private FloatDataSet floatTrainingSet;
+
+    /**
+     * Creates new float precision benchmark
+     *
+     * @param name         benchmark task name
+     * @param network      network to train
+     * @param trainingSet  training set
+     * @param epochs       number of epochs to compare
+     * @param learningRate learning rate for both forms
+     */
+    public FloatPrecisionBenchmarkTask(String name, NeuralNetwork network, DataSet trainingSet, int epochs, double learningRate) {
+        super(name);
+        this.network = network;
+        this.trainingSet = trainingSet;
+        this.epochs = epochs;
+        this.learningRate = learningRate;
+    }
+
+    @Override
+    public void prepareTest() {
+        // float network takes a snapshot of weights, so both forms start from the same point
+        floatNetwork = network.compileFloat();
+        floatTrainingSet = new FloatDataSet(trainingSet);
+
+        BackPropagation learningRule = new BackPropagation();
+        learningRule.setLearningRate(learningRate);
+        learningRule.setMaxIterations(1);
+        network.setLearningRule(learningRule);
+
+        // time of the last epoch is reported, so both forms are measured after JIT compilation
+        double[] doubleErrors = new double[epochs];
+        long doubleTime = 0;
+        for (int i = 0; i < epochs; i++) {
+            long start = System.nanoTime();
+            network.learn(trainingSet);
+            doubleTime = System.nanoTime() - start;
+            doubleErrors[i] = learningRule.getTotalNetworkError();
+        }
+
+        double[] floatErrors = new double[epochs];
+        long floatTime = 0;
+        for (int i = 0; i < epochs; i++) {
+            long start = System.nanoTime();
+            floatErrors[i] = floatNetwork.learnEpoch(floatTrainingSet, (float) learningRate);
+            floatTime = System.nanoTime() - start;
+        }
+
+        double maxErrorDiff = 0;
+        for (int i = 0; i < epochs; i++) {
+            System.out.println("Epoch " + (i + 1) + " error double " + doubleErrors[i] + ", float " + floatErrors[i]);
+            maxErrorDiff = Math.max(maxErrorDiff, Math.abs(doubleErrors[i] - floatErrors[i]));
+        }
+
+        long weightsCount = floatNetwork.getWeightsCount();
+        long valuesCount = (long) trainingSet.size() * (trainingSet.getInputSize() + trainingSet.getOutputSize());
+        System.out.println(getName() + ": max epoch error difference " + maxErrorDiff);
+        System.out.println("Weights double " + weightsCount * 8 / 1024 + " KB, float " + weightsCount * 4 / 1024 + " KB");
+        System.out.println("Training data double " + valuesCount * 8 / 1024 + " KB, float " + valuesCount * 4 / 1024 + " KB");
+        System.out.println("Time per epoch double " + doubleTime / 1000 + " us, float " + floatTime / 1000 + " us");
+    }
+
+    @Override
+    public void runTest() {
+        floatNetwork.learnEpoch(floatTrainingSet, (float) learningRate);
+    }
+
+    /**
+     * Runs float precision benchmark for a Multi Layer Perceptron on a simple synthetic classification problem
+     */
+    public static void runMlp() {
+        Random random = new Random(1);
+        int inputSize = 64;
+        int classes = 4;
+        DataSet dataSet = new DataSet(inputSize, classes);
+        for (int i = 0; i < 400; i++) {
+            int c = i % classes;
+            double[] input = new double[inputSize];
+            for (int j = 0; j < inputSize; j++) {
+                // each class has higher values in its own quarter of the input vector
+                input[j] = random.nextDouble() * 0.5 + ((j * classes / inputSize) == c ? 0.5 : 0);
+            }
+            double[] output = new double[classes];
+            output[c] = 1;
+            dataSet.addRow(input, output);
+        }
+
+        MultiLayerPerceptron mlp = new MultiLayerPerceptron(TransferFunctionType.SIGMOID, inputSize, 32, classes);
+        FloatPrecisionBenchmarkTask task = new FloatPrecisionBenchmarkTask("Float32 Multi Layer Perceptron", mlp, dataSet, 20, 0.1);
+        task.setWarmupIterations(3);
+        task.setTestIterations(10);
+        Benchmark.runTask(task);
+    }
+}
@@ -0,0 +1,110 @@
+/**
+ * Copyright 2010 Neuroph Project http://neuroph.sourceforge.net
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.hardcodes.neuroid.util.benchmark;
+
+import net.hardcodes.neuroid.core.data.DataSet;
+import net.hardcodes.neuroid.net.MultiLayerPerceptron;
+import net.hardcodes.neuroid.net.learning.HogwildBackpropagation;
+import net.hardcodes.neuroid.net.learning.MomentumBackpropagation;
+import net.hardcodes.neuroid.util.TransferFunctionType;
+
+import java.util.Random;
+
+/**
+ * Compares throughput and convergence of HogwildBackpropagation with single threaded MomentumBackpropagation.
+ * Multi layer perceptron 2-16-1 learns to classify 20000 random points as inside or outside of a circle,
+ * online, until error is below 0.01 or for at most 100 epochs, starting from the same initial weights
+ * in each test iteration. Prints epochs, final error and patterns learned per second.
+ *
+ * @see HogwildBackpropagation
+ */
+public class HogwildBenchmarkTask extends BenchmarkTask {
+
+    /**
+     * Threads count for the MomentumBackpropagation baseline
+     */
+    public static final int BASELINE = 0;
+
+    private static final double MAX_ERROR = 0.01;
+    private static final int MAX_ITERATIONS = 100;
+
+    private final int threadsCount;
+    private DataSet dataSet;
+
+    /**
+     * Creates new Hogwild benchmark
+     *
+     * @param name         benchmark task name
+     * @param threadsCount number of worker threads, BASELINE for MomentumBackpropagation
+     */
+    public HogwildBenchmarkTask(String name, int threadsCount) {
+        super(name);
+        this.threadsCount = threadsCount;
+    }
+
+    @Override
+    public void prepareTest() {
+        Random random = new Random(1);
+        dataSet = new DataSet(2, 1);
+        for (int i = 0; i < 20000; i++) {
+            double x = random.nextDouble();
+            double y = random.nextDouble();
+            double distance = (x - 0.5) * (x - 0.5) + (y - 0.5) * (y - 0.5);
+            dataSet.addRow(new double[]{x, y}, new double[]{distance < 0.1 ? 0.9 : 0.1});
+        }
+    }
+
+    @Override
+    public void runTest() {
+        MultiLayerPerceptron network = new MultiLayerPerceptron(TransferFunctionType.SIGMOID, 2, 16, 1);
+        network.randomizeWeights(new Random(2));
+
+        MomentumBackpropagation learningRule = threadsCount == BASELINE ? new MomentumBackpropagation() : new HogwildBackpropagation(threadsCount);
+        learningRule.setLearningRate(0.1);
+        learningRule.setMaxError(MAX_ERROR);
+        learningRule.setMaxIterations(MAX_ITERATIONS);
+        learningRule.setShuffle(true);
+        learningRule.setShuffleRandom(new Random(3));
+        network.setLearningRule(learningRule);
+
+        long start = System.nanoTime();
+        network.learn(dataSet);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        long patterns = (long) learningRule.getCurrentIteration() * dataSet.size();
+        System.out.println(getName() + ": " + learningRule.getCurrentIteration() + " epochs, error " + learningRule.getTotalNetworkError()
+                + ", " + Math.round(patterns / seconds) + " patterns/s");
+    }
+
+    /**
+     * Runs Hogwild benchmark for the baseline, and for 1, 2, 4 and 8 worker threads.
+     * Speedup is limited by the number of available processors.
+     */
+    public static void run() {
+        System.out.println("Available processors: " + Runtime.getRuntime().availableProcessors());
+        Benchmark.runTask(configure(new HogwildBenchmarkTask("MomentumBackpropagation", BASELINE)));
+        for (int threadsCount : new int[]{1, 2, 4, 8}) {
+            Benchmark.runTask(configure(new HogwildBenchmarkTask("HogwildBackpropagation " + threadsCount + " threads", threadsCount)));
+        }
+    }
+
+    private static HogwildBenchmarkTask configure(HogwildBenchmarkTask task) {
+        task.setWarmupIterations(1);
+        task.setTestIterations(3);
+        return task;
+    }
+}
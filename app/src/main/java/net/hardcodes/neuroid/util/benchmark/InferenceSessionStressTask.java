@@ -0,0 +1,116 @@
+/**
+ * Copyright 2010 Neuroph Project http://neuroph.sourceforge.net
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.hardcodes.neuroid.util.benchmark;
+
+import net.hardcodes.neuroid.core.compiled.CompiledNetwork;
+import net.hardcodes.neuroid.core.compiled.InferenceSession;
+import net.hardcodes.neuroid.net.MultiLayerPerceptron;
+import net.hardcodes.neuroid.util.TransferFunctionType;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Stress test for concurrent inference. A number of threads (32 by default) calculate the same
+ * compiled network at the same time, each through its own InferenceSession, and every output is
+ * compared with the output calculated by a single thread. runTest() throws IllegalStateException
+ * if any of the outputs differs. InferenceSessionTest runs the same check as a test.
+ *
+ * @see InferenceSession
+ */
+public class InferenceSessionStressTask extends BenchmarkTask {
+
+    private final int threadsCount;
+    private final int patternsCount = 500;
+    private CompiledNetwork network;
+    private double[][] inputs;
+    private double[][] expectedOutputs;
+
+    public InferenceSessionStressTask(String name) {
+        this(name, 32);
+    }
+
+    /**
+     * Creates new stress test
+     *
+     * @param name         benchmark task name
+     * @param threadsCount number of concurrent callers
+     */
+    public InferenceSessionStressTask(String name, int threadsCount) {
+        super(name);
+        this.threadsCount = threadsCount;
+    }
+
+    @Override
+    public void prepareTest() {
+        network = new MultiLayerPerceptron(TransferFunctionType.SIGMOID, 64, 48, 32, 10).compile();
+
+        Random random = new Random(1);
+        inputs = new double[patternsCount][64];
+        expectedOutputs = new double[patternsCount][];
+        InferenceSession session = network.createSession();
+        for (int i = 0; i < patternsCount; i++) {
+            for (int j = 0; j < inputs[i].length; j++) {
+                inputs[i][j] = random.nextDouble();
+            }
+            expectedOutputs[i] = session.calculate(inputs[i]).clone();
+        }
+    }
+
+    @Override
+    public void runTest() {
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(threadsCount);
+        final AtomicInteger mismatches = new AtomicInteger();
+
+        for (int t = 0; t < threadsCount; t++) {
+            final int offset = t * 7;
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    InferenceSession session = network.createSession();
+                    try {
+                        start.await();
+                        for (int i = 0; i < patternsCount; i++) {
+                            int p = (i + offset) % patternsCount;
+                            if (!Arrays.equals(session.calculate(inputs[p]), expectedOutputs[p])) {
+                                mismatches.incrementAndGet();
+                            }
+                        }
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            }).start();
+        }
+
+        start.countDown();
+        try {
+            done.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (mismatches.get() > 0) {
+            throw new IllegalStateException(mismatches.get() + " outputs differ from single threaded calculation!");
+        }
+    }
+}
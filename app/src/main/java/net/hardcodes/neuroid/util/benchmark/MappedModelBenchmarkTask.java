@@ -0,0 +1,128 @@
+/**
+ * Copyright 2010 Neuroph Project http://neuroph.sourceforge.net
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.hardcodes.neuroid.util.benchmark;
+
+import net.hardcodes.neuroid.core.NeuralNetwork;
+import net.hardcodes.neuroid.core.compiled.MappedNetwork;
+import net.hardcodes.neuroid.net.MultiLayerPerceptron;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Compares opening a binary model as MappedNetwork, which keeps weights in the mapped file,
+ * against loading it onto the heap with NeuralNetwork.createFromBinaryFile().
+ * prepareTest() saves the network, reports heap used by the opened model, and checks that the mapped network
+ * gives the same outputs as the original network. runTest() opens the model and calculates it once.
+ *
+ * @see MappedNetwork
+ */
+public class MappedModelBenchmarkTask extends BenchmarkTask {
+
+    private final int[] layerSizes;
+    private final boolean mapped;
+    private File file;
+    private double[] input;
+    private Object model;
+
+    /**
+     * Creates new mapped model benchmark
+     *
+     * @param name       benchmark task name
+     * @param mapped     true to open MappedNetwork, false to load NeuralNetwork
+     * @param layerSizes neuron counts of multi layer perceptron layers
+     */
+    public MappedModelBenchmarkTask(String name, boolean mapped, int... layerSizes) {
+        super(name);
+        this.mapped = mapped;
+        this.layerSizes = layerSizes;
+    }
+
+    @Override
+    public void prepareTest() {
+        NeuralNetwork network = new MultiLayerPerceptron(layerSizes);
+        try {
+            file = File.createTempFile("model", ".nrdm");
+        } catch (IOException ex) {
+            throw new IllegalStateException("Could not create temporary file!", ex);
+        }
+        file.deleteOnExit();
+        network.saveBinary(file.getPath());
+
+        input = new double[layerSizes[0]];
+        for (int i = 0; i < input.length; i++) {
+            input[i] = (double) i / input.length;
+        }
+        network.setInput(input);
+        network.calculate();
+        double[] expected = network.getOutput().clone();
+        network = null;
+
+        long before = usedMemory();
+        model = open();
+        System.out.println(getName() + ": heap " + (usedMemory() - before) / 1024 + " KB for " + file.length() / 1024 + " KB model file");
+
+        if (mapped) {
+            double[] output = ((MappedNetwork) model).getOutput();
+            for (int i = 0; i < expected.length; i++) {
+                if (output[i] != expected[i]) {
+                    throw new IllegalStateException("Mapped network has different output at index " + i + "!");
+                }
+            }
+        }
+        model = null;
+    }
+
+    private Object open() {
+        if (mapped) {
+            MappedNetwork network = MappedNetwork.open(file);
+            network.setInput(input);
+            network.calculate();
+            return network;
+        } else {
+            NeuralNetwork network = NeuralNetwork.createFromBinaryFile(file);
+            network.setInput(input);
+            network.calculate();
+            return network;
+        }
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    @Override
+    public void runTest() {
+        open();
+    }
+
+    /**
+     * Runs mapped model benchmark for 784-1000-1000-10 network (1.8M weights), loaded and mapped
+     */
+    public static void run() {
+        for (boolean mapped : new boolean[]{false, true}) {
+            MappedModelBenchmarkTask task = new MappedModelBenchmarkTask(mapped ? "Mapped network" : "Loaded network", mapped, 784, 1000, 1000, 10);
+            task.setWarmupIterations(2);
+            task.setTestIterations(5);
+            Benchmark.runTask(task);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+/**
+ * Copyright 2010 Neuroph Project http://neuroph.sourceforge.net
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.hardcodes.neuroid.util.benchmark;
+
+import net.hardcodes.neuroid.core.compiled.CompiledNetwork;
+import net.hardcodes.neuroid.core.compiled.FloatNetwork;
+import net.hardcodes.neuroid.core.data.DataSet;
+import net.hardcodes.neuroid.core.data.FloatDataSet;
+import net.hardcodes.neuroid.net.MultiLayerPerceptron;
+import net.hardcodes.neuroid.util.DoubleArrayList;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Reports heap used by a large Multi Layer Perceptron in graph, compiled and float form, and by its training data
+ * as DataSet and FloatDataSet, together with bytes per connection and per value. It also compares a boxed List of Double
+ * with DoubleArrayList for the same values. Heap is measured as used memory after garbage collection,
+ * so results are approximate. runTest() copies network weights with getWeights().
+ */
+public class MemoryFootprintBenchmarkTask extends BenchmarkTask {
+
+    private final int[] layerSizes;
+    private final int rows;
+    private MultiLayerPerceptron network;
+
+    /**
+     * Keeps measured objects reachable until all measurements are done
+     */
+    private final List<Object> retained = new ArrayList<>();
+
+    /**
+     * Creates new memory footprint benchmark
+     *
+     * @param name       benchmark task name
+     * @param rows       number of training data rows
+     * @param layerSizes numbers of neurons in network layers
+     */
+    public MemoryFootprintBenchmarkTask(String name, int rows, int... layerSizes) {
+        super(name);
+        this.rows = rows;
+        this.layerSizes = layerSizes;
+    }
+
+    @Override
+    public void prepareTest() {
+        long before = usedMemory();
+        network = new MultiLayerPerceptron(layerSizes);
+        long networkBytes = usedMemory() - before;
+        long connections = network.getWeights().length;
+        print("Network", networkBytes, connections, "connection");
+
+        before = usedMemory();
+        CompiledNetwork compiled = network.compile();
+        retained.add(compiled);
+        print("Compiled network", usedMemory() - before, connections, "connection");
+
+        before = usedMemory();
+        FloatNetwork floatNetwork = network.compileFloat();
+        retained.add(floatNetwork);
+        print("Float network", usedMemory() - before, connections, "connection");
+
+        int inputSize = layerSizes[0];
+        int outputSize = layerSizes[layerSizes.length - 1];
+        long values = (long) rows * (inputSize + outputSize);
+        Random random = new Random(1);
+        before = usedMemory();
+        DataSet dataSet = new DataSet(inputSize, outputSize);
+        for (int r = 0; r < rows; r++) {
+            double[] input = new double[inputSize];
+            for (int i = 0; i < inputSize; i++) {
+                input[i] = random.nextDouble();
+            }
+            dataSet.addRow(input, new double[outputSize]);
+        }
+        retained.add(dataSet);
+        print("DataSet", usedMemory() - before, values, "value");
+
+        before = usedMemory();
+        FloatDataSet floatDataSet = new FloatDataSet(dataSet);
+        retained.add(floatDataSet);
+        print("FloatDataSet", usedMemory() - before, values, "value");
+
+        int count = (int) Math.min(connections, 1000000);
+        before = usedMemory();
+        List<Double> boxed = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            boxed.add(random.nextDouble());
+        }
+        retained.add(boxed);
+        print("List<Double>", usedMemory() - before, count, "value");
+
+        before = usedMemory();
+        DoubleArrayList primitive = new DoubleArrayList();
+        for (int i = 0; i < count; i++) {
+            primitive.add(random.nextDouble());
+        }
+
+        retained.add(primitive);
+        print("DoubleArrayList", usedMemory() - before, count, "value");
+        retained.clear();
+    }
+
+    private void print(String label, long bytes, long count, String unit) {
+        System.out.println(getName() + ": " + label + " " + bytes / 1024 + " KB, " + (double) bytes / count + " bytes per " + unit);
+    }
+
+    @Override
+    public void runTest() {
+        network.getWeights();
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Runs memory footprint benchmark for a 784-1000-1000-10 network and 10000 training rows
+     */
+    public static void run() {
+        MemoryFootprintBenchmarkTask task = new MemoryFootprintBenchmarkTask("Memory footprint", 10000, 784, 1000, 1000, 10);
+        task.setWarmupIterations(1);
+        task.setTestIterations(5);
+        Benchmark.runTask(task);
+    }
+}
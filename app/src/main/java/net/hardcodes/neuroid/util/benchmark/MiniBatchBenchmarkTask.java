@@ -0,0 +1,118 @@
+/**
+ * Copyright 2010 Neuroph Project http://neuroph.sourceforge.net
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.hardcodes.neuroid.util.benchmark;
+
+import net.hardcodes.neuroid.core.data.DataSet;
+import net.hardcodes.neuroid.net.MultiLayerPerceptron;
+import net.hardcodes.neuroid.net.learning.MomentumBackpropagation;
+import net.hardcodes.neuroid.util.TransferFunctionType;
+
+import java.util.Random;
+
+/**
+ * Compares wall clock time to target error for online, full batch and mini batch training.
+ * Multi layer perceptron 2-8-1 learns to classify 2000 random points as inside or outside of a circle,
+ * with MomentumBackpropagation, until error is below 0.01. runTest() trains a network with the same
+ * initial weights, so each test iteration measures time to target error.
+ *
+ * @see net.hardcodes.neuroid.core.learning.SupervisedLearning#setBatchSize(int)
+ * @see net.hardcodes.neuroid.core.learning.SupervisedLearning#setShuffle(boolean)
+ */
+public class MiniBatchBenchmarkTask extends BenchmarkTask {
+
+    /**
+     * Batch size for online training, without batch mode
+     */
+    public static final int ONLINE = -1;
+
+    private static final double MAX_ERROR = 0.01;
+
+    private final int batchSize;
+    private final boolean shuffle;
+    private final double learningRate;
+    private final int maxIterations;
+    private DataSet dataSet;
+
+    /**
+     * Creates new mini batch benchmark
+     *
+     * @param name          benchmark task name
+     * @param batchSize     mini batch size, 0 for full batch, ONLINE for online training
+     * @param shuffle       true to shuffle training set in each epoch
+     * @param learningRate  learning rate
+     * @param maxIterations max training iterations
+     */
+    public MiniBatchBenchmarkTask(String name, int batchSize, boolean shuffle, double learningRate, int maxIterations) {
+        super(name);
+        this.batchSize = batchSize;
+        this.shuffle = shuffle;
+        this.learningRate = learningRate;
+        this.maxIterations = maxIterations;
+    }
+
+    @Override
+    public void prepareTest() {
+        Random random = new Random(1);
+        dataSet = new DataSet(2, 1);
+        for (int i = 0; i < 2000; i++) {
+            double x = random.nextDouble();
+            double y = random.nextDouble();
+            double distance = (x - 0.5) * (x - 0.5) + (y - 0.5) * (y - 0.5);
+            dataSet.addRow(new double[]{x, y}, new double[]{distance < 0.1 ? 0.9 : 0.1});
+        }
+    }
+
+    @Override
+    public void runTest() {
+        MultiLayerPerceptron network = new MultiLayerPerceptron(TransferFunctionType.SIGMOID, 2, 8, 1);
+        network.randomizeWeights(new Random(2));
+
+        MomentumBackpropagation learningRule = new MomentumBackpropagation();
+        learningRule.setLearningRate(learningRate);
+        learningRule.setMaxError(MAX_ERROR);
+        learningRule.setMaxIterations(maxIterations);
+        if (batchSize != ONLINE) {
+            learningRule.setBatchSize(batchSize);
+        }
+        if (shuffle) {
+            learningRule.setShuffle(true);
+            learningRule.setShuffleRandom(new Random(3));
+        }
+        network.setLearningRule(learningRule);
+        network.learn(dataSet);
+
+        System.out.println(getName() + ": " + learningRule.getCurrentIteration() + " iterations, error " + learningRule.getTotalNetworkError());
+    }
+
+    /**
+     * Runs mini batch benchmark for online training, full batch, and mini batches of 32 patterns
+     * without and with shuffle. Learning rates are tuned for each mode, since batch modes sum weight changes.
+     */
+    public static void run() {
+        MiniBatchBenchmarkTask[] tasks = {
+                new MiniBatchBenchmarkTask("Online", ONLINE, false, 0.2, 3000),
+                new MiniBatchBenchmarkTask("Full batch", 0, false, 0.004, 3000),
+                new MiniBatchBenchmarkTask("Mini batch 32", 32, false, 0.3, 3000),
+                new MiniBatchBenchmarkTask("Mini batch 32 shuffled", 32, true, 0.3, 3000)
+        };
+        for (MiniBatchBenchmarkTask task : tasks) {
+            task.setWarmupIterations(1);
+            task.setTestIterations(3);
+            Benchmark.runTask(task);
+        }
+    }
+}
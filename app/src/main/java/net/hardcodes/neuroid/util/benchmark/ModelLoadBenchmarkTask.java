@@ -0,0 +1,127 @@
+/**
+ * Copyright 2010 Neuroph Project http://neuroph.sourceforge.net
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.hardcodes.neuroid.util.benchmark;
+
+import net.hardcodes.neuroid.core.NeuralNetwork;
+import net.hardcodes.neuroid.core.learning.ParameterVector;
+import net.hardcodes.neuroid.net.MultiLayerPerceptron;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Compares loading a network saved with Java serialization (NeuralNetwork.save() and createFromFile())
+ * against loading it from binary model format (saveBinary() and createFromBinaryFile()).
+ * prepareTest() saves the network into a temporary file and checks that it loads
+ * with the same weights and outputs. runTest() loads the network.
+ *
+ * @see net.hardcodes.neuroid.util.io.BinaryModelWriter
+ * @see net.hardcodes.neuroid.util.io.BinaryModelReader
+ */
+public class ModelLoadBenchmarkTask extends BenchmarkTask {
+
+    private final int[] layerSizes;
+    private final boolean binary;
+    private NeuralNetwork network;
+    private File file;
+
+    /**
+     * Creates new model load benchmark
+     *
+     * @param name       benchmark task name
+     * @param binary     true to load binary model, false to load serialized network
+     * @param layerSizes neuron counts of multi layer perceptron layers
+     */
+    public ModelLoadBenchmarkTask(String name, boolean binary, int... layerSizes) {
+        super(name);
+        this.binary = binary;
+        this.layerSizes = layerSizes;
+    }
+
+    @Override
+    public void prepareTest() {
+        network = new MultiLayerPerceptron(layerSizes);
+        try {
+            file = File.createTempFile("model", binary ? ".nrdm" : ".nnet");
+        } catch (IOException ex) {
+            throw new IllegalStateException("Could not create temporary file!", ex);
+        }
+        file.deleteOnExit();
+
+        long size;
+        if (binary) {
+            network.saveBinary(file.getPath());
+            size = file.length();
+            check(network, NeuralNetwork.createFromBinaryFile(file));
+        } else {
+            network.save(file.getPath());
+            size = file.length();
+            check(network, NeuralNetwork.createFromFile(file));
+        }
+        System.out.println(getName() + ": file size " + size / 1024 + " KB");
+    }
+
+    private static void check(NeuralNetwork network, NeuralNetwork loaded) {
+        double[] weights = new ParameterVector(network).getValues();
+        double[] loadedWeights = new ParameterVector(loaded).getValues();
+        if (weights.length != loadedWeights.length) {
+            throw new IllegalStateException("Loaded network has " + loadedWeights.length + " weights instead of " + weights.length + "!");
+        }
+        for (int i = 0; i < weights.length; i++) {
+            if (weights[i] != loadedWeights[i]) {
+                throw new IllegalStateException("Loaded network has different weight at index " + i + "!");
+            }
+        }
+
+        double[] input = new double[network.getInputsCount()];
+        for (int i = 0; i < input.length; i++) {
+            input[i] = (double) i / input.length;
+        }
+        network.setInput(input);
+        network.calculate();
+        loaded.setInput(input);
+        loaded.calculate();
+        double[] output = network.getOutput();
+        double[] loadedOutput = loaded.getOutput();
+        for (int i = 0; i < output.length; i++) {
+            if (output[i] != loadedOutput[i]) {
+                throw new IllegalStateException("Loaded network has different output at index " + i + "!");
+            }
+        }
+    }
+
+    @Override
+    public void runTest() {
+        if (binary) {
+            NeuralNetwork.createFromBinaryFile(file);
+        } else {
+            NeuralNetwork.createFromFile(file);
+        }
+    }
+
+    /**
+     * Runs model load benchmark for 784-1000-1000-10 network (1.8M weights), serialized and binary
+     */
+    public static void run() {
+        for (boolean binary : new boolean[]{false, true}) {
+            ModelLoadBenchmarkTask task = new ModelLoadBenchmarkTask(binary ? "Binary model" : "Serialized network", binary, 784, 1000, 1000, 10);
+            task.setWarmupIterations(1);
+            task.setTestIterations(3);
+            Benchmark.runTask(task);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+/**
+ * Copyright 2010 Neuroph Project http://neuroph.sourceforge.net
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.hardcodes.neuroid.util.benchmark;
+
+import net.hardcodes.neuroid.net.MultiLayerPerceptron;
+
+import java.util.Arrays;
+
+/**
+ * Measures construction time of a Multi Layer Perceptron with the specified layer sizes.
+ * runTest() creates the whole network: neurons, connections and weights.
+ * prepareTest() prints the number of connections of the network.
+ *
+ * @see net.hardcodes.neuroid.util.ConnectionFactory#fullConnect(net.hardcodes.neuroid.core.Layer, net.hardcodes.neuroid.core.Layer)
+ */
+public class NetworkConstructionBenchmarkTask extends BenchmarkTask {
+
+    private final int[] layerSizes;
+    private MultiLayerPerceptron network;
+
+    /**
+     * Creates new construction benchmark
+     *
+     * @param name       benchmark task name
+     * @param layerSizes numbers of neurons in network layers
+     */
+    public NetworkConstructionBenchmarkTask(String name, int... layerSizes) {
+        super(name);
+        this.layerSizes = layerSizes;
+    }
+
+    @Override
+    public void prepareTest() {
+        network = new MultiLayerPerceptron(layerSizes);
+        System.out.println(getName() + ": " + network.getWeights().length + " connections");
+    }
+
+    @Override
+    public void runTest() {
+        network = new MultiLayerPerceptron(layerSizes);
+    }
+
+    /**
+     * Runs construction benchmark for networks from 100-100-10 to 784-1000-1000-10 neurons
+     */
+    public static void run() {
+        int[][] sizes = {{100, 100, 10}, {784, 300, 10}, {784, 1000, 10}, {784, 1000, 1000, 10}};
+        for (int[] layerSizes : sizes) {
+            NetworkConstructionBenchmarkTask task = new NetworkConstructionBenchmarkTask("Construction " + Arrays.toString(layerSizes), layerSizes);
+            task.setWarmupIterations(1);
+            task.setTestIterations(3);
+            Benchmark.runTask(task);
+        }
+    }
+}
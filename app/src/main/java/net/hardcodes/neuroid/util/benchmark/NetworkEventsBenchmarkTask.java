@@ -0,0 +1,116 @@
+/**
+ * Copyright 2010 Neuroph Project http://neuroph.sourceforge.net
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.hardcodes.neuroid.util.benchmark;
+
+import net.hardcodes.neuroid.core.events.NeuralNetworkEvent;
+import net.hardcodes.neuroid.core.events.NeuralNetworkEventListener;
+import net.hardcodes.neuroid.core.events.NeuralNetworkEventType;
+import net.hardcodes.neuroid.net.MultiLayerPerceptron;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Multi threaded inference benchmark for network events. Each thread calculates its own
+ * Multi Layer Perceptron, optionally with a CALCULATED event listener registered on it.
+ * Since every network keeps its own listener registry, threads do not contend on a shared lock
+ * when events are fired, and without listeners no event objects are created at all.
+ * runTest() throws IllegalStateException if listeners did not receive exactly one event per calculation.
+ */
+public class NetworkEventsBenchmarkTask extends BenchmarkTask {
+
+    private final int threadsCount;
+    private final boolean listening;
+    private final int calculationsCount = 2000;
+    private MultiLayerPerceptron[] networks;
+    private double[] input;
+    private final AtomicLong receivedEvents = new AtomicLong();
+
+    /**
+     * Creates new network events benchmark
+     *
+     * @param threadsCount number of threads calculating networks at the same time
+     * @param listening    true to register CALCULATED listener on every network
+     */
+    public NetworkEventsBenchmarkTask(int threadsCount, boolean listening) {
+        super((listening ? "Listened" : "Unlistened") + " inference, " + threadsCount + " threads");
+        this.threadsCount = threadsCount;
+        this.listening = listening;
+    }
+
+    @Override
+    public void prepareTest() {
+        input = new double[32];
+        for (int i = 0; i < input.length; i++) {
+            input[i] = Math.random();
+        }
+
+        NeuralNetworkEventListener listener = new NeuralNetworkEventListener() {
+            @Override
+            public void handleNeuralNetworkEvent(NeuralNetworkEvent event) {
+                receivedEvents.incrementAndGet();
+            }
+        };
+
+        networks = new MultiLayerPerceptron[threadsCount];
+        for (int i = 0; i < threadsCount; i++) {
+            networks[i] = new MultiLayerPerceptron(32, 16, 4);
+            if (listening) {
+                networks[i].addListener(listener, NeuralNetworkEventType.CALCULATED);
+            }
+        }
+    }
+
+    @Override
+    public void runTest() {
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(threadsCount);
+        receivedEvents.set(0);
+
+        for (int t = 0; t < threadsCount; t++) {
+            final MultiLayerPerceptron network = networks[t];
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        for (int i = 0; i < calculationsCount; i++) {
+                            network.setInput(input);
+                            network.calculate();
+                        }
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            }).start();
+        }
+
+        start.countDown();
+        try {
+            done.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+
+        long expectedEvents = listening ? (long) threadsCount * calculationsCount : 0;
+        if (receivedEvents.get() != expectedEvents) {
+            throw new IllegalStateException("Received " + receivedEvents.get() + " events, expected " + expectedEvents + "!");
+        }
+    }
+}
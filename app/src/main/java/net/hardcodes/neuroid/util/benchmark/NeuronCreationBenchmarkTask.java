@@ -0,0 +1,85 @@
+/**
+ * Copyright 2010 Neuroph Project http://neuroph.sourceforge.net
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.hardcodes.neuroid.util.benchmark;
+
+import net.hardcodes.neuroid.core.Neuron;
+import net.hardcodes.neuroid.core.input.WeightedSum;
+import net.hardcodes.neuroid.core.transfer.Sigmoid;
+import net.hardcodes.neuroid.util.NeuronCreator;
+import net.hardcodes.neuroid.util.NeuronFactory;
+import net.hardcodes.neuroid.util.NeuronProperties;
+
+/**
+ * Compares creating neurons one by one with NeuronFactory.createNeuron(), which resolves neuron properties
+ * and creates a sigmoid function with reflection for each neuron, against a NeuronCreator, which resolves
+ * them once and gives all neurons one sigmoid instance.
+ * runTest() creates the specified number of neurons.
+ *
+ * @see NeuronCreator
+ */
+public class NeuronCreationBenchmarkTask extends BenchmarkTask {
+
+    private final int neuronsCount;
+    private final boolean useCreator;
+    private NeuronProperties neuronProperties;
+    private Neuron[] neurons;
+
+    /**
+     * Creates new neuron creation benchmark
+     *
+     * @param name         benchmark task name
+     * @param neuronsCount number of neurons created in each test iteration
+     * @param useCreator   true to use NeuronCreator, false to call NeuronFactory.createNeuron() for each neuron
+     */
+    public NeuronCreationBenchmarkTask(String name, int neuronsCount, boolean useCreator) {
+        super(name);
+        this.neuronsCount = neuronsCount;
+        this.useCreator = useCreator;
+    }
+
+    @Override
+    public void prepareTest() {
+        neuronProperties = new NeuronProperties(Neuron.class, WeightedSum.class, Sigmoid.class);
+        neurons = new Neuron[neuronsCount];
+    }
+
+    @Override
+    public void runTest() {
+        if (useCreator) {
+            NeuronCreator creator = NeuronFactory.getCreator(neuronProperties);
+            for (int i = 0; i < neuronsCount; i++) {
+                neurons[i] = creator.createNeuron();
+            }
+        } else {
+            for (int i = 0; i < neuronsCount; i++) {
+                neurons[i] = NeuronFactory.createNeuron(neuronProperties);
+            }
+        }
+    }
+
+    /**
+     * Runs neuron creation benchmark for 200000 neurons, with and without NeuronCreator
+     */
+    public static void run() {
+        for (boolean useCreator : new boolean[]{false, true}) {
+            NeuronCreationBenchmarkTask task = new NeuronCreationBenchmarkTask(useCreator ? "NeuronCreator" : "NeuronFactory.createNeuron()", 200000, useCreator);
+            task.setWarmupIterations(3);
+            task.setTestIterations(10);
+            Benchmark.runTask(task);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+/**
+ * Copyright 2010 Neuroph Project http://neuroph.sourceforge.net
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.hardcodes.neuroid.util.benchmark;
+
+import net.hardcodes.neuroid.core.Connection;
+import net.hardcodes.neuroid.core.Layer;
+import net.hardcodes.neuroid.core.Neuron;
+import net.hardcodes.neuroid.net.MultiLayerPerceptron;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compares neuron lookup through a global UID keyed register (the way connections used to resolve
+ * neurons) with the direct references that connections hold now, on a 784-300-10 Multi Layer Perceptron.
+ * The time of one pass over all connections is measured by runTest(), while prepareTest() reports
+ * the heap used by the network itself, the extra heap that a register for the same network takes,
+ * and checks that a dropped network is garbage collected.
+ *
+ * @see Benchmark#runTask(BenchmarkTask)
+ */
+public class NeuronLookupBenchmarkTask extends BenchmarkTask {
+
+    private final boolean registerLookup;
+    private MultiLayerPerceptron network;
+    private Map<String, Neuron> register;
+    private Connection[][] connections;
+    private double checksum;
+
+    /**
+     * Creates new lookup benchmark
+     *
+     * @param name           benchmark task name
+     * @param registerLookup true to resolve neurons through UID register, false to use direct references
+     */
+    public NeuronLookupBenchmarkTask(String name, boolean registerLookup) {
+        super(name);
+        this.registerLookup = registerLookup;
+    }
+
+    @Override
+    public void prepareTest() {
+        long before = usedMemory();
+        network = new MultiLayerPerceptron(784, 300, 10);
+        long networkBytes = usedMemory() - before;
+
+        Layer[] layers = network.getLayers();
+        int neuronsCount = 0;
+        for (Layer layer : layers) {
+            neuronsCount += layer.getNeuronsCount();
+        }
+        connections = new Connection[neuronsCount][];
+
+        before = usedMemory();
+        register = new ConcurrentHashMap<>();
+        int n = 0;
+        for (Layer layer : layers) {
+            for (Neuron neuron : layer.getNeurons()) {
+                register.put(neuron.getUID(), neuron);
+                connections[n++] = neuron.getInputConnections();
+            }
+        }
+        long registerBytes = usedMemory() - before;
+
+        WeakReference<MultiLayerPerceptron> dropped = new WeakReference<>(new MultiLayerPerceptron(784, 300, 10));
+        usedMemory();
+
+        System.out.println("Network heap: " + networkBytes / 1024 + " KB");
+        System.out.println("UID register heap: " + registerBytes / 1024 + " KB for " + register.size() + " neurons");
+        System.out.println("Dropped network collected: " + (dropped.get() == null));
+
+        if (!registerLookup) {
+            register = null;
+        }
+    }
+
+    @Override
+    public void runTest() {
+        double sum = 0;
+        for (Connection[] neuronConnections : connections) {
+            for (Connection connection : neuronConnections) {
+                if (connection == null) {
+                    break;
+                }
+                Neuron fromNeuron = registerLookup
+                        ? register.get(connection.getFromNeuron().getUID())
+                        : connection.getFromNeuron();
+                sum += fromNeuron.getOutput() * connection.getWeight().value;
+            }
+        }
+        checksum += sum;
+    }
+
+    /**
+     * Returns sum of all values calculated in test iterations, so the benchmarked code can not be optimized away
+     *
+     * @return checksum of calculated values
+     */
+    public double getChecksum() {
+        return checksum;
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,146 @@
+/**
+ * Copyright 2010 Neuroph Project http://neuroph.sourceforge.net
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.hardcodes.neuroid.util.benchmark;
+
+import net.hardcodes.neuroid.core.data.DataSet;
+import net.hardcodes.neuroid.core.learning.optimizer.AdaGrad;
+import net.hardcodes.neuroid.core.learning.optimizer.Adam;
+import net.hardcodes.neuroid.core.learning.optimizer.NesterovMomentum;
+import net.hardcodes.neuroid.core.learning.optimizer.Optimizer;
+import net.hardcodes.neuroid.core.learning.optimizer.RmsProp;
+import net.hardcodes.neuroid.net.MultiLayerPerceptron;
+import net.hardcodes.neuroid.net.learning.BackPropagation;
+import net.hardcodes.neuroid.net.learning.MomentumBackpropagation;
+import net.hardcodes.neuroid.util.TransferFunctionType;
+
+import java.util.Random;
+
+/**
+ * Compares epochs to target error for BackPropagation with optimizers, plain BackPropagation and
+ * MomentumBackpropagation, on MNIST sized synthetic data: 784 inputs (28x28 images) and 10 classes.
+ * Each class has a random prototype image with 15% of pixels on, which shares 60% of pixels with
+ * a common base image, and each pattern is its prototype with 30% of pixels flipped and random intensities.
+ * Multi layer perceptron 784-32-10 learns in shuffled mini batches of 32 patterns, until error is below 0.01
+ * or for at most 50 epochs, starting from the same initial weights in each test iteration.
+ * Prints epochs, final error and time per epoch.
+ *
+ * @see BackPropagation#setOptimizer(Optimizer)
+ */
+public class OptimizerBenchmarkTask extends BenchmarkTask {
+
+    private static final int INPUTS = 784;
+    private static final int CLASSES = 10;
+    private static final int BATCH_SIZE = 32;
+    private static final double MAX_ERROR = 0.01;
+    private static final int MAX_ITERATIONS = 50;
+
+    private final BackPropagation learningRule;
+    private final int patternsCount;
+    private DataSet dataSet;
+
+    /**
+     * Creates new optimizer benchmark
+     *
+     * @param name          benchmark task name
+     * @param learningRule  learning rule, with optimizer and learning rate set
+     * @param patternsCount number of training patterns
+     */
+    public OptimizerBenchmarkTask(String name, BackPropagation learningRule, int patternsCount) {
+        super(name);
+        this.learningRule = learningRule;
+        this.patternsCount = patternsCount;
+    }
+
+    @Override
+    public void prepareTest() {
+        Random random = new Random(1);
+        boolean[] base = new boolean[INPUTS];
+        for (int i = 0; i < INPUTS; i++) {
+            base[i] = random.nextDouble() < 0.15;
+        }
+        boolean[][] prototypes = new boolean[CLASSES][INPUTS];
+        for (boolean[] prototype : prototypes) {
+            for (int i = 0; i < INPUTS; i++) {
+                prototype[i] = random.nextDouble() < 0.6 ? base[i] : random.nextDouble() < 0.15;
+            }
+        }
+        dataSet = new DataSet(INPUTS, CLASSES);
+        for (int p = 0; p < patternsCount; p++) {
+            int label = random.nextInt(CLASSES);
+            double[] input = new double[INPUTS];
+            for (int i = 0; i < INPUTS; i++) {
+                boolean on = prototypes[label][i] != (random.nextDouble() < 0.3);
+                input[i] = on ? 0.5 + 0.5 * random.nextDouble() : 0;
+            }
+            double[] output = new double[CLASSES];
+            output[label] = 1;
+            dataSet.addRow(input, output);
+        }
+    }
+
+    @Override
+    public void runTest() {
+        MultiLayerPerceptron network = new MultiLayerPerceptron(TransferFunctionType.SIGMOID, INPUTS, 32, CLASSES);
+        network.randomizeWeights(new Random(2));
+
+        learningRule.setMaxError(MAX_ERROR);
+        learningRule.setMaxIterations(MAX_ITERATIONS);
+        learningRule.setBatchSize(BATCH_SIZE);
+        learningRule.setShuffle(true);
+        learningRule.setShuffleRandom(new Random(3));
+        network.setLearningRule(learningRule);
+
+        long start = System.nanoTime();
+        network.learn(dataSet);
+        long epochMillis = (System.nanoTime() - start) / 1000000 / Math.max(learningRule.getCurrentIteration(), 1);
+
+        System.out.println(getName() + ": " + learningRule.getCurrentIteration() + " epochs, error " + learningRule.getTotalNetworkError()
+                + ", " + epochMillis + " ms per epoch");
+    }
+
+    private static BackPropagation create(Optimizer optimizer, double learningRate) {
+        BackPropagation learningRule = new BackPropagation();
+        learningRule.setOptimizer(optimizer);
+        learningRule.setLearningRate(learningRate);
+        return learningRule;
+    }
+
+    /**
+     * Runs optimizer benchmark with 2000 patterns for plain BackPropagation, MomentumBackpropagation,
+     * and BackPropagation with Nesterov momentum, AdaGrad, RMSProp and Adam optimizers.
+     * Learning rates are the best of a coarse search for each of them.
+     */
+    public static void run() {
+        MomentumBackpropagation momentum = new MomentumBackpropagation();
+        momentum.setLearningRate(0.03);
+        momentum.setMomentum(0.9);
+
+        OptimizerBenchmarkTask[] tasks = {
+                new OptimizerBenchmarkTask("BackPropagation", create(null, 0.3), 2000),
+                new OptimizerBenchmarkTask("MomentumBackpropagation", momentum, 2000),
+                new OptimizerBenchmarkTask("Nesterov momentum", create(new NesterovMomentum(0.9), 0.03), 2000),
+                new OptimizerBenchmarkTask("AdaGrad", create(new AdaGrad(), 0.3), 2000),
+                new OptimizerBenchmarkTask("RMSProp", create(new RmsProp(), 0.01), 2000),
+                new OptimizerBenchmarkTask("Adam", create(new Adam(), 0.03), 2000)
+        };
+        for (OptimizerBenchmarkTask task : tasks) {
+            task.setWarmupIterations(0);
+            task.setTestIterations(1);
+            Benchmark.runTask(task);
+        }
+    }
+}
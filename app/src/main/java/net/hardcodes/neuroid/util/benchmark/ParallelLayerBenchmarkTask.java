@@ -0,0 +1,95 @@
+/**
+ * Copyright 2010 Neuroph Project http://neuroph.sourceforge.net
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.hardcodes.neuroid.util.benchmark;
+
+import net.hardcodes.neuroid.core.data.DataSet;
+import net.hardcodes.neuroid.core.parallel.ParallelExecution;
+import net.hardcodes.neuroid.net.MultiLayerPerceptron;
+import net.hardcodes.neuroid.net.learning.MomentumBackpropagation;
+
+/**
+ * Measures forward calculation and back propagation training of a Multi Layer Perceptron with
+ * two hidden layers of the specified width, with parallel layer execution enabled or disabled.
+ * Running it for a range of widths with both settings (see runCrossover) shows the layer width
+ * from which parallel execution pays off, which can be used to tune ParallelExecution work threshold.
+ *
+ * @see ParallelExecution
+ */
+public class ParallelLayerBenchmarkTask extends BenchmarkTask {
+
+    private final int width;
+    private final boolean parallel;
+    private MultiLayerPerceptron network;
+    private DataSet trainingSet;
+
+    /**
+     * Creates new parallel layer benchmark
+     *
+     * @param width    number of neurons in input and hidden layers
+     * @param parallel true to enable parallel layer execution
+     */
+    public ParallelLayerBenchmarkTask(int width, boolean parallel) {
+        super((parallel ? "Parallel" : "Serial") + " layers, width " + width);
+        this.width = width;
+        this.parallel = parallel;
+    }
+
+    @Override
+    public void prepareTest() {
+        int outputSize = 10;
+        trainingSet = new DataSet(width, outputSize);
+        for (int i = 0; i < 20; i++) {
+            double[] input = new double[width];
+            for (int j = 0; j < width; j++) {
+                input[j] = Math.random();
+            }
+            double[] output = new double[outputSize];
+            output[i % outputSize] = 1;
+            trainingSet.addRow(input, output);
+        }
+
+        network = new MultiLayerPerceptron(width, width, width, outputSize);
+        ((MomentumBackpropagation) network.getLearningRule()).setMaxIterations(5);
+    }
+
+    @Override
+    public void runTest() {
+        boolean wasEnabled = ParallelExecution.isEnabled();
+        ParallelExecution.setEnabled(parallel);
+        try {
+            network.learn(trainingSet);
+        } finally {
+            ParallelExecution.setEnabled(wasEnabled);
+        }
+    }
+
+    /**
+     * Runs serial and parallel benchmark for each of the specified layer widths
+     *
+     * @param widths layer widths to benchmark
+     */
+    public static void runCrossover(int... widths) {
+        for (int width : widths) {
+            for (boolean parallel : new boolean[]{false, true}) {
+                ParallelLayerBenchmarkTask task = new ParallelLayerBenchmarkTask(width, parallel);
+                task.setWarmupIterations(3);
+                task.setTestIterations(5);
+                Benchmark.runTask(task);
+            }
+        }
+    }
+}
@@ -0,0 +1,117 @@
+/**
+ * Copyright 2010 Neuroph Project http://neuroph.sourceforge.net
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.hardcodes.neuroid.util.benchmark;
+
+import net.hardcodes.neuroid.core.data.DataSet;
+import net.hardcodes.neuroid.net.MultiLayerPerceptron;
+import net.hardcodes.neuroid.net.learning.BackPropagation;
+import net.hardcodes.neuroid.net.learning.DataParallelBackPropagation;
+import net.hardcodes.neuroid.util.TransferFunctionType;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Measures scaling of DataParallelBackPropagation with the number of worker threads.
+ * Multi layer perceptron 64-128-10 is trained for a fixed number of epochs on 4096 random patterns,
+ * in mini batches of 256 patterns, starting from the same initial weights in each test iteration.
+ * Batch mode BackPropagation on the network graph is the single threaded baseline.
+ * Weights after training must be the same in all test iterations with the same number of threads,
+ * otherwise IllegalStateException is thrown.
+ *
+ * @see DataParallelBackPropagation
+ */
+public class ParallelTrainingBenchmarkTask extends BenchmarkTask {
+
+    /**
+     * Threads count for the BackPropagation baseline
+     */
+    public static final int BASELINE = 0;
+
+    private static final int BATCH_SIZE = 256;
+    private static final int EPOCHS = 5;
+
+    private final int threadsCount;
+    private DataSet dataSet;
+    private Double[] expectedWeights;
+
+    /**
+     * Creates new parallel training benchmark
+     *
+     * @param name         benchmark task name
+     * @param threadsCount number of worker threads, BASELINE for BackPropagation
+     */
+    public ParallelTrainingBenchmarkTask(String name, int threadsCount) {
+        super(name);
+        this.threadsCount = threadsCount;
+    }
+
+    @Override
+    public void prepareTest() {
+        Random random = new Random(1);
+        dataSet = new DataSet(64, 10);
+        for (int i = 0; i < 4096; i++) {
+            double[] input = new double[64];
+            for (int j = 0; j < input.length; j++) {
+                input[j] = random.nextDouble();
+            }
+            double[] output = new double[10];
+            output[random.nextInt(10)] = 1;
+            dataSet.addRow(input, output);
+        }
+        expectedWeights = null;
+    }
+
+    @Override
+    public void runTest() {
+        MultiLayerPerceptron network = new MultiLayerPerceptron(TransferFunctionType.SIGMOID, 64, 128, 10);
+        network.randomizeWeights(new Random(2));
+
+        BackPropagation learningRule = threadsCount == BASELINE ? new BackPropagation() : new DataParallelBackPropagation(threadsCount);
+        learningRule.setLearningRate(0.001);
+        learningRule.setMaxIterations(EPOCHS);
+        learningRule.setBatchSize(BATCH_SIZE);
+        network.setLearningRule(learningRule);
+        network.learn(dataSet);
+
+        Double[] weights = network.getWeights();
+        if (expectedWeights == null) {
+            expectedWeights = weights;
+        } else if (!Arrays.equals(expectedWeights, weights)) {
+            throw new IllegalStateException(getName() + ": weights differ between runs with the same number of threads");
+        }
+        System.out.println(getName() + ": error " + learningRule.getTotalNetworkError());
+    }
+
+    /**
+     * Runs parallel training benchmark for the baseline, and for 1, 2, 4, 8 and 16 worker threads.
+     * Speedup is limited by the number of available processors.
+     */
+    public static void run() {
+        System.out.println("Available processors: " + Runtime.getRuntime().availableProcessors());
+        Benchmark.runTask(configure(new ParallelTrainingBenchmarkTask("BackPropagation", BASELINE)));
+        for (int threadsCount : new int[]{1, 2, 4, 8, 16}) {
+            Benchmark.runTask(configure(new ParallelTrainingBenchmarkTask("DataParallelBackPropagation " + threadsCount + " threads", threadsCount)));
+        }
+    }
+
+    private static ParallelTrainingBenchmarkTask configure(ParallelTrainingBenchmarkTask task) {
+        task.setWarmupIterations(1);
+        task.setTestIterations(3);
+        return task;
+    }
+}
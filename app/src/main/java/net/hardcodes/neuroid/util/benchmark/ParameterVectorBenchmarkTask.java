@@ -0,0 +1,109 @@
+/**
+ * Copyright 2010 Neuroph Project http://neuroph.sourceforge.net
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.hardcodes.neuroid.util.benchmark;
+
+import net.hardcodes.neuroid.core.learning.ParameterVector;
+import net.hardcodes.neuroid.net.MultiLayerPerceptron;
+import net.hardcodes.neuroid.util.NeuralNetworkCODEC;
+
+/**
+ * Compares reading and writing all network weights with NeuralNetwork.getWeights() and setWeights(),
+ * which box each weight and allocate new arrays, against a ParameterVector, which reuses its value vector.
+ * runTest() reads all weights and writes them back.
+ * prepareTest() also checks that the parameter vector has the same order as getWeights(),
+ * and that NeuralNetworkCODEC decodes what it encodes.
+ *
+ * @see ParameterVector
+ */
+public class ParameterVectorBenchmarkTask extends BenchmarkTask {
+
+    private final int[] layerSizes;
+    private final boolean useParameterVector;
+    private MultiLayerPerceptron network;
+    private ParameterVector parameters;
+    private double[] weights;
+
+    /**
+     * Creates new parameter vector benchmark
+     *
+     * @param name               benchmark task name
+     * @param useParameterVector true to use ParameterVector, false to use getWeights() and setWeights()
+     * @param layerSizes         neuron counts of multi layer perceptron layers
+     */
+    public ParameterVectorBenchmarkTask(String name, boolean useParameterVector, int... layerSizes) {
+        super(name);
+        this.useParameterVector = useParameterVector;
+        this.layerSizes = layerSizes;
+    }
+
+    @Override
+    public void prepareTest() {
+        network = new MultiLayerPerceptron(layerSizes);
+        parameters = new ParameterVector(network);
+
+        Double[] boxed = network.getWeights();
+        double[] values = parameters.getValues();
+        if (boxed.length != parameters.size()) {
+            throw new IllegalStateException("Parameter vector size " + parameters.size() + " differs from weights count " + boxed.length + "!");
+        }
+        for (int i = 0; i < boxed.length; i++) {
+            if (boxed[i] != values[i]) {
+                throw new IllegalStateException("Parameter vector differs from getWeights() at index " + i + "!");
+            }
+        }
+
+        double[] encoded = new double[NeuralNetworkCODEC.determineArraySize(network)];
+        NeuralNetworkCODEC.network2array(network, encoded);
+        network.randomizeWeights();
+        NeuralNetworkCODEC.array2network(encoded, network);
+        double[] decoded = new double[encoded.length];
+        NeuralNetworkCODEC.network2array(network, decoded);
+        for (int i = 0; i < encoded.length; i++) {
+            if (encoded[i] != decoded[i]) {
+                throw new IllegalStateException("NeuralNetworkCODEC decoded different weight at index " + i + "!");
+            }
+        }
+
+        weights = new double[parameters.size()];
+    }
+
+    @Override
+    public void runTest() {
+        if (useParameterVector) {
+            parameters.read();
+            parameters.write();
+        } else {
+            Double[] boxed = network.getWeights();
+            for (int i = 0; i < boxed.length; i++) {
+                weights[i] = boxed[i];
+            }
+            network.setWeights(weights);
+        }
+    }
+
+    /**
+     * Runs parameter vector benchmark for 784-1000-1000-10 network, with and without ParameterVector
+     */
+    public static void run() {
+        for (boolean useParameterVector : new boolean[]{false, true}) {
+            ParameterVectorBenchmarkTask task = new ParameterVectorBenchmarkTask(useParameterVector ? "ParameterVector" : "getWeights()/setWeights()", useParameterVector, 784, 1000, 1000, 10);
+            task.setWarmupIterations(3);
+            task.setTestIterations(10);
+            Benchmark.runTask(task);
+        }
+    }
+}
@@ -0,0 +1,166 @@
+/**
+ * Copyright 2010 Neuroph Project http://neuroph.sourceforge.net
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.hardcodes.neuroid.util.benchmark;
+
+import net.hardcodes.neuroid.core.NeuralNetwork;
+import net.hardcodes.neuroid.core.compiled.QuantizedNetwork;
+import net.hardcodes.neuroid.core.data.DataSet;
+import net.hardcodes.neuroid.core.data.DataSetRow;
+import net.hardcodes.neuroid.net.ConvolutionalNetwork;
+import net.hardcodes.neuroid.net.MultiLayerPerceptron;
+import net.hardcodes.neuroid.net.comp.Kernel;
+import net.hardcodes.neuroid.net.comp.layer.Layer2D;
+import net.hardcodes.neuroid.net.learning.ConvolutionalBackpropagation;
+import net.hardcodes.neuroid.util.TransferFunctionType;
+
+import java.util.Random;
+
+/**
+ * Compares int8 quantized inference with double precision NeuralNetwork.calculate() for the specified
+ * network and test set. prepareTest() quantizes the network (calibrated on the test set) and prints
+ * the largest output difference, classification accuracy of both forms, weight memory and time per
+ * pattern. runTest() calculates the whole test set with the quantized network.
+ *
+ * @see QuantizedNetwork
+ */
+public class QuantizationBenchmarkTask extends BenchmarkTask {
+
+    private static final int TIMING_PASSES = 10;
+
+    private final NeuralNetwork network;
+    private final DataSet testSet;
+    private QuantizedNetwork quantizedNetwork;
+
+    /**
+     * Creates new quantization benchmark
+     *
+     * @param name    benchmark task name
+     * @param network network to quantize
+     * @param testSet test set used for calibration and comparison
+     */
+    public QuantizationBenchmarkTask(String name, NeuralNetwork network, DataSet testSet) {
+        super(name);
+        this.network = network;
+        this.testSet = testSet;
+    }
+
+    @Override
+    public void prepareTest() {
+        quantizedNetwork = network.quantize(testSet);
+
+        int rows = testSet.size();
+        double[][] expected = new double[rows][];
+        double[][] actual = null;
+        long graphTime = 0;
+        long quantizedTime = 0;
+        // time the last of several passes, so both forms are measured after JIT compilation
+        for (int pass = 0; pass < TIMING_PASSES; pass++) {
+            long start = System.nanoTime();
+            for (int r = 0; r < rows; r++) {
+                network.setInput(testSet.getRowAt(r).getInput());
+                network.calculate();
+                expected[r] = network.getOutput().clone();
+            }
+            graphTime = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            actual = quantizedNetwork.calculateBatch(testSet);
+            quantizedTime = System.nanoTime() - start;
+        }
+
+        double maxDiff = 0;
+        int graphCorrect = 0;
+        int quantizedCorrect = 0;
+        for (int r = 0; r < rows; r++) {
+            int desired = maxIndex(testSet.getRowAt(r).getDesiredOutput());
+            graphCorrect += (maxIndex(expected[r]) == desired) ? 1 : 0;
+            quantizedCorrect += (maxIndex(actual[r]) == desired) ? 1 : 0;
+            for (int i = 0; i < actual[r].length; i++) {
+                maxDiff = Math.max(maxDiff, Math.abs(expected[r][i] - actual[r][i]));
+            }
+        }
+
+        long weightsCount = quantizedNetwork.getCompiledNetwork().getWeightsCount();
+        System.out.println(getName() + ": max output difference " + maxDiff);
+        System.out.println("Accuracy double " + (double) graphCorrect / rows + ", int8 " + (double) quantizedCorrect / rows
+                + " (delta " + (double) (quantizedCorrect - graphCorrect) / rows + ")");
+        System.out.println("Weights double " + weightsCount * 8 / 1024 + " KB, int8 " + quantizedNetwork.getWeightsBytes() / 1024 + " KB");
+        System.out.println("Time per pattern double " + graphTime / rows + " ns, int8 " + quantizedTime / rows + " ns");
+    }
+
+    @Override
+    public void runTest() {
+        for (DataSetRow row : testSet.getRows()) {
+            quantizedNetwork.calculate(row.getInput());
+        }
+    }
+
+    private static int maxIndex(double[] values) {
+        int maxIndex = 0;
+        for (int i = 1; i < values.length; i++) {
+            if (values[i] > values[maxIndex]) {
+                maxIndex = i;
+            }
+        }
+        return maxIndex;
+    }
+
+    /**
+     * Runs quantization benchmark for a Multi Layer Perceptron and a Convolutional Network
+     * trained on a simple synthetic classification problem
+     */
+    public static void runMlpAndCnn() {
+        Random random = new Random(1);
+        int size = 12;
+        int classes = 4;
+        DataSet dataSet = new DataSet(size * size, classes);
+        for (int i = 0; i < 200; i++) {
+            int c = i % classes;
+            double[] input = new double[size * size];
+            for (int j = 0; j < input.length; j++) {
+                // each class lights up one quadrant of the image
+                boolean inQuadrant = ((j % size) < size / 2) == (c % 2 == 0) && ((j / size) < size / 2) == (c < 2);
+                input[j] = random.nextDouble() * 0.5 + (inQuadrant ? 0.5 : 0);
+            }
+            double[] output = new double[classes];
+            output[c] = 1;
+            dataSet.addRow(input, output);
+        }
+
+        MultiLayerPerceptron mlp = new MultiLayerPerceptron(TransferFunctionType.SIGMOID, size * size, 64, classes);
+        mlp.getLearningRule().setMaxIterations(20);
+        mlp.learn(dataSet);
+
+        ConvolutionalNetwork cnn = new ConvolutionalNetwork.ConvolutionalNetworkBuilder(new Layer2D.Dimensions(size, size), 1)
+                .withConvolutionLayer(new Kernel(3, 3), 4)
+                .withPoolingLayer(new Kernel(2, 2))
+                .withFullConnectedLayer(classes)
+                .createNetwork();
+        ConvolutionalBackpropagation cnnLearning = new ConvolutionalBackpropagation();
+        cnnLearning.setMaxIterations(10);
+        cnn.setLearningRule(cnnLearning);
+        cnn.learn(dataSet);
+
+        for (BenchmarkTask task : new BenchmarkTask[]{
+                new QuantizationBenchmarkTask("Int8 Multi Layer Perceptron", mlp, dataSet),
+                new QuantizationBenchmarkTask("Int8 Convolutional Network", cnn, dataSet)}) {
+            task.setWarmupIterations(3);
+            task.setTestIterations(5);
+            Benchmark.runTask(task);
+        }
+    }
+}
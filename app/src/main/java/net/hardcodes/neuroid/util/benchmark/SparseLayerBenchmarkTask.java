@@ -0,0 +1,122 @@
+/**
+ * Copyright 2010 Neuroph Project http://neuroph.sourceforge.net
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.hardcodes.neuroid.util.benchmark;
+
+import net.hardcodes.neuroid.core.Layer;
+import net.hardcodes.neuroid.core.NeuralNetwork;
+import net.hardcodes.neuroid.core.Neuron;
+import net.hardcodes.neuroid.core.compiled.CompiledLayer;
+import net.hardcodes.neuroid.core.compiled.CompiledNetwork;
+import net.hardcodes.neuroid.core.compiled.GradientSession;
+import net.hardcodes.neuroid.core.transfer.Linear;
+import net.hardcodes.neuroid.net.comp.neuron.InputNeuron;
+import net.hardcodes.neuroid.util.ConnectionFactory;
+import net.hardcodes.neuroid.util.NeuralNetworkFactory;
+import net.hardcodes.neuroid.util.NeuronProperties;
+
+import java.util.Random;
+
+/**
+ * Memory report and kernel benchmark for sparse compiled layers. prepareTest() connects two layers of the
+ * specified size, either with forward connections (each neuron to the neuron at the same position) or randomly
+ * with the specified density, compiles the network and prints heap bytes per connection of the network object
+ * graph and of the compressed sparse row representation in CompiledLayer. runTest() performs forward
+ * calculation, back propagation of errors and weight update with a GradientSession.
+ *
+ * @see CompiledLayer
+ */
+public class SparseLayerBenchmarkTask extends BenchmarkTask {
+
+    private final int size;
+    private final double density;
+    private GradientSession session;
+    private double[] input;
+    private double[] desiredOutput;
+
+    /**
+     * Creates new sparse layer benchmark
+     *
+     * @param size    number of neurons in connected layers
+     * @param density fraction of connected neuron pairs, or 0 for forward connections
+     */
+    public SparseLayerBenchmarkTask(int size, double density) {
+        super("Sparse layer " + size + "x" + size + (density == 0 ? ", forward connected" : ", density " + density));
+        this.size = size;
+        this.density = density;
+    }
+
+    @Override
+    public void prepareTest() {
+        Layer fromLayer = new Layer(size, new NeuronProperties(InputNeuron.class, Linear.class));
+        Layer toLayer = new Layer(size, new NeuronProperties());
+        Random random = new Random(1);
+
+        long before = usedMemory();
+        if (density == 0) {
+            ConnectionFactory.forwardConnect(fromLayer, toLayer, 0.5);
+        } else {
+            for (Neuron toNeuron : toLayer.getNeurons()) {
+                for (Neuron fromNeuron : fromLayer.getNeurons()) {
+                    if (random.nextDouble() < density) {
+                        ConnectionFactory.createConnection(fromNeuron, toNeuron, random.nextDouble() - 0.5);
+                    }
+                }
+            }
+        }
+        long graphBytes = usedMemory() - before;
+
+        NeuralNetwork network = new NeuralNetwork();
+        network.addLayer(fromLayer);
+        network.addLayer(toLayer);
+        NeuralNetworkFactory.setDefaultIO(network);
+
+        before = usedMemory();
+        CompiledNetwork compiledNetwork = network.compile();
+        long compiledBytes = usedMemory() - before;
+
+        CompiledLayer sparseLayer = compiledNetwork.getLayers()[1];
+        int connectionsCount = sparseLayer.getWeightsCount();
+        System.out.println(getName() + ": " + connectionsCount + " connections, dense " + sparseLayer.isDense());
+        System.out.println("Object graph: " + (double) graphBytes / connectionsCount + " bytes per connection");
+        System.out.println("Compiled network: " + (double) compiledBytes / connectionsCount + " bytes per connection (CSR arrays "
+                + (double) sparseLayer.getConnectionBytes() / connectionsCount + ")");
+
+        session = compiledNetwork.createGradientSession();
+        input = new double[size];
+        desiredOutput = new double[size];
+        for (int i = 0; i < size; i++) {
+            input[i] = random.nextDouble();
+            desiredOutput[i] = 0.5;
+        }
+    }
+
+    @Override
+    public void runTest() {
+        for (int i = 0; i < 100; i++) {
+            session.accumulate(input, desiredOutput);
+            session.descend(0.01, 0);
+        }
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,181 @@
+/**
+ * Copyright 2010 Neuroph Project http://neuroph.sourceforge.net
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.hardcodes.neuroid.util.benchmark;
+
+import net.hardcodes.neuroid.core.data.DataSet;
+import net.hardcodes.neuroid.core.learning.error.ErrorFunction;
+import net.hardcodes.neuroid.core.learning.error.MeanSquaredError;
+import net.hardcodes.neuroid.net.MultiLayerPerceptron;
+import net.hardcodes.neuroid.net.learning.BackPropagation;
+
+import java.lang.reflect.Method;
+
+/**
+ * Measures heap allocation of the training loop for the specified learning rule
+ * (BackPropagation, MomentumBackpropagation, ResilientPropagation...) on a Multi Layer Perceptron.
+ * Allocated bytes are read from the JVM ThreadMXBean (com.sun.management extension), which is looked up
+ * with reflection since it is not available on all platforms (Android). runTest() learns for 1 epoch and for
+ * 1 + 20 epochs, and takes the difference of allocated bytes, so allocations made once per learn() call
+ * (like learning rule training data created in onStart) are not counted. It throws IllegalStateException
+ * if not all patterns were learned, and stores allocated bytes per pattern, which TrainingAllocationTest
+ * checks to be under one byte.
+ */
+public class TrainingAllocationTask extends BenchmarkTask {
+
+    private final BackPropagation learningRule;
+    private final int epochs = 20;
+    private MultiLayerPerceptron network;
+    private DataSet trainingSet;
+    private PatternCounter patternCounter;
+    private Object threadBean;
+    private Method allocatedBytesMethod;
+    private double bytesPerPattern = Double.NaN;
+
+    /**
+     * Creates new allocation test for the specified learning rule
+     *
+     * @param name         benchmark task name
+     * @param learningRule learning rule to test
+     */
+    public TrainingAllocationTask(String name, BackPropagation learningRule) {
+        super(name);
+        this.learningRule = learningRule;
+    }
+
+    @Override
+    public void prepareTest() {
+        int inputSize = 20;
+        int outputSize = 5;
+        trainingSet = new DataSet(inputSize, outputSize);
+        for (int i = 0; i < 200; i++) {
+            double[] input = new double[inputSize];
+            for (int j = 0; j < inputSize; j++) {
+                input[j] = Math.random();
+            }
+            double[] output = new double[outputSize];
+            output[i % outputSize] = 1;
+            trainingSet.addRow(input, output);
+        }
+
+        network = new MultiLayerPerceptron(inputSize, 30, outputSize);
+        network.setLearningRule(learningRule);
+        patternCounter = new PatternCounter();
+        learningRule.setErrorFunction(patternCounter);
+        // learn for fixed number of epochs, without stopping at max error
+        learningRule.setMaxError(0);
+        // first learning run initializes learning rule specific training data
+        learningRule.setMaxIterations(1);
+        network.learn(trainingSet);
+
+        try {
+            Class managementFactory = Class.forName("java.lang.management.ManagementFactory");
+            threadBean = managementFactory.getMethod("getThreadMXBean").invoke(null);
+            allocatedBytesMethod = Class.forName("com.sun.management.ThreadMXBean")
+                    .getMethod("getThreadAllocatedBytes", long.class);
+            // reflective calls allocate until they are optimized by the JVM, so call it enough times before measuring
+            for (int i = 0; i < 20; i++) {
+                allocatedBytes();
+            }
+        } catch (Exception ex) {
+            threadBean = null;
+            System.out.println("Allocated bytes measurement is not supported on this platform");
+        }
+    }
+
+    @Override
+    public void runTest() {
+        learningRule.setMaxIterations(1);
+        long before = allocatedBytes();
+        network.learn(trainingSet);
+        long singleEpochBytes = allocatedBytes() - before;
+
+        learningRule.setMaxIterations(1 + epochs);
+        long patternsBefore = patternCounter.count;
+        before = allocatedBytes();
+        network.learn(trainingSet);
+        long bytes = allocatedBytes() - before;
+
+        long learnedPatterns = patternCounter.count - patternsBefore;
+        long expectedPatterns = (long) (1 + epochs) * trainingSet.size();
+        if (learningRule.getCurrentIteration() != 1 + epochs || learnedPatterns != expectedPatterns) {
+            throw new IllegalStateException("Learned " + learnedPatterns + " patterns in " + learningRule.getCurrentIteration()
+                    + " epochs instead of " + expectedPatterns + " patterns in " + (1 + epochs) + " epochs!");
+        }
+        if (threadBean == null) {
+            return;
+        }
+
+        double bytesPerEpoch = (double) (bytes - singleEpochBytes) / epochs;
+        bytesPerPattern = bytesPerEpoch / trainingSet.size();
+        System.out.println(getName() + ": " + bytesPerEpoch + " bytes per epoch, " + bytesPerPattern + " bytes per pattern");
+    }
+
+    /**
+     * Returns true if allocated bytes can be measured on this platform
+     *
+     * @return true if ThreadMXBean with allocated bytes is available
+     */
+    public boolean isAllocationMeasured() {
+        return threadBean != null;
+    }
+
+    /**
+     * Returns average bytes allocated per learned pattern in the last runTest()
+     *
+     * @return allocated bytes per pattern, or NaN if allocation was not measured
+     */
+    public double getBytesPerPattern() {
+        return bytesPerPattern;
+    }
+
+    /**
+     * Mean squared error which counts learned patterns
+     */
+    private static class PatternCounter implements ErrorFunction {
+
+        private final MeanSquaredError error = new MeanSquaredError();
+        private long count;
+
+        @Override
+        public double getTotalError() {
+            return error.getTotalError();
+        }
+
+        @Override
+        public void reset() {
+            error.reset();
+        }
+
+        @Override
+        public double[] calculatePatternError(double[] predictedOutput, double[] targetOutput) {
+            count++;
+            return error.calculatePatternError(predictedOutput, targetOutput);
+        }
+    }
+
+    private long allocatedBytes() {
+        if (threadBean == null) {
+            return 0;
+        }
+        try {
+            return (Long) allocatedBytesMethod.invoke(threadBean, Thread.currentThread().getId());
+        } catch (Exception ex) {
+            threadBean = null;
+            return 0;
+        }
+    }
+}
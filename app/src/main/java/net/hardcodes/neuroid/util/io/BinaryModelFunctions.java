@@ -0,0 +1,264 @@
+/**
+ * Copyright 2010 Neuroph Project http://neuroph.sourceforge.net
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.hardcodes.neuroid.util.io;
+
+import net.hardcodes.neuroid.core.input.And;
+import net.hardcodes.neuroid.core.input.Difference;
+import net.hardcodes.neuroid.core.input.InputFunction;
+import net.hardcodes.neuroid.core.input.Max;
+import net.hardcodes.neuroid.core.input.Min;
+import net.hardcodes.neuroid.core.input.Or;
+import net.hardcodes.neuroid.core.input.Product;
+import net.hardcodes.neuroid.core.input.Sum;
+import net.hardcodes.neuroid.core.input.SumSqr;
+import net.hardcodes.neuroid.core.input.WeightedSum;
+import net.hardcodes.neuroid.core.transfer.FastGaussian;
+import net.hardcodes.neuroid.core.transfer.FastSigmoid;
+import net.hardcodes.neuroid.core.transfer.FastTanh;
+import net.hardcodes.neuroid.core.transfer.Gaussian;
+import net.hardcodes.neuroid.core.transfer.Linear;
+import net.hardcodes.neuroid.core.transfer.Log;
+import net.hardcodes.neuroid.core.transfer.Ramp;
+import net.hardcodes.neuroid.core.transfer.RectifiedLinear;
+import net.hardcodes.neuroid.core.transfer.Sgn;
+import net.hardcodes.neuroid.core.transfer.Sigmoid;
+import net.hardcodes.neuroid.core.transfer.Sin;
+import net.hardcodes.neuroid.core.transfer.Step;
+import net.hardcodes.neuroid.core.transfer.Tanh;
+import net.hardcodes.neuroid.core.transfer.TransferFunction;
+import net.hardcodes.neuroid.core.transfer.Trapezoid;
+
+import java.nio.ByteBuffer;
+
+/**
+ * <pre>
+ * Function table of the binary model format. Each input and transfer function is written as a type id byte,
+ * parameters count byte and parameter values (doubles), so model files contain only data and are never
+ * deserialized into arbitrary classes. Only the input and transfer functions of the core packages are supported,
+ * by exact class: subclasses and other functions are rejected when written, and unknown type ids when read.
+ *
+ * Type ids and parameters:
+ *  input functions    0 WeightedSum, 1 Sum, 2 SumSqr, 3 Product, 4 Min, 5 Max, 6 And, 7 Or, 8 Difference
+ *  transfer functions 16 Linear (slope), 17 Sigmoid (slope), 18 Tanh (slope), 19 Gaussian (sigma),
+ *                     20 Step (yHigh, yLow), 21 Ramp (slope, xLow, xHigh, yLow, yHigh),
+ *                     22 Trapezoid (leftLow, leftHigh, rightLow, rightHigh), 23 Sgn, 24 Log, 25 Sin,
+ *                     26 RectifiedLinear, 27 FastSigmoid (slope), 28 FastTanh (slope), 29 FastGaussian (sigma)
+ * </pre>
+ *
+ * @see BinaryModelWriter
+ * @see BinaryModelReader
+ */
+public class BinaryModelFunctions {
+
+    /**
+     * Function classes, indexed by type id
+     */
+    private static final Class[] TYPES = new Class[30];
+
+    /**
+     * Number of parameters of each function type
+     */
+    private static final int[] PARAMETERS_COUNTS = new int[30];
+
+    static {
+        Class[] inputFunctions = {WeightedSum.class, Sum.class, SumSqr.class, Product.class, Min.class, Max.class,
+                And.class, Or.class, Difference.class};
+        System.arraycopy(inputFunctions, 0, TYPES, 0, inputFunctions.length);
+
+        Class[] transferFunctions = {Linear.class, Sigmoid.class, Tanh.class, Gaussian.class, Step.class, Ramp.class,
+                Trapezoid.class, Sgn.class, Log.class, Sin.class, RectifiedLinear.class, FastSigmoid.class,
+                FastTanh.class, FastGaussian.class};
+        int[] parametersCounts = {1, 1, 1, 1, 2, 5, 4, 0, 0, 0, 0, 1, 1, 1};
+        System.arraycopy(transferFunctions, 0, TYPES, 16, transferFunctions.length);
+        System.arraycopy(parametersCounts, 0, PARAMETERS_COUNTS, 16, parametersCounts.length);
+    }
+
+    private BinaryModelFunctions() {
+    }
+
+    /**
+     * Returns type id of the specified function
+     *
+     * @param function input or transfer function
+     * @return function type id
+     * @throws NeurophOutputException if function is not supported by binary model format
+     */
+    public static byte getType(Object function) {
+        for (int type = 0; type < TYPES.length; type++) {
+            if (TYPES[type] == function.getClass()) {
+                return (byte) type;
+            }
+        }
+        throw new NeurophOutputException("Function " + function.getClass().getName() + " is not supported by binary model format!");
+    }
+
+    /**
+     * Returns parameter values of the specified function, in the order of its type
+     *
+     * @param function input or transfer function
+     * @return parameter values
+     */
+    public static double[] getParameters(Object function) {
+        switch (getType(function)) {
+            case 16:
+                return new double[]{((Linear) function).getSlope()};
+            case 17:
+            case 27:
+                return new double[]{((Sigmoid) function).getSlope()};
+            case 18:
+            case 28:
+                return new double[]{((Tanh) function).getSlope()};
+            case 19:
+            case 29:
+                return new double[]{((Gaussian) function).getSigma()};
+            case 20:
+                Step step = (Step) function;
+                return new double[]{step.getYHigh(), step.getYLow()};
+            case 21:
+                Ramp ramp = (Ramp) function;
+                return new double[]{ramp.getSlope(), ramp.getXLow(), ramp.getXHigh(), ramp.getYLow(), ramp.getYHigh()};
+            case 22:
+                Trapezoid trapezoid = (Trapezoid) function;
+                return new double[]{trapezoid.getLeftLow(), trapezoid.getLeftHigh(), trapezoid.getRightLow(), trapezoid.getRightHigh()};
+            default:
+                return new double[0];
+        }
+    }
+
+    /**
+     * Reads function table: functions count, then type id, parameters count and parameters of each function
+     *
+     * @param buffer buffer positioned at the function table
+     * @return functions, indexed by function id
+     * @throws NeurophInputException if table contains unknown type id or wrong number of parameters
+     */
+    public static Object[] read(ByteBuffer buffer) {
+        int count = buffer.getInt();
+        // each function takes at least two bytes
+        if (count < 0 || count > buffer.remaining() / 2) {
+            throw new NeurophInputException("Function table is corrupted!");
+        }
+        Object[] functions = new Object[count];
+        for (int i = 0; i < functions.length; i++) {
+            int type = buffer.get();
+            int parametersCount = buffer.get();
+            if (type < 0 || type >= TYPES.length || TYPES[type] == null) {
+                throw new NeurophInputException("Unknown function type " + type + "!");
+            }
+            if (parametersCount != PARAMETERS_COUNTS[type]) {
+                throw new NeurophInputException("Function " + TYPES[type].getSimpleName() + " has " + PARAMETERS_COUNTS[type]
+                        + " parameters, not " + parametersCount + "!");
+            }
+            double[] parameters = new double[parametersCount];
+            for (int p = 0; p < parametersCount; p++) {
+                parameters[p] = buffer.getDouble();
+            }
+            functions[i] = create(type, parameters);
+        }
+        return functions;
+    }
+
+    /**
+     * Returns input function with the specified id from the function table
+     *
+     * @param functions function table
+     * @param id        function id
+     * @return input function
+     * @throws NeurophInputException if function is not an input function
+     */
+    public static InputFunction getInputFunction(Object[] functions, int id) {
+        if (!(functions[id] instanceof InputFunction)) {
+            throw new NeurophInputException("Function " + id + " is not an input function!");
+        }
+        return (InputFunction) functions[id];
+    }
+
+    /**
+     * Returns transfer function with the specified id from the function table
+     *
+     * @param functions function table
+     * @param id        function id
+     * @return transfer function
+     * @throws NeurophInputException if function is not a transfer function
+     */
+    public static TransferFunction getTransferFunction(Object[] functions, int id) {
+        if (!(functions[id] instanceof TransferFunction)) {
+            throw new NeurophInputException("Function " + id + " is not a transfer function!");
+        }
+        return (TransferFunction) functions[id];
+    }
+
+    private static Object create(int type, double[] parameters) {
+        switch (type) {
+            case 0:
+                return new WeightedSum();
+            case 1:
+                return new Sum();
+            case 2:
+                return new SumSqr();
+            case 3:
+                return new Product();
+            case 4:
+                return new Min();
+            case 5:
+                return new Max();
+            case 6:
+                return new And();
+            case 7:
+                return new Or();
+            case 8:
+                return new Difference();
+            case 16:
+                return new Linear(parameters[0]);
+            case 17:
+                return new Sigmoid(parameters[0]);
+            case 18:
+                return new Tanh(parameters[0]);
+            case 19:
+                Gaussian gaussian = new Gaussian();
+                gaussian.setSigma(parameters[0]);
+                return gaussian;
+            case 20:
+                Step step = new Step();
+                step.setYHigh(parameters[0]);
+                step.setYLow(parameters[1]);
+                return step;
+            case 21:
+                return new Ramp(parameters[0], parameters[1], parameters[2], parameters[3], parameters[4]);
+            case 22:
+                return new Trapezoid(parameters[0], parameters[1], parameters[2], parameters[3]);
+            case 23:
+                return new Sgn();
+            case 24:
+                return new Log();
+            case 25:
+                return new Sin();
+            case 26:
+                return new RectifiedLinear();
+            case 27:
+                return new FastSigmoid(parameters[0]);
+            case 28:
+                return new FastTanh(parameters[0]);
+            case 29:
+                FastGaussian fastGaussian = new FastGaussian();
+                fastGaussian.setSigma(parameters[0]);
+                return fastGaussian;
+            default:
+                throw new NeurophInputException("Unknown function type " + type + "!");
+        }
+    }
+}
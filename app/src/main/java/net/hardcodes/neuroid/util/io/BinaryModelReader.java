@@ -0,0 +1,199 @@
+/**
+ * Copyright 2010 Neuroph Project http://neuroph.sourceforge.net
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.hardcodes.neuroid.util.io;
+
+import net.hardcodes.neuroid.core.Connection;
+import net.hardcodes.neuroid.core.Layer;
+import net.hardcodes.neuroid.core.NeuralNetwork;
+import net.hardcodes.neuroid.core.Neuron;
+import net.hardcodes.neuroid.core.Weight;
+import net.hardcodes.neuroid.core.input.InputFunction;
+import net.hardcodes.neuroid.core.transfer.TransferFunction;
+import net.hardcodes.neuroid.net.comp.neuron.BiasNeuron;
+import net.hardcodes.neuroid.net.comp.neuron.InputNeuron;
+import net.hardcodes.neuroid.net.comp.neuron.ThresholdNeuron;
+import net.hardcodes.neuroid.util.NeuralNetworkType;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+/**
+ * Reads neural networks written by BinaryModelWriter. The file is memory mapped and parsed in one pass,
+ * and connections of each neuron are added in bulk.
+ * Network is loaded as NeuralNetwork (input layers as Layer), without learning rule and plugins.
+ *
+ * @see BinaryModelWriter
+ */
+public class BinaryModelReader {
+
+    private final File file;
+
+    /**
+     * Creates reader for the specified file
+     *
+     * @param file model file
+     */
+    public BinaryModelReader(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Reads neural network from the specified file
+     *
+     * @param file model file
+     * @return loaded neural network
+     */
+    public static NeuralNetwork load(File file) {
+        return new BinaryModelReader(file).read();
+    }
+
+    /**
+     * Reads neural network from the model file
+     *
+     * @return loaded neural network
+     * @throws NeurophInputException if file can not be read or is not a valid model file
+     */
+    public NeuralNetwork read() {
+        FileInputStream in = null;
+        try {
+            in = new FileInputStream(file);
+            FileChannel channel = in.getChannel();
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.LITTLE_ENDIAN);
+            return read(buffer);
+        } catch (IOException ex) {
+            throw new NeurophInputException("Could not read model file " + file + "!", ex);
+        } catch (RuntimeException ex) {
+            if (ex instanceof NeurophInputException) {
+                throw ex;
+            }
+            throw new NeurophInputException("Model file " + file + " is corrupted!", ex);
+        } finally {
+            if (in != null) {
+                try {
+                    in.close();
+                } catch (IOException ex) {
+                }
+            }
+        }
+    }
+
+    private static NeuralNetwork read(ByteBuffer buffer) {
+        if (buffer.remaining() < 8 || buffer.getInt() != BinaryModelWriter.MAGIC) {
+            throw new NeurophInputException("Not a binary model file!");
+        }
+        int version = buffer.getInt();
+        if (version != BinaryModelWriter.VERSION) {
+            throw new NeurophInputException("Unsupported binary model version " + version + "!");
+        }
+        int neuronsCount = buffer.getInt();
+        long weightsCount = buffer.getLong();
+
+        NeuralNetwork network = new NeuralNetwork();
+        network.setLabel(getString(buffer));
+        String type = getString(buffer);
+        if (type != null) {
+            network.setNetworkType(NeuralNetworkType.valueOf(type));
+        }
+        Object[] functions = BinaryModelFunctions.read(buffer);
+
+        // neurons of all layers, in network order
+        Neuron[] neurons = new Neuron[neuronsCount];
+        int n = 0;
+        int layersCount = buffer.getInt();
+        for (int l = 0; l < layersCount; l++) {
+            String label = getString(buffer);
+            int layerSize = buffer.getInt();
+            Layer layer = new Layer(layerSize);
+            layer.setLabel(label);
+            for (int i = 0; i < layerSize; i++) {
+                byte kind = buffer.get();
+                InputFunction inputFunction = BinaryModelFunctions.getInputFunction(functions, buffer.getInt());
+                TransferFunction transferFunction = BinaryModelFunctions.getTransferFunction(functions, buffer.getInt());
+                Neuron neuron;
+                if (kind == BinaryModelWriter.NEURON) {
+                    neuron = new Neuron(inputFunction, transferFunction);
+                } else if (kind == BinaryModelWriter.INPUT) {
+                    neuron = new InputNeuron();
+                } else if (kind == BinaryModelWriter.BIAS) {
+                    neuron = new BiasNeuron();
+                } else if (kind == BinaryModelWriter.THRESHOLD) {
+                    ThresholdNeuron thresholdNeuron = new ThresholdNeuron(inputFunction, transferFunction);
+                    thresholdNeuron.setThresh(buffer.getDouble());
+                    neuron = thresholdNeuron;
+                } else {
+                    throw new NeurophInputException("Unknown neuron kind " + kind + "!");
+                }
+                neuron.setInputFunction(inputFunction);
+                neuron.setTransferFunction(transferFunction);
+                neuron.setLabel(getString(buffer));
+                layer.addNeuron(neuron);
+                neurons[n++] = neuron;
+            }
+            network.addLayer(layer);
+        }
+        if (n != neuronsCount) {
+            throw new NeurophInputException("Model file has " + n + " neurons instead of " + neuronsCount + "!");
+        }
+
+        // weights are the last block of the file
+        long weightsOffset = buffer.limit() - weightsCount * 8;
+        ByteBuffer weights = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        weights.position((int) weightsOffset);
+        for (Neuron neuron : neurons) {
+            Connection[] connections = new Connection[buffer.getInt()];
+            for (int i = 0; i < connections.length; i++) {
+                connections[i] = new Connection(neurons[buffer.getInt()], neuron, new Weight(weights.getDouble()));
+            }
+            if (connections.length > 0) {
+                neuron.addInputConnections(connections);
+            }
+        }
+        for (Neuron neuron : neurons) {
+            neuron.trimConnections();
+        }
+
+        network.setInputNeurons(getNeurons(buffer, neurons));
+        network.setOutputNeurons(getNeurons(buffer, neurons));
+
+        if ((buffer.position() + 7) / 8 * 8 != weightsOffset) {
+            throw new NeurophInputException("Weights block does not follow network structure!");
+        }
+        return network;
+    }
+
+    private static Neuron[] getNeurons(ByteBuffer buffer, Neuron[] neurons) {
+        Neuron[] result = new Neuron[buffer.getInt()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = neurons[buffer.getInt()];
+        }
+        return result;
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, BinaryModelWriter.UTF8);
+    }
+}
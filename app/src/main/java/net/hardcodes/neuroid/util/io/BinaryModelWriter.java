@@ -0,0 +1,347 @@
+/**
+ * Copyright 2010 Neuroph Project http://neuroph.sourceforge.net
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.hardcodes.neuroid.util.io;
+
+import net.hardcodes.neuroid.core.Connection;
+import net.hardcodes.neuroid.core.Layer;
+import net.hardcodes.neuroid.core.NeuralNetwork;
+import net.hardcodes.neuroid.core.Neuron;
+import net.hardcodes.neuroid.net.comp.layer.InputLayer;
+import net.hardcodes.neuroid.net.comp.neuron.BiasNeuron;
+import net.hardcodes.neuroid.net.comp.neuron.InputNeuron;
+import net.hardcodes.neuroid.net.comp.neuron.ThresholdNeuron;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <pre>
+ * Writes neural networks in compact binary model format, which is read by BinaryModelReader.
+ * Network is written straight from its layers through a small buffer, so the file is never built in memory.
+ *
+ * File layout (version 2, all numbers little-endian):
+ *  magic             4 bytes "NRDM"
+ *  version           int
+ *  neurons count     int
+ *  weights count     long
+ *  network label     string (int byte length, -1 for null, then UTF-8 bytes)
+ *  network type      string (NeuralNetworkType name)
+ *  functions         int count, then for each distinct input and transfer function instance: type id byte,
+ *                    parameters count byte and parameter doubles (see BinaryModelFunctions)
+ *  layers            int count, then for each layer: label, neurons count, and for each neuron:
+ *                    kind byte (neuron, input, bias, threshold), input function id, transfer function id,
+ *                    threshold (double, threshold neurons only) and label
+ *  connections       for each neuron in network order: input connections count, then source neuron indexes
+ *  input neurons     int count, then neuron indexes
+ *  output neurons    int count, then neuron indexes
+ *  padding           zeros up to a multiple of 8 bytes
+ *  weights           double for each connection, in the same order as connections, so weights are one
+ *                    contiguous block at the end of the file. A weight shared by several connections is
+ *                    written for each of them, so the order matches ParameterVector only if no weight is shared
+ *
+ * Function ids are indexes into the function table, so shared function instances stay shared after loading.
+ * Supported are networks of Layer and InputLayer layers, with Neuron, InputNeuron, BiasNeuron and ThresholdNeuron
+ * neurons, input and transfer functions from the core packages and plain connections, like multi layer perceptrons.
+ * Learning rule and plugins are not written.
+ * </pre>
+ *
+ * @see BinaryModelReader
+ */
+public class BinaryModelWriter implements Closeable {
+
+    /**
+     * First four bytes of every model file, "NRDM"
+     */
+    public static final int MAGIC = 'N' | 'R' << 8 | 'D' << 16 | 'M' << 24;
+
+    /**
+     * Format version written by this writer
+     */
+    public static final int VERSION = 2;
+
+    /**
+     * Neuron kinds: Neuron, InputNeuron, BiasNeuron and ThresholdNeuron
+     */
+    public static final byte NEURON = 0;
+    public static final byte INPUT = 1;
+    public static final byte BIAS = 2;
+    public static final byte THRESHOLD = 3;
+
+    /**
+     * Charset of all strings
+     */
+    public static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+    /**
+     * Number of bytes written so far, used for alignment of the weights block
+     */
+    private long position;
+
+    /**
+     * Creates writer for the specified channel
+     *
+     * @param channel channel to write into
+     */
+    public BinaryModelWriter(WritableByteChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * Creates writer for the specified file
+     *
+     * @param file file to write into
+     */
+    public BinaryModelWriter(File file) {
+        try {
+            this.channel = new FileOutputStream(file).getChannel();
+        } catch (IOException ex) {
+            throw new NeurophOutputException("Could not open model file " + file + "!", ex);
+        }
+    }
+
+    /**
+     * Writes the specified neural network into the specified file
+     *
+     * @param network neural network to write
+     * @param file    file to write into
+     */
+    public static void save(NeuralNetwork network, File file) {
+        BinaryModelWriter writer = new BinaryModelWriter(file);
+        try {
+            writer.write(network);
+        } finally {
+            writer.close();
+        }
+    }
+
+    /**
+     * Writes the specified neural network
+     *
+     * @param network neural network to write
+     * @throws NeurophOutputException if network has unsupported layers, neurons or connections,
+     *                                or if writing fails
+     */
+    public void write(NeuralNetwork network) {
+        // first pass: check structure, number neurons, and collect distinct functions
+        Layer[] layers = network.getLayers();
+        Map<Neuron, Integer> neuronIndexes = new IdentityHashMap<>();
+        Map<Object, Integer> functionIds = new IdentityHashMap<>();
+        List<Object> functions = new ArrayList<>();
+        long weightsCount = 0;
+        for (Layer layer : layers) {
+            if (layer.getClass() != Layer.class && layer.getClass() != InputLayer.class) {
+                throw new NeurophOutputException("Layer type " + layer.getClass().getName() + " is not supported by binary model format!");
+            }
+            for (Neuron neuron : layer.getNeurons()) {
+                kindOf(neuron);
+                neuronIndexes.put(neuron, neuronIndexes.size());
+                addFunction(neuron.getInputFunction(), functionIds, functions);
+                addFunction(neuron.getTransferFunction(), functionIds, functions);
+                for (Connection connection : neuron.getInputConnections()) {
+                    if (connection.getClass() != Connection.class) {
+                        throw new NeurophOutputException("Connection type " + connection.getClass().getName() + " is not supported by binary model format!");
+                    }
+                }
+                weightsCount += neuron.getInputConnections().length;
+            }
+        }
+
+        try {
+            putInt(MAGIC);
+            putInt(VERSION);
+            putInt(neuronIndexes.size());
+            putLong(weightsCount);
+            putString(network.getLabel());
+            putString(network.getNetworkType() != null ? network.getNetworkType().name() : null);
+            putInt(functions.size());
+            for (Object function : functions) {
+                double[] parameters = BinaryModelFunctions.getParameters(function);
+                ensure(2);
+                buffer.put(BinaryModelFunctions.getType(function));
+                buffer.put((byte) parameters.length);
+                position += 2;
+                for (double parameter : parameters) {
+                    putDouble(parameter);
+                }
+            }
+
+            putInt(layers.length);
+            for (Layer layer : layers) {
+                putString(layer.getLabel());
+                Neuron[] neurons = layer.getNeurons();
+                putInt(neurons.length);
+                for (Neuron neuron : neurons) {
+                    byte kind = kindOf(neuron);
+                    ensure(9);
+                    buffer.put(kind);
+                    buffer.putInt(functionIds.get(neuron.getInputFunction()));
+                    buffer.putInt(functionIds.get(neuron.getTransferFunction()));
+                    position += 9;
+                    if (kind == THRESHOLD) {
+                        putDouble(((ThresholdNeuron) neuron).getThresh());
+                    }
+                    putString(neuron.getLabel());
+                }
+            }
+
+            for (Layer layer : layers) {
+                for (Neuron neuron : layer.getNeurons()) {
+                    Connection[] connections = neuron.getInputConnections();
+                    putInt(connections.length);
+                    for (Connection connection : connections) {
+                        putInt(neuronIndex(neuronIndexes, connection.getFromNeuron()));
+                    }
+                }
+            }
+
+            putNeuronIndexes(neuronIndexes, network.getInputNeurons());
+            putNeuronIndexes(neuronIndexes, network.getOutputNeurons());
+
+            while (position % 8 != 0) {
+                ensure(1);
+                buffer.put((byte) 0);
+                position++;
+            }
+            for (Layer layer : layers) {
+                for (Neuron neuron : layer.getNeurons()) {
+                    for (Connection connection : neuron.getInputConnections()) {
+                        putDouble(connection.getWeight().value);
+                    }
+                }
+            }
+            flushBuffer();
+        } catch (IOException ex) {
+            throw new NeurophOutputException("Could not write neural network model!", ex);
+        }
+    }
+
+    private static byte kindOf(Neuron neuron) {
+        Class type = neuron.getClass();
+        if (type == Neuron.class) {
+            return NEURON;
+        } else if (type == InputNeuron.class) {
+            return INPUT;
+        } else if (type == BiasNeuron.class) {
+            return BIAS;
+        } else if (type == ThresholdNeuron.class) {
+            return THRESHOLD;
+        }
+        throw new NeurophOutputException("Neuron type " + type.getName() + " is not supported by binary model format!");
+    }
+
+    private static void addFunction(Object function, Map<Object, Integer> functionIds, List<Object> functions) {
+        if (!functionIds.containsKey(function)) {
+            BinaryModelFunctions.getType(function);
+            functionIds.put(function, functions.size());
+            functions.add(function);
+        }
+    }
+
+    private static int neuronIndex(Map<Neuron, Integer> neuronIndexes, Neuron neuron) {
+        Integer index = neuronIndexes.get(neuron);
+        if (index == null) {
+            throw new NeurophOutputException("Connected neuron is not in network layers!");
+        }
+        return index;
+    }
+
+    private void putNeuronIndexes(Map<Neuron, Integer> neuronIndexes, Neuron[] neurons) throws IOException {
+        putInt(neurons.length);
+        for (Neuron neuron : neurons) {
+            putInt(neuronIndex(neuronIndexes, neuron));
+        }
+    }
+
+    private void putInt(int value) throws IOException {
+        ensure(4);
+        buffer.putInt(value);
+        position += 4;
+    }
+
+    private void putLong(long value) throws IOException {
+        ensure(8);
+        buffer.putLong(value);
+        position += 8;
+    }
+
+    private void putDouble(double value) throws IOException {
+        ensure(8);
+        buffer.putDouble(value);
+        position += 8;
+    }
+
+    private void putString(String value) throws IOException {
+        if (value == null) {
+            putInt(-1);
+        } else {
+            putBytes(value.getBytes(UTF8));
+        }
+    }
+
+    private void putBytes(byte[] bytes) throws IOException {
+        putInt(bytes.length);
+        int offset = 0;
+        while (offset < bytes.length) {
+            ensure(1);
+            int length = Math.min(buffer.remaining(), bytes.length - offset);
+            buffer.put(bytes, offset, length);
+            offset += length;
+        }
+        position += bytes.length;
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flushBuffer();
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Closes underlying channel
+     */
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException ex) {
+            throw new NeurophOutputException("Error closing model file!", ex);
+        }
+    }
+}
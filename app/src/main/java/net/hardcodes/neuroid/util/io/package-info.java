@@ -1,4 +1,4 @@
 /**
- * Provides input/output adapters for file, JDBC, URL, stream
+ * Provides input/output adapters for file, JDBC, URL, stream, and binary model format reader and writer
  */
 package net.hardcodes.neuroid.util.io;
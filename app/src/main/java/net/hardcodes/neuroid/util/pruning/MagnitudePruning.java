@@ -0,0 +1,392 @@
+/**
+ * Copyright 2010 Neuroph Project http://neuroph.sourceforge.net
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.hardcodes.neuroid.util.pruning;
+
+import net.hardcodes.neuroid.core.Connection;
+import net.hardcodes.neuroid.core.Layer;
+import net.hardcodes.neuroid.core.NeuralNetwork;
+import net.hardcodes.neuroid.core.Neuron;
+import net.hardcodes.neuroid.core.compiled.CompiledNetwork;
+import net.hardcodes.neuroid.core.data.DataSet;
+import net.hardcodes.neuroid.core.data.DataSetRow;
+import net.hardcodes.neuroid.core.exceptions.NeurophException;
+import net.hardcodes.neuroid.core.learning.IterativeLearning;
+import net.hardcodes.neuroid.core.learning.LearningRule;
+import net.hardcodes.neuroid.net.comp.neuron.BiasNeuron;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * <pre>
+ * Magnitude based weight pruning. Connections with the smallest absolute weight values are physically
+ * removed from the network, either below a fixed threshold or up to the target fraction of connections
+ * (sparsity), for the whole network at once or for each layer separately. Connections from bias neurons
+ * are kept by default. Sparsity is the fraction of all connections, including kept bias connections, so
+ * that it matches the sparsity in the report, and is limited by the number of connections that may be pruned. After pruning, the network can be fine tuned for a number of epochs with its own
+ * learning rule, which only trains the remaining connections.
+ *
+ * The pruned network is compiled, and layers which lost connections are stored in compressed sparse row
+ * format and executed with index based sparse kernels (see CompiledLayer). If test set is given, the report
+ * contains the error, accuracy and inference time per pattern before and after pruning.
+ * </pre>
+ *
+ * @see PruningReport
+ */
+public class MagnitudePruning {
+
+    /**
+     * Connections with absolute weight below this value are removed, when target sparsity is not set
+     */
+    private double threshold = 0;
+
+    /**
+     * Fraction of connections to remove, or -1 to use threshold
+     */
+    private double targetSparsity = -1;
+
+    /**
+     * True to apply threshold or target sparsity to each layer separately
+     */
+    private boolean perLayer = false;
+
+    /**
+     * True to prune connections from bias neurons too
+     */
+    private boolean pruneBiasConnections = false;
+
+    /**
+     * Number of fine tuning epochs after pruning
+     */
+    private int fineTuneEpochs = 0;
+
+    /**
+     * Number of passes over test set when inference time is measured
+     */
+    private int timingRepeats = 10;
+
+    /**
+     * Creates new magnitude pruning which removes connections with absolute weight below the specified threshold
+     *
+     * @param threshold weight magnitude threshold
+     */
+    public MagnitudePruning(double threshold) {
+        setThreshold(threshold);
+    }
+
+    /**
+     * Creates new magnitude pruning which removes the specified fraction of connections with smallest weights
+     *
+     * @param targetSparsity fraction of connections to remove, in range [0, 1]
+     * @return magnitude pruning for the target sparsity
+     */
+    public static MagnitudePruning withTargetSparsity(double targetSparsity) {
+        MagnitudePruning pruning = new MagnitudePruning(0);
+        pruning.setTargetSparsity(targetSparsity);
+        return pruning;
+    }
+
+    /**
+     * Prunes the specified network without fine tuning and evaluation
+     *
+     * @param network network to prune
+     * @return pruning report
+     */
+    public PruningReport prune(NeuralNetwork network) {
+        return prune(network, null, null);
+    }
+
+    /**
+     * Prunes the specified network, fine tunes it on training set (if fine tune epochs are set)
+     * and evaluates it on test set before and after pruning
+     *
+     * @param network     network to prune
+     * @param trainingSet training set for fine tuning, may be null if fine tune epochs is 0
+     * @param testSet     test set for evaluation, or null to skip evaluation
+     * @return pruning report
+     */
+    public PruningReport prune(NeuralNetwork network, DataSet trainingSet, DataSet testSet) {
+        if (fineTuneEpochs > 0 && trainingSet == null) {
+            throw new IllegalArgumentException("Training set is required for fine tuning!");
+        }
+
+        double[] before = evaluate(network, testSet);
+
+        Layer[] layers = network.getLayers();
+        int[] layerConnections = new int[layers.length];
+        int[] layerRemoved = new int[layers.length];
+        List<List<Connection>> candidates = new ArrayList<>();
+        for (int l = 0; l < layers.length; l++) {
+            List<Connection> layerCandidates = new ArrayList<>();
+            for (Neuron neuron : layers[l].getNeurons()) {
+                Connection[] connections = neuron.getInputConnections();
+                int count = neuron.getInputConnectionsCount();
+                layerConnections[l] += count;
+                for (int i = 0; i < count; i++) {
+                    if (pruneBiasConnections || !(connections[i].getFromNeuron() instanceof BiasNeuron)) {
+                        layerCandidates.add(connections[i]);
+                    }
+                }
+            }
+            candidates.add(layerCandidates);
+        }
+
+        Set<Connection> removed = Collections.newSetFromMap(new IdentityHashMap<Connection, Boolean>());
+        if (perLayer) {
+            for (int l = 0; l < layers.length; l++) {
+                select(candidates.get(l), layerConnections[l], removed);
+            }
+        } else {
+            List<Connection> all = new ArrayList<>();
+            int connectionsCount = 0;
+            for (int l = 0; l < layers.length; l++) {
+                all.addAll(candidates.get(l));
+                connectionsCount += layerConnections[l];
+            }
+            select(all, connectionsCount, removed);
+        }
+
+        for (int l = 0; l < layers.length; l++) {
+            for (Connection connection : candidates.get(l)) {
+                if (removed.contains(connection)) {
+                    layerRemoved[l]++;
+                }
+            }
+        }
+
+        if (!removed.isEmpty()) {
+            for (Layer layer : layers) {
+                for (Neuron neuron : layer.getNeurons()) {
+                    neuron.removeConnections(removed);
+                }
+            }
+        }
+
+        if (fineTuneEpochs > 0) {
+            LearningRule learningRule = network.getLearningRule();
+            if (!(learningRule instanceof IterativeLearning)) {
+                throw new NeurophException("Fine tuning requires iterative learning rule!");
+            }
+            ((IterativeLearning) learningRule).learn(trainingSet, fineTuneEpochs);
+        }
+
+        double[] after = evaluate(network, testSet);
+
+        CompiledNetwork compiledNetwork = null;
+        try {
+            compiledNetwork = network.compile();
+        } catch (NeurophException ex) {
+            // network can still be used through the object graph, which only iterates the remaining connections
+        }
+
+        return new PruningReport(layerConnections, layerRemoved, before, after, compiledNetwork);
+    }
+
+    /**
+     * Adds connections to prune from the given candidates to removed set. Target sparsity is applied
+     * to connections count, which includes connections that are not candidates (bias connections).
+     */
+    private void select(List<Connection> candidates, int connectionsCount, Set<Connection> removed) {
+        if (targetSparsity < 0) {
+            for (Connection connection : candidates) {
+                if (Math.abs(connection.getWeight().value) < threshold) {
+                    removed.add(connection);
+                }
+            }
+            return;
+        }
+
+        int count = Math.min((int) Math.round(targetSparsity * connectionsCount), candidates.size());
+        if (count == 0) {
+            return;
+        }
+        double[] magnitudes = new double[candidates.size()];
+        for (int i = 0; i < magnitudes.length; i++) {
+            magnitudes[i] = Math.abs(candidates.get(i).getWeight().value);
+        }
+        double[] sorted = magnitudes.clone();
+        Arrays.sort(sorted);
+        double cutoff = sorted[count - 1];
+
+        // remove all connections below cutoff, and as many connections at cutoff as needed to reach the count
+        int atCutoff = count;
+        for (double magnitude : sorted) {
+            if (magnitude < cutoff) {
+                atCutoff--;
+            }
+        }
+        for (int i = 0; i < magnitudes.length; i++) {
+            if (magnitudes[i] < cutoff) {
+                removed.add(candidates.get(i));
+            } else if (magnitudes[i] == cutoff && atCutoff > 0) {
+                removed.add(candidates.get(i));
+                atCutoff--;
+            }
+        }
+    }
+
+    /**
+     * Returns mean squared error, accuracy and inference time per pattern in nanoseconds for the test set,
+     * or null if test set is not specified
+     */
+    private double[] evaluate(NeuralNetwork network, DataSet testSet) {
+        if (testSet == null || testSet.isEmpty()) {
+            return null;
+        }
+
+        double[][] outputs;
+        long start;
+        long time;
+        try {
+            CompiledNetwork compiledNetwork = network.compile();
+            outputs = compiledNetwork.calculateBatch(testSet);
+            start = System.nanoTime();
+            for (int i = 0; i < timingRepeats; i++) {
+                compiledNetwork.calculateBatch(testSet);
+            }
+            time = System.nanoTime() - start;
+        } catch (NeurophException ex) {
+            outputs = new double[testSet.size()][];
+            for (int r = 0; r < outputs.length; r++) {
+                network.setInput(testSet.getRowAt(r).getInput());
+                network.calculate();
+                outputs[r] = network.getOutput().clone();
+            }
+            start = System.nanoTime();
+            for (int i = 0; i < timingRepeats; i++) {
+                for (DataSetRow row : testSet.getRows()) {
+                    network.setInput(row.getInput());
+                    network.calculate();
+                }
+            }
+            time = System.nanoTime() - start;
+        }
+
+        double squaredError = 0;
+        int correct = 0;
+        int valuesCount = 0;
+        for (int r = 0; r < outputs.length; r++) {
+            double[] desired = testSet.getRowAt(r).getDesiredOutput();
+            double[] actual = outputs[r];
+            for (int i = 0; i < desired.length; i++) {
+                double error = desired[i] - actual[i];
+                squaredError += error * error;
+            }
+            valuesCount += desired.length;
+            if (desired.length == 1 ? Math.abs(desired[0] - actual[0]) < 0.5 : maxIndex(desired) == maxIndex(actual)) {
+                correct++;
+            }
+        }
+
+        return new double[]{
+                squaredError / valuesCount,
+                (double) correct / outputs.length,
+                (double) time / timingRepeats / outputs.length
+        };
+    }
+
+    private static int maxIndex(double[] values) {
+        int maxIndex = 0;
+        for (int i = 1; i < values.length; i++) {
+            if (values[i] > values[maxIndex]) {
+                maxIndex = i;
+            }
+        }
+        return maxIndex;
+    }
+
+    public double getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * Sets weight magnitude threshold, and clears target sparsity
+     *
+     * @param threshold weight magnitude threshold
+     */
+    public void setThreshold(double threshold) {
+        if (threshold < 0) {
+            throw new IllegalArgumentException("Threshold must be non negative!");
+        }
+        this.threshold = threshold;
+        this.targetSparsity = -1;
+    }
+
+    public double getTargetSparsity() {
+        return targetSparsity;
+    }
+
+    /**
+     * Sets fraction of connections to remove, which is used instead of threshold. If bias connections
+     * are kept, at most the fraction of non bias connections is removed.
+     *
+     * @param targetSparsity fraction of connections to remove, in range [0, 1]
+     */
+    public void setTargetSparsity(double targetSparsity) {
+        if (targetSparsity < 0 || targetSparsity > 1) {
+            throw new IllegalArgumentException("Target sparsity must be in range [0, 1]!");
+        }
+        this.targetSparsity = targetSparsity;
+    }
+
+    public boolean isPerLayer() {
+        return perLayer;
+    }
+
+    /**
+     * Sets if threshold or target sparsity are applied to each layer separately, or to the whole network
+     *
+     * @param perLayer true to prune each layer separately
+     */
+    public void setPerLayer(boolean perLayer) {
+        this.perLayer = perLayer;
+    }
+
+    public boolean isPruneBiasConnections() {
+        return pruneBiasConnections;
+    }
+
+    public void setPruneBiasConnections(boolean pruneBiasConnections) {
+        this.pruneBiasConnections = pruneBiasConnections;
+    }
+
+    public int getFineTuneEpochs() {
+        return fineTuneEpochs;
+    }
+
+    /**
+     * Sets number of fine tuning epochs after pruning. Fine tuning uses network learning rule,
+     * which must be IterativeLearning, and sets its max iterations.
+     *
+     * @param fineTuneEpochs number of fine tuning epochs
+     */
+    public void setFineTuneEpochs(int fineTuneEpochs) {
+        this.fineTuneEpochs = fineTuneEpochs;
+    }
+
+    public int getTimingRepeats() {
+        return timingRepeats;
+    }
+
+    public void setTimingRepeats(int timingRepeats) {
+        this.timingRepeats = Math.max(1, timingRepeats);
+    }
+}
@@ -0,0 +1,172 @@
+/**
+ * Copyright 2010 Neuroph Project http://neuroph.sourceforge.net
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.hardcodes.neuroid.util.pruning;
+
+import net.hardcodes.neuroid.core.compiled.CompiledNetwork;
+
+/**
+ * Result of network pruning: number of removed connections for each layer, and test set error,
+ * accuracy and inference time per pattern before and after pruning, if test set was given.
+ *
+ * @see MagnitudePruning
+ */
+public class PruningReport {
+
+    private final int[] layerConnections;
+    private final int[] layerRemoved;
+    private final double[] before;
+    private final double[] after;
+    private final CompiledNetwork compiledNetwork;
+
+    PruningReport(int[] layerConnections, int[] layerRemoved, double[] before, double[] after, CompiledNetwork compiledNetwork) {
+        this.layerConnections = layerConnections;
+        this.layerRemoved = layerRemoved;
+        this.before = before;
+        this.after = after;
+        this.compiledNetwork = compiledNetwork;
+    }
+
+    /**
+     * Returns number of connections before pruning
+     *
+     * @return number of connections before pruning
+     */
+    public int getConnectionsBefore() {
+        int count = 0;
+        for (int layerCount : layerConnections) {
+            count += layerCount;
+        }
+        return count;
+    }
+
+    /**
+     * Returns number of removed connections
+     *
+     * @return number of removed connections
+     */
+    public int getRemovedConnections() {
+        int count = 0;
+        for (int layerCount : layerRemoved) {
+            count += layerCount;
+        }
+        return count;
+    }
+
+    /**
+     * Returns fraction of removed connections in the whole network
+     *
+     * @return network sparsity
+     */
+    public double getSparsity() {
+        int connections = getConnectionsBefore();
+        return connections == 0 ? 0 : (double) getRemovedConnections() / connections;
+    }
+
+    /**
+     * Returns fraction of removed input connections of the specified layer
+     *
+     * @param layerIndex layer index
+     * @return layer sparsity
+     */
+    public double getLayerSparsity(int layerIndex) {
+        return layerConnections[layerIndex] == 0 ? 0 : (double) layerRemoved[layerIndex] / layerConnections[layerIndex];
+    }
+
+    /**
+     * Returns true if network was evaluated on test set
+     *
+     * @return true if test set results are available
+     */
+    public boolean isEvaluated() {
+        return before != null;
+    }
+
+    public double getErrorBefore() {
+        return value(before, 0);
+    }
+
+    public double getErrorAfter() {
+        return value(after, 0);
+    }
+
+    public double getAccuracyBefore() {
+        return value(before, 1);
+    }
+
+    public double getAccuracyAfter() {
+        return value(after, 1);
+    }
+
+    /**
+     * Returns change of test set accuracy caused by pruning (and fine tuning)
+     *
+     * @return accuracy after pruning minus accuracy before pruning
+     */
+    public double getAccuracyDelta() {
+        return getAccuracyAfter() - getAccuracyBefore();
+    }
+
+    public double getNanosPerPatternBefore() {
+        return value(before, 2);
+    }
+
+    public double getNanosPerPatternAfter() {
+        return value(after, 2);
+    }
+
+    /**
+     * Returns inference speedup: time per pattern before pruning divided by time per pattern after pruning
+     *
+     * @return inference speedup
+     */
+    public double getSpeedup() {
+        return getNanosPerPatternAfter() == 0 ? Double.NaN : getNanosPerPatternBefore() / getNanosPerPatternAfter();
+    }
+
+    /**
+     * Returns network compiled after pruning, or null if network type can not be compiled
+     *
+     * @return compiled pruned network
+     */
+    public CompiledNetwork getCompiledNetwork() {
+        return compiledNetwork;
+    }
+
+    private static double value(double[] results, int index) {
+        return results == null ? Double.NaN : results[index];
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Removed ").append(getRemovedConnections()).append(" of ").append(getConnectionsBefore())
+                .append(" connections, sparsity ").append(getSparsity()).append('\n');
+        for (int l = 0; l < layerConnections.length; l++) {
+            if (layerConnections[l] > 0) {
+                sb.append("Layer ").append(l).append(" sparsity ").append(getLayerSparsity(l)).append('\n');
+            }
+        }
+        if (isEvaluated()) {
+            sb.append("Error ").append(getErrorBefore()).append(" -> ").append(getErrorAfter()).append('\n');
+            sb.append("Accuracy ").append(getAccuracyBefore()).append(" -> ").append(getAccuracyAfter())
+                    .append(" (delta ").append(getAccuracyDelta()).append(")\n");
+            sb.append("Inference ").append(getNanosPerPatternBefore()).append(" -> ").append(getNanosPerPatternAfter())
+                    .append(" ns per pattern (speedup ").append(getSpeedup()).append(")\n");
+        }
+        return sb.toString();
+    }
+}
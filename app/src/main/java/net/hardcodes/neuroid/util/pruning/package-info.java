@@ -0,0 +1,4 @@
+/**
+ * Provides network pruning techniques
+ */
+package net.hardcodes.neuroid.util.pruning;